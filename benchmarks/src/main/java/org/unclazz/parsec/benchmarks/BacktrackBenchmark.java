@@ -0,0 +1,80 @@
+package org.unclazz.parsec.benchmarks;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.unclazz.parsec.CharClass;
+import org.unclazz.parsec.Parser;
+import org.unclazz.parsec.Parsers;
+import org.unclazz.parsec.TextReader;
+
+/**
+ * 同じ言語を受理するバックトラックの多い文法とLL(1)の文法の所要時間を比較します。
+ * <p>入力は{@code let name = 123;}と{@code let name;}の2種類の文が交互に現れるものです。
+ * バックトラックの多い文法は前者の選択肢を先に試すため、後者の文では識別子まで読んだところで失敗して先頭に戻ります。
+ * LL(1)の文法は共通の接頭辞をくくり出しているため、戻ることがありません。</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BacktrackBenchmark {
+	private static final Parser IDENT = Parsers.charsWhileIn(CharClass.alphabetic(), 1);
+	private static final Parser NUMBER = Parsers.charsWhileIn(CharClass.numeric(), 1);
+	private static final Parser LET = Parsers.keyword("let").then(Parsers.space(1)).then(IDENT).then(Parsers.space());
+	private static final Parser BACKTRACKING = LET.then(Parsers.exact('=')).then(Parsers.space()).then(NUMBER)
+			.then(Parsers.exact(';')).or(LET.then(Parsers.exact(';')))
+			.then(Parsers.space()).rep().then(Parsers.eof());
+	private static final Parser LL1 = LET.then(Parsers.exact('=').then(Parsers.space()).then(NUMBER).opt())
+			.then(Parsers.exact(';'))
+			.then(Parsers.space()).rep().then(Parsers.eof());
+
+	private static final String[] NAMES = { "alpha", "bravo", "charlie" };
+
+	@Param({ "1KB", "1MB" })
+	public String size;
+
+	private String _input;
+
+	@Setup
+	public void setup() throws IOException {
+		final Random random = new Random(1);
+		final StringBuilder buff = new StringBuilder();
+		final int size = Inputs.size(this.size);
+		for (int i = 0; buff.length() < size; i ++) {
+			buff.append("let ").append(NAMES[i % NAMES.length]);
+			if (i % 2 == 0) buff.append(" = ").append(random.nextInt(100000));
+			buff.append(";\n");
+		}
+		_input = buff.toString();
+		if (!backtracking() || !ll1() || !backtrackingMemoized()) throw new IllegalStateException("invalid input.");
+	}
+
+	@Benchmark
+	public boolean backtracking() {
+		return BACKTRACKING.parse(_input).isSuccessful();
+	}
+	@Benchmark
+	public boolean backtrackingMemoized() throws IOException {
+		return BACKTRACKING.parse(TextReader.from(_input).toContext().configure(c -> c.setMemoization(true)))
+				.isSuccessful();
+	}
+	@Benchmark
+	public boolean ll1() {
+		return LL1.parse(_input).isSuccessful();
+	}
+}
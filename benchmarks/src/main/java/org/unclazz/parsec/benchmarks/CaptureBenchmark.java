@@ -0,0 +1,57 @@
+package org.unclazz.parsec.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.unclazz.parsec.Parser;
+import org.unclazz.parsec.ValParser;
+
+/**
+ * 同じ入力に対して値を構築するパースと検証だけを行うパースの所要時間を比較します。
+ * <p>2つの差が値の構築（文字列の切り出し・リストやタプルの生成・マッピング関数の呼び出し）のコストです。</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CaptureBenchmark {
+	@Param({ "json", "csv", "math" })
+	public String grammar;
+	@Param({ "1MB" })
+	public String size;
+
+	private String _input;
+	private ValParser<?> _capturing;
+	private Parser _recognizing;
+
+	@Setup
+	public void setup() {
+		_input = Inputs.generate(grammar, Inputs.size(size));
+		_capturing = Grammars.capturing(grammar);
+		_recognizing = Grammars.recognizing(grammar);
+		if (!_capturing.parse(_input).isSuccessful() || !_recognizing.parse(_input).isSuccessful()) {
+			throw new IllegalStateException("invalid input.");
+		}
+	}
+
+	@Benchmark
+	public Object capture() {
+		return _capturing.parse(_input).value();
+	}
+	@Benchmark
+	public boolean recognize() {
+		return _recognizing.parse(_input).isSuccessful();
+	}
+}
@@ -0,0 +1,77 @@
+package org.unclazz.parsec.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.unclazz.parsec.CharClass;
+import org.unclazz.parsec.Parser;
+import org.unclazz.parsec.Parsers;
+import org.unclazz.parsec.ValParser;
+
+/**
+ * 個々のパーサーの所要時間を測定します。
+ * <p>{@code keywordIn}はJavaの予約語のいずれかにマッチするパーサー、
+ * {@code repeatReduce}は繰返しの結果を畳み込むパーサー、
+ * {@code charsWhileIn}は文字クラスに含まれる文字の並びを読み取るパーサーの測定です。</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CombinatorBenchmark {
+	// 他のキーワードの接頭辞となるもの（do, final, int, throw）は除く
+	private static final String[] KEYWORDS = { "abstract", "assert", "boolean", "break", "byte", "case",
+			"catch", "char", "class", "const", "continue", "default", "double", "else", "enum",
+			"extends", "finally", "float", "for", "goto", "if", "implements", "import",
+			"instanceof", "interface", "long", "native", "new", "package", "private", "protected",
+			"public", "return", "short", "static", "strictfp", "super", "switch", "synchronized", "this",
+			"throws", "transient", "try", "void", "volatile", "while" };
+	private static final Parser KEYWORD_IN = Parsers.keywordIn(KEYWORDS).then(Parsers.space()).rep()
+			.then(Parsers.eof());
+	private static final ValParser<Integer> REPEAT_REDUCE = Parsers.charsWhileIn(CharClass.alphabetic(), 1).val()
+			.then(Parsers.space()).rep().reduce(() -> 0, (a, b) -> a + b.length())
+			.then(Parsers.eof());
+	private static final Parser CHARS_WHILE_IN = Parsers.charsWhileIn(CharClass.alphabetic())
+			.then(Parsers.eof());
+
+	@Param({ "64KB" })
+	public String size;
+
+	private String _keywords;
+	private String _words;
+	private String _letters;
+
+	@Setup
+	public void setup() {
+		final int size = Inputs.size(this.size);
+		_keywords = Inputs.words(KEYWORDS, size);
+		_words = Inputs.words(new String[] { "lorem", "ipsum", "dolor", "sit", "amet" }, size);
+		_letters = _words.replace(" ", "");
+		if (!keywordIn() || repeatReduce() == null || !charsWhileIn()) throw new IllegalStateException("invalid input.");
+	}
+
+	@Benchmark
+	public boolean keywordIn() {
+		return KEYWORD_IN.parse(_keywords).isSuccessful();
+	}
+	@Benchmark
+	public Integer repeatReduce() {
+		return REPEAT_REDUCE.parse(_words).value();
+	}
+	@Benchmark
+	public boolean charsWhileIn() {
+		return CHARS_WHILE_IN.parse(_letters).isSuccessful();
+	}
+}
@@ -0,0 +1,88 @@
+package org.unclazz.parsec.benchmarks;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.unclazz.parsec.CharClass;
+import org.unclazz.parsec.Parser;
+import org.unclazz.parsec.Parsers;
+
+/**
+ * 失敗の多い文法について{@link Parser#compile()}の前後の所要時間を比較します。
+ * <p>入力は{@code let name = 123;}のような文の並びで、文法は4つの選択肢を順に試します。
+ * ほとんどの文は最後の選択肢で成功するため、1つの文ごとに3回の失敗とバックトラックが発生します。
+ * {@code *Invalid}は入力の末尾に誤った文を加えたもので、パース全体の失敗を報告するまでの所要時間を測定します。</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompiledBenchmark {
+	private static final Parser IDENT = Parsers.charsWhileIn(CharClass.alphabetic(), 1);
+	private static final Parser NUMBER = Parsers.charsWhileIn(CharClass.numeric(), 1);
+	private static final Parser STATEMENT = Parsers.choice(
+			Parsers.keyword("var").then(Parsers.space(1)).then(IDENT).then(Parsers.exact(';')),
+			Parsers.keyword("let").then(Parsers.space(1)).then(IDENT).then(Parsers.space())
+			.then(Parsers.exact(':')).then(Parsers.space()).then(IDENT).then(Parsers.exact(';')),
+			Parsers.keyword("let").then(Parsers.space(1)).then(IDENT).then(Parsers.space())
+			.then(Parsers.exact('<')).then(Parsers.exact('-')).then(Parsers.space()).then(NUMBER).then(Parsers.exact(';')),
+			Parsers.keyword("let").then(Parsers.space(1)).then(IDENT).then(Parsers.space())
+			.then(Parsers.exact('=')).then(Parsers.space()).then(NUMBER).then(Parsers.exact(';')));
+	private static final Parser INTERPRETED = STATEMENT.then(Parsers.space()).rep().then(Parsers.eof());
+	private static final Parser COMPILED = INTERPRETED.compile();
+
+	private static final String[] NAMES = { "alpha", "bravo", "charlie" };
+
+	@Param({ "1KB", "1MB" })
+	public String size;
+
+	private String _input;
+	private String _invalidInput;
+
+	@Setup
+	public void setup() throws IOException {
+		final Random random = new Random(1);
+		final StringBuilder buff = new StringBuilder();
+		final int size = Inputs.size(this.size);
+		for (int i = 0; buff.length() < size; i ++) {
+			buff.append("let ").append(NAMES[i % NAMES.length])
+			.append(" = ").append(random.nextInt(100000)).append(";\n");
+		}
+		_input = buff.toString();
+		_invalidInput = buff.append("let delta = ;\n").toString();
+		if (!interpreted() || !compiled() || interpretedInvalid() || compiledInvalid()) {
+			throw new IllegalStateException("invalid input.");
+		}
+	}
+
+	@Benchmark
+	public boolean interpreted() {
+		return INTERPRETED.parse(_input).isSuccessful();
+	}
+	@Benchmark
+	public boolean compiled() {
+		return COMPILED.parse(_input).isSuccessful();
+	}
+	@Benchmark
+	public boolean interpretedInvalid() {
+		return INTERPRETED.parse(_invalidInput).isSuccessful();
+	}
+	@Benchmark
+	public boolean compiledInvalid() {
+		return COMPILED.parse(_invalidInput).isSuccessful();
+	}
+}
@@ -0,0 +1,178 @@
+package org.unclazz.parsec.benchmarks;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.unclazz.parsec.CharClass;
+import org.unclazz.parsec.Mappers;
+import org.unclazz.parsec.Parser;
+import org.unclazz.parsec.Parsers;
+import org.unclazz.parsec.ValParser;
+import org.unclazz.parsec.util.Tuple2;
+
+/**
+ * ベンチマークで使用する文法です。
+ * <p>JSON・CSV・四則演算の文法はテストコードのサンプル（{@code org.unclazz.parsec.sample}パッケージ）と同じ構造で、
+ * それぞれ値を構築するもの（capturing）と入力を検証するだけのもの（recognizing）の2種類を提供します。</p>
+ */
+public final class Grammars {
+	private Grammars() {}
+
+	/**
+	 * JSONの{@code null}を表す値です。
+	 */
+	public static final Object JSON_NULL = new Object();
+
+	// JSON
+	private static final Parser SIGN_OPT = Parsers.charIn("+-").opt();
+	private static final Parser DIGITS = Parsers.charsWhileIn(CharClass.numeric(), 1);
+	private static final Parser NUMBER = SIGN_OPT
+			.then(Parsers.exact('0').or(Parsers.charBetween('1', '9').then(DIGITS.opt())))
+			.then(Parsers.exact('.').then(DIGITS).opt())
+			.then(Parsers.charIn("Ee").then(SIGN_OPT).then(DIGITS).opt());
+	private static final Parser ESCAPE = Parsers.exact('\\').then(Parsers.charIn("\"/\\bfnrt")
+			.or(Parsers.exact('u').then(Parsers.charIn(CharClass.hexDigit()).rep(4))));
+	private static final Parser STRING_CHARS = Parsers.charNotIn("\"\\").or(ESCAPE).rep();
+	private static final Parser STRING = Parsers.exact('"').cut().then(STRING_CHARS).then(Parsers.exact('"'));
+	private static final ValParser<String> STRING_VALUE = Parsers.exact('"').cut()
+			.then(STRING_CHARS.val()).then(Parsers.exact('"')).map(Mappers::jsonString);
+
+	private static final Parser JSON_EXP = Parsers.space().then(Parsers.choice(
+			Parsers.exact('{').cut()
+			.then(Parsers.space().then(STRING).then(Parsers.space()).then(Parsers.exact(':'))
+					.then(Parsers.lazy(() -> Grammars.JSON_EXP)).rep(Parsers.exact(',')))
+			.then(Parsers.space()).then(Parsers.exact('}')),
+			Parsers.exact('[').cut()
+			.then(Parsers.lazy(() -> Grammars.JSON_EXP).rep(Parsers.exact(',')))
+			.then(Parsers.space()).then(Parsers.exact(']')),
+			STRING,
+			Parsers.keywordIn("true", "false", "null"),
+			NUMBER)).then(Parsers.space());
+	private static final ValParser<Object> JSON_VALUE_EXP = Parsers.space().then(Parsers.choice(
+			Parsers.exact('{').cut()
+			.then(Parsers.space().then(STRING_VALUE).then(Parsers.space()).then(Parsers.exact(':'))
+					.then(Parsers.lazy(() -> Grammars.JSON_VALUE_EXP)).rep(Parsers.exact(','))
+					.reduce(LinkedHashMap<String, Object>::new, Grammars::put, Grammars::object))
+			.then(Parsers.space()).then(Parsers.exact('}')),
+			Parsers.exact('[').cut()
+			.then(Parsers.lazy(() -> Grammars.JSON_VALUE_EXP).rep(Parsers.exact(',')).map(Grammars::array))
+			.then(Parsers.space()).then(Parsers.exact(']')),
+			STRING_VALUE.map(Grammars::object),
+			Parsers.keyword("true").means(Grammars.object(Boolean.TRUE)),
+			Parsers.keyword("false").means(Grammars.object(Boolean.FALSE)),
+			Parsers.keyword("null").means(JSON_NULL),
+			NUMBER.map(Grammars::number))).then(Parsers.space());
+
+	/**
+	 * JSONを検証する文法です。
+	 */
+	public static final Parser JSON_RECOGNIZER = JSON_EXP.then(Parsers.eof());
+	/**
+	 * JSONを{@link Map}・{@link List}・{@link String}・{@link Double}・{@link Boolean}の値として読み取る文法です。
+	 */
+	public static final ValParser<Object> JSON = JSON_VALUE_EXP.then(Parsers.eof());
+
+	// CSV
+	private static final Parser QUOTE = Parsers.exact('"');
+	private static final Parser CRLF = Parsers.keyword("\r\n").or(Parsers.exact('\n')).or(Parsers.exact('\r'));
+	private static final Parser QUOTED_CHARS = Parsers.except('"').or(QUOTE.then(QUOTE)).rep();
+	private static final Parser CELL = QUOTE.cut().then(QUOTED_CHARS).then(QUOTE)
+			.or(Parsers.charsWhileNotIn("\",\r\n"));
+	private static final ValParser<String> CELL_VALUE = QUOTE.cut().then(QUOTED_CHARS.map(Grammars::unquote))
+			.then(QUOTE).or(Parsers.charsWhileNotIn("\",\r\n").val());
+
+	/**
+	 * CSVを検証する文法です。
+	 */
+	public static final Parser CSV_RECOGNIZER = CELL.repMin(1, Parsers.exact(',')).rep(CRLF)
+			.then(Parsers.space()).then(Parsers.eof());
+	/**
+	 * CSVを行と列のリストとして読み取る文法です。
+	 */
+	public static final ValParser<List<List<String>>> CSV = CELL_VALUE.repMin(1, Parsers.exact(',')).rep(CRLF)
+			.then(Parsers.space()).then(Parsers.eof());
+
+	// 四則演算
+	private static final Parser MATH_ADD_SUB = Parsers.lazy(() -> Grammars.MATH_MUL_DIV)
+			.then(Parsers.charIn("+-").then(Parsers.lazy(() -> Grammars.MATH_MUL_DIV)).rep());
+	private static final Parser MATH_FACTOR = Parsers.charsWhileIn(CharClass.numeric(), 1)
+			.or(Parsers.exact('(').cut().then(Parsers.lazy(() -> Grammars.MATH_ADD_SUB)).then(Parsers.exact(')')));
+	private static final Parser MATH_MUL_DIV = MATH_FACTOR
+			.then(Parsers.charIn("*/").then(MATH_FACTOR).rep());
+	private static final ValParser<Integer> MATH_VALUE_ADD_SUB = Parsers.lazy(() -> Grammars.MATH_VALUE_MUL_DIV)
+			.then(Parsers.charIn("+-").val().then(Parsers.lazy(() -> Grammars.MATH_VALUE_MUL_DIV)).rep())
+			.map(Grammars::calculate);
+	private static final ValParser<Integer> MATH_VALUE_FACTOR = Parsers.charsWhileIn(CharClass.numeric(), 1)
+			.map(Mappers::digits)
+			.or(Parsers.exact('(').cut().then(Parsers.lazy(() -> Grammars.MATH_VALUE_ADD_SUB)).then(Parsers.exact(')')));
+	private static final ValParser<Integer> MATH_VALUE_MUL_DIV = MATH_VALUE_FACTOR
+			.then(Parsers.charIn("*/").val().then(MATH_VALUE_FACTOR).rep())
+			.map(Grammars::calculate);
+
+	/**
+	 * 四則演算の式を検証する文法です。
+	 */
+	public static final Parser MATH_RECOGNIZER = MATH_ADD_SUB.then(Parsers.eof());
+	/**
+	 * 四則演算の式を計算する文法です。
+	 */
+	public static final ValParser<Integer> MATH = MATH_VALUE_ADD_SUB.then(Parsers.eof());
+
+	/**
+	 * 名前に対応する値を構築する文法を返します。
+	 * @param name 名前（{@code "json"}、{@code "csv"}または{@code "math"}）
+	 * @return 文法
+	 */
+	public static ValParser<?> capturing(String name) {
+		switch (name) {
+		case "json": return JSON;
+		case "csv": return CSV;
+		case "math": return MATH;
+		default: throw new IllegalArgumentException("unknown grammar: " + name);
+		}
+	}
+	/**
+	 * 名前に対応する検証だけを行う文法を返します。
+	 * @param name 名前（{@code "json"}、{@code "csv"}または{@code "math"}）
+	 * @return 文法
+	 */
+	public static Parser recognizing(String name) {
+		switch (name) {
+		case "json": return JSON_RECOGNIZER;
+		case "csv": return CSV_RECOGNIZER;
+		case "math": return MATH_RECOGNIZER;
+		default: throw new IllegalArgumentException("unknown grammar: " + name);
+		}
+	}
+
+	private static Object object(Object value) {
+		return value;
+	}
+	private static Object number(String value) {
+		return Double.valueOf(value);
+	}
+	private static Object array(List<Object> values) {
+		return new ArrayList<>(values);
+	}
+	private static LinkedHashMap<String, Object> put(LinkedHashMap<String, Object> map, Tuple2<String, Object> pair) {
+		map.put(pair.item1(), pair.item2());
+		return map;
+	}
+	private static String unquote(String value) {
+		return value.indexOf('"') == -1 ? value : value.replace("\"\"", "\"");
+	}
+	private static Integer calculate(Tuple2<Integer, List<Tuple2<String, Integer>>> expr) {
+		int tmp = expr.item1();
+		for (final Tuple2<String, Integer> t : expr.item2()) {
+			switch (t.item1().charAt(0)) {
+			case '*': tmp *= t.item2(); break;
+			case '/': tmp /= t.item2(); break;
+			case '+': tmp += t.item2(); break;
+			default: tmp -= t.item2(); break;
+			}
+		}
+		return tmp;
+	}
+}
@@ -0,0 +1,117 @@
+package org.unclazz.parsec.benchmarks;
+
+import java.util.Random;
+
+/**
+ * ベンチマークの入力データを生成するユーティリティです。
+ * <p>入力は固定のシードから生成されるため、同じ引数に対して常に同じ内容になります。</p>
+ */
+public final class Inputs {
+	private Inputs() {}
+
+	private static final long SEED = 20181018L;
+	private static final String[] WORDS = { "alpha", "bravo", "charlie", "delta", "echo", "foxtrot",
+			"golf", "hotel", "india", "juliett", "kilo", "lima", "mike", "november", "oscar", "papa" };
+
+	/**
+	 * {@code "1KB"}や{@code "100MB"}のようなサイズの表記を文字数に変換します。
+	 * @param size サイズの表記
+	 * @return 文字数
+	 */
+	public static int size(String size) {
+		final String s = size.trim().toUpperCase();
+		if (s.endsWith("MB")) return Integer.parseInt(s.substring(0, s.length() - 2)) << 20;
+		if (s.endsWith("KB")) return Integer.parseInt(s.substring(0, s.length() - 2)) << 10;
+		return Integer.parseInt(s);
+	}
+	/**
+	 * 名前に対応する文法の入力を生成します。
+	 * @param name 名前（{@code "json"}、{@code "csv"}または{@code "math"}）
+	 * @param size おおよその文字数
+	 * @return 入力
+	 */
+	public static String generate(String name, int size) {
+		switch (name) {
+		case "json": return json(size);
+		case "csv": return csv(size);
+		case "math": return math(size);
+		default: throw new IllegalArgumentException("unknown grammar: " + name);
+		}
+	}
+	/**
+	 * オブジェクトの配列からなるJSONを生成します。
+	 * @param size おおよその文字数
+	 * @return JSON
+	 */
+	public static String json(int size) {
+		final Random random = new Random(SEED);
+		final StringBuilder buff = new StringBuilder(size + 256).append("[\n");
+		for (int i = 0; buff.length() < size; i ++) {
+			if (i > 0) buff.append(",\n");
+			buff.append("  {\"id\": ").append(i)
+			.append(", \"name\": \"").append(word(random)).append(' ').append(word(random)).append('"')
+			.append(", \"note\": \"line\\nbreak \\\"quoted\\\" \\u00e9\"")
+			.append(", \"score\": ").append(random.nextInt(10000) / 100.0)
+			.append(", \"ratio\": -").append(random.nextInt(100)).append("e-2")
+			.append(", \"active\": ").append(random.nextBoolean())
+			.append(", \"parent\": null")
+			.append(", \"tags\": [\"").append(word(random)).append("\", \"").append(word(random)).append("\"]}");
+		}
+		return buff.append("\n]\n").toString();
+	}
+	/**
+	 * 引用符で囲まれたセルを含むCSVを生成します。
+	 * @param size おおよその文字数
+	 * @return CSV
+	 */
+	public static String csv(int size) {
+		final Random random = new Random(SEED);
+		final StringBuilder buff = new StringBuilder(size + 256);
+		for (int i = 0; buff.length() < size; i ++) {
+			if (i > 0) buff.append("\r\n");
+			buff.append(i).append(',').append(word(random))
+			.append(",\"").append(word(random)).append(", ").append(word(random)).append('"')
+			.append(",\"say \"\"").append(word(random)).append("\"\"\"")
+			.append(',').append(random.nextInt(100000));
+		}
+		return buff.append("\r\n").toString();
+	}
+	/**
+	 * 括弧を含む四則演算の式を生成します。
+	 * <p>除数は常に正の整数になります。</p>
+	 * @param size おおよその文字数
+	 * @return 式
+	 */
+	public static String math(int size) {
+		final Random random = new Random(SEED);
+		final StringBuilder buff = new StringBuilder(size + 256);
+		buff.append(random.nextInt(99) + 1);
+		while (buff.length() < size) {
+			buff.append("+-*/".charAt(random.nextInt(4)));
+			if (random.nextInt(8) == 0) {
+				buff.append('(').append(random.nextInt(99) + 1).append('+')
+				.append(random.nextInt(99) + 1).append(')');
+			} else {
+				buff.append(random.nextInt(99) + 1);
+			}
+		}
+		return buff.toString();
+	}
+	/**
+	 * 空白で区切られた単語の並びを生成します。
+	 * @param words 単語の候補
+	 * @param size おおよその文字数
+	 * @return 単語の並び
+	 */
+	public static String words(String[] words, int size) {
+		final Random random = new Random(SEED);
+		final StringBuilder buff = new StringBuilder(size + 64);
+		while (buff.length() < size) {
+			buff.append(words[random.nextInt(words.length)]).append(' ');
+		}
+		return buff.toString();
+	}
+	private static String word(Random random) {
+		return WORDS[random.nextInt(WORDS.length)];
+	}
+}
@@ -0,0 +1,104 @@
+package org.unclazz.parsec.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.unclazz.parsec.TextReader;
+
+/**
+ * {@link TextReader}のデータソースごとに、文字の読み取りとCSVの検証の所要時間を測定します。
+ * <p>測定にはリーダーの作成（ファイルのオープンを含む）とクローズのコストも含まれます。</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReaderBenchmark {
+	private static final Charset UTF_8 = StandardCharsets.UTF_8;
+
+	@Param({ "string", "charSequence", "charBuffer", "charArray", "bytes", "byteBuffer",
+		"directByteBuffer", "reader", "inputStream", "file", "path" })
+	public String source;
+	@Param({ "1MB" })
+	public String size;
+
+	private String _text;
+	private StringBuilder _builder;
+	private char[] _chars;
+	private byte[] _bytes;
+	private ByteBuffer _direct;
+	private Path _path;
+
+	@Setup
+	public void setup() throws IOException {
+		_text = Inputs.csv(Inputs.size(size));
+		_builder = new StringBuilder(_text);
+		_chars = _text.toCharArray();
+		_bytes = _text.getBytes(UTF_8);
+		_direct = ByteBuffer.allocateDirect(_bytes.length);
+		_direct.put(_bytes).flip();
+		_path = Files.createTempFile("parsec-benchmark", ".csv");
+		Files.write(_path, _bytes);
+		if (!csv()) throw new IllegalStateException("invalid input.");
+	}
+	@TearDown
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(_path);
+	}
+
+	private TextReader open() throws IOException {
+		switch (source) {
+		case "string": return TextReader.from(_text);
+		case "charSequence": return TextReader.from(_builder);
+		case "charBuffer": return TextReader.from(CharBuffer.wrap(_chars));
+		case "charArray": return TextReader.from(_chars);
+		case "bytes": return TextReader.from(_bytes, UTF_8);
+		case "byteBuffer": return TextReader.from(ByteBuffer.wrap(_bytes), UTF_8);
+		case "directByteBuffer": return TextReader.from(_direct.duplicate(), UTF_8);
+		case "reader": return TextReader.from(new StringReader(_text));
+		case "inputStream": return TextReader.from(new ByteArrayInputStream(_bytes), UTF_8);
+		case "file": return TextReader.from(new File(_path.toString()), UTF_8);
+		case "path": return TextReader.from(_path, UTF_8);
+		default: throw new IllegalArgumentException("unknown source: " + source);
+		}
+	}
+
+	@Benchmark
+	public int read() throws IOException {
+		int sum = 0;
+		try (final TextReader r = open()) {
+			int ch;
+			while ((ch = r.read()) != -1) sum += ch;
+		}
+		return sum;
+	}
+	@Benchmark
+	public boolean csv() throws IOException {
+		try (final TextReader r = open()) {
+			return Grammars.CSV_RECOGNIZER.parse(r).isSuccessful();
+		}
+	}
+}
@@ -0,0 +1,49 @@
+package org.unclazz.parsec.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.unclazz.parsec.ValParser;
+import org.unclazz.parsec.ValResult;
+
+/**
+ * サンプルの文法（JSON・CSV・四則演算）で値を構築するパースの所要時間を入力のサイズごとに測定します。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class SampleGrammarBenchmark {
+	@Param({ "json", "csv", "math" })
+	public String grammar;
+	@Param({ "1KB", "1MB", "100MB" })
+	public String size;
+
+	private String _input;
+	private ValParser<?> _parser;
+
+	@Setup
+	public void setup() {
+		_input = Inputs.generate(grammar, Inputs.size(size));
+		_parser = Grammars.capturing(grammar);
+		final ValResult<?> r = _parser.parse(_input);
+		if (!r.isSuccessful()) throw new IllegalStateException(r.message());
+	}
+
+	@Benchmark
+	public Object parse() {
+		return _parser.parse(_input).value();
+	}
+}
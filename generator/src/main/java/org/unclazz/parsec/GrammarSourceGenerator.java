@@ -0,0 +1,99 @@
+package org.unclazz.parsec;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link CompileGrammar}が付与されたパーサーからビルド時にクラスのソースコードを生成するツールです。
+ * <p>生成されるソースコードは{@link Parser#compile()}が実行時に生成するものと同じで、JDKのクラスだけに依存します。
+ * クラスの名前はソースコードのハッシュ値から決まるため、
+ * 生成したクラスをコンパイルしてアプリケーションのクラスパスに含めておくと、
+ * 実行時の{@link Parser#compile()}はコンパイラーを呼び出すことなくそのクラスを利用します。
+ * 実行時にJDKのコンパイラーが利用できない環境でもコンパイルされたパーサーが利用できるようになります。</p>
+ * <p>パーサーのグラフはフィールドの初期化式を評価しなければ得られないため、
+ * このツールはアノテーション・プロセッサーではなく、アプリケーションのクラスをコンパイルした後に実行します。
+ * 例えばMavenでは{@code process-classes}フェーズで{@code exec-maven-plugin}からこのクラスの{@link #main(String[])}を実行し、
+ * 出力先ディレクトリーをソースディレクトリーとして追加したコンパイラー・プラグインの実行をその後に続けます。</p>
+ * <pre>java org.unclazz.parsec.GrammarSourceGenerator target/generated-sources/parsec com.example.JsonGrammar</pre>
+ * <p>このクラスはライブラリ本体とは別のモジュール（{@code unclazz-parsec-generator}）で提供されます。
+ * 生成したクラスの利用に必要なのはライブラリ本体だけであるため、このモジュールはビルド時のクラスパスにだけ含めます。
+ * ライブラリ本体のパッケージ・プライベートなコンパイラーを利用するため、パッケージはライブラリ本体と同じです。</p>
+ */
+public final class GrammarSourceGenerator {
+	/**
+	 * コマンドラインからツールを実行します。
+	 * <p>1つ目の引数は出力先ディレクトリー、2つ目以降の引数は{@link CompileGrammar}が付与されたフィールドを持つクラスの完全修飾名です。</p>
+	 * @param args 引数
+	 * @throws IOException ソースコードの書き込み中にエラーが発生した場合
+	 * @throws ClassNotFoundException 指定されたクラスが見つからない場合
+	 * @throws IllegalArgumentException 引数の数が不足している場合
+	 */
+	public static void main(String[] args) throws IOException, ClassNotFoundException {
+		ParsecUtility.mustNotBeNull("args", args);
+		if (args.length < 2) {
+			throw new IllegalArgumentException("usage: GrammarSourceGenerator <outputDirectory> <className>...");
+		}
+		final ClassLoader loader = Thread.currentThread().getContextClassLoader();
+		final Class<?>[] classes = new Class<?>[args.length - 1];
+		for (int i = 1; i < args.length; i ++) classes[i - 1] = Class.forName(args[i], true, loader);
+		for (final Path p : generate(Paths.get(args[0]), classes)) System.out.println(p);
+	}
+	/**
+	 * クラスのソースコードを生成します。
+	 * <p>指定されたクラスで宣言された静的フィールドのうち{@link CompileGrammar}が付与されたものが対象となります。
+	 * フィールドの値が{@link Parser#compile()}や{@link Parser#optimize()}の戻り値である場合、
+	 * それらのメソッドのレシーバーとなったパーサーをもとにソースコードが生成されます。</p>
+	 * @param outputDirectory 出力先ディレクトリー
+	 * @param classes フィールドを宣言するクラス
+	 * @return 書き込まれたファイルのパス
+	 * @throws IOException ソースコードの書き込み中にエラーが発生した場合
+	 * @throws IllegalArgumentException アノテーションが付与されたフィールドが静的フィールドでない場合や、
+	 * その値がパーサーでない場合
+	 */
+	public static List<Path> generate(Path outputDirectory, Class<?>... classes) throws IOException {
+		ParsecUtility.mustNotBeNull("outputDirectory", outputDirectory);
+		ParsecUtility.mustNotBeNull("classes", classes);
+		final List<Path> paths = new ArrayList<>();
+		for (final Class<?> c : classes) {
+			for (final Field f : c.getDeclaredFields()) {
+				if (!f.isAnnotationPresent(CompileGrammar.class)) continue;
+				final Map.Entry<String, String> source = GrammarCompiler.source(grammar(f));
+				if (source == null) continue;
+				final Path path = outputDirectory.resolve(source.getKey().replace('.', '/') + ".java");
+				if (paths.contains(path)) continue;
+				Files.createDirectories(path.getParent());
+				Files.write(path, Arrays.asList(source.getValue()), StandardCharsets.UTF_8);
+				paths.add(path);
+			}
+		}
+		return paths;
+	}
+	private static ParserSupport grammar(Field f) {
+		if (!Modifier.isStatic(f.getModifiers())) {
+			throw new IllegalArgumentException(String.format("field %s must be static.", f));
+		}
+		final Object value;
+		try {
+			f.setAccessible(true);
+			value = f.get(null);
+		} catch (final IllegalAccessException e) {
+			throw new IllegalArgumentException(e);
+		}
+		// 実行時にコンパイルや書き換えが行われる前のパーサーを取り出す
+		if (value instanceof OptimizedParser) return ((OptimizedParser) value).original();
+		if (value instanceof OptimizedValParser) return ((OptimizedValParser<?>) value).original();
+		if (value instanceof ParserSupport) return (ParserSupport) value;
+		throw new IllegalArgumentException(String.format("field %s must hold a parser.", f));
+	}
+
+	private GrammarSourceGenerator() {}
+}
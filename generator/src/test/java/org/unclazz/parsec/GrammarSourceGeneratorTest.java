@@ -0,0 +1,81 @@
+package org.unclazz.parsec;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.*;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class GrammarSourceGeneratorTest {
+	// テストごとに作成され、テストの終了時に削除される
+	@Rule
+	public TemporaryFolder temp = new TemporaryFolder();
+
+	static final class Grammar {
+		@CompileGrammar
+		static final Parser number = Parsers.charIn("+-").opt()
+				.then(Parsers.charsWhileIn(CharClass.numeric(), 1)).compile();
+		@CompileGrammar
+		static final ValParser<String> word = Parsers.charsWhileIn(CharClass.alphabetic(), 1).val();
+		static final Parser ignored = Parsers.keyword("ignored");
+	}
+	static final class NonStatic {
+		@CompileGrammar
+		final Parser p = Parsers.keyword("ab");
+	}
+
+	@Test
+	public void testGenerate() throws IOException {
+		final Path dir = temp.getRoot().toPath();
+
+		final List<Path> paths = GrammarSourceGenerator.generate(dir, Grammar.class);
+
+		assertThat(paths.size(), is(2));
+		for (final Path p : paths) {
+			final String name = p.getFileName().toString().replace(".java", "");
+			final String source = new String(Files.readAllBytes(p), StandardCharsets.UTF_8);
+			assertThat(p.startsWith(dir.resolve("org/unclazz/parsec/compiled")), is(true));
+			assertThat(source.contains("public final class " + name + " {"), is(true));
+		}
+	}
+
+	@Test
+	public void testGenerate_sameAsRuntime() throws IOException {
+		// 同じ構造のグラフからは同じクラスが生成される
+		final Path dir = temp.getRoot().toPath();
+		final Parser p = Parsers.charIn("+-").opt().then(Parsers.charsWhileIn(CharClass.numeric(), 1));
+
+		final List<Path> paths = GrammarSourceGenerator.generate(dir, Grammar.class);
+
+		final String className = GrammarCompiler.source(p).getKey();
+		assertThat(paths.get(0).endsWith(className.replace('.', '/') + ".java")
+				|| paths.get(1).endsWith(className.replace('.', '/') + ".java"), is(true));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testGenerate_nonStatic() throws IOException {
+		GrammarSourceGenerator.generate(temp.getRoot().toPath(), NonStatic.class);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMain_missingArguments() throws Exception {
+		GrammarSourceGenerator.main(new String[] { temp.getRoot().getPath() });
+	}
+
+	@Test
+	public void testMain() throws Exception {
+		final Path dir = temp.getRoot().toPath();
+
+		GrammarSourceGenerator.main(new String[] { dir.toString(), Grammar.class.getName() });
+
+		assertThat(Files.isDirectory(dir.resolve("org/unclazz/parsec/compiled")), is(true));
+	}
+}
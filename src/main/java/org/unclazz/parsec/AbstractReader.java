@@ -8,10 +8,11 @@ import java.io.Reader;
  * リーダーを表す抽象クラスです。
  * <p>このクラスは派生型に対して次の機能を提供します：</p>
  * <ul>
- * 	<li>現在の文字位置について行・列・インデクスの3値の参照と更新機能（{@link #position()}）</li>
+ * 	<li>現在の文字位置について行・列・インデクスの3値の参照と更新機能（{@link #position()}）。
+ * 	読み取りの際に更新されるのはインデクスと改行の位置の記録のみで、行・列は参照の際に計算されます</li>
  * 	<li>データソースの終端（EOF）に到達したかどうかのチェックするメソッド（{@link #noRemaining()}・{@link #hasRemaining()}）</li>
  * 	<li>1行分のテキストやデータソースの終端までのテキストの一括読み取り機能（{@link #readLine()}と{@link #readToEnd()}）</li>
- * 	<li>ストリームなどの自動クローズとリソースの解放（{@link #close()}メソッド呼び出し時もしくはファイナライズ時）</li>
+ * 	<li>ストリームなどの自動クローズとリソースの解放（{@link #close()}メソッド呼び出し時）</li>
  * </ul>
  * <p>これらの機能のため派生型は次の抽象メソッドを実装する必要があります：</p>
  * <ul>
@@ -20,17 +21,18 @@ import java.io.Reader;
  * <li>{@link #peek()} - 派生型はこのメソッドを実装することで次に{@link #read()}すべきコンテンツがデータソースに残っているか示します。</li>
  * <li>{@link #closable()} - 派生型はこのメソッドを実装することで自動クローズすべき対象を示します。</li>
  * </ul>
+ * <p>このクラスとその派生型は単一のスレッドから利用されることを前提としており、
+ * 読み取りの際にロックを取得しません。また、ファイナライザーによるリソースの解放も行いません。
+ * ストリームなどをデータソースとするインスタンスは利用後に{@link #close()}を呼び出す必要があります。
+ * 文字列などメモリ上のデータソースをもとにしたインスタンスはクローズを必要としません。</p>
  */
 abstract class AbstractReader extends java.io.Reader implements Closeable, AutoCloseable {
-	@SuppressWarnings("unused")
-	private final Object finalizerGuardian = new Object() {
-        @Override
-        protected void finalize() throws Throwable {
-            final Closeable c = closable();
-            if (c != null) c.close();
-        }
-    };
-	private CharPosition _position = CharPosition.ofBof();
+	private int _index;
+	private LineIndex _lines = new LineIndex();
+	// リセットによる文字位置の後退を通知する先（存在しない場合はnull）
+	private ParseListener _listener;
+	// JFRのイベントとして記録するバッファの拡張の容量の下限
+	private int _bufferGrowthEventThreshold = Context.DEFAULT_BUFFER_GROWTH_EVENT_THRESHOLD;
 	
 	/**
 	 * 自動クローズの対象となるオブジェクトへ参照を返します。
@@ -38,8 +40,9 @@ abstract class AbstractReader extends java.io.Reader implements Closeable, AutoC
 	 */
 	protected abstract Closeable closable();
 	/**
-	 * データソースから1文字を読み取り文字位置を前進させます。
-	 * <p>このメソッドは{@link Reader#read()}の規約に準拠します。</p>
+	 * データソースから現在の文字位置の1文字を読み取ります。
+	 * <p>このメソッドは{@link Reader#read()}の規約に準拠します。
+	 * 文字位置の前進は呼び出し元の{@link #read()}が行うため、派生型は{@link #index()}が指す文字を返すだけで構いません。</p>
 	 * @return 読み取られた文字のコードポイント（EOF到達済みの場合は{@code -1}）
 	 * @throws IOException 読み取り中に例外がスローされた場合
 	 */
@@ -52,19 +55,85 @@ abstract class AbstractReader extends java.io.Reader implements Closeable, AutoC
 	public abstract int peek();
 	
 	/**
-	 * 新しい文字位置を設定します。
-	 * @param position 文字位置
+	 * 現在の文字位置のインデックスを返します。
+	 * @return インデックス
 	 */
-	protected final void position(CharPosition position) {
-		ParsecUtility.mustNotBeNull("position", position);
-		_position = position;
+	final int index() {
+		return _index;
+	}
+	/**
+	 * 新しい文字位置のインデックスを設定します。
+	 * <p>リセットの際に派生型から呼び出されます。インデックスはすでに読み取った範囲内でなくてはなりません。</p>
+	 * @param index インデックス
+	 */
+	final void index(int index) {
+		_index = index;
+	}
+	/**
+	 * 改行が発生したものとして次の行の開始位置を記録します。
+	 * <p>{@link #read()}を経由せずに文字位置を前進させる派生型から呼び出されます。</p>
+	 * @param index 次の行の開始位置
+	 */
+	final void lineBreak(int index) {
+		if (_lines != null) _lines.add(index);
+	}
+	/**
+	 * 改行の位置を記録しているかどうかを判定します。
+	 * @return 記録している場合{@code true}
+	 */
+	final boolean linesTracked() {
+		return _lines != null;
+	}
+	/**
+	 * 文字位置の追跡レベルを設定します。
+	 * @param tracking 追跡レベル
+	 */
+	final void positionTracking(PositionTracking tracking) {
+		if (tracking != PositionTracking.FULL) _lines = null;
+		else if (_lines == null) _lines = new LineIndex();
+	}
+	/**
+	 * リセットによる文字位置の後退を通知するリスナーを設定します。
+	 * @param listener リスナー（{@code null}可）
+	 */
+	final void listener(ParseListener listener) {
+		_listener = listener;
+	}
+	/**
+	 * リセットによる文字位置の後退を通知するリスナーを返します。
+	 * @return リスナー（存在しない場合は{@code null}）
+	 */
+	final ParseListener listener() {
+		return _listener;
+	}
+	/**
+	 * JFRのイベントとして記録するバッファの拡張の容量の下限を設定します。
+	 * @param threshold 拡張後の容量（文字数）の下限
+	 */
+	final void bufferGrowthEventThreshold(int threshold) {
+		_bufferGrowthEventThreshold = threshold;
+	}
+	/**
+	 * JFRのイベントとして記録するバッファの拡張の容量の下限を返します。
+	 * @return 拡張後の容量（文字数）の下限
+	 */
+	final int bufferGrowthEventThreshold() {
+		return _bufferGrowthEventThreshold;
 	}
 	/**
 	 * 現在の文字位置を返します。
 	 * @return 文字位置
 	 */
 	public final CharPosition position() {
-		return _position;
+		return CharPosition.of(_index, _lines);
+	}
+	/**
+	 * 指定されたインデックスの文字位置を返します。
+	 * @param index すでに読み取った範囲内のインデックス
+	 * @return 文字位置
+	 */
+	final CharPosition position(int index) {
+		return CharPosition.of(index, _lines);
 	}
 	/**
 	 * データソースに読み取り可能なコンテンツが残っているかどうか判定します。
@@ -82,35 +151,31 @@ abstract class AbstractReader extends java.io.Reader implements Closeable, AutoC
 	}
 	@Override
 	public final int read() throws IOException {
-		synchronized (this) {
-			// 派生クラスに純粋な読み取り操作を行わせる
-			final int ch = readOne();
-			// 読み取られた文字をチェック
-			if (ch == '\n' || ch == '\r' && peek() != '\n') {
-				// LFもしくはCR（ただしLFを伴わない）である場合
-				// 改行が発生したと見なして文字位置を更新
-				_position = _position.nextLine();
-			}else if (ch != -1) {
-				// EOFでなければ1カラム移動したと見なして文字位置を更新
-				_position = _position.nextColumn();
-			}
-			// 読み取られた文字を呼び出し元に返す
-			return ch;
+		// 派生クラスに純粋な読み取り操作を行わせる
+		final int ch = readOne();
+		// EOFであればそのまま呼び出し元に返す
+		if (ch == -1) return ch;
+		// 文字位置を更新
+		_index ++;
+		if (_lines != null && (ch == '\n' || ch == '\r' && peek() != '\n')) {
+			// LFもしくはCR（ただしLFを伴わない）である場合
+			// 改行が発生したと見なして次の行の開始位置を記録
+			_lines.add(_index);
 		}
+		// 読み取られた文字を呼び出し元に返す
+		return ch;
 	}
 	@Override
 	public final int read(char[] cbuf, int off, int len) throws IOException {
-		synchronized (this) {
-			if (noRemaining()) return -1;
-			
-			final int maxIndex = Math.min(cbuf.length, off + len);
-			int charCount = 0;
-			for (int i = off; i < maxIndex && hasRemaining(); i ++) {
-				cbuf[i] = (char)read();
-				charCount ++;
-			}
-			return charCount;
+		if (noRemaining()) return -1;
+		
+		final int maxIndex = Math.min(cbuf.length, off + len);
+		int charCount = 0;
+		for (int i = off; i < maxIndex && hasRemaining(); i ++) {
+			cbuf[i] = (char)read();
+			charCount ++;
 		}
+		return charCount;
 	}
 	/**
 	 * 現在の文字位置から行末までの文字列を読み取ります。
@@ -122,11 +187,11 @@ abstract class AbstractReader extends java.io.Reader implements Closeable, AutoC
 	 */
 	public final String readLine() throws IOException {
 		if (noRemaining()) return null;
-		final int startedOn = _position.line();
 		final StringBuilder buff = new StringBuilder();
-		while (startedOn == _position.line() && hasRemaining()) {
-			int ch = read();
-			if (ch != '\r' && ch != '\n') buff.append((char)ch);
+		while (hasRemaining()) {
+			final int ch = read();
+			if (ch == '\n' || ch == '\r' && peek() != '\n') break;
+			if (ch != '\r') buff.append((char)ch);
 		}
 		return buff.toString();
 	}
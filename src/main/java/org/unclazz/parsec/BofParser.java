@@ -6,8 +6,7 @@ final class BofParser extends Parser {
 	@Override
 	protected ResultCore doParse(Context ctx) throws IOException {
 		final TextReader src = ctx.source();
-		return src.position().index() == 0 
-				? success() : failure("BOF expected but %s found."
-						, ParsecUtility.charToString(src.peek()));
+		return src.index() == 0 
+				? success() : failureExpecting(ctx, "BOF", src.peek());
 	}
 }
\ No newline at end of file
@@ -0,0 +1,31 @@
+package org.unclazz.parsec;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * メモリ上のバイト列をデータソースとするリーダーです。
+ * <p>バイト配列やバイトバッファをコピーせずそのままデータソースとして利用し、
+ * {@link ByteSourceReader}の仕組みによりウィンドウ単位でデコードします。</p>
+ */
+final class ByteBufferReader extends ByteSourceReader {
+	private final ByteBuffer _buffer;
+
+	ByteBufferReader(ByteBuffer buffer, Charset charset) {
+		super(buffer.remaining(), charset);
+		_buffer = buffer.slice();
+	}
+
+	@Override
+	protected Closeable closable() {
+		return null;
+	}
+	@Override
+	protected ByteBuffer bytes(long start, long end) {
+		final ByteBuffer in = _buffer.duplicate();
+		in.limit((int) end);
+		in.position((int) start);
+		return in.slice();
+	}
+}
@@ -0,0 +1,230 @@
+package org.unclazz.parsec;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * エンコードされたバイト列をデータソースとするリーダーの抽象クラスです。
+ * <p>バイト列は一定の文字数（{@value #WINDOW_SIZE}文字）ごとのウィンドウ単位で必要になったときにデコードされます。
+ * デコード済みのウィンドウは直近のいくつかだけがヒープ上に保持されます。
+ * 保持されていないウィンドウの文字が再び必要になった場合、そのウィンドウは改めてデコードされます。</p>
+ * <p>キャラクターセットがASCII互換（UTF-8、US-ASCII、ISO-8859-1）である場合、
+ * ASCII文字のみからなるウィンドウはデコードされず、文字はバイト列から直接読み取られます。
+ * このときウィンドウのための文字配列も確保されません。</p>
+ * <p>サロゲートペアがウィンドウの境界をまたぐ場合、下位サロゲートは次のウィンドウの先頭に持ち越されます。</p>
+ * <p>ウィンドウの境界ではデコーダーがリセットされるため、
+ * 状態を持つエンコーディング（ISO-2022-JPなど）のバイト列には利用できません。</p>
+ * <p>派生型は次の抽象メソッドを実装する必要があります：</p>
+ * <ul>
+ * <li>{@link #bytes(long, long)} - バイト列の指定された範囲を参照するバッファを返します。</li>
+ * </ul>
+ */
+abstract class ByteSourceReader extends RandomAccessReader {
+	static final int WINDOW_SIZE = 1 << 16;
+	private static final int WINDOW_SHIFT = 16;
+	private static final int WINDOW_CACHE_SIZE = 4;
+	private static final long ASCII_MASK = 0x8080808080808080L;
+
+	private static float maxBytesPerChar(Charset charset) {
+		// エンコードをサポートしないキャラクターセットの場合は最悪のケースを想定する
+		return charset.canEncode() ? charset.newEncoder().maxBytesPerChar() : 4;
+	}
+	private static boolean isAsciiCompatible(Charset charset) {
+		return charset.equals(StandardCharsets.UTF_8)
+				|| charset.equals(StandardCharsets.US_ASCII)
+				|| charset.equals(StandardCharsets.ISO_8859_1);
+	}
+	private static boolean isAscii(ByteBuffer in, int length) {
+		int i = 0;
+		for (; i + 8 <= length; i += 8) {
+			if ((in.getLong(i) & ASCII_MASK) != 0) return false;
+		}
+		for (; i < length; i ++) {
+			if (in.get(i) < 0) return false;
+		}
+		return true;
+	}
+
+	private final long _size;
+	private final CharsetDecoder _decoder;
+	private final long _maxBytesPerWindow;
+	private final boolean _asciiCompatible;
+
+	// ウィンドウごとのデコード開始位置（バイト単位のオフセット）
+	private long[] _windowOffsets = new long[16];
+	// ウィンドウごとに前のウィンドウから持ち越された下位サロゲート（持ち越しがない場合は0）
+	private char[] _windowCarries = new char[16];
+	// デコード開始位置が判明しているウィンドウの数
+	private int _knownWindowCount = 1;
+	// 最後のウィンドウのID（バイト列の末尾に到達するまでは-1）
+	private int _lastWindow = -1;
+	// 最後のウィンドウの文字数
+	private int _lastWindowLength;
+
+	// デコード済みウィンドウのキャッシュ
+	// ※ASCII文字のみからなるウィンドウはバイト列を参照するバッファとして保持する。
+	// その場合も文字配列は再利用のために残しておく。
+	private final int[] _cachedWindowIds = new int[WINDOW_CACHE_SIZE];
+	private final char[][] _cachedWindows = new char[WINDOW_CACHE_SIZE][];
+	private final ByteBuffer[] _cachedAsciiWindows = new ByteBuffer[WINDOW_CACHE_SIZE];
+	private int _cacheCursor;
+	// 直近アクセスしたウィンドウ
+	private int _currentWindowId = -1;
+	private char[] _currentWindow;
+	private ByteBuffer _currentAsciiWindow;
+	private int _currentWindowLength;
+
+	ByteSourceReader(long size, Charset charset) {
+		ParsecUtility.mustNotBeNull("charset", charset);
+		_size = size;
+		_decoder = charset.newDecoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		_maxBytesPerWindow = (long) Math.ceil((WINDOW_SIZE + 1) * (double) maxBytesPerChar(charset));
+		_asciiCompatible = isAsciiCompatible(charset);
+		Arrays.fill(_cachedWindowIds, -1);
+	}
+
+	/**
+	 * バイト列の指定された範囲を参照するバッファを返します。
+	 * <p>バッファの位置は{@code 0}、上限は範囲の長さでなくてはなりません。</p>
+	 * @param start 範囲の開始位置
+	 * @param end 範囲の終了位置
+	 * @return バッファ
+	 * @throws IOException バイト列の読み取り中にエラーが発生した場合
+	 */
+	protected abstract ByteBuffer bytes(long start, long end) throws IOException;
+
+	@Override
+	protected final int charAt(int index) {
+		final int windowId = index >>> WINDOW_SHIFT;
+		if (windowId != _currentWindowId && !selectWindow(windowId)) return -1;
+		final int offset = index & (WINDOW_SIZE - 1);
+		if (_currentWindowLength <= offset) return -1;
+		return _currentWindow != null ? _currentWindow[offset] : _currentAsciiWindow.get(offset);
+	}
+	@Override
+	protected final String substring(int start, int end) {
+		final StringBuilder buff = new StringBuilder(end - start);
+		for (int i = start; i < end; i ++) buff.append((char) charAt(i));
+		return buff.toString();
+	}
+
+	/**
+	 * 指定されたウィンドウを直近アクセスしたウィンドウとして設定します。
+	 * @param windowId ウィンドウID
+	 * @return ウィンドウが存在しない（バイト列の末尾より後ろを指している）場合{@code false}
+	 */
+	private boolean selectWindow(int windowId) {
+		if (_lastWindow != -1 && _lastWindow < windowId) return false;
+
+		// キャッシュ上に存在するかどうかチェック
+		for (int i = 0; i < WINDOW_CACHE_SIZE; i ++) {
+			if (_cachedWindowIds[i] == windowId) {
+				setCurrentWindow(windowId, i);
+				return true;
+			}
+		}
+
+		try {
+			// 存在しない場合は開始位置が未知のウィンドウを順番にデコードしていく
+			while (_knownWindowCount <= windowId) {
+				if (_lastWindow != -1) return false;
+				decodeWindow(_knownWindowCount - 1);
+			}
+			// 開始位置が判明したところで目的のウィンドウをデコード
+			decodeWindow(windowId);
+			return true;
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	private void setCurrentWindow(int windowId, int slot) {
+		_currentWindowId = windowId;
+		_currentAsciiWindow = _cachedAsciiWindows[slot];
+		_currentWindow = _currentAsciiWindow == null ? _cachedWindows[slot] : null;
+		_currentWindowLength = windowId == _lastWindow ? _lastWindowLength : WINDOW_SIZE;
+	}
+	/**
+	 * 指定されたウィンドウをデコードしてキャッシュに格納します。
+	 * @param windowId ウィンドウID（デコード開始位置が判明しているものに限る）
+	 * @throws IOException バイト列の読み取り中にエラーが発生した場合
+	 */
+	private void decodeWindow(int windowId) throws IOException {
+		final long start = _windowOffsets[windowId];
+		final char carry = _windowCarries[windowId];
+		final long end = Math.min(_size, start + _maxBytesPerWindow);
+
+		// キャッシュの最も古いエントリーを再利用する
+		final int slot = _cacheCursor;
+		_cacheCursor = (_cacheCursor + 1) % WINDOW_CACHE_SIZE;
+		_cachedWindowIds[slot] = -1;
+		_cachedAsciiWindows[slot] = null;
+
+		final ByteBuffer in = bytes(start, end);
+		final int asciiLength = (int) Math.min(WINDOW_SIZE, end - start);
+		final int length;
+		final long next;
+		char nextCarry = 0;
+		if (carry == 0 && _asciiCompatible && isAscii(in, asciiLength)) {
+			// ASCII文字のみからなる場合はデコードせずバイト列をそのまま参照する
+			in.limit(asciiLength);
+			_cachedAsciiWindows[slot] = in.slice();
+			length = asciiLength;
+			next = start + asciiLength;
+		} else {
+			char[] window = _cachedWindows[slot];
+			// 境界をまたぐサロゲートペアを受け取るため1文字分余分に確保する
+			if (window == null) window = _cachedWindows[slot] = new char[WINDOW_SIZE + 1];
+			final CharBuffer out = CharBuffer.wrap(window);
+			if (carry != 0) out.put(carry);
+			final boolean endOfInput = end == _size;
+			_decoder.reset();
+			final CoderResult cr = _decoder.decode(in, out, endOfInput);
+			if (cr.isUnderflow() && endOfInput) _decoder.flush(out);
+			if (out.position() > WINDOW_SIZE) {
+				// 溢れた下位サロゲートは次のウィンドウに持ち越す
+				nextCarry = window[WINDOW_SIZE];
+				length = WINDOW_SIZE;
+			} else {
+				length = out.position();
+			}
+			next = start + in.position();
+		}
+
+		// 次のウィンドウのデコード開始位置を記録
+		if (length < WINDOW_SIZE) {
+			// ウィンドウが満たされなかった場合はバイト列の末尾に到達している
+			_lastWindow = windowId;
+			_lastWindowLength = length;
+		} else if (next == _size && nextCarry == 0) {
+			// ちょうど末尾でウィンドウが満たされた場合は次の空のウィンドウを最後とする
+			registerWindowOffset(windowId + 1, next, nextCarry);
+			_lastWindow = windowId + 1;
+			_lastWindowLength = 0;
+		} else {
+			registerWindowOffset(windowId + 1, next, nextCarry);
+		}
+
+		_cachedWindowIds[slot] = windowId;
+		setCurrentWindow(windowId, slot);
+	}
+	private void registerWindowOffset(int windowId, long offset, char carry) {
+		if (windowId < _knownWindowCount) return;
+		if (windowId == _windowOffsets.length) {
+			_windowOffsets = Arrays.copyOf(_windowOffsets, _windowOffsets.length * 2);
+			_windowCarries = Arrays.copyOf(_windowCarries, _windowCarries.length * 2);
+		}
+		_windowOffsets[windowId] = offset;
+		_windowCarries[windowId] = carry;
+		_knownWindowCount = windowId + 1;
+	}
+}
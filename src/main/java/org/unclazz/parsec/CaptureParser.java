@@ -13,11 +13,43 @@ final class CaptureParser extends ValParser<String> {
 	protected ValResultCore<String> doParse(Context ctx) throws IOException {
 		final TextReader src = ctx.source();
 		src.mark();
-		final Result res = _original.parse(ctx);
+		final ResultCore res = _original.parseCore(ctx);
 		if (res.isSuccessful()) {
 			return res.attachValue(src.capture(true));
 		}
 		src.unmark();
 		return res.attachValue();
 	}
+	@Override
+	ParseFrame frame(Context ctx) {
+		return new Frame();
+	}
+	// doParse(Context)を元のパーサーの呼び出しの前後で分割したもの
+	private final class Frame extends ParseFrame {
+		@Override
+		ParserSupport resume(Context ctx, ResultCoreSupport child) {
+			final TextReader src = ctx.source();
+			if (child == null) {
+				src.mark();
+				return _original;
+			}
+			final ResultCore res = core(child);
+			if (res.isSuccessful()) return done(res.attachValue(src.capture(true)));
+			src.unmark();
+			return done(res.attachValue());
+		}
+	}
+	@Override
+	FirstSet first() {
+		return _original.first();
+	}
+	@Override
+	ValParser<String> rewrite(Optimizer optimizer) {
+		final Parser original = optimizer.optimize(_original);
+		return original == _original ? this : new CaptureParser(original);
+	}
+	@Override
+	boolean atomic() {
+		return _original.atomic();
+	}
 }
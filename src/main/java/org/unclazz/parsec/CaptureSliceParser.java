@@ -0,0 +1,55 @@
+package org.unclazz.parsec;
+
+import java.io.IOException;
+
+final class CaptureSliceParser extends ValParser<CharSequence> {
+	private final Parser _original;
+	
+	CaptureSliceParser(Parser original) {
+		_original = original;
+	}
+
+	@Override
+	protected ValResultCore<CharSequence> doParse(Context ctx) throws IOException {
+		final TextReader src = ctx.source();
+		src.mark();
+		final ResultCore res = _original.parseCore(ctx);
+		if (res.isSuccessful()) {
+			return res.attachValue(src.captureSlice(true));
+		}
+		src.unmark();
+		return res.attachValue();
+	}
+	@Override
+	ParseFrame frame(Context ctx) {
+		return new Frame();
+	}
+	// doParse(Context)を元のパーサーの呼び出しの前後で分割したもの
+	private final class Frame extends ParseFrame {
+		@Override
+		ParserSupport resume(Context ctx, ResultCoreSupport child) {
+			final TextReader src = ctx.source();
+			if (child == null) {
+				src.mark();
+				return _original;
+			}
+			final ResultCore res = core(child);
+			if (res.isSuccessful()) return done(res.attachValue(src.captureSlice(true)));
+			src.unmark();
+			return done(res.attachValue());
+		}
+	}
+	@Override
+	FirstSet first() {
+		return _original.first();
+	}
+	@Override
+	ValParser<CharSequence> rewrite(Optimizer optimizer) {
+		final Parser original = optimizer.optimize(_original);
+		return original == _original ? this : new CaptureSliceParser(original);
+	}
+	@Override
+	boolean atomic() {
+		return _original.atomic();
+	}
+}
@@ -46,83 +46,65 @@ public abstract class CharClass {
 		return new ComplementCharClass(clazz);
 	}
 	
-	private static CharClass _newline;
-	private static CharClass _alphabetic;
-	private static CharClass _numeric;
-	private static CharClass _alphanumeric;
-	private static CharClass _hexDigit;
-	private static CharClass _control;
-	private static CharClass _spaceAndControl;
+	// 定義済みの文字クラス（最初に参照されたときにクラスの初期化により生成され、すべてのスレッドに安全に公開される）
+	private static final class Predefined {
+		private static final CharClass NEWLINE = anyOf('\r', '\n');
+		private static final CharClass ALPHABETIC = between('A', 'Z').union(between('a', 'z'));
+		private static final CharClass NUMERIC = between('0', '9');
+		private static final CharClass ALPHANUMERIC = NUMERIC.union(ALPHABETIC);
+		private static final CharClass HEX_DIGIT = NUMERIC.union(between('A', 'F')).union(between('a', 'f'));
+		private static final CharClass CONTROL = between((char)0, (char)31).plus((char)127);
+		private static final CharClass SPACE_AND_CONTROL = CONTROL.plus((char)32);
+	}
 	
 	/**
 	 * 改行の文字クラスです。
 	 * @return 文字クラス
 	 */
 	public static CharClass newline() {
-		if (_newline == null) {
-			_newline = anyOf('\r', '\n');
-		}
-		return _newline;
+		return Predefined.NEWLINE;
 	}
 	/**
 	 * {@code [A-Za-z]}の文字クラスです。
 	 * @return 文字クラス
 	 */
 	public static CharClass alphabetic() {
-		if (_alphabetic == null) {
-			_alphabetic = between('A', 'Z').union(between('a', 'z'));
-		}
-		return _alphabetic;
+		return Predefined.ALPHABETIC;
 	}
 	/**
 	 * {@code [0-9]}の文字クラスです。
 	 * @return 文字クラス
 	 */
 	public static CharClass numeric() {
-		if (_numeric == null) {
-			_numeric = between('0', '9');
-		}
-		return _numeric;
+		return Predefined.NUMERIC;
 	}
 	/**
 	 * {@code [0-9A-Za-z]}の文字クラスです。
 	 * @return 文字クラス
 	 */
 	public static CharClass alphanumeric() {
-		if (_alphanumeric == null) {
-			_alphanumeric = numeric().union(alphabetic());
-		}
-		return _alphanumeric;
+		return Predefined.ALPHANUMERIC;
 	}
 	/**
 	 * {@code [0-9A-Fa-f]}の文字クラスです。
 	 * @return 文字クラス
 	 */
 	public static CharClass hexDigit() {
-		if (_hexDigit == null) {
-			 _hexDigit = numeric().union(between('A', 'F')).union(between('a', 'f'));
-		}
-		return _hexDigit;
+		return Predefined.HEX_DIGIT;
 	}
 	/**
 	 * 制御文字（コードポイント{@code 0}から{@code 31}と{@code 127}）の文字クラスです。
 	 * @return 文字クラス
 	 */
 	public static CharClass control() {
-		if (_control == null) {
-			_control = between((char)0, (char)31).plus((char)127);
-		}
-		return _control;
+		return Predefined.CONTROL;
 	}
 	/**
 	 * 制御文字と空白文字（コードポイント{@code 32}）の文字クラスです。
 	 * @return 文字クラス
 	 */
 	public static CharClass spaceAndControl() {
-		if (_spaceAndControl == null) {
-			_spaceAndControl = control().plus((char)32);
-		}
-		return _spaceAndControl;
+		return Predefined.SPACE_AND_CONTROL;
 	}
 	
 	/**
@@ -131,6 +113,28 @@ public abstract class CharClass {
 	 * @return 文字クラス
 	 */
 	public abstract boolean contains(int ch);
+	/**
+	 * 文字クラスの判定を{@link GrammarCompiler}が生成するソースコードにインライン展開できるかどうかを判定します。
+	 * <p>既定の実装は{@code false}を返します。利用者が定義した文字クラスはインライン展開できないため、
+	 * それを参照するパーサーはコンパイルされません。</p>
+	 * @return インライン展開できる場合{@code true}
+	 */
+	boolean inlinable() {
+		return false;
+	}
+	/**
+	 * {@link GrammarCompiler}が生成するソースコードのために文字クラスの判定式を返します。
+	 * <p>{@link #inlinable()}が{@code true}を返す派生型はこのメソッドをオーバーライドします。</p>
+	 * @param compiler コンパイラー
+	 * @param ch 判定対象の文字を保持する変数の名前
+	 * @return 判定式
+	 * @throws IllegalStateException {@link #inlinable()}が{@code true}を返すにもかかわらず
+	 * このメソッドがオーバーライドされていない場合
+	 */
+	String condition(GrammarCompiler compiler, String ch) {
+		throw new IllegalStateException(String.format("char class %s is inlinable "
+				+ "but does not override condition(GrammarCompiler, String).", this));
+	}
 	
 	/**
 	 * 文字クラスを合成します。
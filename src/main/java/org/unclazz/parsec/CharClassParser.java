@@ -4,10 +4,12 @@ import java.io.IOException;
 
 final class CharClassParser extends Parser {
 	private final CharClass _clazz;
+	private final Object _expected;
 	CharClassParser(CharClass clazz){
 		super("CharClass");
 		ParsecUtility.mustNotBeNull("clazz", clazz);
 		_clazz = clazz;
+		_expected = FailureMessage.classArg(clazz);
 		param("class", clazz);
 	}
 	@Override
@@ -18,7 +20,38 @@ final class CharClassParser extends Parser {
 			src.read();
 			return success();
 		}
-		return failure("a member of class (%s) expected but %s found.",
-						_clazz, ParsecUtility.charToString(ch));
+		return failureExpecting(ctx, _expected, ch);
 	}
-}
\ No newline at end of file
+	@Override
+	FirstSet first() {
+		return FirstSet.of(_clazz);
+	}
+	@Override
+	CharClass singleCharClass() {
+		return _clazz;
+	}
+	@Override
+	boolean atomic() {
+		return true;
+	}
+	@Override
+	boolean compilable(GrammarCompiler compiler) {
+		return _clazz.inlinable();
+	}
+	@Override
+	void emit(GrammarCompiler compiler, String start, String end) {
+		final String ch = compiler.local();
+		compiler.line("final int %s = %s;", ch, compiler.charAt(start));
+		// 文字クラスがEOFを含む場合は文字位置を前進させずに成功する
+		compiler.open("if (%s)", compiler.condition(_clazz, ch));
+		compiler.line("%s = %s == -1 ? %s : %s + 1;", end, ch, start, start);
+		compiler.close();
+		compiler.open("else");
+		compiler.fail(this, end, start, "0");
+		compiler.close();
+	}
+	@Override
+	ResultCore compiledFailure(Context ctx, int actual, int aux) {
+		return failureExpecting(ctx, _expected, actual);
+	}
+}
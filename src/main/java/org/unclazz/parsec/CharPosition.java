@@ -2,6 +2,8 @@ package org.unclazz.parsec;
 
 /**
  * 文字位置を表すオブジェクトです。
+ * <p>リーダーから得られるインスタンスはインデックスのみを保持し、
+ * 行数と列数は初めて参照されたときにリーダーが記録した改行の位置から計算されます。</p>
  */
 public final class CharPosition {
 	private static final CharPosition _bof = new CharPosition(1, 1, 0);
@@ -12,29 +14,53 @@ public final class CharPosition {
 	public static CharPosition ofBof() {
 		return _bof;
 	}
-	
-	private final int _line;
-	private final int _column;
+	/**
+	 * インデックスのみを持つインスタンスを返します。
+	 * @param index インデックス
+	 * @param lines 行の開始位置のインデックス（行数と列数を追跡しない場合は{@code null}）
+	 * @return 文字位置
+	 */
+	static CharPosition of(int index, LineIndex lines) {
+		return index == 0 && lines != null ? _bof : new CharPosition(index, lines);
+	}
+
 	private final int _index;
-	
+	private final LineIndex _lines;
+	// 行数と列数（未計算の場合は0）
+	private int _line;
+	private int _column;
+
 	private CharPosition(int line, int column, int index) {
 		_line = line;
 		_column = column;
 		_index = index;
+		_lines = null;
 	}
-	
+	private CharPosition(int index, LineIndex lines) {
+		_index = index;
+		_lines = lines;
+		if (lines == null) {
+			_line = -1;
+			_column = -1;
+		}
+	}
+
 	/**
 	 * 行数（{@code 1}始まり）です。
+	 * <p>行数を追跡していない場合は{@code -1}を返します。</p>
 	 * @return 行数
 	 */
 	public int line() {
+		if (_line == 0) resolve();
 		return _line;
 	}
 	/**
 	 * 行の先頭からの位置（{@code 1}始まり）です。
+	 * <p>列数を追跡していない場合は{@code -1}を返します。</p>
 	 * @return 列数
 	 */
 	public int column() {
+		if (_line == 0) resolve();
 		return _column;
 	}
 	/**
@@ -49,17 +75,22 @@ public final class CharPosition {
 	 * @return 文字位置
 	 */
 	public CharPosition nextColumn() {
-		return new CharPosition(_line, _column + 1, _index + 1);
+		return new CharPosition(line(), column() + 1, _index + 1);
 	}
 	/**
 	 * 行数を{@code +1}した新しいインスタンスを返します。
 	 * @return 文字位置
 	 */
 	public CharPosition nextLine() {
-		return new CharPosition(_line + 1, 1, _index + 1);
+		return new CharPosition(line() + 1, 1, _index + 1);
+	}
+	private void resolve() {
+		final int line = _lines.line(_index);
+		_column = _index - _lines.lineStart(line) + 1;
+		_line = line;
 	}
 	@Override
 	public String toString() {
-		return String.format("(ln: %s, col: %s, idx: %s)", _line, _column, _index);
+		return String.format("(ln: %s, col: %s, idx: %s)", line(), column(), _index);
 	}
 }
@@ -33,6 +33,25 @@ final class CharRangeCharClass extends CharClass{
 		return false;
 	}
 	@Override
+	boolean inlinable() {
+		return true;
+	}
+	@Override
+	String condition(GrammarCompiler compiler, String ch) {
+		// 範囲が多すぎる場合は比較を並べると判定式が長くなりすぎるため表を二分探索する
+		if (_charRanges.length > 16) return compiler.ranges(_charRanges, ch);
+		if (_charRanges.length == 0) return "false";
+		final StringBuilder buff = new StringBuilder("(");
+		for (int i = 0; i < _charRanges.length; i ++) {
+			final CharRange r = _charRanges[i];
+			if (i > 0) buff.append(" || ");
+			if (r.start == r.end) buff.append(ch).append(" == ").append((int) r.start);
+			else buff.append((int) r.start).append(" <= ").append(ch)
+				.append(" && ").append(ch).append(" <= ").append((int) r.end);
+		}
+		return buff.append(')').toString();
+	}
+	@Override
 	public CharClass union(CharClass other) {
 		if (other instanceof CharRangeCharClass) {
 			final CharRangeCharClass that = (CharRangeCharClass) other;
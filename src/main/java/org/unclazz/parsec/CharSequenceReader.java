@@ -0,0 +1,36 @@
+package org.unclazz.parsec;
+
+import java.io.Closeable;
+
+/**
+ * メモリ上の文字シーケンスをデータソースとするリーダーです。
+ * <p>{@link String}のほか文字配列や{@link java.nio.CharBuffer}をラップしたものを
+ * コピーせずそのままデータソースとして利用します。</p>
+ */
+final class CharSequenceReader extends RandomAccessReader {
+	private final CharSequence _text;
+	private final int _length;
+
+	CharSequenceReader(CharSequence text) {
+		ParsecUtility.mustNotBeNull("text", text);
+		_text = text;
+		_length = text.length();
+	}
+
+	@Override
+	protected Closeable closable() {
+		return null;
+	}
+	@Override
+	protected int charAt(int index) {
+		return index < _length ? _text.charAt(index) : -1;
+	}
+	@Override
+	protected String substring(int start, int end) {
+		return _text.subSequence(start, end).toString();
+	}
+	@Override
+	CharSequence chars() {
+		return _text;
+	}
+}
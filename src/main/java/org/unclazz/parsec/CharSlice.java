@@ -0,0 +1,66 @@
+package org.unclazz.parsec;
+
+/**
+ * リーダーのデータソース上の範囲を参照する文字シーケンスです。
+ * <p>このオブジェクトは文字をコピーせず、参照するたびにリーダーのデータソースから文字を読み取ります。
+ * リーダーはスライスが参照している範囲の文字を少なくともパースが終了するまで保持します。
+ * パースの終了後にデータソースの読み取りを続けた場合、スライスが参照する文字が破棄されることがあります。
+ * そのような場合にも値を保持し続ける必要があるときは{@link #toString()}により文字列に変換してください。</p>
+ * <p>{@link #hashCode()}は同じ内容の{@link String}と同じ値を返します。
+ * {@link #equals(Object)}は同じ内容のスライスに対してのみ{@code true}を返します。</p>
+ */
+final class CharSlice implements CharSequence {
+	private final RandomAccessReader _reader;
+	private final int _start;
+	private final int _end;
+	private int _hash;
+
+	CharSlice(RandomAccessReader reader, int start, int end) {
+		_reader = reader;
+		_start = start;
+		_end = end;
+	}
+
+	@Override
+	public int length() {
+		return _end - _start;
+	}
+	@Override
+	public char charAt(int index) {
+		if (index < 0 || length() <= index) {
+			throw new IndexOutOfBoundsException(String.format("index %s is out of range.", index));
+		}
+		return (char) _reader.charAt(_start + index);
+	}
+	@Override
+	public CharSequence subSequence(int start, int end) {
+		if (start < 0 || end < start || length() < end) {
+			throw new IndexOutOfBoundsException(String.format("range [%s, %s) is out of range.", start, end));
+		}
+		return new CharSlice(_reader, _start + start, _start + end);
+	}
+	@Override
+	public int hashCode() {
+		int h = _hash;
+		if (h == 0) {
+			for (int i = _start; i < _end; i ++) h = 31 * h + (char) _reader.charAt(i);
+			_hash = h;
+		}
+		return h;
+	}
+	@Override
+	public boolean equals(Object other) {
+		if (this == other) return true;
+		if (!(other instanceof CharSlice)) return false;
+		final CharSlice that = (CharSlice) other;
+		if (length() != that.length()) return false;
+		for (int i = 0; i < length(); i ++) {
+			if (_reader.charAt(_start + i) != that._reader.charAt(that._start + i)) return false;
+		}
+		return true;
+	}
+	@Override
+	public String toString() {
+		return _reader.substring(_start, _end);
+	}
+}
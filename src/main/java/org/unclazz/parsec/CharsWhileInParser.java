@@ -16,12 +16,50 @@ final class CharsWhileInParser extends Parser {
 	@Override
 	protected ResultCore doParse(Context ctx) throws IOException {
 		final TextReader src = ctx.source();
-		int ch = -1, count = 0;
-		while (0 <= (ch = src.peek()) && _clazz.contains(ch)) {
-			src.read();
-			count ++;
+		final int count = src.skipWhile(_clazz);
+		return _min <= count ? success() : lengthFailure(count);
+	}
+	private ResultCore lengthFailure(int count) {
+		return failure("expected that length of char sequence is" +
+                " greater than or equal %s, but actualy it is %s.", _min, count);
+	}
+	@Override
+	FirstSet first() {
+		return FirstSet.of(_clazz, _min == 0);
+	}
+	@Override
+	boolean infallible() {
+		return _min == 0;
+	}
+	@Override
+	boolean atomic() {
+		return _min <= 1;
+	}
+	@Override
+	boolean compilable(GrammarCompiler compiler) {
+		return _clazz.inlinable();
+	}
+	@Override
+	void emit(GrammarCompiler compiler, String start, String end) {
+		final String i = compiler.local();
+		final String ch = compiler.local();
+		compiler.line("int %s = %s;", i, start);
+		compiler.line("int %s;", ch);
+		compiler.line("while ((%s = %s) != -1 && %s) %s ++;", ch, compiler.charAt(i),
+				compiler.condition(_clazz, ch), i);
+		if (_min == 0) {
+			compiler.line("%s = %s;", end, i);
+			return;
 		}
-		return _min <= count ? success() : failure("expected that length of char sequence is" +
-                    " greater than or equal %s, but actualy it is %s.", _min, count);
+		compiler.open("if (%s - %s >= %s)", i, start, _min);
+		compiler.line("%s = %s;", end, i);
+		compiler.close();
+		compiler.open("else");
+		compiler.fail(this, end, i, i + " - " + start);
+		compiler.close();
+	}
+	@Override
+	ResultCore compiledFailure(Context ctx, int actual, int aux) {
+		return lengthFailure(aux);
 	}
-}
\ No newline at end of file
+}
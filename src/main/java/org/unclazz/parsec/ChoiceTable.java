@@ -0,0 +1,74 @@
+package org.unclazz.parsec;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 選択肢のパーサーが次の文字に応じて試行すべき選択肢を引くための表です。
+ * <p>各選択肢のFIRST集合をもとに、次の文字ごとにその文字から始まりうる選択肢の添字の配列を保持します。
+ * ASCII文字については配列で、それ以外の文字については初めて現れたときに計算した結果をマップで保持します。
+ * 最後の選択肢は常に試行の対象に含まれます。</p>
+ * <p>表は複数のスレッドで同時にパースを行う選択肢のパーサーから共有されます。
+ * ASCII文字の配列は構築時に作成され、それ以外の文字の結果は並行処理に対応したマップに保持されます。</p>
+ */
+final class ChoiceTable {
+	private static final int ASCII_SIZE = 128;
+	
+	private final FirstSet[] _firsts;
+	// すべての選択肢の添字
+	private final int[] _all;
+	private final int[][] _ascii = new int[ASCII_SIZE][];
+	private final Map<Character, int[]> _others = new ConcurrentHashMap<>();
+	
+	ChoiceTable(ParserSupport[] alternatives) {
+		_firsts = new FirstSet[alternatives.length];
+		_all = new int[alternatives.length];
+		for (int i = 0; i < alternatives.length; i ++) {
+			_firsts[i] = alternatives[i].first();
+			_all[i] = i;
+		}
+		for (int ch = 0; ch < ASCII_SIZE; ch ++) {
+			_ascii[ch] = compute(ch);
+		}
+	}
+	
+	/**
+	 * 次の文字から始まりうる選択肢の添字の配列を返します。
+	 * @param ch 次の文字（データソースの終端の場合は{@code -1}）
+	 * @return 選択肢の添字の配列（昇順）
+	 */
+	int[] candidates(int ch) {
+		if (ch == -1) return _all;
+		if (ch < ASCII_SIZE) return _ascii[ch];
+		final Character key = (char) ch;
+		final int[] cached = _others.get(key);
+		if (cached != null) return cached;
+		final int[] computed = compute(ch);
+		final int[] raced = _others.putIfAbsent(key, computed);
+		return raced == null ? computed : raced;
+	}
+	/**
+	 * 次の文字から始まりえないため試行されない選択肢の失敗を記録します。
+	 * @param ctx コンテキスト
+	 * @param candidates {@link #candidates(int)}が返した配列
+	 * @param ch 次の文字
+	 */
+	void skipped(Context ctx, int[] candidates, int ch) {
+		if (candidates.length == _all.length) return;
+		int j = 0;
+		for (int i = 0; i < _firsts.length; i ++) {
+			if (j < candidates.length && candidates[j] == i) j ++;
+			else ctx.skipped(_firsts[i], ch);
+		}
+	}
+	private int[] compute(int ch) {
+		final int[] buff = new int[_firsts.length];
+		int count = 0;
+		for (int i = 0; i < _firsts.length - 1; i ++) {
+			if (_firsts[i].canStartWith(ch)) buff[count ++] = i;
+		}
+		buff[count ++] = _firsts.length - 1;
+		return count == _all.length ? _all : Arrays.copyOf(buff, count);
+	}
+}
@@ -0,0 +1,129 @@
+package org.unclazz.parsec;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+final class ChoiceValParser<T> extends ValParser<T> {
+	private static <T> void flatten(ValParser<T> p, List<ValParser<T>> buff) {
+		// 右側に入れ子になった選択肢のみを平坦化する
+		// ※最後以外の選択肢や左側の選択肢は、その中でカットを伴って失敗しても
+		// それ自体はバックトラック可能な失敗となり後続の選択肢が試行されるため、
+		// 平坦化するとカットの効果が変わってしまう。
+		if (p instanceof OrValParser) {
+			final OrValParser<T> or = (OrValParser<T>) p;
+			buff.add(or.left());
+			flatten(or.right(), buff);
+		} else if (p instanceof ChoiceValParser) {
+			for (final ValParser<T> a : ((ChoiceValParser<T>) p)._alternatives) buff.add(a);
+		} else {
+			buff.add(p);
+		}
+	}
+	
+	private final ValParser<T>[] _alternatives;
+	private ChoiceTable _table;
+	
+	ChoiceValParser(ValParser<T>[] alternatives) {
+		ParsecUtility.mustNotBeNull("alternatives", alternatives);
+		if (alternatives.length == 0) throw new IllegalArgumentException("alternatives must not be empty.");
+		final List<ValParser<T>> buff = new ArrayList<>();
+		for (final ValParser<T> a : alternatives) ParsecUtility.mustNotBeNull("alternative", a);
+		for (int i = 0; i < alternatives.length - 1; i ++) buff.add(alternatives[i]);
+		flatten(alternatives[alternatives.length - 1], buff);
+		_alternatives = buff.toArray(Arrays.copyOf(alternatives, 0));
+		param("alternatives", _alternatives);
+	}
+
+	@Override
+	protected ValResultCore<T> doParse(Context ctx) throws IOException {
+		final TextReader src = ctx.source();
+		final ChoiceTable table = table();
+		final int ch = src.peek();
+		final int[] candidates = table.candidates(ch);
+		table.skipped(ctx, candidates, ch);
+		final int last = candidates.length - 1;
+		
+		// 最後の選択肢以外はカット可能なマークを起点としてバックトラックする
+		if (last == 0) src.markCut();
+		else src.markCuttable();
+		for (int i = 0; i < last; i ++) {
+			final ValResultCore<T> r = _alternatives[candidates[i]].parseCore(ctx);
+			if (r.isSuccessful() || !r.canBacktrack()) {
+				src.unmark();
+				return r.allowBacktrack(true);
+			}
+			src.reset(false);
+		}
+		
+		// 最後の選択肢のパース中はマークをカット済みとして残しておく
+		// ※最後の選択肢でカットが行われてもこのパーサーがバックトラックを有効に戻すため、
+		// 外側のマークまでカットが及ばないようにする。
+		if (last != 0) ctx.cut();
+		final ValResultCore<T> r = _alternatives[candidates[last]].parseCore(ctx);
+		src.unmark();
+		return r.allowBacktrack(true);
+	}
+	@Override
+	ParseFrame frame(Context ctx) {
+		return new Frame();
+	}
+	// doParse(Context)を選択肢の呼び出しの前後で分割したもの
+	private final class Frame extends ParseFrame {
+		private int[] _candidates;
+		// 呼び出し中の選択肢の候補の添字
+		private int _i;
+		@Override
+		ParserSupport resume(Context ctx, ResultCoreSupport child) throws IOException {
+			final TextReader src = ctx.source();
+			if (child == null) {
+				final ChoiceTable table = table();
+				final int ch = src.peek();
+				_candidates = table.candidates(ch);
+				table.skipped(ctx, _candidates, ch);
+				
+				// 最後の選択肢以外はカット可能なマークを起点としてバックトラックする
+				if (_candidates.length == 1) src.markCut();
+				else src.markCuttable();
+				return _alternatives[_candidates[0]];
+			}
+			final ValResultCore<T> r = valCore(child);
+			final int last = _candidates.length - 1;
+			if (_i < last) {
+				if (r.isSuccessful() || !r.canBacktrack()) {
+					src.unmark();
+					return done(r.allowBacktrack(true));
+				}
+				src.reset(false);
+				// 最後の選択肢のパース中はマークをカット済みとして残しておく
+				if (++ _i == last) ctx.cut();
+				return _alternatives[_candidates[_i]];
+			}
+			src.unmark();
+			return done(r.allowBacktrack(true));
+		}
+	}
+	@Override
+	FirstSet first() {
+		FirstSet first = _alternatives[0].first();
+		for (int i = 1; i < _alternatives.length; i ++) first = first.or(_alternatives[i].first());
+		return first;
+	}
+	private ChoiceTable table() {
+		// 表は複数のスレッドで共有できるので競合して設定されても問題ないが、フィールドの読み取りは1回に限る
+		ChoiceTable table = _table;
+		if (table == null) _table = table = new ChoiceTable(_alternatives);
+		return table;
+	}
+	@Override
+	ValParser<T> rewrite(Optimizer optimizer) {
+		final ValParser<T>[] alternatives = Arrays.copyOf(_alternatives, _alternatives.length);
+		boolean changed = false;
+		for (int i = 0; i < alternatives.length; i ++) {
+			alternatives[i] = optimizer.optimize(_alternatives[i]);
+			changed |= alternatives[i] != _alternatives[i];
+		}
+		return changed ? new ChoiceValParser<>(alternatives) : this;
+	}
+}
@@ -0,0 +1,19 @@
+package org.unclazz.parsec;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * ビルド時にクラスを生成する対象のパーサーを示すアノテーションです。
+ * <p>{@link Parser}もしくは{@link ValParser}を値とする静的フィールドに付与します。
+ * {@code unclazz-parsec-generator}モジュールの{@code GrammarSourceGenerator}はこのアノテーションが付与されたフィールドの値から
+ * {@link Parser#compile()}が実行時に生成するのと同じクラスのソースコードを生成します。</p>
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface CompileGrammar {
+}
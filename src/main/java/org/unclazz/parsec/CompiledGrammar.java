@@ -0,0 +1,187 @@
+package org.unclazz.parsec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.JavaFileObject.Kind;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+
+/**
+ * {@link GrammarCompiler}が生成したクラスのインスタンスを保持するオブジェクトです。
+ * <p>クラスはJDKに含まれるコンパイラー（{@link ToolProvider#getSystemJavaCompiler()}）によりメモリ上でコンパイルされ、
+ * グラフごとに作成されるクラスローダーによりロードされます。
+ * クラスローダーはこのオブジェクトからのみ参照されるため、
+ * コンパイルされたパーサーが不要になればクラスもアンロードの対象となります。</p>
+ * <p>ただし同じ名前のクラスがビルド時に生成されクラスパス上に存在する場合はそのクラスが利用され、コンパイルは行われません。
+ * JREのようにコンパイラーが利用できない環境でも、ビルド時に生成されたクラスは利用できます。</p>
+ */
+final class CompiledGrammar {
+	private static final MethodType MATCH_TYPE = MethodType.methodType(int.class,
+			int.class, CharSequence.class, int.class, int.class, int[].class);
+
+	// 生成されたクラスが失敗を報告する際に示す出力元のパーサー（_matchより前に設定される）
+	private Parser[] _sites;
+	// コンパイルされたパーサーの生成後に設定されるため、それらを共有する他のスレッドにも見えるようvolatileとする
+	private volatile MethodHandle _match;
+
+	/**
+	 * パースを行います。
+	 * <p>パースに失敗した場合、{@code failure}の要素0に失敗した文字位置を、
+	 * 要素1に失敗の出力元のパーサーの番号（{@link #site(int)}の引数）を、
+	 * 要素2に{@link Parser#compiledFailure(Context, int, int)}に渡す値を設定します。</p>
+	 * @param id 部分グラフのID
+	 * @param src データソース全体を参照する文字シーケンス
+	 * @param start パース開始時の文字位置
+	 * @param failure 失敗の情報を受け取る長さ3以上の配列
+	 * @return パース後の文字位置（パースに失敗した場合は{@code -1}）
+	 */
+	int match(int id, CharSequence src, int start, int[] failure) {
+		try {
+			return (int) _match.invokeExact(id, src, src.length(), start, failure);
+		} catch (final RuntimeException | Error e) {
+			throw e;
+		} catch (final Throwable e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	/**
+	 * 失敗の出力元のパーサーを返します。
+	 * @param i {@link #match(int, CharSequence, int, int[])}が報告したパーサーの番号
+	 * @return パーサー
+	 */
+	Parser site(int i) {
+		return _sites[i];
+	}
+	/**
+	 * ソースコードをコンパイルしてクラスをロードし、そのインスタンスを生成します。
+	 * @param className クラスの完全修飾名
+	 * @param source ソースコード
+	 * @param sites 生成されたクラスが失敗を報告する際に示す出力元のパーサー
+	 * @return 成功した場合{@code true}
+	 */
+	boolean link(String className, String source, Parser[] sites) {
+		final Class<?> precompiled = findPrecompiled(className);
+		if (precompiled != null) return bind(precompiled, sites);
+		
+		final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		if (compiler == null) return false;
+
+		final Map<String, ByteArrayOutputStream> classFiles;
+		try (final MemoryFileManager fileManager = new MemoryFileManager(compiler.getStandardFileManager(null, null, null))) {
+			final JavaFileObject sourceFile = new SimpleJavaFileObject(URI.create("string:///"
+					+ className.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE) {
+				@Override
+				public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+					return source;
+				}
+			};
+			final Boolean compiled = compiler.getTask(null, fileManager, d -> {},
+					Arrays.asList("-proc:none", "-g:none", "-nowarn"),
+					null, Arrays.asList(sourceFile)).call();
+			if (!compiled) return false;
+			classFiles = fileManager._classes;
+		} catch (final IOException e) {
+			return false;
+		}
+
+		try {
+			return bind(new GrammarClassLoader(classFiles).loadClass(className), sites);
+		} catch (final ClassNotFoundException e) {
+			return false;
+		}
+	}
+	/**
+	 * ビルド時に生成されたクラスを探します。
+	 * @param className クラスの完全修飾名
+	 * @return クラス（見つからない場合は{@code null}）
+	 */
+	private static Class<?> findPrecompiled(String className) {
+		final ClassLoader[] loaders = {
+				Thread.currentThread().getContextClassLoader(),
+				CompiledGrammar.class.getClassLoader()
+		};
+		for (final ClassLoader loader : loaders) {
+			if (loader == null) continue;
+			try {
+				return Class.forName(className, true, loader);
+			} catch (final ClassNotFoundException | LinkageError e) {
+				// 次のクラスローダーを試す
+			}
+		}
+		return null;
+	}
+	/**
+	 * クラスのインスタンスを生成してパースに利用できるようにします。
+	 * @param c クラス
+	 * @param sites 生成されたクラスが失敗を報告する際に示す出力元のパーサー
+	 * @return 成功した場合{@code true}
+	 */
+	private boolean bind(Class<?> c, Parser[] sites) {
+		try {
+			final Object instance = c.getConstructor().newInstance();
+			_sites = sites;
+			_match = MethodHandles.publicLookup().findVirtual(c, "match", MATCH_TYPE).bindTo(instance);
+			return true;
+		} catch (final ReflectiveOperationException | LinkageError e) {
+			return false;
+		}
+	}
+
+	/**
+	 * コンパイルされたクラスファイルをメモリ上に保持するファイルマネージャーです。
+	 */
+	private static final class MemoryFileManager extends ForwardingJavaFileManager<JavaFileManager> {
+		private final Map<String, ByteArrayOutputStream> _classes = new HashMap<>();
+
+		MemoryFileManager(JavaFileManager fileManager) {
+			super(fileManager);
+		}
+
+		@Override
+		public JavaFileObject getJavaFileForOutput(Location location, String className,
+				Kind kind, FileObject sibling) {
+			return new SimpleJavaFileObject(URI.create("bytes:///"
+					+ className.replace('.', '/') + kind.extension), kind) {
+				@Override
+				public OutputStream openOutputStream() {
+					final ByteArrayOutputStream out = new ByteArrayOutputStream();
+					_classes.put(className, out);
+					return out;
+				}
+			};
+		}
+	}
+	/**
+	 * メモリ上に保持されたクラスファイルからクラスをロードするクラスローダーです。
+	 */
+	private static final class GrammarClassLoader extends ClassLoader {
+		private final Map<String, ByteArrayOutputStream> _classes;
+
+		GrammarClassLoader(Map<String, ByteArrayOutputStream> classes) {
+			super(CompiledGrammar.class.getClassLoader());
+			_classes = classes;
+		}
+
+		@Override
+		protected Class<?> findClass(String name) throws ClassNotFoundException {
+			final ByteArrayOutputStream out = _classes.get(name);
+			if (out == null) throw new ClassNotFoundException(name);
+			final byte[] bytes = out.toByteArray();
+			return defineClass(name, bytes, 0, bytes.length);
+		}
+	}
+}
@@ -0,0 +1,61 @@
+package org.unclazz.parsec;
+
+import java.io.IOException;
+
+final class CompiledParser extends Parser {
+	private final CompiledGrammar _grammar;
+	private final int _id;
+	private final Parser _original;
+
+	CompiledParser(CompiledGrammar grammar, int id, Parser original) {
+		ParsecUtility.mustNotBeNull("grammar", grammar);
+		ParsecUtility.mustNotBeNull("original", original);
+		_grammar = grammar;
+		_id = id;
+		_original = original;
+	}
+
+	@Override
+	protected ResultCore doParse(Context ctx) throws IOException {
+		final TextReader src = ctx.source();
+		// コンパイルされたコードは自動スキップもリスナーへの通知も行わず、
+		// 文字はデータソース全体を参照する文字シーケンスから読み取るため
+		// それらの条件を満たさない場合は元のパーサーを利用する
+		if (ctx.autoSkip() || ctx.listening() || !(src instanceof RandomAccessReader)) {
+			return _original.doParse(ctx);
+		}
+		final RandomAccessReader ras = (RandomAccessReader) src;
+		final CharSequence chars = ras.chars();
+		if (chars == null) return _original.doParse(ctx);
+		
+		final int[] failure = ctx.compiledFailure();
+		final int end = _grammar.match(_id, chars, ras.index(), failure);
+		if (end == -1) {
+			// 失敗した文字位置まで進めた上で、失敗したパーサーにメッセージを組み立てさせる
+			ras.advance(failure[0]);
+			return _grammar.site(failure[1]).compiledFailure(ctx, ras.peek(), failure[2]);
+		}
+		ras.advance(end);
+		return success();
+	}
+	@Override
+	FirstSet first() {
+		return _original.first();
+	}
+	@Override
+	String literal() {
+		return _original.literal();
+	}
+	@Override
+	CharClass singleCharClass() {
+		return _original.singleCharClass();
+	}
+	@Override
+	boolean infallible() {
+		return _original.infallible();
+	}
+	@Override
+	boolean atomic() {
+		return _original.atomic();
+	}
+}
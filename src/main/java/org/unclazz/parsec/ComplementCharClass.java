@@ -15,6 +15,14 @@ final class ComplementCharClass extends CharClass{
 		return !_clazz.contains(ch);
 	}
 	@Override
+	boolean inlinable() {
+		return _clazz.inlinable();
+	}
+	@Override
+	String condition(GrammarCompiler compiler, String ch) {
+		return "!" + _clazz.condition(compiler, ch);
+	}
+	@Override
 	public String toString() {
 		if (_contentCache == null) {
 			_contentCache = String.format("not %s", _clazz);
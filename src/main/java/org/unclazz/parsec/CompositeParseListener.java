@@ -0,0 +1,43 @@
+package org.unclazz.parsec;
+
+/**
+ * 2つのリスナーに順に通知を行うリスナーです。
+ */
+final class CompositeParseListener implements ParseListener {
+	/**
+	 * 2つのリスナーを1つにまとめます。
+	 * @param first 先に通知を受けるリスナー（{@code null}可）
+	 * @param second 後に通知を受けるリスナー（{@code null}可）
+	 * @return リスナー（いずれも{@code null}の場合は{@code null}）
+	 */
+	static ParseListener of(ParseListener first, ParseListener second) {
+		if (first == null) return second;
+		if (second == null) return first;
+		return new CompositeParseListener(first, second);
+	}
+	
+	private final ParseListener _first;
+	private final ParseListener _second;
+	
+	private CompositeParseListener(ParseListener first, ParseListener second) {
+		_first = first;
+		_second = second;
+	}
+	
+	@Override
+	public void enter(ParserSupport parser, int offset) {
+		_first.enter(parser, offset);
+		_second.enter(parser, offset);
+	}
+	@Override
+	public void exit(ParserSupport parser, int offset, ResultCoreSupport result) {
+		// 開始とは逆の順序で終了を通知する
+		_second.exit(parser, offset, result);
+		_first.exit(parser, offset, result);
+	}
+	@Override
+	public void backtrack(int from, int to) {
+		_first.backtrack(from, to);
+		_second.backtrack(from, to);
+	}
+}
@@ -1,7 +1,9 @@
 package org.unclazz.parsec;
 
 import java.io.IOException;
-import java.util.Stack;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Deque;
 import java.util.function.Consumer;
 
 /**
@@ -10,34 +12,155 @@ import java.util.function.Consumer;
  * インスタンスは{@link TextReader}オブジェクトから得られます。
  */
 public final class Context {
+	// 最も遠い失敗の位置で記録するメッセージの最大数
+	private static final int MAX_FAILURES = 8;
+	/**
+	 * 明示的なスタックの深さの上限の既定値です。
+	 */
+	static final int DEFAULT_MAX_STACK_DEPTH = 1 << 20;
+	/**
+	 * JFRのイベントとして記録するバックトラックの文字数の下限の既定値です。
+	 */
+	static final int DEFAULT_BACKTRACK_EVENT_THRESHOLD = 256;
+	/**
+	 * JFRのイベントとして記録するバッファの拡張の容量（文字数）の下限の既定値です。
+	 */
+	static final int DEFAULT_BUFFER_GROWTH_EVENT_THRESHOLD = 1 << 16;
+	// 例外により中断されたパーサーの終了をリスナーに通知する際のパース結果
+	private static final ResultCore ABORTED = ResultCore.ofFailure("parsing has been aborted.");
+	
 	private final TextReader _source;
-	private final Stack<String> _stack;
-	private final boolean _logging;
 	private final boolean _autoSkip;
-	private final Consumer<String> _logAppender;
+	// ログ出力が無効な場合はnull
+	private final LoggingListener _logger;
+	// 利用者が登録したリスナー
+	private final ParseListener _userListener;
+	private final ParseProfiler _profiler;
+	private final boolean _flightRecording;
+	private final int _backtrackEventThreshold;
+	private final int _bufferGrowthEventThreshold;
+	// ログ出力とリスナーをまとめたもの（いずれも無効な場合はnull）
+	private final ParseListener _listener;
 	private final CharClass _skipTarget;
+	private final PositionTracking _positionTracking;
+	private final boolean _memoization;
+	private final int _maxStackDepth;
+	// 明示的なスタックが無効な場合はnull
+	private final Trampoline _trampoline;
+	// パーサーの呼び出しの深さ
+	private int _depth;
+	// メモ表（最初にパース結果が記録されるときに初期化される）
+	private MemoTable _memo;
+	// 最も遠い失敗の文字位置とその位置で失敗したパーサーのメッセージ
+	private int _failureIndex = -1;
+	private FailureMessage[] _failures;
+	private int _failureCount;
+	// failureExpecting(Object, int)が直前に返したパース失敗を表すオブジェクト
+	private ResultCore _lastFailure;
+	// コンパイルされたパーサーが失敗の情報を受け取る配列（最初に必要になったときに初期化される）
+	private int[] _compiledFailure;
 	
 	Context(TextReader source){
-		this(source, null, null, null);
+		this(source, null, null, null, PositionTracking.FULL, false, false, DEFAULT_MAX_STACK_DEPTH, null, null,
+				false, DEFAULT_BACKTRACK_EVENT_THRESHOLD, DEFAULT_BUFFER_GROWTH_EVENT_THRESHOLD);
 	}
-	Context(TextReader source, Stack<String> stack, Consumer<String> logAppender, CharClass skipTarget){
+	Context(TextReader source, Deque<String> stack, Consumer<String> logAppender, CharClass skipTarget,
+			PositionTracking positionTracking, boolean memoization, boolean explicitStack, int maxStackDepth,
+			ParseListener listener, ParseProfiler profiler, boolean flightRecording, int backtrackEventThreshold,
+			int bufferGrowthEventThreshold){
 		_source = source;
-		_stack = logAppender == null ? null : (stack == null ? new Stack<>() : stack);
-		_logging = logAppender != null;
+		_memoization = memoization;
+		_maxStackDepth = maxStackDepth;
+		_trampoline = explicitStack ? new Trampoline(this, maxStackDepth) : null;
+		_source.positionTracking(positionTracking);
+		_positionTracking = positionTracking;
+		_logger = logAppender == null ? null : new LoggingListener(source, stack, logAppender);
+		_userListener = listener;
+		_profiler = profiler;
+		_flightRecording = flightRecording;
+		_backtrackEventThreshold = backtrackEventThreshold;
+		_bufferGrowthEventThreshold = bufferGrowthEventThreshold;
+		ParseListener l = CompositeParseListener.of(_logger, listener);
+		if (profiler != null) l = CompositeParseListener.of(l, profiler.listener());
+		if (flightRecording) l = CompositeParseListener.of(l, FlightRecorderSupport.listener(this, backtrackEventThreshold));
+		_listener = l;
+		_source.listener(_listener);
+		_source.bufferGrowthEventThreshold(bufferGrowthEventThreshold);
 		_autoSkip = skipTarget != null;
-		_logAppender = logAppender;
 		_skipTarget = skipTarget;
 	}
 	
-	Stack<String> stack(){
-		return _stack;
+	Deque<String> stack(){
+		return _logger == null ? null : _logger.stack();
 	}
 	Consumer<String> logAppender() {
-		return _logAppender;
+		return _logger == null ? null : _logger.appender();
+	}
+	ParseListener parseListener() {
+		return _userListener;
+	}
+	ParseProfiler profiler() {
+		return _profiler;
+	}
+	/**
+	 * パースのセッションとバックトラックをJFRのイベントとして記録するかどうかを示します。
+	 * @return 記録する場合{@code true}
+	 */
+	public boolean flightRecording() {
+		return _flightRecording;
+	}
+	/**
+	 * JFRのイベントとして記録するバックトラックの文字数の下限です。
+	 * @return 下限
+	 */
+	public int backtrackEventThreshold() {
+		return _backtrackEventThreshold;
+	}
+	/**
+	 * JFRのイベントとして記録するバッファの拡張の容量（文字数）の下限です。
+	 * @return 下限
+	 */
+	public int bufferGrowthEventThreshold() {
+		return _bufferGrowthEventThreshold;
 	}
 	CharClass skipTarget() {
 		return _skipTarget;
 	}
+	/**
+	 * 文字位置の追跡レベルです。
+	 * @return 追跡レベル
+	 */
+	public PositionTracking positionTracking() {
+		return _positionTracking;
+	}
+	/**
+	 * すべてのパーサーのパース結果をメモ化するかどうかを示します。
+	 * @return メモ化が有効な場合{@code true}
+	 */
+	public boolean memoization() {
+		return _memoization;
+	}
+	/**
+	 * パーサーの呼び出しをJavaのスタックではなくヒープ上のスタックで行うかどうかを示します。
+	 * @return 明示的なスタックが有効な場合{@code true}
+	 */
+	public boolean explicitStack() {
+		return _trampoline != null;
+	}
+	/**
+	 * 明示的なスタックの深さの上限です。
+	 * @return 上限
+	 */
+	public int maxStackDepth() {
+		return _maxStackDepth;
+	}
+	/**
+	 * 明示的なスタックでパースを行うオブジェクトを返します。
+	 * @return オブジェクト（明示的なスタックが無効な場合は{@code null}）
+	 */
+	Trampoline trampoline() {
+		return _trampoline;
+	}
 	/**
 	 * 入力データソースとなるリーダーです。
 	 * @return リーダー
@@ -57,7 +180,15 @@ public final class Context {
 	 * @return ログ出力が有効な場合{@code true}
 	 */
 	public boolean logging() {
-		return _logging;
+		return _logger != null;
+	}
+	/**
+	 * パースの進行状況の通知を受け取るオブジェクトが存在するかどうかを示します。
+	 * <p>ログ出力が有効な場合も{@code true}を返します。</p>
+	 * @return 通知を受け取るオブジェクトが存在する場合{@code true}
+	 */
+	boolean listening() {
+		return _listener != null;
 	}
 	/**
 	 * コンテキストの構成変更を行います。
@@ -74,7 +205,7 @@ public final class Context {
 	 * @param message ログメッセージ
 	 */
 	public void log(String message) {
-		if (_logging) _logAppender.accept(message);
+		if (_logger != null) _logger.log(message);
 	}
 	/**
 	 * デバッグログを出力します。
@@ -82,49 +213,205 @@ public final class Context {
 	 * @param args ログメッセージのフォーマット引数
 	 */
 	public void log(String format, Object... args) {
-		if (_logging) log(makeLabel(' ').append(String.format(format, args)).toString());
+		if (_logger != null) _logger.log(format, args);
+	}
+	/**
+	 * メモ表に記録されたパース結果を返します。
+	 * <p>パース結果が記録されている場合、文字位置をパース終了時の位置まで進めます。
+	 * 記録されたパースの過程でカットが行われていた場合はそのカットも再現します。</p>
+	 * @param parser パーサー
+	 * @param start パース開始時の文字位置
+	 * @return パース結果（記録されていない場合は{@code null}）
+	 * @param <R> パース結果の型
+	 */
+	@SuppressWarnings("unchecked")
+	<R extends ResultCoreSupport> R recall(Object parser, int start) {
+		if (_memo == null) return null;
+		final MemoTable.Entry e = _memo.get(parser, start);
+		if (e == null) return null;
+		_source.index(e.end());
+		if (!e.result().canBacktrack()) cut();
+		return (R) e.result();
+	}
+	/**
+	 * パース結果をメモ表に記録します。
+	 * @param parser パーサー
+	 * @param start パース開始時の文字位置
+	 * @param result パース結果
+	 */
+	void memorize(Object parser, int start, ResultCoreSupport result) {
+		if (_memo == null) _memo = new MemoTable();
+		_memo.put(parser, start, _source.index(), result);
 	}
-	void preParse(String parserName, String paramsString) throws IOException {
+	/**
+	 * メモ表を返します。
+	 * @return メモ表（まだ何も記録されていない場合は{@code null}）
+	 */
+	MemoTable memo() {
+		return _memo;
+	}
+	/**
+	 * このコンテキストでのパース中に最も遠い文字位置で発生した失敗を返します。
+	 * <p>パーサーが失敗するたびにコンテキストはその文字位置を記録済みの最も遠い位置と比較し、
+	 * 同じ位置であればそのパーサーが期待していた要素を追加し、より遠い位置であれば記録を置き換えます。
+	 * 比較は整数の比較1回だけであり、メッセージの整形はこのメソッドが呼び出されたときに初めて行われます。</p>
+	 * <p>記録はコンテキストが破棄されるまで累積されます。
+	 * 同じコンテキストで複数回のパースを行う場合、返される失敗はそれまでのパースすべてを通じて最も遠いものとなります。</p>
+	 * @return 失敗（まだ失敗が記録されていない場合は{@code null}）
+	 */
+	public FarthestFailure farthestFailure() {
+		if (_failureIndex == -1) return null;
+		final List<String> expected = new ArrayList<>();
+		Object actual = null;
+		for (int i = 0; i < _failureCount; i ++) {
+			final FailureMessage m = _failures[i];
+			if (m.expected() == null) continue;
+			final String e = m.expected().toString();
+			if (!expected.contains(e)) expected.add(e);
+			if (actual == null) actual = m.actual();
+		}
+		final String message;
+		if (expected.isEmpty()) {
+			message = _failureCount == 0 ? null : _failures[0].toString();
+		} else {
+			final StringBuilder buff = new StringBuilder();
+			for (int i = 0; i < expected.size(); i ++) {
+				if (i > 0) buff.append(i == expected.size() - 1 ? " or " : ", ");
+				buff.append(expected.get(i));
+			}
+			message = buff.append(" expected but ").append(actual).append(" found.").toString();
+		}
+		return new FarthestFailure(_source.position(_failureIndex), expected, message);
+	}
+	/**
+	 * 最も遠い失敗の文字位置のインデックスを返します。
+	 * @return インデックス（まだ失敗が記録されていない場合は{@code -1}）
+	 */
+	int farthestFailureIndex() {
+		return _failureIndex;
+	}
+	/**
+	 * 選択がパースを省略した選択肢の失敗を記録します。
+	 * <p>省略された選択肢は次の文字で失敗することが明らかであるため、
+	 * そのFIRST集合を期待された要素として記録します。</p>
+	 * @param first 省略された選択肢のFIRST集合
+	 * @param ch 次の文字
+	 */
+	void skipped(FirstSet first, int ch) {
+		// 記録済みの失敗より手前の位置であればメッセージを生成しない
+		if (_source.index() < _failureIndex) return;
+		recordFailure(FailureMessage.expected(first.expected(), ch));
+	}
+	/**
+	 * 期待された要素が見つからなかったことによるパース失敗を表すオブジェクトを返します。
+	 * <p>直前の呼び出しと期待された要素（同一のインスタンス）と実際に見つかった文字が同じであれば
+	 * 直前のオブジェクトをそのまま返します。
+	 * コンテキストは単一のスレッドで利用されるため、パーサーを複数のスレッドで共有する場合も同期は不要です。</p>
+	 * @param expected 期待された要素
+	 * @param actual 実際に見つかった文字のコードポイント（EOFの場合は{@code -1}）
+	 * @return パース結果オブジェクト
+	 */
+	ResultCore failureExpecting(Object expected, int actual) {
+		final ResultCore last = _lastFailure;
+		if (last != null && last.failureMessage().matches(expected, actual)) return last;
+		final ResultCore r = new ResultCore(false, true, FailureMessage.expected(expected, actual));
+		_lastFailure = r;
+		return r;
+	}
+	/**
+	 * コンパイルされたパーサーが失敗の情報を受け取るための配列を返します。
+	 * <p>配列はコンテキストごとに1つ作成され、パースのたびに再利用されます。</p>
+	 * @return 配列
+	 * @see CompiledGrammar#match(int, CharSequence, int, int[])
+	 */
+	int[] compiledFailure() {
+		if (_compiledFailure == null) _compiledFailure = new int[3];
+		return _compiledFailure;
+	}
+	/**
+	 * パーサーの失敗を記録します。
+	 * @param message 失敗の理由を示すメッセージ
+	 */
+	private void recordFailure(FailureMessage message) {
+		final int index = _source.index();
+		if (index < _failureIndex) return;
+		if (index > _failureIndex) {
+			_failureIndex = index;
+			_failureCount = 0;
+		}
+		if (message == null) return;
+		// 子パーサーのメッセージを引き継いだ親パーサーの失敗や同じ要素を期待する失敗は重複して記録しない
+		final Object expected = message.expected();
+		for (int i = 0; i < _failureCount; i ++) {
+			final FailureMessage m = _failures[i];
+			if (m == message || (expected != null && expected.equals(m.expected()))) return;
+		}
+		if (_failures == null) _failures = new FailureMessage[MAX_FAILURES];
+		if (_failureCount < MAX_FAILURES) _failures[_failureCount ++] = message;
+	}
+	/**
+	 * データソースの直近のマークをカットします。
+	 * <p>カットによりバックトラックで戻ることのなくなった文字位置を開始位置とするパース結果は
+	 * メモ表から破棄されます。</p>
+	 */
+	void cut() {
+		_source.cut();
+		if (_memo != null) _memo.evictBelow(_source.retentionFloor());
+	}
+	/**
+	 * 内側のパーサーで行われたカットが外側のマークに及ばないよう、カット済みのマークを設定します。
+	 * <p>内側のパーサーの結果をバックトラック可能な結果に置き換えるパーサーは、
+	 * 内側のパーサーの呼び出しの前にこのメソッドを、呼び出しの後に{@link #unfenceCut(boolean)}を呼び出します。
+	 * 設定されるマークはカット済みであるため文字の保持の対象とはなりません。</p>
+	 */
+	void fenceCut() {
+		_source.markCut();
+	}
+	/**
+	 * {@link #fenceCut()}で設定したマークを解除します。
+	 * @param cut 呼び出し元がバックトラック不可の結果を返す場合{@code true}、
+	 * このとき外側の直近のマークをカットする
+	 */
+	void unfenceCut(boolean cut) {
+		_source.unmark();
+		if (cut) cut();
+	}
+	void preParse(ParserSupport parser) throws IOException {
 		preParse_doSkip();
-		if (!_logging) return;
-		_stack.push(parserName);
-		_logAppender.accept(makeLabel('+').append(paramsString).toString());
+		_depth ++;
+		if (_listener != null) _listener.enter(parser, _source.index());
 	}
 	private void preParse_doSkip() throws IOException {
-		if (!_autoSkip) return;
-		while (_source.hasRemaining()) {
-			final char ch = (char)_source.peek();
-			if (!_skipTarget.contains(ch)) break;
-			_source.read();
-		}
+		if (_autoSkip) _source.skipWhile(_skipTarget);
+	}
+	void postParse(ParserSupport parser, ResultCoreSupport result) {
+		postParse_doUnpin();
+		if (!result.isSuccessful()) recordFailure(result.failureMessage());
+		if (_listener != null) _listener.exit(parser, _source.index(), result);
+	}
+	private void postParse_doUnpin() {
+		// 最も外側のパーサーが終了したらスライスが参照する文字の保持を解除する
+		if (-- _depth == 0) _source.unpin();
 	}
-	void postParse(ResultCore result) {
-		if (!_logging) return;
-        final StringBuilder buff = makeLabel('-');
-        if (result.isSuccessful()) buff.append("Success(");
-        else buff.append("Failure(").append(result.message());
-        if (!result.canBacktrack()) buff.append(", cut");
-        _logAppender.accept(buff.append(')').toString());
-		_stack.pop();
-	}
-	<T> void postParse(ValResultCore<T> result) {
-		if (!_logging) return;
-        final StringBuilder buff = makeLabel('-');
-        if (result.isSuccessful()) buff.append("Success(").append(result.value());
-        else buff.append("Failure(").append(result.message());
-        if (!result.canBacktrack()) buff.append(", cut");
-        _logAppender.accept(buff.append(')').toString());
-		_stack.pop();
-	}
-	private StringBuilder makeLabel(char sign) {
-		final CharPosition pos = _source.position();
-        final StringBuilder buff = new StringBuilder();
-        final int depth = (_stack.size() - 1) * 2;
-        for (int i = 0; i < depth; i++) {
-        	buff.append(' ');
-        }
-        return buff.append(sign).append(' ').append(_stack.peek())
-                .append(' ').append(pos).append(' ');
+	/**
+	 * 例外によりパースが中断されたパーサーについて、{@link #preParse(ParserSupport)}以降に変更された状態を元に戻します。
+	 * <p>パーサーが設定したまま残っているマークを解除し、パーサーの呼び出しの深さを戻します。
+	 * リスナーにはパーサーの呼び出しが失敗により終了したものとして通知します。
+	 * 中断は失敗として記録されず、メモ化もされません。</p>
+	 * @param parser パーサー
+	 * @param markCount パーサーの呼び出し開始時のマークの数
+	 */
+	void abortParse(ParserSupport parser, int markCount) {
+		_source.unmarkTo(markCount);
+		postParse_doUnpin();
+		if (_listener != null) _listener.exit(parser, _source.index(), ABORTED);
+	}
+	/**
+	 * パーサーの呼び出しの深さを返します。
+	 * @return 深さ
+	 */
+	int depth() {
+		return _depth;
 	}
 }
 
@@ -1,6 +1,6 @@
 package org.unclazz.parsec;
 
-import java.util.Stack;
+import java.util.Deque;
 import java.util.function.Consumer;
 
 /**
@@ -8,15 +8,33 @@ import java.util.function.Consumer;
  */
 public class ContextConfigurer {
 	private final TextReader _reader;
-	private final Stack<String> _stack;
+	private final Deque<String> _stack;
 	private Consumer<String> _logAppender;
 	private CharClass _skipTarget;
+	private PositionTracking _positionTracking;
+	private boolean _memoization;
+	private boolean _explicitStack;
+	private int _maxStackDepth;
+	private ParseListener _parseListener;
+	private ParseProfiler _profiler;
+	private boolean _flightRecording;
+	private int _backtrackEventThreshold;
+	private int _bufferGrowthEventThreshold;
 	
 	ContextConfigurer(Context ctx) {
 		_reader = ctx.source();
 		_stack = ctx.stack();
 		_logAppender = ctx.logAppender();
 		_skipTarget = ctx.skipTarget();
+		_positionTracking = ctx.positionTracking();
+		_memoization = ctx.memoization();
+		_explicitStack = ctx.explicitStack();
+		_maxStackDepth = ctx.maxStackDepth();
+		_parseListener = ctx.parseListener();
+		_profiler = ctx.profiler();
+		_flightRecording = ctx.flightRecording();
+		_backtrackEventThreshold = ctx.backtrackEventThreshold();
+		_bufferGrowthEventThreshold = ctx.bufferGrowthEventThreshold();
 	}
 	
 	/**
@@ -39,7 +57,135 @@ public class ContextConfigurer {
 		_skipTarget = skipTarget;
 		return this;
 	}
+	/**
+	 * 文字位置の追跡レベルを設定します。
+	 * <p>追跡レベルはパースを開始する前に設定する必要があります。</p>
+	 * @param positionTracking 追跡レベル
+	 * @return レシーバー・オブジェクトへの参照
+	 */
+	public ContextConfigurer setPositionTracking(PositionTracking positionTracking) {
+		ParsecUtility.mustNotBeNull("positionTracking", positionTracking);
+		_positionTracking = positionTracking;
+		return this;
+	}
+	/**
+	 * すべてのパーサーのパース結果をメモ化するかどうかを設定します。
+	 * <p>有効にすると、パーサーと開始位置の組み合わせごとにパース結果が記録され、
+	 * バックトラックの後に同じ位置で同じパーサーが呼び出されたときは記録された結果が再利用されます（packrat parsing）。
+	 * 特定のパーサーのみをメモ化する場合は{@link Parser#memo()}や{@link ValParser#memo()}を利用します。
+	 * 記録された結果はカットによりバックトラックで戻ることのなくなった時点で破棄されます。</p>
+	 * <p>パーサーはその開始位置だけで結果が決まるもの（副作用や外部の状態に依存しないもの）でなくてはなりません。</p>
+	 * @param memoization メモ化を有効にする場合{@code true}
+	 * @return レシーバー・オブジェクトへの参照
+	 */
+	public ContextConfigurer setMemoization(boolean memoization) {
+		_memoization = memoization;
+		return this;
+	}
+	/**
+	 * パーサーの呼び出しをJavaのスタックではなくヒープ上のスタックで行うかどうかを設定します。
+	 * <p>有効にすると、組み込みのパーサーによる子のパーサーの呼び出しはJavaのメソッド呼び出しの代わりに
+	 * ヒープ上のスタックへのフレームの積み下ろしとして行われます。
+	 * {@link Parsers#lazy(org.unclazz.parsec.util.ValParserFactory)}などで再帰的に定義された文法で
+	 * 深く入れ子になった入力をパースしても{@link StackOverflowError}は発生せず、
+	 * 入れ子の深さは{@link #setMaxStackDepth(int)}で設定した上限だけによって制限されます。</p>
+	 * <p>利用者が{@code doParse(Context)}をオーバーライドして定義したパーサーは従来どおりJavaのスタックの上でパースされます。
+	 * そのようなパーサーが再帰の経路に含まれる場合、入れ子1段ごとにそのパーサーの分のJavaのスタックが消費されます。</p>
+	 * @param explicitStack 明示的なスタックを有効にする場合{@code true}
+	 * @return レシーバー・オブジェクトへの参照
+	 */
+	public ContextConfigurer setExplicitStack(boolean explicitStack) {
+		_explicitStack = explicitStack;
+		return this;
+	}
+	/**
+	 * 明示的なスタックの深さの上限を設定します。
+	 * <p>深さはパーサーの呼び出しの入れ子の数で、1段あたりのメモリは数十バイト程度です。
+	 * 上限に達すると{@link ParseStackOverflowException}がスローされます。
+	 * 既定値は{@code 1048576}です。</p>
+	 * @param maxStackDepth 上限
+	 * @return レシーバー・オブジェクトへの参照
+	 * @throws IllegalArgumentException 上限が{@code 1}未満の場合
+	 */
+	public ContextConfigurer setMaxStackDepth(int maxStackDepth) {
+		if (maxStackDepth < 1) throw new IllegalArgumentException("maxStackDepth must be greater than 0.");
+		_maxStackDepth = maxStackDepth;
+		return this;
+	}
+	/**
+	 * パースの進行状況の通知を受け取るリスナーを設定します。
+	 * <p>リスナーにはパーサーの呼び出しの開始と終了、リセットによる文字位置の後退が通知されます。
+	 * ログ・アペンダーが設定されている場合、ログ出力はこのリスナーへの通知と並行して行われます。
+	 * {@code null}を設定するとリスナーへの通知は無効化されます。</p>
+	 * <p>リスナーが設定されている場合、{@link Parser#compile()}などでコンパイルされたパーサーは
+	 * 子のパーサーの呼び出しが通知されるようにコンパイル前のパーサーでパースを行います。</p>
+	 * @param parseListener リスナー
+	 * @return レシーバー・オブジェクトへの参照
+	 */
+	public ContextConfigurer setParseListener(ParseListener parseListener) {
+		_parseListener = parseListener;
+		return this;
+	}
+	/**
+	 * パーサーの呼び出しごとの統計を収集するプロファイラーを設定します。
+	 * <p>{@link ParseProfiler#sampled(double)}で作成したプロファイラーを設定した場合、
+	 * 統計を収集するかどうかは構成変更されたコンテキストの作成時に抽選されます。
+	 * {@code null}を設定すると統計の収集は無効化されます。</p>
+	 * @param profiler プロファイラー
+	 * @return レシーバー・オブジェクトへの参照
+	 */
+	public ContextConfigurer setProfiler(ParseProfiler profiler) {
+		_profiler = profiler;
+		return this;
+	}
+	/**
+	 * パースのセッションとバックトラックをJDK Flight Recorder（JFR）のイベントとして記録するかどうかを設定します。
+	 * <p>有効にすると、最も外側のパーサーの呼び出しごとに{@code org.unclazz.parsec.ParseSession}イベントが、
+	 * {@link #setBacktrackEventThreshold(int)}で設定した文字数以上の後退を伴うリセットごとに
+	 * {@code org.unclazz.parsec.Backtrack}イベントが記録されます。
+	 * イベントは記録中のレコーディングで有効にされている場合にだけ記録されます。
+	 * 実行環境がJFRを含まない場合、この設定は無視されます。</p>
+	 * <p>リーダーのバッファの拡張を示す{@code org.unclazz.parsec.BufferGrowth}イベントは
+	 * この設定にかかわらず、拡張後の容量が{@link #setBufferGrowthEventThreshold(int)}で設定した値以上の場合に記録されます。</p>
+	 * @param flightRecording 記録する場合{@code true}
+	 * @return レシーバー・オブジェクトへの参照
+	 */
+	public ContextConfigurer setFlightRecording(boolean flightRecording) {
+		_flightRecording = flightRecording;
+		return this;
+	}
+	/**
+	 * JFRのイベントとして記録するバックトラックの文字数の下限を設定します。
+	 * <p>既定値は{@code 256}です。</p>
+	 * @param backtrackEventThreshold 下限
+	 * @return レシーバー・オブジェクトへの参照
+	 * @throws IllegalArgumentException 下限が{@code 1}未満の場合
+	 */
+	public ContextConfigurer setBacktrackEventThreshold(int backtrackEventThreshold) {
+		if (backtrackEventThreshold < 1) {
+			throw new IllegalArgumentException("backtrackEventThreshold must be greater than 0.");
+		}
+		_backtrackEventThreshold = backtrackEventThreshold;
+		return this;
+	}
+	/**
+	 * JFRのイベントとして記録するリーダーのバッファの拡張の容量の下限を設定します。
+	 * <p>拡張後の容量（文字数）がこの値以上の場合に限り{@code org.unclazz.parsec.BufferGrowth}イベントが記録されます。
+	 * 既定値は{@code 65536}です。</p>
+	 * @param bufferGrowthEventThreshold 下限
+	 * @return レシーバー・オブジェクトへの参照
+	 * @throws IllegalArgumentException 下限が{@code 1}未満の場合
+	 */
+	public ContextConfigurer setBufferGrowthEventThreshold(int bufferGrowthEventThreshold) {
+		if (bufferGrowthEventThreshold < 1) {
+			throw new IllegalArgumentException("bufferGrowthEventThreshold must be greater than 0.");
+		}
+		_bufferGrowthEventThreshold = bufferGrowthEventThreshold;
+		return this;
+	}
 	Context makeContext() {
-		return new Context(_reader, _stack, _logAppender, _skipTarget);
+		return new Context(_reader, _stack, _logAppender, _skipTarget, _positionTracking, _memoization,
+				_explicitStack, _maxStackDepth, _parseListener, _profiler, _flightRecording, _backtrackEventThreshold,
+				_bufferGrowthEventThreshold);
 	}
 }
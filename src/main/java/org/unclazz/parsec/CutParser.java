@@ -10,7 +10,44 @@ final class CutParser extends Parser {
 	}
 	@Override
 	protected ResultCore doParse(Context ctx) throws IOException {
-		final Result r = _original.parse(ctx);
-		return r.allowBacktrack(!r.isSuccessful());
+		// 元のパーサーが失敗した場合はバックトラック可能とするため、その中でのカットは外側に及ぼさない
+		ctx.fenceCut();
+		final ResultCore r = _original.parseCore(ctx);
+		if (!r.isSuccessful()) {
+			ctx.unfenceCut(false);
+			return r.allowBacktrack(true);
+		}
+		
+		// 直近のorが設定したマークをカットしてそれより前の文字を破棄可能にする
+		ctx.unfenceCut(true);
+		return r.allowBacktrack(false);
 	}
-}
\ No newline at end of file
+	@Override
+	ParseFrame frame(Context ctx) {
+		return new Frame();
+	}
+	// doParse(Context)を元のパーサーの呼び出しの前後で分割したもの
+	private final class Frame extends ParseFrame {
+		@Override
+		ParserSupport resume(Context ctx, ResultCoreSupport child) {
+			if (child == null) {
+				ctx.fenceCut();
+				return _original;
+			}
+			final ResultCore r = core(child);
+			ctx.unfenceCut(r.isSuccessful());
+			return done(r.allowBacktrack(!r.isSuccessful()));
+		}
+	}
+	@Override
+	FirstSet first() {
+		// 文字を読み取らずにカットに到達しうる場合、次の文字にかかわらずバックトラックが無効になるので不明とする
+		final FirstSet first = _original.first();
+		return first.nullable() ? FirstSet.UNKNOWN : first;
+	}
+	@Override
+	Parser rewrite(Optimizer optimizer) {
+		final Parser original = optimizer.optimize(_original);
+		return original == _original ? this : new CutParser(original);
+	}
+}
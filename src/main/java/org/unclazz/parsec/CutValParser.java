@@ -9,8 +9,45 @@ final class CutValParser<T> extends ValParser<T> {
 		_original = original;
 	}
 	@Override
-	protected ValResult<T> doParse(Context ctx) throws IOException {
-		final ValResult<T> r = _original.parse(ctx);
-		return r.allowBacktrack(!r.isSuccessful());
+	protected ValResultCore<T> doParse(Context ctx) throws IOException {
+		// 元のパーサーが失敗した場合はバックトラック可能とするため、その中でのカットは外側に及ぼさない
+		ctx.fenceCut();
+		final ValResultCore<T> r = _original.parseCore(ctx);
+		if (!r.isSuccessful()) {
+			ctx.unfenceCut(false);
+			return r.allowBacktrack(true);
+		}
+		
+		// 直近のorが設定したマークをカットしてそれより前の文字を破棄可能にする
+		ctx.unfenceCut(true);
+		return r.allowBacktrack(false);
 	}
-}
\ No newline at end of file
+	@Override
+	ParseFrame frame(Context ctx) {
+		return new Frame();
+	}
+	// doParse(Context)を元のパーサーの呼び出しの前後で分割したもの
+	private final class Frame extends ParseFrame {
+		@Override
+		ParserSupport resume(Context ctx, ResultCoreSupport child) {
+			if (child == null) {
+				ctx.fenceCut();
+				return _original;
+			}
+			final ValResultCore<T> r = valCore(child);
+			ctx.unfenceCut(r.isSuccessful());
+			return done(r.allowBacktrack(!r.isSuccessful()));
+		}
+	}
+	@Override
+	FirstSet first() {
+		// 文字を読み取らずにカットに到達しうる場合、次の文字にかかわらずバックトラックが無効になるので不明とする
+		final FirstSet first = _original.first();
+		return first.nullable() ? FirstSet.UNKNOWN : first;
+	}
+	@Override
+	ValParser<T> rewrite(Optimizer optimizer) {
+		final ValParser<T> original = optimizer.optimize(_original);
+		return original == _original ? this : new CutValParser<>(original);
+	}
+}
@@ -6,7 +6,23 @@ final class EofParser extends Parser {
 	@Override
 	protected ResultCore doParse(Context ctx) throws IOException {
 		final int ch = ctx.source().peek();
-		return ch == -1 ? success() : failure("EOF expected but %s found."
-						, ParsecUtility.charToString(ch));
+		return ch == -1 ? success() : failureExpecting(ctx, "EOF", ch);
 	}
-}
\ No newline at end of file
+	@Override
+	boolean compilable(GrammarCompiler compiler) {
+		return true;
+	}
+	@Override
+	void emit(GrammarCompiler compiler, String start, String end) {
+		compiler.open("if (%s == -1)", compiler.charAt(start));
+		compiler.line("%s = %s;", end, start);
+		compiler.close();
+		compiler.open("else");
+		compiler.fail(this, end, start, "0");
+		compiler.close();
+	}
+	@Override
+	ResultCore compiledFailure(Context ctx, int actual, int aux) {
+		return failureExpecting(ctx, "EOF", actual);
+	}
+}
@@ -4,16 +4,27 @@ package org.unclazz.parsec;
  * まさにその1文字を表す文字クラスです。
  */
 final class ExactCharCharClass extends CharClass{
-	private char _ch;
+	private final char _ch;
 	private String _contentCache;
 	ExactCharCharClass(char ch) {
 		_ch = ch;
 	}
+	char ch() {
+		return _ch;
+	}
 	@Override
 	public boolean contains(int ch) {
 		return _ch == ch;
 	}
 	@Override
+	boolean inlinable() {
+		return true;
+	}
+	@Override
+	String condition(GrammarCompiler compiler, String ch) {
+		return "(" + ch + " == " + (int) _ch + ")";
+	}
+	@Override
 	public CharClass union(CharClass other) {
 		// レシーバが判定対象とする文字が先方クラスに含まれている場合　先方クラスをそのまま返す
 		if (other.contains(_ch)) return other;
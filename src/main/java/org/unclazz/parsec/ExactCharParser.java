@@ -16,8 +16,39 @@ final class ExactCharParser extends Parser {
 			src.read();
 			return success();
 		}
-		return failure("%s expected but %s found.", 
-						ParsecUtility.charToString(_ch),
-						ParsecUtility.charToString(ch));
+		return failureExpecting(ctx, FailureMessage.charArg(_ch), ch);
+	}
+	@Override
+	FirstSet first() {
+		return FirstSet.of(CharClass.exact(_ch));
+	}
+	@Override
+	String literal() {
+		return String.valueOf(_ch);
+	}
+	@Override
+	CharClass singleCharClass() {
+		return CharClass.exact(_ch);
+	}
+	@Override
+	boolean atomic() {
+		return true;
+	}
+	@Override
+	boolean compilable(GrammarCompiler compiler) {
+		return true;
+	}
+	@Override
+	void emit(GrammarCompiler compiler, String start, String end) {
+		compiler.open("if (%s == %s)", compiler.charAt(start), (int) _ch);
+		compiler.line("%s = %s + 1;", end, start);
+		compiler.close();
+		compiler.open("else");
+		compiler.fail(this, end, start, "0");
+		compiler.close();
+	}
+	@Override
+	ResultCore compiledFailure(Context ctx, int actual, int aux) {
+		return failureExpecting(ctx, FailureMessage.charArg(_ch), actual);
 	}
 }
@@ -0,0 +1,152 @@
+package org.unclazz.parsec;
+
+/**
+ * パース失敗の理由を示すメッセージです。
+ * <p>メッセージはフォーマットとその引数の組として保持され、
+ * {@link #toString()}により初めて参照されたときに文字列に整形されます。
+ * バックトラックを行うパーサーのもとでは失敗の大半は選択肢や繰返しにより捨てられ、
+ * そのメッセージが参照されることはないため、整形のコストはほとんどの場合発生しません。</p>
+ * <p>パース結果オブジェクトが失敗の理由を引き継ぐ場合、このオブジェクトがそのまま共有されます。</p>
+ * <p>期待された文字や文字クラスと実際に見つかった文字とからなるメッセージは{@link #expected(Object, int)}で生成します。
+ * {@link Context}は最も遠い位置で失敗したパーサーのメッセージから期待された要素を集めて{@link FarthestFailure}を作成します。</p>
+ */
+final class FailureMessage {
+	// EOFとASCII文字の引数はインスタンスを共有する
+	private static final CharArg[] _charArgs = new CharArg[129];
+	static {
+		for (int i = 0; i < _charArgs.length; i ++) _charArgs[i] = new CharArg(i - 1);
+	}
+
+	/**
+	 * 整形済みのメッセージからインスタンスを生成します。
+	 * @param message メッセージ
+	 * @return インスタンス（メッセージが{@code null}の場合は{@code null}）
+	 */
+	static FailureMessage of(String message) {
+		return message == null ? null : new FailureMessage(message, null);
+	}
+	/**
+	 * フォーマットとその引数からインスタンスを生成します。
+	 * <p>引数はメッセージが参照されるまで保持されるため、その内容が後から変更されるものであってはなりません。</p>
+	 * @param format フォーマット
+	 * @param args フォーマット引数
+	 * @return インスタンス
+	 */
+	static FailureMessage of(String format, Object[] args) {
+		ParsecUtility.mustNotBeNull("format", format);
+		return new FailureMessage(format, args);
+	}
+	/**
+	 * 期待された要素と実際に見つかった文字からインスタンスを生成します。
+	 * <p>メッセージは{@code "%s expected but %s found."}の形式となります。</p>
+	 * @param expected 期待された要素（整形の際に{@link Object#toString()}により文字列に変換される）
+	 * @param actual 実際に見つかった文字のコードポイント（EOFの場合は{@code -1}）
+	 * @return インスタンス
+	 */
+	static FailureMessage expected(Object expected, int actual) {
+		return new FailureMessage(EXPECTED_FORMAT, new Object[] { expected, charArg(actual) }, expected);
+	}
+	/**
+	 * 文字クラスのメンバーが期待されたことを示すフォーマット引数を返します。
+	 * @param clazz 文字クラス
+	 * @return フォーマット引数
+	 */
+	static Object classArg(CharClass clazz) {
+		return new ClassArg(clazz);
+	}
+	/**
+	 * 文字を表すフォーマット引数を返します。
+	 * <p>引数は整形の際に{@link ParsecUtility#charToString(int)}により文字列に変換されます。</p>
+	 * @param ch 文字のコードポイント（EOFの場合は{@code -1}）
+	 * @return フォーマット引数
+	 */
+	static Object charArg(int ch) {
+		return -1 <= ch && ch < 128 ? _charArgs[ch + 1] : new CharArg(ch);
+	}
+
+	private static final String EXPECTED_FORMAT = "%s expected but %s found.";
+
+	private final String _format;
+	private final Object[] _args;
+	private final Object _expected;
+	private String _text;
+
+	private FailureMessage(String format, Object[] args) {
+		this(format, args, null);
+	}
+	private FailureMessage(String format, Object[] args, Object expected) {
+		_format = format;
+		_args = args;
+		_expected = expected;
+	}
+
+	/**
+	 * 期待された要素を返します。
+	 * @return 期待された要素（{@link #expected(Object, int)}で生成されたインスタンスでない場合は{@code null}）
+	 */
+	Object expected() {
+		return _expected;
+	}
+	/**
+	 * 実際に見つかった文字を表すフォーマット引数を返します。
+	 * @return フォーマット引数（{@link #expected(Object, int)}で生成されたインスタンスでない場合は{@code null}）
+	 */
+	Object actual() {
+		return _expected == null ? null : _args[1];
+	}
+	/**
+	 * このインスタンスが{@link #expected(Object, int)}に同じ引数を指定して生成されたものかどうかを判定します。
+	 * <p>期待された要素はインスタンスの同一性で比較します。</p>
+	 * @param expected 期待された要素
+	 * @param actual 実際に見つかった文字のコードポイント（EOFの場合は{@code -1}）
+	 * @return 同じ引数で生成されたものである場合{@code true}
+	 */
+	boolean matches(Object expected, int actual) {
+		return _expected == expected && expected != null && ((CharArg) _args[1])._ch == actual;
+	}
+
+	@Override
+	public String toString() {
+		if (_text == null) {
+			_text = _args == null ? _format : String.format(_format, _args);
+		}
+		return _text;
+	}
+
+	private static final class CharArg {
+		private final int _ch;
+		CharArg(int ch) {
+			_ch = ch;
+		}
+		@Override
+		public String toString() {
+			return ParsecUtility.charToString(_ch);
+		}
+		@Override
+		public boolean equals(Object other) {
+			return other instanceof CharArg && ((CharArg) other)._ch == _ch;
+		}
+		@Override
+		public int hashCode() {
+			return _ch;
+		}
+	}
+	private static final class ClassArg {
+		private final CharClass _clazz;
+		ClassArg(CharClass clazz) {
+			_clazz = clazz;
+		}
+		@Override
+		public String toString() {
+			return "a member of class (" + _clazz + ")";
+		}
+		@Override
+		public boolean equals(Object other) {
+			return other instanceof ClassArg && ((ClassArg) other)._clazz == _clazz;
+		}
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(_clazz);
+		}
+	}
+}
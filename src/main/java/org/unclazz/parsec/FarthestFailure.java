@@ -0,0 +1,54 @@
+package org.unclazz.parsec;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * パース中に最も遠い文字位置で発生した失敗を表すオブジェクトです。
+ * <p>バックトラックを行うパーサーでは最も外側のパーサーが返すメッセージは最後に失敗した選択肢のものとなりますが、
+ * 入力の誤りの位置を示しているのは多くの場合もっとも先まで読み進んだ選択肢の失敗です。
+ * インスタンスは{@link Context#farthestFailure()}から得られ、
+ * その位置で失敗したパーサーが期待していた要素の一覧を保持します。
+ * デバッグログを有効にして再度パースを行わなくても、利用者向けのエラーメッセージを組み立てることができます。</p>
+ */
+public final class FarthestFailure {
+	private final CharPosition _position;
+	private final List<String> _expected;
+	private final String _message;
+
+	FarthestFailure(CharPosition position, List<String> expected, String message) {
+		_position = position;
+		_expected = Collections.unmodifiableList(expected);
+		_message = message;
+	}
+
+	/**
+	 * 失敗が発生した文字位置です。
+	 * @return 文字位置
+	 */
+	public CharPosition position() {
+		return _position;
+	}
+	/**
+	 * 失敗が発生した位置で期待されていた要素の一覧です。
+	 * <p>要素は失敗が記録された順に並び、重複は取り除かれています。</p>
+	 * @return 要素の文字列表現のリスト（期待された要素が記録されていない場合は空のリスト）
+	 */
+	public List<String> expected() {
+		return _expected;
+	}
+	/**
+	 * 失敗の理由を示すメッセージです。
+	 * <p>期待された要素が記録されている場合、
+	 * メッセージはそれらを列挙した{@code "'a'(97), 'b'(98) or EOF expected but 'x'(120) found."}のような形式となります。
+	 * そうでない場合はその位置で最初に失敗したパーサーのメッセージとなります。</p>
+	 * @return メッセージ
+	 */
+	public String message() {
+		return _message;
+	}
+	@Override
+	public String toString() {
+		return String.format("FarthestFailure(position=%s, message=%s)", _position, _message);
+	}
+}
@@ -0,0 +1,143 @@
+package org.unclazz.parsec;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * パーサーのFIRST集合を表すオブジェクトです。
+ * <p>FIRST集合はパーサーのパースが成功するときに最初に読み取られうる文字の集合と、
+ * 文字を読み取らずにパースが成功しうるかどうか（nullable）の組み合わせです。
+ * 選択（{@link Parser#or(Parser)}など）は次の文字が左側のFIRST集合に含まれない場合、
+ * 左側のパースを試みずに右側のパースを行います。</p>
+ * <p>FIRST集合を計算できないパーサーは{@link #UNKNOWN}を返します。
+ * このインスタンスはあらゆる文字から始まりうるものとして扱われます。</p>
+ */
+final class FirstSet {
+	/**
+	 * FIRST集合が不明であることを示すインスタンスです。
+	 */
+	static final FirstSet UNKNOWN = new FirstSet(null, true);
+	
+	/**
+	 * 文字を読み取らずにパースが成功することのないFIRST集合を返します。
+	 * @param chars 最初に読み取られうる文字の集合
+	 * @return FIRST集合
+	 */
+	static FirstSet of(CharClass chars) {
+		return of(chars, false);
+	}
+	/**
+	 * FIRST集合を返します。
+	 * @param chars 最初に読み取られうる文字の集合
+	 * @param nullable 文字を読み取らずにパースが成功しうる場合{@code true}
+	 * @return FIRST集合
+	 */
+	static FirstSet of(CharClass chars, boolean nullable) {
+		ParsecUtility.mustNotBeNull("chars", chars);
+		return new FirstSet(chars, nullable);
+	}
+	
+	/**
+	 * 遅延初期化されるパーサー（{@link LazyParser}など）のFIRST集合を計算します。
+	 * <p>再帰的な文法で無限に再帰しないよう、同じパーサーのFIRST集合の計算中に再びその計算が求められた場合は{@link #UNKNOWN}を返します。
+	 * 計算中のパーサーはスレッドごとに管理されるため、複数のスレッドが同じ文法のFIRST集合を同時に計算しても結果は変わりません。</p>
+	 * @param lazy 遅延初期化されるパーサー
+	 * @param target 初期化されたパーサー
+	 * @return FIRST集合
+	 */
+	static FirstSet ofLazy(ParserSupport lazy, ParserSupport target) {
+		final Set<ParserSupport> analyzing = _analyzing.get();
+		if (!analyzing.add(lazy)) return UNKNOWN;
+		try {
+			return target.first();
+		} finally {
+			analyzing.remove(lazy);
+		}
+	}
+	
+	// FIRST集合を計算中の遅延初期化されるパーサー
+	private static final ThreadLocal<Set<ParserSupport>> _analyzing =
+			ThreadLocal.withInitial(() -> Collections.newSetFromMap(new IdentityHashMap<>()));
+	
+	private final CharClass _chars;
+	private final boolean _nullable;
+	private final Object _expected;
+	
+	private FirstSet(CharClass chars, boolean nullable) {
+		_chars = chars;
+		_nullable = nullable;
+		// 文法を複数のスレッドで共有できるようすべてのフィールドを構築時に初期化する
+		_expected = chars == null ? null : chars instanceof ExactCharCharClass
+				? FailureMessage.charArg(((ExactCharCharClass) chars).ch())
+				: FailureMessage.classArg(chars);
+	}
+	
+	/**
+	 * このFIRST集合を持つパーサーが期待する要素を表すフォーマット引数を返します。
+	 * <p>選択がこのFIRST集合を持つ選択肢のパースを省略したとき、
+	 * 省略された選択肢の失敗の代わりに{@link Context}に記録されます。</p>
+	 * @return フォーマット引数
+	 */
+	Object expected() {
+		return _expected;
+	}
+	
+	/**
+	 * 指定された文字から始まる入力に対してパースが成功しうるかどうかを判定します。
+	 * <p>nullableである場合、およびデータソースの終端（{@code -1}）の場合は常に{@code true}を返します。</p>
+	 * @param ch 次の文字
+	 * @return 成功しうる場合{@code true}
+	 */
+	boolean canStartWith(int ch) {
+		return _nullable || ch == -1 || _chars.contains(ch);
+	}
+	/**
+	 * 文字を読み取らずにパースが成功しうるかどうかを示します。
+	 * @return nullableである場合{@code true}
+	 */
+	boolean nullable() {
+		return _nullable;
+	}
+	/**
+	 * FIRST集合が不明かどうかを示します。
+	 * @return 不明である場合{@code true}
+	 */
+	boolean unknown() {
+		return _chars == null;
+	}
+	/**
+	 * このFIRST集合をnullableとしたものを返します。
+	 * @return FIRST集合
+	 */
+	FirstSet orEmpty() {
+		return _nullable ? this : new FirstSet(_chars, true);
+	}
+	/**
+	 * このFIRST集合を持つパーサーに続けて引数のパーサーを適用する連接のFIRST集合を返します。
+	 * <p>このFIRST集合がnullableでない場合、後続のパーサーのFIRST集合は計算されません。</p>
+	 * @param next 後続のパーサー
+	 * @return FIRST集合
+	 */
+	FirstSet then(ParserSupport next) {
+		if (!_nullable) return this;
+		if (unknown()) return UNKNOWN;
+		final FirstSet nextFirst = next.first();
+		if (nextFirst.unknown()) return UNKNOWN;
+		return new FirstSet(_chars.union(nextFirst._chars), nextFirst._nullable);
+	}
+	/**
+	 * このFIRST集合と引数のFIRST集合の和を返します。
+	 * @param other FIRST集合
+	 * @return FIRST集合
+	 */
+	FirstSet or(FirstSet other) {
+		if (unknown() || other.unknown()) return UNKNOWN;
+		return new FirstSet(_chars.union(other._chars), _nullable || other._nullable);
+	}
+	@Override
+	public String toString() {
+		if (unknown()) return "FirstSet(unknown)";
+		return String.format("FirstSet(%s%s)", _chars, _nullable ? ", nullable" : "");
+	}
+}
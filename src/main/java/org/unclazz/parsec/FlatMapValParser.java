@@ -15,9 +15,45 @@ final class FlatMapValParser<T,U> extends ValParser<U> {
 
 	@Override
 	protected ValResultCore<U> doParse(Context ctx) throws IOException {
-		final ValResult<T> r = _original.parse(ctx);
-		return r.isSuccessful() 
-				? _func.apply(r.value()).parse(ctx)
-						: failure(r.message());
+		// 結果は後続のパーサーのものとなるため、元のパーサーの中でのカットは外側に及ぼさない
+		ctx.fenceCut();
+		final ValResultCore<T> r = _original.parseCore(ctx);
+		ctx.unfenceCut(false);
+		if (!r.isSuccessful()) return failure(r);
+		
+		return _func.apply(r.value()).parseCore(ctx);
 	}
-}
\ No newline at end of file
+	@Override
+	ParseFrame frame(Context ctx) {
+		return new Frame();
+	}
+	// doParse(Context)を元のパーサーと後続のパーサーの呼び出しの前後で分割したもの
+	private final class Frame extends ParseFrame {
+		private ValResultCore<T> _r;
+		@Override
+		ParserSupport resume(Context ctx, ResultCoreSupport child) {
+			if (child == null) {
+				ctx.fenceCut();
+				return _original;
+			}
+			if (_r == null) {
+				_r = valCore(child);
+				ctx.unfenceCut(false);
+				if (!_r.isSuccessful()) return done(failure(_r));
+				return _func.apply(_r.value());
+			}
+			return done(valCore(child));
+		}
+	}
+	@Override
+	FirstSet first() {
+		// 後続のパーサーは値が得られるまで決まらないため左側がnullableの場合は不明とする
+		final FirstSet first = _original.first();
+		return first.nullable() ? FirstSet.UNKNOWN : first;
+	}
+	@Override
+	ValParser<U> rewrite(Optimizer optimizer) {
+		final ValParser<T> original = optimizer.optimize(_original);
+		return original == _original ? this : new FlatMapValParser<>(original, _func);
+	}
+}
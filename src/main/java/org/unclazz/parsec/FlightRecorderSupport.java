@@ -0,0 +1,86 @@
+package org.unclazz.parsec;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * JDK Flight Recorder（JFR）のイベントの記録を仲介するユーティリティです。
+ * <p>イベントのクラスは{@code jdk.jfr.Event}を継承するため、Java 8を対象とするライブラリ本体のソースセットには含まれません。
+ * それらのクラスは{@code src/main/java11}でJava 11を対象にコンパイルされ、
+ * Multi-Release JARの{@code META-INF/versions/11}に格納されます。
+ * このクラスはイベントのクラスを名前で一度だけ探し、見つかった場合に限りリフレクションを通じて利用します。
+ * 実行環境がJFRを含まない場合やJava 11未満の場合、イベントの記録はすべて無視されます。</p>
+ */
+final class FlightRecorderSupport {
+	private FlightRecorderSupport() {}
+
+	private static final String LISTENER_CLASS = "org.unclazz.parsec.FlightRecorderListener";
+	private static final String BUFFER_GROWTH_CLASS = "org.unclazz.parsec.BufferGrowthEvent";
+	private static final MethodType LISTENER_TYPE =
+			MethodType.methodType(void.class, Context.class, int.class);
+	private static final MethodType BUFFER_GROWTH_TYPE =
+			MethodType.methodType(void.class, TextReader.class, int.class, int.class);
+
+	// イベントのクラスが利用できない場合はいずれもnull
+	private static final MethodHandle LISTENER;
+	private static final MethodHandle BUFFER_GROWTH;
+	static {
+		MethodHandle listener = null;
+		MethodHandle bufferGrowth = null;
+		try {
+			final ClassLoader loader = FlightRecorderSupport.class.getClassLoader();
+			Class.forName("jdk.jfr.Event", false, loader);
+			final MethodHandles.Lookup lookup = MethodHandles.lookup();
+			listener = lookup.findConstructor(Class.forName(LISTENER_CLASS, true, loader), LISTENER_TYPE)
+					.asType(MethodType.methodType(ParseListener.class, Context.class, int.class));
+			bufferGrowth = lookup.findStatic(Class.forName(BUFFER_GROWTH_CLASS, true, loader),
+					"emit", BUFFER_GROWTH_TYPE);
+		} catch (final ReflectiveOperationException | LinkageError e) {
+			listener = null;
+			bufferGrowth = null;
+		}
+		LISTENER = listener;
+		BUFFER_GROWTH = bufferGrowth;
+	}
+
+	/**
+	 * イベントの記録が可能かどうかを判定します。
+	 * @return 実行環境がJFRを含み、イベントのクラスが利用できる場合{@code true}
+	 */
+	static boolean available() {
+		return LISTENER != null;
+	}
+	/**
+	 * パースのセッションとバックトラックのイベントを記録するリスナーを返します。
+	 * @param ctx コンテキスト
+	 * @param backtrackThreshold バックトラックのイベントを記録する後退の文字数の下限
+	 * @return リスナー（イベントの記録が可能でない場合は{@code null}）
+	 */
+	static ParseListener listener(Context ctx, int backtrackThreshold) {
+		if (LISTENER == null) return null;
+		try {
+			return (ParseListener) LISTENER.invokeExact(ctx, backtrackThreshold);
+		} catch (final RuntimeException | Error e) {
+			throw e;
+		} catch (final Throwable e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	/**
+	 * リーダーのバッファの拡張を記録します。
+	 * @param reader リーダー
+	 * @param oldCapacity 拡張前の容量（文字数）
+	 * @param newCapacity 拡張後の容量（文字数）
+	 */
+	static void bufferGrowth(TextReader reader, int oldCapacity, int newCapacity) {
+		if (BUFFER_GROWTH == null) return;
+		try {
+			BUFFER_GROWTH.invokeExact(reader, oldCapacity, newCapacity);
+		} catch (final RuntimeException | Error e) {
+			throw e;
+		} catch (final Throwable e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
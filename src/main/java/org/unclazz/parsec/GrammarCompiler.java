@@ -0,0 +1,334 @@
+package org.unclazz.parsec;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * パーサーのグラフを専用のクラスにコンパイルするオブジェクトです。
+ * <p>コンパイラーはグラフを根から辿り、コンパイル可能なパーサーだけからなる部分グラフを見つけると
+ * それを{@link CompiledParser}に置き換えます。
+ * 部分グラフはそれぞれ生成されるクラスの1つのメソッドのソースコードとなり、
+ * 1つのグラフにつき1つのクラスが{@link CompiledGrammar}によりコンパイルされロードされます。</p>
+ * <p>生成されるメソッドはパース結果のオブジェクトを生成せず、マークとリセットもリーダーではなくローカル変数で行います。
+ * 文字はデータソースの文字シーケンスから直接読み取り、文字クラスの判定はすべてインライン展開されます。
+ * パースに失敗した場合、メソッドは失敗した文字位置と失敗したパーサー（失敗の出力元）をローカル変数で追跡しておき、
+ * 呼び出し元に返します。呼び出し元はそれらから元の部分グラフと同じメッセージを持つ失敗を組み立てます。</p>
+ * <p>生成されるクラスの名前はそのソースコードのハッシュ値から決まるため、同じ構造のグラフからは常に同じクラスが生成されます。
+ * {@code unclazz-parsec-generator}モジュールの{@code GrammarSourceGenerator}によりビルド時に生成しておいたクラスがクラスパス上にある場合、
+ * 実行時のコンパイルは行われずそのクラスが利用されます。</p>
+ * <p>コンパイル可能なパーサーは{@link Parser#compilable(GrammarCompiler)}が{@code true}を返すものです。
+ * 子を持つパーサーは子がすべてコンパイル可能である場合に限りコンパイル可能とします。
+ * カットを行うパーサーや値をキャプチャするパーサー、遅延初期化パーサー、
+ * 利用者が定義した文字クラスを参照するパーサーなどはコンパイルされず、
+ * その子のうちコンパイル可能な部分グラフだけがコンパイルされます。</p>
+ */
+final class GrammarCompiler extends Optimizer {
+	static final String PACKAGE = "org.unclazz.parsec.compiled";
+	// ハッシュ値を求める前のソースコード上でクラス名の代わりに用いる文字列
+	private static final String NAME_HOLDER = "GRAMMAR_CLASS_NAME";
+	// キーワードの判定をインライン展開する文字数の上限
+	static final int MAX_INLINE_KEYWORD = 16;
+
+	/**
+	 * パーサーのグラフをコンパイルします。
+	 * @param p パーサー
+	 * @return コンパイルされたパーサー（コンパイルできない場合は引数のパーサーそのもの）
+	 */
+	static Parser compile(Parser p) {
+		final GrammarCompiler compiler = new GrammarCompiler();
+		final Parser compiled = compiler.optimize(p);
+		return compiler.generate() && compiler.link() ? compiled : p;
+	}
+	/**
+	 * パーサーのグラフをコンパイルします。
+	 * @param p パーサー
+	 * @return コンパイルされたパーサー（コンパイルできない場合は引数のパーサーそのもの）
+	 * @param <T> パーサーの読み取り結果型
+	 */
+	static <T> ValParser<T> compile(ValParser<T> p) {
+		final GrammarCompiler compiler = new GrammarCompiler();
+		final ValParser<T> compiled = compiler.optimize(p);
+		return compiler.generate() && compiler.link() ? compiled : p;
+	}
+	/**
+	 * パーサーのグラフから生成されるクラスのソースコードを返します。
+	 * <p>ソースコードは{@link Parser#compile()}が実行時に生成するものと同じです。</p>
+	 * @param p パーサー
+	 * @return クラスの完全修飾名をキー、ソースコードを値とするエントリー（コンパイル可能な部分グラフがない場合は{@code null}）
+	 */
+	static Map.Entry<String, String> source(ParserSupport p) {
+		final GrammarCompiler compiler = new GrammarCompiler();
+		final ParserSupport optimized = p instanceof Parser
+				? new Optimizer().optimize((Parser) p) : new Optimizer().optimize((ValParser<?>) p);
+		if (optimized instanceof Parser) compiler.optimize((Parser) optimized);
+		else compiler.optimize((ValParser<?>) optimized);
+		if (!compiler.generate()) return null;
+		return new AbstractMap.SimpleImmutableEntry<>(compiler._className, compiler._source);
+	}
+
+	private final Map<Parser, Boolean> _compilable = new IdentityHashMap<>();
+	private final CompiledGrammar _grammar = new CompiledGrammar();
+	private final List<Parser> _roots = new ArrayList<>();
+	// 失敗の出力元のパーサー（添字が生成されたコードの中での識別子となる）
+	private final List<Parser> _sites = new ArrayList<>();
+	// 生成されるクラスの定数の型と初期化式（添字が定数の名前となる）
+	private final List<String> _constantTypes = new ArrayList<>();
+	private final List<String> _constantValues = new ArrayList<>();
+	private boolean _rangesUsed;
+	private final StringBuilder _code = new StringBuilder();
+	private int _localCount;
+	private int _indent;
+	private String _className;
+	private String _source;
+
+	private GrammarCompiler() {}
+
+	@Override
+	Parser transform(Parser p) {
+		if (!compilable(p)) return p.rewrite(this);
+		// コンパイル可能な部分グラフの根をコンパイルされたパーサーに置き換える
+		_roots.add(p);
+		return new CompiledParser(_grammar, _roots.size() - 1, p);
+	}
+	/**
+	 * パーサーがコンパイル可能かどうかを判定します。
+	 * @param p パーサー
+	 * @return コンパイル可能な場合{@code true}
+	 */
+	boolean compilable(Parser p) {
+		final Boolean done = _compilable.get(p);
+		if (done != null) return done;
+		final boolean result = p.compilable(this);
+		_compilable.put(p, result);
+		return result;
+	}
+	/**
+	 * パーサーのソースコードを出力します。
+	 * <p>出力されるソースコードは{@code start}が指す文字位置からパースを行い、
+	 * 成功した場合はパース後の文字位置を、失敗した場合は{@code -1}を{@code end}に代入します。
+	 * {@code end}は呼び出し元で宣言済みでなくてはなりません。</p>
+	 * <p>子を持たないパーサーは失敗を{@link #fail(Parser, String, String, String)}で出力します。
+	 * 子を持つパーサーは子の失敗をそのまま自身の失敗とするため、
+	 * {@code end}に{@code -1}を代入する直前に最後に出力された失敗がパース全体の失敗となります。</p>
+	 * @param p パーサー
+	 * @param start パース開始時の文字位置を保持する変数の名前
+	 * @param end パース後の文字位置を代入する変数の名前
+	 */
+	void emit(Parser p, String start, String end) {
+		p.emit(this, start, end);
+	}
+	/**
+	 * 新しいローカル変数の名前を返します。
+	 * @return 変数の名前
+	 */
+	String local() {
+		return "v" + (_localCount ++);
+	}
+	/**
+	 * 指定された文字位置の文字を返す式を返します。
+	 * <p>式の値は文字のコードポイント、データソースの終端に到達している場合は{@code -1}です。</p>
+	 * @param index 文字位置を示す式
+	 * @return 式
+	 */
+	String charAt(String index) {
+		return String.format("(%1$s < length ? src.charAt(%1$s) : -1)", index);
+	}
+	/**
+	 * 文字クラスの判定式を返します。
+	 * <p>文字クラスは{@link CharClass#inlinable()}が{@code true}を返すものでなくてはなりません。</p>
+	 * @param clazz 文字クラス
+	 * @param ch 判定対象の文字を保持する変数の名前
+	 * @return 判定式
+	 */
+	String condition(CharClass clazz, String ch) {
+		return clazz.condition(this, ch);
+	}
+	/**
+	 * 文字の範囲の表を二分探索する判定式を返します。
+	 * <p>範囲の数が多く、比較を並べた判定式では長くなりすぎる文字クラスに利用します。</p>
+	 * @param ranges 文字の範囲
+	 * @param ch 判定対象の文字を保持する変数の名前
+	 * @return 判定式
+	 */
+	String ranges(CharRange[] ranges, String ch) {
+		// 二分探索のため範囲を開始位置の昇順に並べ、重なり合う範囲や隣り合う範囲は1つにまとめる
+		final CharRange[] sorted = ranges.clone();
+		Arrays.sort(sorted, Comparator.comparingInt(r -> r.start));
+		final StringBuilder buff = new StringBuilder("new char[] {");
+		int start = -1;
+		int end = -2;
+		for (final CharRange r : sorted) {
+			if (r.start <= end + 1) {
+				end = Math.max(end, r.end);
+				continue;
+			}
+			if (start != -1) buff.append(' ').append(start).append(", ").append(end).append(',');
+			start = r.start;
+			end = r.end;
+		}
+		buff.append(' ').append(start).append(", ").append(end).append(" }");
+		_rangesUsed = true;
+		return "inRanges(" + constant("char[]", buff.toString()) + ", " + ch + ")";
+	}
+	/**
+	 * 生成されるクラスの定数を参照する式を返します。
+	 * <p>同じ初期化式の定数は1つにまとめられます。</p>
+	 * @param type 定数の型
+	 * @param initializer 定数の初期化式
+	 * @return 式
+	 */
+	String constant(String type, String initializer) {
+		for (int i = 0; i < _constantValues.size(); i ++) {
+			if (_constantTypes.get(i).equals(type) && _constantValues.get(i).equals(initializer)) return "C" + i;
+		}
+		_constantTypes.add(type);
+		_constantValues.add(initializer);
+		return "C" + (_constantValues.size() - 1);
+	}
+	/**
+	 * 文字列のリテラルを返します。
+	 * @param s 文字列
+	 * @return リテラル
+	 */
+	static String literal(String s) {
+		final StringBuilder buff = new StringBuilder("\"");
+		for (int i = 0; i < s.length(); i ++) {
+			final char ch = s.charAt(i);
+			if (ch == '"' || ch == '\\') buff.append('\\').append(ch);
+			else if (' ' <= ch && ch < 127) buff.append(ch);
+			else buff.append(String.format("\\u%04x", (int) ch));
+		}
+		return buff.append('"').toString();
+	}
+	/**
+	 * パースの失敗を出力します。
+	 * <p>{@code end}に{@code -1}を代入し、失敗した文字位置と出力元のパーサーを記録します。
+	 * 出力元のパーサーは失敗を報告されたとき{@link Parser#compiledFailure(Context, int, int)}により
+	 * パース結果オブジェクトを生成します。</p>
+	 * @param site 出力元のパーサー
+	 * @param end パース後の文字位置を代入する変数の名前
+	 * @param pos 失敗した文字位置を示す式
+	 * @param aux {@link Parser#compiledFailure(Context, int, int)}に渡す値を示す式
+	 */
+	void fail(Parser site, String end, String pos, String aux) {
+		int i = _sites.indexOf(site);
+		if (i == -1) {
+			i = _sites.size();
+			_sites.add(site);
+		}
+		line("%s = -1;", end);
+		line("fpos = %s;", pos);
+		line("fsite = %s;", i);
+		line("faux = %s;", aux);
+	}
+	/**
+	 * ソースコードを1行出力します。
+	 * @param format 書式
+	 * @param args 書式に埋め込む値
+	 */
+	void line(String format, Object... args) {
+		for (int i = 0; i < _indent; i ++) _code.append('\t');
+		_code.append(String.format(format, args)).append('\n');
+	}
+	/**
+	 * ブロックを開始する行を出力します。
+	 * @param format 書式（末尾の<code>{</code>を除く）
+	 * @param args 書式に埋め込む値
+	 */
+	void open(String format, Object... args) {
+		line(format + " {", args);
+		_indent ++;
+	}
+	/**
+	 * ブロックを終了する行を出力します。
+	 */
+	void close() {
+		_indent --;
+		line("}");
+	}
+
+	/**
+	 * 置き換えた部分グラフのソースコードを生成します。
+	 * @return 成功した場合{@code true}、置き換えた部分グラフがない場合{@code false}
+	 */
+	private boolean generate() {
+		if (_roots.isEmpty()) return false;
+
+		line("package %s;", PACKAGE);
+		open("public final class %s", NAME_HOLDER);
+		open("public int match(int id, CharSequence src, int length, int start, int[] failure)");
+		open("switch (id)");
+		for (int i = 0; i < _roots.size(); i ++) line("case %s: return match%s(src, length, start, failure);", i, i);
+		line("default: throw new IllegalArgumentException();");
+		close();
+		close();
+		for (int i = 0; i < _roots.size(); i ++) {
+			open("private static int match%s(CharSequence src, int length, int start, int[] failure)", i);
+			line("int fpos = start;");
+			line("int fsite = -1;");
+			line("int faux = 0;");
+			final String end = local();
+			line("int %s;", end);
+			emit(_roots.get(i), "start", end);
+			// 失敗した場合は最後に出力された失敗を呼び出し元に返す
+			open("if (%s == -1)", end);
+			line("failure[0] = fpos;");
+			line("failure[1] = fsite;");
+			line("failure[2] = faux;");
+			close();
+			line("return %s;", end);
+			close();
+		}
+		for (int i = 0; i < _constantValues.size(); i ++) {
+			line("private static final %s C%s = %s;", _constantTypes.get(i), i, _constantValues.get(i));
+		}
+		if (_rangesUsed) {
+			open("private static boolean inRanges(char[] ranges, int ch)");
+			line("int lo = 0;");
+			line("int hi = ranges.length / 2 - 1;");
+			open("while (lo <= hi)");
+			line("final int mid = (lo + hi) >>> 1;");
+			line("if (ch < ranges[mid * 2]) hi = mid - 1;");
+			line("else if (ranges[mid * 2 + 1] < ch) lo = mid + 1;");
+			line("else return true;");
+			close();
+			line("return false;");
+			close();
+		}
+		close();
+
+		// 同じ構造のグラフからは同じ名前のクラスが生成されるようソースコードのハッシュ値を名前とする
+		final String code = _code.toString();
+		final String simpleName = "Grammar_" + hash(code);
+		_className = PACKAGE + "." + simpleName;
+		_source = code.replace(NAME_HOLDER, simpleName);
+		return true;
+	}
+	/**
+	 * 生成したソースコードのクラスをロードします。
+	 * @return 成功した場合{@code true}
+	 */
+	private boolean link() {
+		final Parser[] sites = _sites.toArray(new Parser[_sites.size()]);
+		return _grammar.link(_className, _source, sites);
+	}
+	private static String hash(String code) {
+		try {
+			final byte[] digest = MessageDigest.getInstance("SHA-256").digest(code.getBytes(StandardCharsets.UTF_8));
+			final StringBuilder buff = new StringBuilder();
+			for (int i = 0; i < 10; i ++) buff.append(String.format("%02x", digest[i]));
+			return buff.toString();
+		} catch (final NoSuchAlgorithmException e) {
+			// SHA-256はすべてのJava実装でサポートされている
+			throw new IllegalStateException(e);
+		}
+	}
+}
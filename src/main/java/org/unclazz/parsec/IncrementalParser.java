@@ -0,0 +1,177 @@
+package org.unclazz.parsec;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * 入力を逐次受け取りながらパースを行うオブジェクトです。
+ * <p>インスタンスは{@link ValParser#incremental()}およびその多重定義から得られます。
+ * 呼び出し元はノンブロッキングなチャネルなどから入力が届くたびに{@link #feed(CharBuffer)}や{@link #feed(ByteBuffer)}を呼び出します。
+ * これらのメソッドはブロックすることなく、パースが完了した場合は{@link Status#COMPLETED}を、
+ * 入力が不足している場合は{@link Status#NEED_MORE_INPUT}を返します。
+ * パースが完了したら{@link #result()}により結果を取り出します。</p>
+ * <p>パースは明示的なスタック（{@link ContextConfigurer#setExplicitStack(boolean)}）の上で行われます。
+ * パースの途中で入力が不足した場合、パースはスタックを保持したまま中断され、
+ * 次に入力が供給されたときに中断した箇所から再開されます。
+ * 完了したパーサーの呼び出しが繰り返されることはなく、{@link ValParser#map(java.util.function.Function)}などに
+ * 指定した関数が同じ入力に対して再び呼び出されることもありません。
+ * ただし中断したのがフレームを持たないパーサー（文字やキーワード、文字クラスの連続を読み取るパーサーや利用者が定義したパーサー）の
+ * 呼び出しの途中であった場合、そのパーサーの呼び出しは開始位置からやり直されます。
+ * パーサーの状態はスレッドのスタックではなくこのオブジェクトの中に保持されるため、
+ * 1つのスレッドで多数の接続を並行して処理することができます。</p>
+ * <p>受け取った入力のうちバックトラックやキャプチャのために保持する必要のなくなった部分は、
+ * 以降の入力を追加する際にバッファから取り除かれます。</p>
+ * <p>{@link #result()}で結果を取り出すと、パースで消費されなかった入力は次のメッセージの入力として引き継がれます。
+ * パース結果の文字位置はメッセージごとにその先頭を起点とするものとなります。</p>
+ * <p>このオブジェクトはスレッドセーフではありません。</p>
+ * @param <T> 読み取り結果型
+ */
+public final class IncrementalParser<T> {
+	/**
+	 * パースの状態です。
+	 */
+	public static enum Status {
+		/**
+		 * パースを完了するにはさらに入力が必要であることを示します。
+		 */
+		NEED_MORE_INPUT,
+		/**
+		 * パースが完了し{@link IncrementalParser#result()}で結果を取り出せることを示します。
+		 */
+		COMPLETED
+	}
+
+	private final ValParser<T> _parser;
+	private final CharsetDecoder _decoder;
+	// デコードされずに残ったバイト（マルチバイト文字の途中で入力が途切れた場合など）
+	private ByteBuffer _pendingBytes;
+	private PushReader _reader = new PushReader();
+	// パース中のメッセージのコンテキスト（パースを開始していない場合はnull）
+	private Context _ctx;
+	private CharPosition _startedOn;
+	private ValResult<T> _result;
+
+	IncrementalParser(ValParser<T> parser, Charset charset) {
+		ParsecUtility.mustNotBeNull("parser", parser);
+		_parser = parser;
+		_decoder = charset == null ? null : charset.newDecoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+	}
+
+	/**
+	 * 入力を供給してパースを試みます。
+	 * <p>すでにパースが完了し結果が取り出されていない場合、入力はバッファに追加されるだけです。</p>
+	 * @param chunk 入力
+	 * @return パースの状態
+	 */
+	public Status feed(CharBuffer chunk) {
+		ParsecUtility.mustNotBeNull("chunk", chunk);
+		_reader.append(chunk);
+		return resume();
+	}
+	/**
+	 * エンコードされた入力を供給してパースを試みます。
+	 * <p>このメソッドを利用するにはインスタンスを{@link ValParser#incremental(Charset)}で取得している必要があります。
+	 * マルチバイト文字の途中で入力が途切れている場合、残りのバイトは次の入力と連結してデコードされます。</p>
+	 * @param chunk 入力
+	 * @return パースの状態
+	 */
+	public Status feed(ByteBuffer chunk) {
+		ParsecUtility.mustNotBeNull("chunk", chunk);
+		if (_decoder == null) throw new IllegalStateException("charset is not specified.");
+		decode(chunk, false);
+		return resume();
+	}
+	/**
+	 * 入力の終端に到達したことを宣言してパースを完了させます。
+	 * <p>以降のパースでは供給済みの入力の終端がデータソースの終端（EOF）として扱われます。</p>
+	 * @return パースの状態（常に{@link Status#COMPLETED}）
+	 */
+	public Status endOfInput() {
+		if (_decoder != null) decode(ByteBuffer.allocate(0), true);
+		_reader.endOfInput();
+		return resume();
+	}
+	/**
+	 * 新たな入力を供給せずにパースを試みます。
+	 * <p>{@link #result()}で結果を取り出した後、バッファに残っている入力から次のメッセージをパースするのに利用します。</p>
+	 * @return パースの状態
+	 */
+	public Status resume() {
+		if (_result != null) return Status.COMPLETED;
+		try {
+			final ValResultCore<T> core;
+			if (_ctx == null) {
+				_ctx = _reader.toContext().configure(c -> c.setExplicitStack(true));
+				_startedOn = _reader.position();
+				core = _ctx.trampoline().start(_parser);
+			} else {
+				core = _ctx.trampoline().resume();
+			}
+			if (core == null) return Status.NEED_MORE_INPUT;
+			
+			_result = core instanceof ValResult ? (ValResult<T>) core
+					: core.attachPosition(_startedOn, _reader.position());
+			_ctx = null;
+			return Status.COMPLETED;
+		} catch (final IOException e) {
+			_ctx = null;
+			throw new UncheckedIOException(e);
+		} catch (final RuntimeException e) {
+			_ctx = null;
+			throw e;
+		}
+	}
+	/**
+	 * パース結果を取り出します。
+	 * <p>パースで消費されなかった入力は次のメッセージの入力として引き継がれます。</p>
+	 * @return パース結果
+	 * @throws IllegalStateException パースが完了していない場合
+	 */
+	public ValResult<T> result() {
+		if (_result == null) throw new IllegalStateException("parsing is not completed.");
+		final ValResult<T> result = _result;
+		_result = null;
+		_reader = _reader.rest();
+		return result;
+	}
+	/**
+	 * パースで消費されていない入力がバッファに残っているかどうかを判定します。
+	 * @return 入力が残っている場合{@code true}
+	 */
+	public boolean hasRemaining() {
+		return _reader.length() > 0;
+	}
+	/**
+	 * バッファに保持している入力の文字数を返します。
+	 * @return 文字数
+	 */
+	int bufferedLength() {
+		return _reader.length();
+	}
+
+	private void decode(ByteBuffer chunk, boolean endOfInput) {
+		ByteBuffer in = chunk;
+		if (_pendingBytes != null) {
+			in = ByteBuffer.allocate(_pendingBytes.remaining() + chunk.remaining());
+			in.put(_pendingBytes).put(chunk).flip();
+			_pendingBytes = null;
+		}
+		final CharBuffer out = CharBuffer.allocate(
+				(int) Math.ceil(in.remaining() * (double) _decoder.maxCharsPerByte()) + 2);
+		_decoder.decode(in, out, endOfInput);
+		if (endOfInput) _decoder.flush(out);
+		if (in.hasRemaining()) {
+			_pendingBytes = ByteBuffer.allocate(in.remaining());
+			_pendingBytes.put(in).flip();
+		}
+		out.flip();
+		_reader.append(out);
+	}
+}
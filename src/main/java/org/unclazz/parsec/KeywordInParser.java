@@ -29,7 +29,8 @@ final class KeywordInParser extends Parser {
 		
 		// 文字位置（i）とキーワードエントリーID（j）をループ変数に
 		// 現在キーワード（エントリー）の文字長とデータソースの残存コンテンツを条件にして、ループを実施
-		for (int i = 0, j = 0; i < entryCache.keyword.length() && src.hasRemaining();) {
+		int i = 0;
+		for (int j = 0; i < entryCache.keyword.length() && src.hasRemaining();) {
 			// データソースから現在文字位置の文字を取得
 			final int actual = src.peek();
 			// 現在キーワード（エントリー）の同じ文字位置の文字を取得
@@ -65,9 +66,7 @@ final class KeywordInParser extends Parser {
 						// 現キーワードのそれ（少なくとも現在文字位置までは入力データソースのシーケンスと一致した）とは異なる
 						// つまり、入力データソースのシーケンスと比較した場合、かならずNGとなる
 						// これ以上の比較は無駄なのでパース失敗を示す値を返す
-						return failure("%s expected but %s found.",
-								ParsecUtility.charToString(expected),
-								ParsecUtility.charToString(actual));
+						return failureExpecting(ctx, FailureMessage.charArg(expected), actual);
 					} else {
 						// ［条件C］次キーワード内容との分岐位置が現在文字位置と同じ
 						// つまり、次キーワードの現在文字位置の文字は現キーワードのそれと異なる
@@ -81,8 +80,18 @@ final class KeywordInParser extends Parser {
 			}
 		}
 		
+		// キーワードの途中でデータソースの終端に到達した場合はパース失敗
+		if (i < entryCache.keyword.length()) {
+			return failureExpecting(ctx, FailureMessage.charArg(entryCache.keyword.charAt(i)), -1);
+		}
 		return success();
 	}
+	@Override
+	FirstSet first() {
+		CharClass chars = CharClass.exact(_entries[0].keyword.charAt(0));
+		for (final Entry e : _entries) chars = chars.plus(e.keyword.charAt(0));
+		return FirstSet.of(chars);
+	}
 	private static boolean containsNullOrEmpty(String[] ks) {
 		for (int i = 0; i < ks.length; i ++) {
 			final String k = ks[i];
@@ -24,13 +24,62 @@ final class KeywordParser extends Parser {
 			final char expected = _keyword.charAt(i);
 			final int actual = src.peek();
 			if (expected != actual) {
-				final ResultCore rc = failure("%s expected but %s found.", 
-						ParsecUtility.charToString(expected),
-						ParsecUtility.charToString(actual));
+				final ResultCore rc = failureExpecting(ctx, FailureMessage.charArg(expected), actual);
 				return _cutIndex == -1 || i < _cutIndex ? rc : rc.allowBacktrack(false);
 			}
 			src.read();
 		}
 		return success();
 	}
-}
\ No newline at end of file
+	@Override
+	FirstSet first() {
+		// 1文字目で失敗した場合もバックトラックが無効になる場合は不明とする
+		if (_cutIndex == 0) return FirstSet.UNKNOWN;
+		return FirstSet.of(CharClass.exact(_keyword.charAt(0)));
+	}
+	@Override
+	String literal() {
+		return _cutIndex == -1 ? _keyword : null;
+	}
+	@Override
+	CharClass singleCharClass() {
+		return _cutIndex == -1 && _keyword.length() == 1 ? CharClass.exact(_keyword.charAt(0)) : null;
+	}
+	@Override
+	boolean atomic() {
+		return _keyword.length() == 1 && _cutIndex != 0;
+	}
+	@Override
+	boolean compilable(GrammarCompiler compiler) {
+		return _cutIndex == -1;
+	}
+	@Override
+	void emit(GrammarCompiler compiler, String start, String end) {
+		// 一致した文字数を求める
+		final String matched = compiler.local();
+		final int length = _keyword.length();
+		if (length <= GrammarCompiler.MAX_INLINE_KEYWORD) {
+			final StringBuilder expr = new StringBuilder();
+			for (int i = 0; i < length; i ++) {
+				expr.append(compiler.charAt(i == 0 ? start : start + " + " + i))
+					.append(" != ").append((int) _keyword.charAt(i)).append(" ? ").append(i).append(" : ");
+			}
+			compiler.line("final int %s = %s%s;", matched, expr, length);
+		} else {
+			final String keyword = compiler.constant("String", GrammarCompiler.literal(_keyword));
+			compiler.line("int %s = 0;", matched);
+			compiler.line("while (%s < %s && %s == %s.charAt(%s)) %s ++;", matched, length,
+					compiler.charAt(start + " + " + matched), keyword, matched, matched);
+		}
+		compiler.open("if (%s == %s)", matched, length);
+		compiler.line("%s = %s + %s;", end, start, length);
+		compiler.close();
+		compiler.open("else");
+		compiler.fail(this, end, start + " + " + matched, matched);
+		compiler.close();
+	}
+	@Override
+	ResultCore compiledFailure(Context ctx, int actual, int aux) {
+		return failureExpecting(ctx, FailureMessage.charArg(_keyword.charAt(aux)), actual);
+	}
+}
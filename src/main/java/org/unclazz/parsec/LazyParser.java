@@ -1,12 +1,15 @@
 package org.unclazz.parsec;
 
 import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
-import org.unclazz.parsec.util.ObjectCache;
+import org.unclazz.parsec.util.ConcurrentObjectCache;
 import org.unclazz.parsec.util.ParserFactory;
 
 final class LazyParser extends Parser{
-	private static final ObjectCache<LazyParser> _instanceCache = new ObjectCache<>(100);
+	private static final ConcurrentObjectCache<LazyParser> _instanceCache = new ConcurrentObjectCache<>(100);
+	private static final AtomicReferenceFieldUpdater<LazyParser, Parser> _cacheUpdater =
+			AtomicReferenceFieldUpdater.newUpdater(LazyParser.class, Parser.class, "_cache");
 	public static String factoryIdentity(ParserFactory factory) {
 		final Class<?> clazz = factory.getClass();
 		final String clazzName = clazz.getName();
@@ -31,23 +34,34 @@ final class LazyParser extends Parser{
 	public static LazyParser getInstance(ParserFactory factory) {
 		final String id = factoryIdentity(factory);
 		
-		final LazyParser readyMade = _instanceCache.get(id);
-		if (readyMade != null) return readyMade;
-		
-		final LazyParser customMade = new LazyParser(factory);
-		_instanceCache.put(id, customMade);
-		return customMade;
+		return _instanceCache.computeIfAbsent(id, k -> new LazyParser(factory));
 	}
 	
 	private final ParserFactory _func;
-	private Parser _cache;
+	// 初期化済みのパーサー（複数のスレッドが同時に初期化した場合も最初に設定されたものだけが使用される）
+	private volatile Parser _cache;
 	private LazyParser(ParserFactory func){
 		ParsecUtility.mustNotBeNull("func", func);
 		_func = func;
 	}
 	@Override
 	protected ResultCore doParse(Context ctx) throws IOException {
-		if (_cache == null) _cache = _func.create();
-		return _cache.doParse(ctx);
+		return target().doParse(ctx);
+	}
+	@Override
+	ParseFrame frame(Context ctx) {
+		// doParse(Context)と同様に遅延初期化したパーサーの処理をそのまま利用する
+		return target().frame(ctx);
+	}
+	@Override
+	FirstSet first() {
+		return FirstSet.ofLazy(this, target());
+	}
+	private Parser target() {
+		final Parser cache = _cache;
+		if (cache != null) return cache;
+		// ロックは取得せず、競合した場合は最初に設定されたパーサーを使用する
+		_cacheUpdater.compareAndSet(this, null, _func.create());
+		return _cache;
 	}
-}
\ No newline at end of file
+}
@@ -1,12 +1,16 @@
 package org.unclazz.parsec;
 
 import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
-import org.unclazz.parsec.util.ObjectCache;
+import org.unclazz.parsec.util.ConcurrentObjectCache;
 import org.unclazz.parsec.util.ValParserFactory;
 
 final class LazyValParser<T> extends ValParser<T>{
-	private static final ObjectCache<ValParser<?>> _instanceCache = new ObjectCache<>(100);
+	private static final ConcurrentObjectCache<ValParser<?>> _instanceCache = new ConcurrentObjectCache<>(100);
+	@SuppressWarnings("rawtypes")
+	private static final AtomicReferenceFieldUpdater<LazyValParser, ValParser> _cacheUpdater =
+			AtomicReferenceFieldUpdater.newUpdater(LazyValParser.class, ValParser.class, "_cache");
 	public static String factoryIdentity(ValParserFactory<?> factory) {
 		final Class<?> clazz = factory.getClass();
 		final String clazzName = clazz.getName();
@@ -32,23 +36,35 @@ final class LazyValParser<T> extends ValParser<T>{
 	public static<T> ValParser<T> getInstance(ValParserFactory<T> factory) {
 		final String id = factoryIdentity(factory);
 		
-		final ValParser<?> readyMade = _instanceCache.get(id);
-		if (readyMade != null) return (ValParser<T>) readyMade;
-		
-		final ValParser<T> customMade = new LazyValParser<T>(factory);
-		_instanceCache.put(id, customMade);
-		return customMade;
+		return (ValParser<T>) _instanceCache.computeIfAbsent(id, k -> new LazyValParser<T>(factory));
 	}
 	
 	private final ValParserFactory<T> _func;
-	private ValParser<T> _cache;
+	// 初期化済みのパーサー（複数のスレッドが同時に初期化した場合も最初に設定されたものだけが使用される）
+	private volatile ValParser<T> _cache;
 	private LazyValParser(ValParserFactory<T> func){
 		ParsecUtility.mustNotBeNull("func", func);
 		_func = func;
 	}
 	@Override
 	protected ValResultCore<T> doParse(Context ctx) throws IOException {
-		if (_cache == null) _cache = _func.create();
-		return _cache.doParse(ctx);
+		return target().doParse(ctx);
+	}
+	@Override
+	ParseFrame frame(Context ctx) {
+		// doParse(Context)と同様に遅延初期化したパーサーの処理をそのまま利用する
+		return target().frame(ctx);
+	}
+	@Override
+	FirstSet first() {
+		return FirstSet.ofLazy(this, target());
+	}
+	@SuppressWarnings("unchecked")
+	private ValParser<T> target() {
+		final ValParser<T> cache = _cache;
+		if (cache != null) return cache;
+		// ロックは取得せず、競合した場合は最初に設定されたパーサーを使用する
+		_cacheUpdater.compareAndSet(this, null, _func.create());
+		return _cache;
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,52 @@
+package org.unclazz.parsec;
+
+import java.util.Arrays;
+
+/**
+ * 行の開始位置を記録するインデックスです。
+ * <p>リーダーは改行を読み取るたびに次の行の開始位置（データソースの先頭からのインデックス）を記録します。
+ * 行数と列数は記録された開始位置の配列を二分探索することで必要になったときに求められます。
+ * 1行目の開始位置は常に{@code 0}であるため記録されません。</p>
+ */
+final class LineIndex {
+	private int[] _starts = new int[16];
+	private int _count;
+
+	/**
+	 * 行の開始位置を記録します。
+	 * <p>リセットにより同じ改行が再度読み取られる場合を考慮して、
+	 * 最後に記録された開始位置以前の位置は無視されます。</p>
+	 * @param start 行の開始位置
+	 */
+	void add(int start) {
+		if (_count > 0 && start <= _starts[_count - 1]) return;
+		if (_count == _starts.length) {
+			_starts = Arrays.copyOf(_starts, _starts.length * 2);
+		}
+		_starts[_count ++] = start;
+	}
+	/**
+	 * 指定された位置を含む行の行数を返します。
+	 * @param index データソースの先頭からのインデックス
+	 * @return 行数（{@code 1}始まり）
+	 */
+	int line(int index) {
+		// 開始位置が index 以下である行の数を求める
+		int low = 0;
+		int high = _count;
+		while (low < high) {
+			final int mid = (low + high) >>> 1;
+			if (_starts[mid] <= index) low = mid + 1;
+			else high = mid;
+		}
+		return low + 1;
+	}
+	/**
+	 * 指定された行の開始位置を返します。
+	 * @param line 行数（{@code 1}始まり）
+	 * @return 行の開始位置
+	 */
+	int lineStart(int line) {
+		return line == 1 ? 0 : _starts[line - 2];
+	}
+}
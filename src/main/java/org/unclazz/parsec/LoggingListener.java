@@ -0,0 +1,72 @@
+package org.unclazz.parsec;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Consumer;
+
+/**
+ * パーサーの呼び出しの開始と終了をデバッグログとして出力するリスナーです。
+ * <p>{@link ContextConfigurer#setLogAppender(Consumer)}でアペンダーが設定されたときに
+ * {@link Context}により作成されます。</p>
+ */
+final class LoggingListener implements ParseListener {
+	private final TextReader _source;
+	private final Deque<String> _stack;
+	private final Consumer<String> _appender;
+	
+	LoggingListener(TextReader source, Deque<String> stack, Consumer<String> appender) {
+		_source = source;
+		_stack = stack == null ? new ArrayDeque<>() : stack;
+		_appender = appender;
+	}
+	
+	Deque<String> stack() {
+		return _stack;
+	}
+	Consumer<String> appender() {
+		return _appender;
+	}
+	/**
+	 * ログメッセージをそのまま出力します。
+	 * @param message ログメッセージ
+	 */
+	void log(String message) {
+		_appender.accept(message);
+	}
+	/**
+	 * 現在のパーサーの名前と文字位置をラベルとしてログメッセージを出力します。
+	 * @param format フォーマット
+	 * @param args 引数
+	 */
+	void log(String format, Object... args) {
+		_appender.accept(makeLabel(' ', _source.index()).append(String.format(format, args)).toString());
+	}
+	@Override
+	public void enter(ParserSupport parser, int offset) {
+		_stack.push(parser.name());
+		_appender.accept(makeLabel('+', offset).append(parser.paramsString()).toString());
+	}
+	@Override
+	public void exit(ParserSupport parser, int offset, ResultCoreSupport result) {
+		final StringBuilder buff = makeLabel('-', offset);
+		if (result.isSuccessful()) {
+			buff.append("Success(");
+			if (result instanceof ValResultCore) buff.append(((ValResultCore<?>) result).value());
+		} else {
+			buff.append("Failure(").append(result.message());
+		}
+		if (!result.canBacktrack()) buff.append(", cut");
+		_appender.accept(buff.append(")").toString());
+		_stack.pop();
+	}
+	private StringBuilder makeLabel(char sign, int offset) {
+		final CharPosition pos = _source.position(offset);
+		final StringBuilder buff = new StringBuilder();
+		final int depth = (_stack.size() - 1) * 2;
+		for (int i = 0; i < depth; i++) {
+			buff.append(' ');
+		}
+		return buff.append(sign).append(' ').append(_stack.peek())
+				.append(' ').append(pos).append(' ');
+	}
+}
@@ -15,12 +15,29 @@ final class LookaheadParser extends Parser{
 		// _originalによるパースを試行し、結果の成否に関わらずリセットを行う
 		final TextReader src = ctx.source();
 		src.mark();
-		final Result r = _original.parse(ctx);
+		final ResultCore r = _original.parseCore(ctx);
 		src.reset(true);
 		
 		// _originalのパース成否を確認しつつ結果を生成して返す
 		// ※_originalのパース結果をそのまま呼び出し元に返すと、
 		// パース前後の位置情報が誤ったものになってしまう。
-		return r.isSuccessful() ? success() : failure(r.message());
+		return r.isSuccessful() ? success() : failure(r);
+	}
+	@Override
+	ParseFrame frame(Context ctx) {
+		return new Frame();
+	}
+	// doParse(Context)を元のパーサーの呼び出しの前後で分割したもの
+	private final class Frame extends ParseFrame {
+		@Override
+		ParserSupport resume(Context ctx, ResultCoreSupport child) {
+			final TextReader src = ctx.source();
+			if (child == null) {
+				src.mark();
+				return _original;
+			}
+			src.reset(true);
+			return done(core(child).isSuccessful() ? success() : failure(child));
+		}
 	}
 }
\ No newline at end of file
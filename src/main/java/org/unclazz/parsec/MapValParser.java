@@ -17,11 +17,48 @@ final class MapValParser<T,U> extends ValParser<U> {
 
 	@Override
 	protected ValResultCore<U> doParse(Context ctx) throws IOException {
+		if (_canThrow) return _original.parseCore(ctx).map(_func);
+		
+		// 写像の失敗はバックトラック可能とするため、元のパーサーの中でのカットは写像の成功後に外側に及ぼす
+		ctx.fenceCut();
+		final ValResultCore<T> r = _original.parseCore(ctx);
+		ctx.unfenceCut(false);
+		return map(ctx, r);
+	}
+	private ValResultCore<U> map(Context ctx, ValResultCore<T> r) {
 		try {
-			return _original.parse(ctx).map(_func);
+			final ValResultCore<U> mapped = r.map(_func);
+			if (!mapped.canBacktrack()) ctx.cut();
+			return mapped;
 		} catch (final RuntimeException ex) {
-			if (_canThrow) throw ex;
-			else return failure("an error has occurred while mapping: %s ", ex.getMessage());
+			return failure("an error has occurred while mapping: %s ", ex.getMessage());
+		}
+	}
+	@Override
+	ParseFrame frame(Context ctx) {
+		return new Frame();
+	}
+	// doParse(Context)を元のパーサーの呼び出しの前後で分割したもの
+	private final class Frame extends ParseFrame {
+		@Override
+		ParserSupport resume(Context ctx, ResultCoreSupport child) {
+			if (child == null) {
+				if (!_canThrow) ctx.fenceCut();
+				return _original;
+			}
+			final ValResultCore<T> r = valCore(child);
+			if (_canThrow) return done(r.map(_func));
+			ctx.unfenceCut(false);
+			return done(map(ctx, r));
 		}
 	}
+	@Override
+	FirstSet first() {
+		return _original.first();
+	}
+	@Override
+	ValParser<U> rewrite(Optimizer optimizer) {
+		final ValParser<T> original = optimizer.optimize(_original);
+		return original == _original ? this : new MapValParser<>(original, _func, _canThrow);
+	}
 }
@@ -0,0 +1,67 @@
+package org.unclazz.parsec;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * メモリマップされたファイルをデータソースとするリーダーです。
+ * <p>ファイルのコンテンツは{@link FileChannel#map(MapMode, long, long)}により一定のサイズの領域ごとにマップされ、
+ * {@link ByteSourceReader}の仕組みによりウィンドウ単位でデコードされます。
+ * このためファイルのサイズにかかわらずヒープの使用量は一定に保たれます。</p>
+ */
+final class MappedFileReader extends ByteSourceReader {
+	private static final long REGION_SIZE = 1L << 26;
+	
+	private static FileChannel open(Path path) throws IOException {
+		ParsecUtility.mustNotBeNull("path", path);
+		return FileChannel.open(path, StandardOpenOption.READ);
+	}
+
+	private final FileChannel _channel;
+	private final long _fileSize;
+
+	// 現在マップされているファイルの領域
+	private MappedByteBuffer _region;
+	private long _regionOffset;
+
+	MappedFileReader(Path path, Charset charset) throws IOException {
+		this(open(path), charset);
+	}
+	private MappedFileReader(FileChannel channel, Charset charset) throws IOException {
+		super(channel.size(), charset);
+		_channel = channel;
+		_fileSize = channel.size();
+	}
+
+	@Override
+	protected Closeable closable() {
+		return _channel;
+	}
+	/**
+	 * ファイルの指定された範囲を参照するバッファを返します。
+	 * <p>範囲が現在マップされている領域に含まれない場合は新しい領域をマップします。</p>
+	 * @param start 範囲の開始位置
+	 * @param end 範囲の終了位置
+	 * @return バッファ
+	 * @throws IOException マップ中にエラーが発生した場合
+	 */
+	@Override
+	protected ByteBuffer bytes(long start, long end) throws IOException {
+		if (_region == null || start < _regionOffset || _regionOffset + _region.capacity() < end) {
+			final long size = Math.min(_fileSize - start, Math.max(REGION_SIZE, end - start));
+			_region = _channel.map(MapMode.READ_ONLY, start, size);
+			_regionOffset = start;
+		}
+		final ByteBuffer in = _region.duplicate();
+		in.limit((int) (end - _regionOffset));
+		in.position((int) (start - _regionOffset));
+		return in.slice();
+	}
+}
@@ -23,6 +23,14 @@ public final class Mappers {
 	public static String javaString(String value) {
 		return _javaString.unescape(value);
 	}
+	/**
+	 * Java言語の文字列としてエスケープされているシーケンスを逆エスケープ（unescape）します。
+	 * @param value 文字シーケンス
+	 * @return 逆エスケープ後の文字列
+	 */
+	public static String javaString(CharSequence value) {
+		return _javaString.unescape(value);
+	}
 	/**
 	 * JSONの文字列としてエスケープされているシーケンスを逆エスケープ（unescape）します。
 	 * @param value 文字列
@@ -31,6 +39,14 @@ public final class Mappers {
 	public static String jsonString(String value) {
 		return _jsonString.unescape(value);
 	}
+	/**
+	 * JSONの文字列としてエスケープされているシーケンスを逆エスケープ（unescape）します。
+	 * @param value 文字シーケンス
+	 * @return 逆エスケープ後の文字列
+	 */
+	public static String jsonString(CharSequence value) {
+		return _jsonString.unescape(value);
+	}
 	/**
 	 * 文字列を整数値に変換します。
 	 * @param value 文字列
@@ -39,6 +55,15 @@ public final class Mappers {
 	public static Integer digits(String value) {
 		return Integer.parseInt(value);
 	}
+	/**
+	 * 文字シーケンスを整数値に変換します。
+	 * <p>変換にあたって文字列は生成されません。</p>
+	 * @param value 文字シーケンス
+	 * @return 変換後の整数値
+	 */
+	public static Integer digits(CharSequence value) {
+		return parseInt(value, 10);
+	}
 	/**
 	 * 文字列を8進数表記と見なして整数値に変換します。
 	 * @param value 文字列
@@ -47,6 +72,15 @@ public final class Mappers {
 	public static Integer octalDigits(String value) {
 		return Integer.parseInt(value, 8);
 	}
+	/**
+	 * 文字シーケンスを8進数表記と見なして整数値に変換します。
+	 * <p>変換にあたって文字列は生成されません。</p>
+	 * @param value 文字シーケンス
+	 * @return 変換後の整数値
+	 */
+	public static Integer octalDigits(CharSequence value) {
+		return parseInt(value, 8);
+	}
 	/**
 	 * 文字列を16進数表記と見なして整数値に変換します。
 	 * @param value 文字列
@@ -55,6 +89,15 @@ public final class Mappers {
 	public static Integer hexDigits(String value) {
 		return Integer.parseInt(value, 16);
 	}
+	/**
+	 * 文字シーケンスを16進数表記と見なして整数値に変換します。
+	 * <p>変換にあたって文字列は生成されません。</p>
+	 * @param value 文字シーケンス
+	 * @return 変換後の整数値
+	 */
+	public static Integer hexDigits(CharSequence value) {
+		return parseInt(value, 16);
+	}
 	/**
 	 * 文字列を浮動小数点数に変換します。
 	 * @param value 文字列
@@ -63,6 +106,15 @@ public final class Mappers {
 	public static Double floatingPoint(String value) {
 		return Double.parseDouble(value);
 	}
+	/**
+	 * 文字シーケンスを浮動小数点数に変換します。
+	 * <p>このメソッドは内部的に文字シーケンスを文字列に変換します。</p>
+	 * @param value 文字シーケンス
+	 * @return 変換後の浮動小数点数値
+	 */
+	public static Double floatingPoint(CharSequence value) {
+		return Double.parseDouble(value.toString());
+	}
 	/**
 	 * タプルの平坦化を行います。
 	 * @param tuple 入れ子になったタプル
@@ -74,11 +126,52 @@ public final class Mappers {
 	public static<T1, T2, T3> Tuple3<T1, T2, T3> flatten(Tuple2<Tuple2<T1, T2>, T3> tuple) {
 		return Tuple.of(tuple.item1().item1(), tuple.item1().item2(), tuple.item2());
 	}
+	
+	/**
+	 * 文字シーケンスを指定された基数の整数表記と見なして整数値に変換します。
+	 * <p>{@link Integer#parseInt(String, int)}と同じ規則で変換を行います。</p>
+	 * @param value 文字シーケンス
+	 * @param radix 基数
+	 * @return 変換後の整数値
+	 * @throws NumberFormatException 文字シーケンスが整数表記として不正な場合
+	 */
+	private static int parseInt(CharSequence value, int radix) {
+		if (value == null) throw new NumberFormatException("null");
+		final int length = value.length();
+		if (length == 0) throw new NumberFormatException("For input string: \"\"");
+		
+		// 負の値として累積することで Integer.MIN_VALUE も表現できるようにする
+		int i = 0;
+		boolean negative = false;
+		int limit = -Integer.MAX_VALUE;
+		final char first = value.charAt(0);
+		if (first == '-' || first == '+') {
+			if (length == 1) throw numberFormatException(value);
+			if (first == '-') {
+				negative = true;
+				limit = Integer.MIN_VALUE;
+			}
+			i ++;
+		}
+		final int multmin = limit / radix;
+		int result = 0;
+		for (; i < length; i ++) {
+			final int digit = Character.digit(value.charAt(i), radix);
+			if (digit < 0 || result < multmin) throw numberFormatException(value);
+			result *= radix;
+			if (result < limit + digit) throw numberFormatException(value);
+			result -= digit;
+		}
+		return negative ? result : -result;
+	}
+	private static NumberFormatException numberFormatException(CharSequence value) {
+		return new NumberFormatException("For input string: \"" + value + "\"");
+	}
 }
 
 
 final class JavaStringUnescaper{
-	public String unescape(String original) {
+	public String unescape(CharSequence original) {
 		final CharBuffer rBuff = CharBuffer.wrap(original);
 		final CharBuffer wBuff = CharBuffer.allocate(original.length());
 		
@@ -170,7 +263,7 @@ final class JavaStringUnescaper{
 	}
 }
 final class JsonStringUnescaper{
-	public String unescape(String original) {
+	public String unescape(CharSequence original) {
 		final CharBuffer rBuff = CharBuffer.wrap(original);
 		final CharBuffer wBuff = CharBuffer.allocate(original.length());
 		
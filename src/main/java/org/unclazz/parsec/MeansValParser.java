@@ -14,6 +14,31 @@ final class MeansValParser<T> extends ValParser<T> {
 	}
 	@Override
 	protected ValResultCore<T> doParse(Context ctx) throws IOException {
-		return _original.parse(ctx).attachValue(_supp.get());
+		return _original.parseCore(ctx).attachValue(_supp.get());
+	}
+	@Override
+	ParseFrame frame(Context ctx) {
+		return new Frame();
+	}
+	// doParse(Context)を元のパーサーの呼び出しの前後で分割したもの
+	private final class Frame extends ParseFrame {
+		@Override
+		ParserSupport resume(Context ctx, ResultCoreSupport child) {
+			if (child == null) return _original;
+			return done(core(child).attachValue(_supp.get()));
+		}
+	}
+	@Override
+	FirstSet first() {
+		return _original.first();
+	}
+	@Override
+	ValParser<T> rewrite(Optimizer optimizer) {
+		final Parser original = optimizer.optimize(_original);
+		return original == _original ? this : new MeansValParser<>(original, _supp);
+	}
+	@Override
+	boolean atomic() {
+		return _original.atomic();
 	}
 }
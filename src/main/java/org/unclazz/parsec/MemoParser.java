@@ -0,0 +1,50 @@
+package org.unclazz.parsec;
+
+import java.io.IOException;
+
+final class MemoParser extends Parser {
+	private final Parser _original;
+	
+	MemoParser(Parser original) {
+		ParsecUtility.mustNotBeNull("original", original);
+		_original = original;
+	}
+
+	@Override
+	protected ResultCore doParse(Context ctx) throws IOException {
+		final int start = ctx.source().index();
+		final ResultCore memo = ctx.recall(this, start);
+		if (memo != null) return memo;
+		
+		final ResultCore r = _original.parseCore(ctx);
+		ctx.memorize(this, start, r);
+		return r;
+	}
+	@Override
+	ParseFrame frame(Context ctx) {
+		return new Frame();
+	}
+	// doParse(Context)を元のパーサーの呼び出しの前後で分割したもの
+	private final class Frame extends ParseFrame {
+		private int _start;
+		@Override
+		ParserSupport resume(Context ctx, ResultCoreSupport child) {
+			if (child == null) {
+				_start = ctx.source().index();
+				final ResultCore memo = ctx.recall(MemoParser.this, _start);
+				return memo != null ? done(memo) : _original;
+			}
+			ctx.memorize(MemoParser.this, _start, child);
+			return done(child);
+		}
+	}
+	@Override
+	FirstSet first() {
+		return _original.first();
+	}
+	@Override
+	Parser rewrite(Optimizer optimizer) {
+		final Parser original = optimizer.optimize(_original);
+		return original == _original ? this : new MemoParser(original);
+	}
+}
@@ -0,0 +1,110 @@
+package org.unclazz.parsec;
+
+/**
+ * パーサーとその開始位置をキーとしてパース結果を記録するメモ表です。
+ * <p>開始位置ごとのエントリーのチェーンを文字位置の昇順に並べたリングとして保持します。
+ * バックトラックにより再び到達することのなくなった開始位置のエントリーは
+ * {@link #evictBelow(int)}によりまとめて破棄されます。</p>
+ */
+final class MemoTable {
+	/**
+	 * メモ表のエントリーです。
+	 */
+	static final class Entry {
+		private final Object _parser;
+		private final int _end;
+		private final ResultCoreSupport _result;
+		private final Entry _next;
+		
+		private Entry(Object parser, int end, ResultCoreSupport result, Entry next) {
+			_parser = parser;
+			_end = end;
+			_result = result;
+			_next = next;
+		}
+		/**
+		 * パース終了時の文字位置（データソースの先頭からのインデックス）です。
+		 * @return インデックス
+		 */
+		int end() {
+			return _end;
+		}
+		/**
+		 * パース結果です。
+		 * @return パース結果
+		 */
+		ResultCoreSupport result() {
+			return _result;
+		}
+	}
+	
+	// 開始位置ごとのエントリーのチェーン（長さは常に2の累乗）
+	private Entry[] _slots = new Entry[64];
+	// 保持している開始位置の下限（この位置を含む）
+	private int _base;
+	// 保持している開始位置の上限（この位置を含まない）
+	private int _limit;
+	// 保持しているエントリーの数
+	private int _size;
+	
+	/**
+	 * エントリーを検索します。
+	 * @param parser パーサー
+	 * @param start パース開始時の文字位置
+	 * @return エントリー（記録されていない場合は{@code null}）
+	 */
+	Entry get(Object parser, int start) {
+		if (start < _base || _limit <= start) return null;
+		for (Entry e = _slots[start & (_slots.length - 1)]; e != null; e = e._next) {
+			if (e._parser == parser) return e;
+		}
+		return null;
+	}
+	/**
+	 * エントリーを記録します。
+	 * <p>開始位置がすでに破棄された範囲にある場合は何も行いません。</p>
+	 * @param parser パーサー
+	 * @param start パース開始時の文字位置
+	 * @param end パース終了時の文字位置
+	 * @param result パース結果
+	 */
+	void put(Object parser, int start, int end, ResultCoreSupport result) {
+		if (start < _base) return;
+		if (_base + _slots.length <= start) grow(start - _base + 1);
+		if (_limit <= start) _limit = start + 1;
+		final int slot = start & (_slots.length - 1);
+		_slots[slot] = new Entry(parser, end, result, _slots[slot]);
+		_size ++;
+	}
+	/**
+	 * 指定された文字位置より前を開始位置とするエントリーを破棄します。
+	 * @param floor 文字位置
+	 */
+	void evictBelow(int floor) {
+		if (floor <= _base) return;
+		final int to = Math.min(floor, _limit);
+		for (int i = _base; i < to; i ++) {
+			final int slot = i & (_slots.length - 1);
+			for (Entry e = _slots[slot]; e != null; e = e._next) _size --;
+			_slots[slot] = null;
+		}
+		_base = floor;
+		if (_limit < floor) _limit = floor;
+	}
+	/**
+	 * 保持しているエントリーの数を返します。
+	 * @return エントリーの数
+	 */
+	int size() {
+		return _size;
+	}
+	private void grow(int minLength) {
+		int length = _slots.length * 2;
+		while (length < minLength) length *= 2;
+		final Entry[] newSlots = new Entry[length];
+		for (int i = _base; i < _limit; i ++) {
+			newSlots[i & (length - 1)] = _slots[i & (_slots.length - 1)];
+		}
+		_slots = newSlots;
+	}
+}
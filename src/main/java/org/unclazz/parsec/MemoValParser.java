@@ -0,0 +1,50 @@
+package org.unclazz.parsec;
+
+import java.io.IOException;
+
+final class MemoValParser<T> extends ValParser<T> {
+	private final ValParser<T> _original;
+	
+	MemoValParser(ValParser<T> original) {
+		ParsecUtility.mustNotBeNull("original", original);
+		_original = original;
+	}
+
+	@Override
+	protected ValResultCore<T> doParse(Context ctx) throws IOException {
+		final int start = ctx.source().index();
+		final ValResultCore<T> memo = ctx.recall(this, start);
+		if (memo != null) return memo;
+		
+		final ValResultCore<T> r = _original.parseCore(ctx);
+		ctx.memorize(this, start, r);
+		return r;
+	}
+	@Override
+	ParseFrame frame(Context ctx) {
+		return new Frame();
+	}
+	// doParse(Context)を元のパーサーの呼び出しの前後で分割したもの
+	private final class Frame extends ParseFrame {
+		private int _start;
+		@Override
+		ParserSupport resume(Context ctx, ResultCoreSupport child) {
+			if (child == null) {
+				_start = ctx.source().index();
+				final ValResultCore<T> memo = ctx.recall(MemoValParser.this, _start);
+				return memo != null ? done(memo) : _original;
+			}
+			ctx.memorize(MemoValParser.this, _start, child);
+			return done(child);
+		}
+	}
+	@Override
+	FirstSet first() {
+		return _original.first();
+	}
+	@Override
+	ValParser<T> rewrite(Optimizer optimizer) {
+		final ValParser<T> original = optimizer.optimize(_original);
+		return original == _original ? this : new MemoValParser<>(original);
+	}
+}
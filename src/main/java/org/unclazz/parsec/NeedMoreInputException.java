@@ -0,0 +1,15 @@
+package org.unclazz.parsec;
+
+/**
+ * {@link PushReader}がまだ供給されていない入力を読み取ろうとしたことを示す例外です。
+ * <p>明示的なスタックの上でのパースを中断するためだけに利用されるため、スタックトレースを持ちません。
+ * この例外は{@link IncrementalParser}の外に伝播することはありません。</p>
+ */
+final class NeedMoreInputException extends RuntimeException {
+	private static final long serialVersionUID = 1L;
+	static final NeedMoreInputException INSTANCE = new NeedMoreInputException();
+	
+	private NeedMoreInputException() {
+		super("more input is needed.", null, false, false);
+	}
+}
@@ -10,7 +10,26 @@ final class NotParser extends Parser{
 	}
 	@Override
 	protected ResultCore doParse(Context ctx) throws IOException {
-		return _original.parse(ctx).isSuccessful() 
-				? failure("invalid token found.") : success();
+		// 結果は常にバックトラック可能とするため、元のパーサーの中でのカットは外側に及ぼさない
+		ctx.fenceCut();
+		final ResultCore r = _original.parseCore(ctx);
+		ctx.unfenceCut(false);
+		return r.isSuccessful() ? failure("invalid token found.") : success();
+	}
+	@Override
+	ParseFrame frame(Context ctx) {
+		return new Frame();
+	}
+	// doParse(Context)を元のパーサーの呼び出しの前後で分割したもの
+	private final class Frame extends ParseFrame {
+		@Override
+		ParserSupport resume(Context ctx, ResultCoreSupport child) {
+			if (child == null) {
+				ctx.fenceCut();
+				return _original;
+			}
+			ctx.unfenceCut(false);
+			return done(core(child).isSuccessful() ? failure("invalid token found.") : success());
+		}
 	}
 }
\ No newline at end of file
@@ -4,16 +4,27 @@ import java.io.IOException;
 
 final class OptParser extends Parser {
 	private final Parser _original;
+	// 元のパーサーが失敗しても文字を消費しないかどうか
+	private final boolean _atomic;
 	OptParser(Parser original) {
+		this(original, false);
+	}
+	OptParser(Parser original, boolean atomic) {
 		ParsecUtility.mustNotBeNull("original", original);
 		_original = original;
+		_atomic = atomic;
 	}
 
 	@Override
 	protected ResultCore doParse(Context ctx) throws IOException {
+		if (_atomic) {
+			// 元のパーサーが失敗しても文字位置は変わらないためマークとリセットを省略する
+			_original.parseCore(ctx);
+			return success();
+		}
 		final TextReader src = ctx.source();
 		src.mark();
-		final Result res = _original.parse(ctx);
+		final ResultCore res = _original.parseCore(ctx);
 		if (res.isSuccessful()) {
 			src.unmark();
 			return success();
@@ -21,4 +32,55 @@ final class OptParser extends Parser {
 		src.reset(true);
 		return success();
 	}
-}
\ No newline at end of file
+	@Override
+	ParseFrame frame(Context ctx) {
+		return new Frame();
+	}
+	// doParse(Context)を元のパーサーの呼び出しの前後で分割したもの
+	private final class Frame extends ParseFrame {
+		@Override
+		ParserSupport resume(Context ctx, ResultCoreSupport child) {
+			final TextReader src = ctx.source();
+			if (child == null) {
+				// 元のパーサーが失敗しても文字位置が変わらない場合はマークとリセットを省略する
+				if (!_atomic) src.mark();
+				return _original;
+			}
+			if (_atomic) return done(success());
+			if (core(child).isSuccessful()) src.unmark();
+			else src.reset(true);
+			return done(success());
+		}
+	}
+	@Override
+	FirstSet first() {
+		return _original.first().orEmpty();
+	}
+	@Override
+	Parser rewrite(Optimizer optimizer) {
+		final Parser original = optimizer.optimize(_original);
+		// 失敗することのないパーサーのオプションは不要
+		if (original.infallible()) return original;
+		final boolean atomic = original.atomic();
+		return original == _original && atomic == _atomic ? this : new OptParser(original, atomic);
+	}
+	@Override
+	boolean infallible() {
+		return true;
+	}
+	@Override
+	boolean atomic() {
+		return true;
+	}
+	@Override
+	boolean compilable(GrammarCompiler compiler) {
+		return compiler.compilable(_original);
+	}
+	@Override
+	void emit(GrammarCompiler compiler, String start, String end) {
+		final String result = compiler.local();
+		compiler.line("int %s;", result);
+		compiler.emit(_original, start, result);
+		compiler.line("%s = %s == -1 ? %s : %s;", end, result, start, result);
+	}
+}
@@ -5,16 +5,27 @@ import java.util.Optional;
 
 final class OptValParser<T> extends ValParser<Optional<T>> {
 	private final ValParser<T> _original;
+	// 元のパーサーが失敗しても文字を消費しないかどうか
+	private final boolean _atomic;
 	OptValParser(ValParser<T> original) {
+		this(original, false);
+	}
+	OptValParser(ValParser<T> original, boolean atomic) {
 		ParsecUtility.mustNotBeNull("original", original);
 		_original = original;
+		_atomic = atomic;
 	}
 
 	@Override
 	protected ValResultCore<Optional<T>> doParse(Context ctx) throws IOException {
+		if (_atomic) {
+			// 元のパーサーが失敗しても文字位置は変わらないためマークとリセットを省略する
+			final ValResultCore<T> res = _original.parseCore(ctx);
+			return res.isSuccessful() ? res.map(Optional::of) : success(Optional.empty());
+		}
 		final TextReader src = ctx.source();
 		src.mark();
-		final ValResult<T> res = _original.parse(ctx);
+		final ValResultCore<T> res = _original.parseCore(ctx);
 		if (res.isSuccessful()) {
 			src.unmark();
 			return res.map(Optional::of);
@@ -22,4 +33,41 @@ final class OptValParser<T> extends ValParser<Optional<T>> {
 		src.reset(true);
 		return success(Optional.empty());
 	}
-}
\ No newline at end of file
+	@Override
+	ParseFrame frame(Context ctx) {
+		return new Frame();
+	}
+	// doParse(Context)を元のパーサーの呼び出しの前後で分割したもの
+	private final class Frame extends ParseFrame {
+		@Override
+		ParserSupport resume(Context ctx, ResultCoreSupport child) {
+			final TextReader src = ctx.source();
+			if (child == null) {
+				// 元のパーサーが失敗しても文字位置が変わらない場合はマークとリセットを省略する
+				if (!_atomic) src.mark();
+				return _original;
+			}
+			final ValResultCore<T> res = valCore(child);
+			if (res.isSuccessful()) {
+				if (!_atomic) src.unmark();
+				return done(res.map(Optional::of));
+			}
+			if (!_atomic) src.reset(true);
+			return done(success(Optional.empty()));
+		}
+	}
+	@Override
+	FirstSet first() {
+		return _original.first().orEmpty();
+	}
+	@Override
+	ValParser<Optional<T>> rewrite(Optimizer optimizer) {
+		final ValParser<T> original = optimizer.optimize(_original);
+		final boolean atomic = original.atomic();
+		return original == _original && atomic == _atomic ? this : new OptValParser<>(original, atomic);
+	}
+	@Override
+	boolean atomic() {
+		return true;
+	}
+}
@@ -0,0 +1,33 @@
+package org.unclazz.parsec;
+
+import java.io.IOException;
+
+final class OptimizedValParser<T> extends ValParser<T> {
+	private final ValParser<T> _original;
+	private final ValParser<T> _optimized;
+	
+	OptimizedValParser(ValParser<T> original, ValParser<T> optimized) {
+		ParsecUtility.mustNotBeNull("original", original);
+		ParsecUtility.mustNotBeNull("optimized", optimized);
+		_original = original;
+		_optimized = optimized;
+	}
+
+	@Override
+	protected ValResultCore<T> doParse(Context ctx) throws IOException {
+		// 最適化は自動スキップが無効であることを前提としているため
+		// 自動スキップが有効な場合は元のパーサーを利用する
+		return (ctx.autoSkip() ? _original : _optimized).doParse(ctx);
+	}
+	@Override
+	ParseFrame frame(Context ctx) {
+		return (ctx.autoSkip() ? _original : _optimized).frame(ctx);
+	}
+	@Override
+	FirstSet first() {
+		return _optimized.first();
+	}
+	ValParser<T> original() {
+		return _original;
+	}
+}
@@ -0,0 +1,54 @@
+package org.unclazz.parsec;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * パーサーのグラフをより低コストな等価のグラフに書き換えるオブジェクトです。
+ * <p>書き換えは各パーサーの{@link Parser#rewrite(Optimizer)}や{@link ValParser#rewrite(Optimizer)}が
+ * 子のパーサーを書き換えた上で自身に適用できる規則を適用することで、葉から根に向かって行われます。
+ * 同じパーサーのインスタンスが複数の箇所から参照されている場合、その書き換え結果も同じインスタンスとなります。</p>
+ * <p>書き換えは自動スキップが無効であることを前提とします。
+ * 例えば連接された文字のパーサーを1つのキーワードのパーサーに融合すると、
+ * 文字と文字の間で自動スキップが行われなくなるためです。</p>
+ */
+class Optimizer {
+	private final Map<ParserSupport, ParserSupport> _rewritten = new IdentityHashMap<>();
+	
+	/**
+	 * パーサーを書き換えます。
+	 * @param p パーサー
+	 * @return 書き換えられたパーサー（書き換える必要がない場合は引数のパーサーそのもの）
+	 */
+	Parser optimize(Parser p) {
+		final ParserSupport done = _rewritten.get(p);
+		if (done != null) return (Parser) done;
+		final Parser result = transform(p);
+		_rewritten.put(p, result);
+		return result;
+	}
+	/**
+	 * 書き換え結果が未登録のパーサーを書き換えます。
+	 * <p>既定の実装は{@link Parser#rewrite(Optimizer)}に処理を委譲します。
+	 * 派生型はこのメソッドをオーバーライドして書き換えの規則を追加できます。</p>
+	 * @param p パーサー
+	 * @return 書き換えられたパーサー
+	 */
+	Parser transform(Parser p) {
+		return p.rewrite(this);
+	}
+	/**
+	 * パーサーを書き換えます。
+	 * @param p パーサー
+	 * @return 書き換えられたパーサー（書き換える必要がない場合は引数のパーサーそのもの）
+	 * @param <T> パーサーの読み取り結果型
+	 */
+	@SuppressWarnings("unchecked")
+	<T> ValParser<T> optimize(ValParser<T> p) {
+		final ParserSupport done = _rewritten.get(p);
+		if (done != null) return (ValParser<T>) done;
+		final ValParser<T> result = p.rewrite(this);
+		_rewritten.put(p, result);
+		return result;
+	}
+}
@@ -5,6 +5,7 @@ import java.io.IOException;
 final class OrParser extends Parser{
 	private final Parser _left;
 	private final Parser _right;
+	private FirstSet _leftFirst;
 	
 	protected OrParser(Parser left, Parser right) {
 		_left = left;
@@ -14,16 +15,109 @@ final class OrParser extends Parser{
 	@Override
 	protected ResultCore doParse(Context ctx) throws IOException {
 		final TextReader src = ctx.source();
-		src.mark();
-		
-		final Result leftResult = _left.parse(ctx);
-		if (leftResult.isSuccessful() || !leftResult.canBacktrack()) {
-			src.unmark();
-			return leftResult.allowBacktrack(true);
+		final int ch = src.peek();
+		if (leftFirst().canStartWith(ch)) {
+			src.markCuttable();
+			
+			final ResultCore leftResult = _left.parseCore(ctx);
+			if (leftResult.isSuccessful() || !leftResult.canBacktrack()) {
+				src.unmark();
+				return leftResult.allowBacktrack(true);
+			}
+			
+			// 右側のパース中はマークをカット済みとして残しておく
+			// ※右側でカットが行われてもこのパーサーがバックトラックを有効に戻すため、
+			// 外側のマークまでカットが及ばないようにする。
+			src.reset(false);
+			ctx.cut();
+		} else {
+			// 次の文字から左側のパースが失敗することが明らかな場合は左側のパースを省略する
+			// ※右側でのカットが外側のマークに及ばないよう、カット済みのマークだけを設定する。
+			src.markCut();
+			ctx.skipped(leftFirst(), ch);
 		}
-		
-		src.reset(true);
-		final Result rightResult = _right.parse(ctx);
+		final ResultCore rightResult = _right.parseCore(ctx);
+		src.unmark();
 		return rightResult.allowBacktrack(true);
 	}
-}
\ No newline at end of file
+	@Override
+	ParseFrame frame(Context ctx) {
+		return new Frame();
+	}
+	// doParse(Context)を左右のパーサーの呼び出しの前後で分割したもの
+	private final class Frame extends ParseFrame {
+		// 右側のパーサーを呼び出した後であればtrue
+		private boolean _onRight;
+		@Override
+		ParserSupport resume(Context ctx, ResultCoreSupport child) throws IOException {
+			final TextReader src = ctx.source();
+			if (child == null) {
+				final int ch = src.peek();
+				if (leftFirst().canStartWith(ch)) {
+					src.markCuttable();
+					return _left;
+				}
+				src.markCut();
+				ctx.skipped(leftFirst(), ch);
+				_onRight = true;
+				return _right;
+			}
+			if (!_onRight) {
+				final ResultCore leftResult = core(child);
+				if (leftResult.isSuccessful() || !leftResult.canBacktrack()) {
+					src.unmark();
+					return done(leftResult.allowBacktrack(true));
+				}
+				src.reset(false);
+				ctx.cut();
+				_onRight = true;
+				return _right;
+			}
+			final ResultCore rightResult = core(child);
+			src.unmark();
+			return done(rightResult.allowBacktrack(true));
+		}
+	}
+	@Override
+	FirstSet first() {
+		return leftFirst().or(_right.first());
+	}
+	private FirstSet leftFirst() {
+		// FIRST集合は不変なので複数のスレッドから競合して設定されても問題ないが、フィールドの読み取りは1回に限る
+		FirstSet first = _leftFirst;
+		if (first == null) _leftFirst = first = _left.first();
+		return first;
+	}
+	Parser left() {
+		return _left;
+	}
+	Parser right() {
+		return _right;
+	}
+	@Override
+	Parser rewrite(Optimizer optimizer) {
+		final Parser left = optimizer.optimize(_left);
+		final Parser right = optimizer.optimize(_right);
+		// 文字クラスの選択肢は和集合の文字クラスに置き換える
+		final CharClass leftClass = left.singleCharClass();
+		final CharClass rightClass = right.singleCharClass();
+		if (leftClass != null && rightClass != null) return new CharClassParser(leftClass.union(rightClass));
+		return left == _left && right == _right ? this : new OrParser(left, right);
+	}
+	@Override
+	boolean atomic() {
+		return _left.atomic() && _right.atomic();
+	}
+	@Override
+	boolean compilable(GrammarCompiler compiler) {
+		return compiler.compilable(_left) && compiler.compilable(_right);
+	}
+	@Override
+	void emit(GrammarCompiler compiler, String start, String end) {
+		// 左側が失敗した場合は開始時の文字位置から右側をパースする
+		compiler.emit(_left, start, end);
+		compiler.open("if (%s == -1)", end);
+		compiler.emit(_right, start, end);
+		compiler.close();
+	}
+}
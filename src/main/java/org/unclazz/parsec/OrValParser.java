@@ -5,6 +5,7 @@ import java.io.IOException;
 final class OrValParser<T> extends ValParser<T>{
 	private final ValParser<T> _left;
 	private final ValParser<T> _right;
+	private FirstSet _leftFirst;
 	
 	protected OrValParser(ValParser<T> left, ValParser<T> right) {
 		_left = left;
@@ -14,16 +15,89 @@ final class OrValParser<T> extends ValParser<T>{
 	@Override
 	protected ValResultCore<T> doParse(Context ctx) throws IOException {
 		final TextReader src = ctx.source();
-		src.mark();
-		
-		final ValResult<T> leftResult = _left.parse(ctx);
-		if (leftResult.isSuccessful() || !leftResult.canBacktrack()) {
-			src.unmark();
-			return leftResult.allowBacktrack(true);
+		final int ch = src.peek();
+		if (leftFirst().canStartWith(ch)) {
+			src.markCuttable();
+			
+			final ValResultCore<T> leftResult = _left.parseCore(ctx);
+			if (leftResult.isSuccessful() || !leftResult.canBacktrack()) {
+				src.unmark();
+				return leftResult.allowBacktrack(true);
+			}
+			
+			// 右側のパース中はマークをカット済みとして残しておく
+			// ※右側でカットが行われてもこのパーサーがバックトラックを有効に戻すため、
+			// 外側のマークまでカットが及ばないようにする。
+			src.reset(false);
+			ctx.cut();
+		} else {
+			// 次の文字から左側のパースが失敗することが明らかな場合は左側のパースを省略する
+			// ※右側でのカットが外側のマークに及ばないよう、カット済みのマークだけを設定する。
+			src.markCut();
+			ctx.skipped(leftFirst(), ch);
 		}
-		
-		src.reset(true);
-		final ValResult<T> rightResult = _right.parse(ctx);
+		final ValResultCore<T> rightResult = _right.parseCore(ctx);
+		src.unmark();
 		return rightResult.allowBacktrack(true);
 	}
-}
\ No newline at end of file
+	@Override
+	ParseFrame frame(Context ctx) {
+		return new Frame();
+	}
+	// doParse(Context)を左右のパーサーの呼び出しの前後で分割したもの
+	private final class Frame extends ParseFrame {
+		// 右側のパーサーを呼び出した後であればtrue
+		private boolean _onRight;
+		@Override
+		ParserSupport resume(Context ctx, ResultCoreSupport child) throws IOException {
+			final TextReader src = ctx.source();
+			if (child == null) {
+				final int ch = src.peek();
+				if (leftFirst().canStartWith(ch)) {
+					src.markCuttable();
+					return _left;
+				}
+				src.markCut();
+				ctx.skipped(leftFirst(), ch);
+				_onRight = true;
+				return _right;
+			}
+			if (!_onRight) {
+				final ValResultCore<T> leftResult = valCore(child);
+				if (leftResult.isSuccessful() || !leftResult.canBacktrack()) {
+					src.unmark();
+					return done(leftResult.allowBacktrack(true));
+				}
+				src.reset(false);
+				ctx.cut();
+				_onRight = true;
+				return _right;
+			}
+			final ValResultCore<T> rightResult = valCore(child);
+			src.unmark();
+			return done(rightResult.allowBacktrack(true));
+		}
+	}
+	@Override
+	FirstSet first() {
+		return leftFirst().or(_right.first());
+	}
+	private FirstSet leftFirst() {
+		// FIRST集合は不変なので複数のスレッドから競合して設定されても問題ないが、フィールドの読み取りは1回に限る
+		FirstSet first = _leftFirst;
+		if (first == null) _leftFirst = first = _left.first();
+		return first;
+	}
+	ValParser<T> left() {
+		return _left;
+	}
+	ValParser<T> right() {
+		return _right;
+	}
+	@Override
+	ValParser<T> rewrite(Optimizer optimizer) {
+		final ValParser<T> left = optimizer.optimize(_left);
+		final ValParser<T> right = optimizer.optimize(_right);
+		return left == _left && right == _right ? this : new OrValParser<>(left, right);
+	}
+}
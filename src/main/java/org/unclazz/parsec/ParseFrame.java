@@ -0,0 +1,63 @@
+package org.unclazz.parsec;
+
+import java.io.IOException;
+
+/**
+ * 明示的なスタックの上で行われるパーサーの呼び出し1回分の状態を表すオブジェクトです。
+ * <p>フレームは{@code doParse(Context)}の処理を子のパーサーの呼び出しの前後で分割したものです。
+ * {@link Trampoline}は{@link #resume(Context, ResultCoreSupport)}を繰り返し呼び出し、
+ * フレームが子のパーサーを返すとそのパーサーのパースを行い、その結果を次の呼び出しの引数として渡します。
+ * フレームが{@link #done(ResultCoreSupport)}によりパース結果を確定するとスタックから取り除かれます。</p>
+ * <p>フレームは子のパーサーの呼び出しの間に必要な状態だけをフィールドとして保持するため、
+ * 入れ子の1段あたりのメモリはJavaのスタックフレームを積み重ねる場合よりも小さくなります。</p>
+ */
+abstract class ParseFrame {
+	private ResultCoreSupport _result;
+
+	/**
+	 * パースを進めます。
+	 * <p>{@link IncrementalParser}によるパースでは、データソースの読み取りが{@link NeedMoreInputException}により中断されると、
+	 * 入力が追加された後に文字位置を呼び出し前に戻した上で同じ引数によりこのメソッドが再び呼び出されます。
+	 * このため実装はデータソースの読み取りをフレームのフィールドやマークなどの状態を変更する前に行う必要があります。</p>
+	 * @param ctx コンテキスト
+	 * @param child 直前に返した子パーサーのパース結果（最初の呼び出しでは{@code null}）
+	 * @return 次に呼び出す子パーサー（パースが完了した場合は{@code null}）
+	 * @throws IOException データソースから例外がスローされた場合
+	 */
+	abstract ParserSupport resume(Context ctx, ResultCoreSupport child) throws IOException;
+	/**
+	 * パース結果を確定します。
+	 * @param result パース結果オブジェクト
+	 * @return {@code null}
+	 */
+	final ParserSupport done(ResultCoreSupport result) {
+		_result = result;
+		return null;
+	}
+	/**
+	 * 確定したパース結果を返します。
+	 * @return パース結果オブジェクト
+	 */
+	final ResultCoreSupport result() {
+		return _result;
+	}
+
+	/**
+	 * 子のパーサーのパース結果を値を持たないパース結果として参照します。
+	 * @param child パース結果オブジェクト
+	 * @return パース結果オブジェクト
+	 */
+	static ResultCore core(ResultCoreSupport child) {
+		return (ResultCore) child;
+	}
+	/**
+	 * 子のパーサーのパース結果を値を持つパース結果として参照します。
+	 * @param child パース結果オブジェクト
+	 * @return パース結果オブジェクト
+	 * @param <T> 読み取り結果型
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> ValResultCore<T> valCore(ResultCoreSupport child) {
+		return (ValResultCore<T>) child;
+	}
+}
@@ -0,0 +1,37 @@
+package org.unclazz.parsec;
+
+/**
+ * パースの進行状況の通知を受け取るオブジェクトです。
+ * <p>リスナーは{@link ContextConfigurer#setParseListener(ParseListener)}でコンテキストに登録します。
+ * 登録されたリスナーにはパーサーの呼び出しの開始と終了、リセットによる文字位置の後退が通知されます。
+ * リスナーが登録されていない場合、パーサーの呼び出しごとのコストはフィールドの{@code null}チェック1回だけです。</p>
+ * <p>通知はパースを行うスレッドから同期的に行われます。
+ * リスナーのメソッドはパースの処理時間に直接加算されるため、軽量な処理にとどめる必要があります。
+ * 各メソッドの既定の実装は何も行いません。</p>
+ * <p>{@link ContextConfigurer#setLogAppender(java.util.function.Consumer)}によるデバッグログも
+ * このインターフェースの実装の1つとして出力されます。</p>
+ */
+public interface ParseListener {
+	/**
+	 * パーサーの呼び出しが開始されたときに呼び出されます。
+	 * <p>メモ化された結果が再利用された場合、そのパーサーの開始と終了は通知されません。</p>
+	 * @param parser パーサー
+	 * @param offset 開始時の文字位置のインデックス（自動スキップの後）
+	 */
+	default void enter(ParserSupport parser, int offset) {}
+	/**
+	 * パーサーの呼び出しが終了したときに呼び出されます。
+	 * <p>パースの成否は{@link ResultCoreSupport#isSuccessful()}で、
+	 * カットの有無は{@link ResultCoreSupport#canBacktrack()}で確認できます。</p>
+	 * @param parser パーサー
+	 * @param offset 終了時の文字位置のインデックス
+	 * @param result パース結果オブジェクト
+	 */
+	default void exit(ParserSupport parser, int offset, ResultCoreSupport result) {}
+	/**
+	 * リセットにより文字位置が後退したときに呼び出されます。
+	 * @param from 後退する前の文字位置のインデックス
+	 * @param to 後退した後の文字位置のインデックス
+	 */
+	default void backtrack(int from, int to) {}
+}
@@ -0,0 +1,90 @@
+package org.unclazz.parsec;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * パーサーの呼び出しごとの統計を収集するプロファイラーです。
+ * <p>プロファイラーは{@link ContextConfigurer#setProfiler(ParseProfiler)}でコンテキストに登録します。
+ * 登録されたコンテキストでのパースでは、パーサーの呼び出し経路ごとに
+ * 呼び出し回数・成功回数・失敗回数・リセットの回数・消費した文字数・所要時間（自身のみ／子を含む）が記録されます。
+ * 収集された統計は{@link #report()}で文法の構造に沿った木として取得できます。</p>
+ * <p>統計はコンテキストごとのカウンターに記録され、最も外側のパーサーの呼び出しが終了したときにだけ
+ * プロファイラーに反映されます。そのため1つのプロファイラーを複数のスレッドのコンテキストで共有できます。
+ * {@link #sampled(double)}で作成したプロファイラーは、コンテキストの作成時に指定された割合で統計の収集対象を抽選します。
+ * 対象とならなかったコンテキストのパースにはプロファイラーによるオーバーヘッドはありません。</p>
+ * <p>プロファイラーが登録されたコンテキストでは、コンパイルされたパーサー（{@link Parser#compile()}）も
+ * 子のパーサーの呼び出しを記録するためにコンパイル前のパーサーでパースを行います。</p>
+ */
+public final class ParseProfiler {
+	/**
+	 * すべてのコンテキストで統計を収集するプロファイラーを作成します。
+	 * @return プロファイラー
+	 */
+	public static ParseProfiler create() {
+		return new ParseProfiler(1.0);
+	}
+	/**
+	 * 指定された割合のコンテキストでだけ統計を収集するプロファイラーを作成します。
+	 * @param rate 統計を収集するコンテキストの割合（{@code 0}より大きく{@code 1}以下）
+	 * @return プロファイラー
+	 * @throws IllegalArgumentException 割合が範囲外の場合
+	 */
+	public static ParseProfiler sampled(double rate) {
+		if (!(rate > 0 && rate <= 1)) {
+			throw new IllegalArgumentException("rate must be greater than 0 and less than or equal to 1.");
+		}
+		return new ParseProfiler(rate);
+	}
+	
+	private final double _rate;
+	private final ProfilingListener.Node _root = new ProfilingListener.Node(null, null);
+	private long _sessions;
+	
+	private ParseProfiler(double rate) {
+		_rate = rate;
+	}
+	
+	/**
+	 * 統計を収集するコンテキストの割合です。
+	 * @return 割合
+	 */
+	public double samplingRate() {
+		return _rate;
+	}
+	/**
+	 * 統計を収集するためのリスナーを返します。
+	 * <p>コンテキストの作成時に呼び出されます。</p>
+	 * @return リスナー（サンプリングの対象とならなかった場合は{@code null}）
+	 */
+	ParseListener listener() {
+		if (_rate < 1.0 && ThreadLocalRandom.current().nextDouble() >= _rate) return null;
+		return new ProfilingListener(this);
+	}
+	/**
+	 * 最も外側のパーサーの呼び出し1回分の統計を反映します。
+	 * @param root 統計の木の根
+	 */
+	synchronized void merge(ProfilingListener.Node root) {
+		_sessions ++;
+		_root.merge(root);
+	}
+	/**
+	 * 収集された統計を返します。
+	 * <p>戻り値の根は特定のパーサーに対応しないノードで、
+	 * その呼び出し回数は統計を収集したパース（最も外側のパーサーの呼び出し）の回数を示します。
+	 * 戻り値はこのメソッドが呼び出された時点のスナップショットであり、その後の統計の収集の影響を受けません。</p>
+	 * @return 統計の木の根
+	 */
+	public synchronized ProfileNode report() {
+		long total = 0;
+		for (final ProfilingListener.Node c : _root.children) total += c.totalNanos;
+		return new ProfileNode(_root, _sessions, total);
+	}
+	/**
+	 * 収集された統計を破棄します。
+	 */
+	public synchronized void clear() {
+		_sessions = 0;
+		_root.children.clear();
+	}
+}
@@ -0,0 +1,25 @@
+package org.unclazz.parsec;
+
+/**
+ * 明示的なスタックの深さが上限に達したことを示す例外です。
+ * <p>{@link ContextConfigurer#setExplicitStack(boolean)}で明示的なスタックを有効にしたコンテキストで、
+ * パーサーの呼び出しの入れ子が{@link ContextConfigurer#setMaxStackDepth(int)}で設定した上限を超えた場合にスローされます。
+ * {@link StackOverflowError}と異なり、この例外がスローされた後もスレッドとコンテキストの状態は健全です。</p>
+ */
+public final class ParseStackOverflowException extends RuntimeException {
+	private static final long serialVersionUID = 1L;
+	private final int _maxDepth;
+
+	ParseStackOverflowException(int maxDepth) {
+		super(String.format("maximum stack depth (%s) has been exceeded.", maxDepth));
+		_maxDepth = maxDepth;
+	}
+
+	/**
+	 * スタックの深さの上限です。
+	 * @return 上限
+	 */
+	public int maxDepth() {
+		return _maxDepth;
+	}
+}
@@ -75,13 +75,168 @@ public abstract class Parser extends ParserSupport {
 	 */
 	public Result parse(Context ctx) throws IOException{
 		final TextReader src = ctx.source();
-		final CharPosition startedOn = src.position();
-		ctx.preParse(name(), paramsString());
-		final ResultCore core = doParse(ctx);
-		ctx.postParse(core);
-		if (core instanceof Result) return (Result) core;
-		final CharPosition endedOn = src.position();
-		return core.attachPosition(startedOn, endedOn);
+		final boolean tracking = ctx.positionTracking() != PositionTracking.NONE;
+		final CharPosition startedOn = tracking ? src.position() : null;
+		final ResultCore core = parseCore(ctx);
+		// パーサーが文字位置情報を付与した結果を返した場合はそれをそのまま返す
+		return core instanceof Result ? (Result) core
+				: core.attachPosition(startedOn, tracking ? src.position() : null);
+	}
+	/**
+	 * パースを行い文字位置情報を持たないパース結果オブジェクトを返します。
+	 * <p>{@link #parse(Context)}と異なりパース前後の文字位置を求めず、{@link Result}も生成しません。
+	 * 成功を表すパース結果オブジェクトは通常共有のインスタンスであるため、
+	 * 組み込みのパーサーが子のパーサーのパースにこのメソッドを利用することで、
+	 * パースが成功する限りパーサーの呼び出しごとのオブジェクトの生成は起こりません。
+	 * {@link Result}は最も外側の{@link #parse(Context)}でのみ生成されます。</p>
+	 * <p>コンテキストで明示的なスタックが有効な場合、パースは{@link Trampoline}によりヒープ上のスタックで行われます。</p>
+	 * @param ctx コンテキスト
+	 * @return パース結果オブジェクト
+	 * @throws IOException データソースから例外がスローされた場合
+	 */
+	final ResultCore parseCore(Context ctx) throws IOException{
+		final Trampoline trampoline = ctx.trampoline();
+		return trampoline == null ? parseDirectly(ctx) : trampoline.run(this);
+	}
+	@Override
+	final ResultCore parseDirectly(Context ctx) throws IOException{
+		final TextReader src = ctx.source();
+		final boolean memoization = ctx.memoization();
+		final int startIndex = src.index();
+		if (memoization) {
+			final ResultCore memo = ctx.recall(this, startIndex);
+			if (memo != null) return memo;
+		}
+		final int markCount = src.markCount();
+		ctx.preParse(this);
+		final ResultCore core;
+		try {
+			core = doParse(ctx);
+		} catch (final IOException | RuntimeException ex) {
+			// 例外によりパースが中断された場合もコンテキストの状態を呼び出し前に戻す
+			ctx.abortParse(this, markCount);
+			throw ex;
+		}
+		ctx.postParse(this, core);
+		if (memoization) ctx.memorize(this, startIndex, core);
+		return core;
+	}
+	
+	/**
+	 * パーサーのグラフをより低コストな等価のグラフに書き換えたパーサーを返します。
+	 * <p>書き換えは例えば次のようなものです：</p>
+	 * <ul>
+	 * <li>{@code exact('a').then(exact('b'))}のような文字やキーワードの連接を1つのキーワードのパーサーに融合する</li>
+	 * <li>{@code charIn(clazz).rep()}を{@code charsWhileIn(clazz)}に置き換える</li>
+	 * <li>文字クラスのパーサーの選択肢を和集合の文字クラスのパーサー1つに置き換える</li>
+	 * <li>空文字列にマッチし失敗することのないパーサーを囲む{@code opt()}を取り除く</li>
+	 * <li>失敗しても文字を消費しないパーサーの{@code opt()}や{@code rep()}でマークとリセットを省略する</li>
+	 * </ul>
+	 * <p>書き換え後のパーサーはパースの成否と文字位置について元のパーサーと同じ結果を返しますが、
+	 * 失敗時のメッセージやデバッグログの内容は異なる場合があります。
+	 * 遅延初期化パーサー（{@link Parsers#lazy(org.unclazz.parsec.util.ParserFactory)}など）の内側は書き換えられません。
+	 * 自動スキップが有効なコンテキストでパースを行う場合は書き換え前のパーサーが利用されます。</p>
+	 * @return パーサー（書き換える必要がない場合はレシーバー自身）
+	 */
+	public Parser optimize() {
+		final Parser optimized = new Optimizer().optimize(this);
+		return optimized == this ? this : new OptimizedParser(this, optimized);
+	}
+	/**
+	 * {@link #optimize()}のためにパーサーを書き換えます。
+	 * <p>既定の実装はレシーバー自身を返します。
+	 * 子のパーサーを持つパーサーはこのメソッドをオーバーライドして、
+	 * {@link Optimizer#optimize(Parser)}で子のパーサーを書き換えた上で自身に適用できる規則を適用します。</p>
+	 * @param optimizer オプティマイザー
+	 * @return 書き換えられたパーサー
+	 */
+	Parser rewrite(Optimizer optimizer) {
+		return this;
+	}
+	/**
+	 * パーサーが特定の文字列にのみマッチする場合その文字列を返します。
+	 * @return 文字列（そのようなパーサーでない場合は{@code null}）
+	 */
+	String literal() {
+		return null;
+	}
+	/**
+	 * パーサーが特定の文字クラスに含まれる1文字にのみマッチする場合その文字クラスを返します。
+	 * @return 文字クラス（そのようなパーサーでない場合は{@code null}）
+	 */
+	CharClass singleCharClass() {
+		return null;
+	}
+	/**
+	 * パーサーが決して失敗せず、またカットも行わないかどうかを判定します。
+	 * @return 失敗しない場合{@code true}
+	 */
+	boolean infallible() {
+		return false;
+	}
+	/**
+	 * パーサーのグラフを専用のクラスにコンパイルしたパーサーを返します。
+	 * <p>コンパイルに先立ち{@link #optimize()}と同じ書き換えが行われます。
+	 * その上で文字・キーワード・文字クラスのパーサーとそれらの連接・選択・繰返し・オプションからなる部分グラフが
+	 * 1つのクラスのメソッドとしてコンパイルされます。
+	 * コンパイルされたメソッドはパース結果のオブジェクトを生成せず、
+	 * バックトラックのためのマークもリーダーではなくローカル変数で行います。</p>
+	 * <p>クラスはJDKに含まれるコンパイラーによりメモリ上でコンパイルされます。
+	 * コンパイラーが利用できない環境では{@link #optimize()}と同じパーサーを返します。
+	 * コンパイルには時間がかかるため、完成したグラフに対して一度だけ行い、結果のパーサーを再利用してください。</p>
+	 * <p>コンパイルされた部分グラフのパースが失敗した場合、生成されたコードが失敗した文字位置と失敗したパーサーを返し、
+	 * 元の部分グラフと同じメッセージと文字位置を持つ失敗が組み立てられます。
+	 * ただし{@link Context#farthestFailure()}に記録されるのはその失敗だけであり、
+	 * 部分グラフの内側で試行され失敗した選択肢などは記録されません。</p>
+	 * <p>自動スキップやリスナー（ログ出力を含む）が有効なコンテキストでパースを行う場合や、
+	 * データソースの全体がメモリ上の文字シーケンスではない場合（{@link java.io.Reader}やファイルから読み取る場合など）は
+	 * コンパイル前のパーサーが利用されます。</p>
+	 * @return パーサー（コンパイルも書き換えも必要がない場合はレシーバー自身）
+	 */
+	public Parser compile() {
+		final Parser optimized = new Optimizer().optimize(this);
+		final Parser compiled = GrammarCompiler.compile(optimized);
+		return compiled == this ? this : new OptimizedParser(this, compiled);
+	}
+	/**
+	 * パーサーが{@link GrammarCompiler}によりコンパイル可能かどうかを判定します。
+	 * <p>既定の実装は{@code false}を返します。
+	 * 子のパーサーを持つパーサーは{@link GrammarCompiler#compilable(Parser)}で子のパーサーを判定します。</p>
+	 * @param compiler コンパイラー
+	 * @return コンパイル可能な場合{@code true}
+	 */
+	boolean compilable(GrammarCompiler compiler) {
+		return false;
+	}
+	/**
+	 * パーサーのソースコードを出力します。
+	 * <p>出力の規約については{@link GrammarCompiler#emit(Parser, String, String)}を参照してください。
+	 * {@link #compilable(GrammarCompiler)}が{@code true}を返すパーサーはこのメソッドをオーバーライドします。</p>
+	 * @param compiler コンパイラー
+	 * @param start パース開始時の文字位置を保持する変数の名前
+	 * @param end パース後の文字位置を代入する変数の名前
+	 * @throws IllegalStateException {@link #compilable(GrammarCompiler)}が{@code true}を返すにもかかわらず
+	 * このメソッドがオーバーライドされていない場合
+	 */
+	void emit(GrammarCompiler compiler, String start, String end) {
+		throw new IllegalStateException(String.format("parser %s is compilable "
+				+ "but does not override emit(GrammarCompiler, String, String).", name()));
+	}
+	/**
+	 * コンパイルされたコードが報告した失敗からパース結果オブジェクトを生成します。
+	 * <p>{@link GrammarCompiler#fail(Parser, String, String, String)}で失敗を出力するパーサーはこのメソッドをオーバーライドし、
+	 * コンパイル前と同じメッセージを持つ失敗を返します。
+	 * 呼び出し時点でデータソースの文字位置は失敗した位置に設定されています。</p>
+	 * @param ctx コンテキスト
+	 * @param actual 失敗した位置の文字のコードポイント（EOFの場合は{@code -1}）
+	 * @param aux 失敗の出力時に指定された値
+	 * @return パース結果オブジェクト
+	 * @throws IllegalStateException {@link GrammarCompiler#fail(Parser, String, String, String)}で失敗を出力したにもかかわらず
+	 * このメソッドがオーバーライドされていない場合
+	 */
+	ResultCore compiledFailure(Context ctx, int actual, int aux) {
+		throw new IllegalStateException(String.format("parser %s emits compiled failures "
+				+ "but does not override compiledFailure(Context, int, int).", name()));
 	}
 	
 	/**
@@ -101,12 +256,38 @@ public abstract class Parser extends ParserSupport {
 	}
 	/**
 	 * パース失敗を表すオブジェクトを返します。
+	 * <p>メッセージはパース結果オブジェクトの{@link ResultCoreSupport#message()}が呼び出されたときに初めて整形されます。
+	 * フォーマット引数はそれまで保持されるため、後から内容が変更されるオブジェクトを渡してはなりません。</p>
 	 * @param format 失敗の理由を示すメッセージのフォーマット
 	 * @param args フォーマット引数
 	 * @return パース結果オブジェクト
 	 */
 	protected ResultCore failure(String format, Object...args){
-		return failure(String.format(format, args));
+		return new ResultCore(false, true, FailureMessage.of(format, args));
+	}
+	/**
+	 * パース失敗を表すオブジェクトを返します。
+	 * <p>失敗の理由を示すメッセージは引数のパース結果オブジェクトのものを引き継ぎます。</p>
+	 * @param cause 子パーサーのパース結果オブジェクト
+	 * @return パース結果オブジェクト
+	 */
+	ResultCore failure(ResultCoreSupport cause){
+		return new ResultCore(false, true, cause.failureMessage());
+	}
+	/**
+	 * 期待された要素が見つからなかったことによるパース失敗を表すオブジェクトを返します。
+	 * <p>メッセージは{@code "%s expected but %s found."}の形式となり、
+	 * 期待された要素は{@link Context#farthestFailure()}の集計の対象となります。</p>
+	 * <p>パース結果オブジェクトは不変であるため、同じコンテキストでの直前の呼び出しと
+	 * 期待された要素（同一のインスタンス）と実際に見つかった文字が同じであれば直前のオブジェクトをそのまま返します。
+	 * 選択肢や繰返しのもとで同じ失敗が入力の長さに比例して繰り返される場合も割り当てが発生しません。</p>
+	 * @param ctx コンテキスト
+	 * @param expected 期待された要素
+	 * @param actual 実際に見つかった文字のコードポイント（EOFの場合は{@code -1}）
+	 * @return パース結果オブジェクト
+	 */
+	ResultCore failureExpecting(Context ctx, Object expected, int actual){
+		return ctx.failureExpecting(expected, actual);
 	}
 	
 	/**
@@ -116,6 +297,17 @@ public abstract class Parser extends ParserSupport {
 	public ValParser<String> val(){
 		return new CaptureParser(this);
 	}
+	/**
+	 * パースした文字シーケンスをコピーせずにキャプチャするパーサーを返します。
+	 * <p>{@link #val()}と異なり、キャプチャした値はデータソースを直接参照するスライスとなり文字列は生成されません。
+	 * 値の比較や数値への変換など、文字列を保持する必要のない処理に利用します。
+	 * 値はパースが終了するまで有効です。パース終了後もデータソースの読み取りを続ける場合は
+	 * {@link CharSequence#toString()}で文字列に変換してから保持してください。</p>
+	 * @return パーサー
+	 */
+	public ValParser<CharSequence> valSlice(){
+		return new CaptureSliceParser(this);
+	}
 	/**
 	 * パースした文字列に関数を適用するパーサーを返します。
 	 * <p>関数適用時に例外がスローされた場合、例外のメッセージが{@link ValResult#message()}に設定されます。</p>
@@ -154,6 +346,17 @@ public abstract class Parser extends ParserSupport {
 	public Parser opt() {
 		return new OptParser(this);
 	}
+	/**
+	 * パース結果をメモ化するパーサーを返します。
+	 * <p>返されるパーサーは開始位置ごとのパース結果を{@link Context}に記録し、
+	 * バックトラックの後に同じ位置から再びパースを行う場合は記録された結果を再利用します。
+	 * 記録された結果はカットによりバックトラックで戻ることのなくなった時点で破棄されます。
+	 * 文法全体をメモ化する場合は{@link ContextConfigurer#setMemoization(boolean)}を利用します。</p>
+	 * @return パーサー
+	 */
+	public Parser memo() {
+		return new MemoParser(this);
+	}
 	/**
 	 * このパーサーのパースが成功すると直近の{@link #or(ValParser)}を起点とするバックトラックが無効になります。
 	 * @return パーサー
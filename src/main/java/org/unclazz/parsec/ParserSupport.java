@@ -1,5 +1,6 @@
 package org.unclazz.parsec;
 
+import java.io.IOException;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -14,11 +15,14 @@ import org.unclazz.parsec.util.ValParserFactory;
 /**
  * {@link Parser}および{@link ValParser}クラスとその派生クラスのため
  * 各種のユーティリティとファクトリーメソッドを提供します。
+ * <p>このクラスを直接継承することはできません。{@link Parser}または{@link ValParser}を継承してください。
+ * このクラスは{@link ParseListener}がパーサーの名前とパラメータを参照するために公開されています。</p>
  */
-abstract class ParserSupport{
+public abstract class ParserSupport{
 	private static final Pattern _classSuffix = Pattern.compile("Parser$");
 	private final String _name;
-	private Map<String, Object> _params;
+	// 変更不能なマップ（登録のたびに差し替えることで構築後のパーサーを複数のスレッドから安全に参照できるようにする）
+	private volatile Map<String, Object> _params;
 	private String _paramsStringCache;
 	
 	/**
@@ -49,11 +53,51 @@ abstract class ParserSupport{
 		}
 	}
 	
+	/**
+	 * パーサーのFIRST集合を返します。
+	 * <p>既定の実装は{@link FirstSet#UNKNOWN}を返します。
+	 * FIRST集合を計算できるパーサーはこのメソッドをオーバーライドします。</p>
+	 * @return FIRST集合
+	 */
+	FirstSet first() {
+		return FirstSet.UNKNOWN;
+	}
+	/**
+	 * パースに失敗したときに文字を消費しないパーサーかどうかを判定します。
+	 * <p>このメソッドが{@code true}を返すパーサーはカットも行いません。
+	 * そのようなパーサーの失敗に備えたマークとリセットは省略できます。
+	 * 既定の実装は{@code false}を返します。</p>
+	 * @return 文字を消費しない場合{@code true}
+	 */
+	boolean atomic() {
+		return false;
+	}
+	/**
+	 * 明示的なスタックの上でパースを行うためのフレームを返します。
+	 * <p>{@link Trampoline}はこのメソッドが返すフレームをスタックに積み、
+	 * 子のパーサーの呼び出しをJavaのメソッド呼び出しではなくフレームの切り替えとして行います。
+	 * 既定の実装は{@code null}を返し、そのパーサーは{@link #parseDirectly(Context)}でパースされます。
+	 * 子のパーサーを持つ組み込みのパーサーはこのメソッドをオーバーライドして、
+	 * {@code doParse(Context)}と同じ処理を行うフレームを返します。</p>
+	 * @param ctx コンテキスト
+	 * @return フレーム（Javaのスタックの上でパースを行う場合は{@code null}）
+	 */
+	ParseFrame frame(Context ctx) {
+		return null;
+	}
+	/**
+	 * Javaのスタックの上でパースを行います。
+	 * <p>メモ化とデバッグログの処理を行った上で{@code doParse(Context)}を呼び出します。</p>
+	 * @param ctx コンテキスト
+	 * @return パース結果オブジェクト
+	 * @throws IOException データソースから例外がスローされた場合
+	 */
+	abstract ResultCoreSupport parseDirectly(Context ctx) throws IOException;
 	/**
 	 * パーサーの名前です。デバッグログに使用されます。
 	 * @return パーサーの名前
 	 */
-	protected final String name() {
+	public final String name() {
 		return _name;
 	}
 	
@@ -61,9 +105,9 @@ abstract class ParserSupport{
 	 * パーサーのパラメータのマップです。デバッグログに使用されます。
 	 * @return パーサーのパラメータのマップ
 	 */
-	protected final Map<String, Object> params() {
-		if (_params == null) return Collections.emptyMap();
-		return Collections.unmodifiableMap(_params);
+	public final Map<String, Object> params() {
+		final Map<String, Object> params = _params;
+		return params == null ? Collections.emptyMap() : params;
 	}
 	/**
 	 * パーサーのパラメータのエントリーを登録します。登録された情報はデバッグログに使用されます。
@@ -71,18 +115,20 @@ abstract class ParserSupport{
 	 * @param value 値
 	 */
 	protected final void param(String key, Object value) {
-		if (_params == null) _params = new HashMap<>();
+		final Map<String, Object> params = _params == null ? new HashMap<>() : new HashMap<>(_params);
+		params.put(key, value);
 		_paramsStringCache = null;
-		_params.put(key, value);
+		_params = Collections.unmodifiableMap(params);
 	}
 	
 	final String paramsString() {
 		if (_paramsStringCache == null) {
-			if (_params == null || _params.isEmpty()) {
+			final Map<String, Object> params = _params;
+			if (params == null || params.isEmpty()) {
 				_paramsStringCache = "";
 			} else {
 				final StringBuilder buf = new StringBuilder().append('{');
-				for (final Entry<String, Object> e : _params.entrySet()) {
+				for (final Entry<String, Object> e : params.entrySet()) {
 					if (buf.length() > 1) buf.append(',').append(' ');
 					buf.append(e.getKey()).append(':').append(' ')
 					.append(paramsString_toString(e.getValue()));
@@ -315,6 +361,28 @@ abstract class ParserSupport{
 	protected final <T> ValParser<T> produce(Supplier<T> func) {
 		return new ProduceParser<>(func);
 	}
+	/**
+	 * 引数で指定したパーサーを先頭から順に試行し、最初に成功したパーサーの結果を返すパーサーを返します。
+	 * <p>{@code a.or(b.or(c))}と同じ結果を返しますが、入れ子の選択肢を1つのパーサーに平坦化し、
+	 * 次の文字から失敗することが明らかな選択肢は試行しません。</p>
+	 * @param alternatives 選択肢となるパーサー
+	 * @return パーサー
+	 */
+	protected final Parser choice(Parser... alternatives) {
+		return new ChoiceParser(alternatives);
+	}
+	/**
+	 * 引数で指定したパーサーを先頭から順に試行し、最初に成功したパーサーの結果を返すパーサーを返します。
+	 * <p>{@code a.or(b.or(c))}と同じ結果を返しますが、入れ子の選択肢を1つのパーサーに平坦化し、
+	 * 次の文字から失敗することが明らかな選択肢は試行しません。</p>
+	 * @param alternatives 選択肢となるパーサー
+	 * @return パーサー
+	 * @param <T> パーサーの読み取り結果型
+	 */
+	@SafeVarargs
+	protected final <T> ValParser<T> choice(ValParser<T>... alternatives) {
+		return new ChoiceValParser<>(alternatives);
+	}
 	/**
 	 * パーサーが実際に必要になったときにこれを生成してパースを行う遅延初期化パーサーを返します。
 	 * <p>同一のファクトリーにより生成されたインスタンスが存在する場合はそのインスタンスが返されます。</p>
@@ -218,6 +218,30 @@ public final class Parsers {
 	public static <T> ValParser<T> produce(Supplier<T> func) {
 		return new ProduceParser<>(func);
 	}
+	/**
+	 * 引数で指定したパーサーを先頭から順に試行し、最初に成功したパーサーの結果を返すパーサーを返します。
+	 * <p>{@code a.or(b.or(c))}と同じ結果を返しますが、入れ子の選択肢を1つのパーサーに平坦化し、
+	 * マークの設定も1回で済ませます。また各選択肢のFIRST集合から次の文字ごとに試行すべき選択肢の表を作成し、
+	 * 次の文字から失敗することが明らかな選択肢は試行しません。</p>
+	 * @param alternatives 選択肢となるパーサー
+	 * @return パーサー
+	 */
+	public static Parser choice(Parser... alternatives) {
+		return new ChoiceParser(alternatives);
+	}
+	/**
+	 * 引数で指定したパーサーを先頭から順に試行し、最初に成功したパーサーの結果を返すパーサーを返します。
+	 * <p>{@code a.or(b.or(c))}と同じ結果を返しますが、入れ子の選択肢を1つのパーサーに平坦化し、
+	 * マークの設定も1回で済ませます。また各選択肢のFIRST集合から次の文字ごとに試行すべき選択肢の表を作成し、
+	 * 次の文字から失敗することが明らかな選択肢は試行しません。</p>
+	 * @param alternatives 選択肢となるパーサー
+	 * @return パーサー
+	 * @param <T> パーサーの読み取り結果型
+	 */
+	@SafeVarargs
+	public static <T> ValParser<T> choice(ValParser<T>... alternatives) {
+		return new ChoiceValParser<>(alternatives);
+	}
 	/**
 	 * パーサーが実際に必要になったときにこれを生成してパースを行う遅延初期化パーサーを返します。
 	 * <p>同一のファクトリーにより生成されたインスタンスが存在する場合はそのインスタンスが返されます。</p>
@@ -0,0 +1,26 @@
+package org.unclazz.parsec;
+
+/**
+ * 文字位置の追跡レベルです。
+ * <p>{@link ContextConfigurer#setPositionTracking(PositionTracking)}により{@link Context}ごとに設定します。
+ * 既定値は{@link #FULL}です。
+ * 追跡レベルはリーダーが読み取りを開始する前に設定する必要があります。
+ * 途中で{@link #FULL}に変更した場合、それ以前に読み取られた改行は行数に反映されません。</p>
+ */
+public enum PositionTracking {
+	/**
+	 * 文字位置を追跡しません。
+	 * <p>パース結果の{@link Result#start()}や{@link Result#end()}は{@code null}を返します。</p>
+	 */
+	NONE,
+	/**
+	 * インデックスのみを追跡します。
+	 * <p>文字位置の{@link CharPosition#line()}と{@link CharPosition#column()}は{@code -1}を返します。</p>
+	 */
+	INDEX,
+	/**
+	 * インデックスに加えて行数と列数を追跡します。
+	 * <p>リーダーは改行の位置をインデックスに記録し、行数と列数は必要になったときに計算されます。</p>
+	 */
+	FULL
+}
@@ -0,0 +1,150 @@
+package org.unclazz.parsec;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link ParseProfiler}が収集したパーサーの呼び出し経路ごとの統計です。
+ * <p>ノードの木は文法の構造に沿っており、子のノードは親のパーサーから呼び出された子のパーサーに対応します。
+ * 再帰的な呼び出しは経路上の同じパーサーのノードにまとめられます。
+ * このオブジェクトは不変です。</p>
+ */
+public final class ProfileNode {
+	private final String _name;
+	private final Map<String, Object> _params;
+	private final String _paramsString;
+	private final List<ProfileNode> _children;
+	private final long _invocations;
+	private final long _successes;
+	private final long _failures;
+	private final long _resets;
+	private final long _consumed;
+	private final long _selfNanos;
+	private final long _totalNanos;
+	
+	ProfileNode(ProfilingListener.Node root, long sessions, long totalNanos) {
+		_name = "Root";
+		_params = Collections.emptyMap();
+		_paramsString = "";
+		_children = children(root);
+		_invocations = sessions;
+		_successes = 0;
+		_failures = 0;
+		_resets = 0;
+		_consumed = 0;
+		_selfNanos = 0;
+		_totalNanos = totalNanos;
+	}
+	private ProfileNode(ProfilingListener.Node node) {
+		_name = node.parser.name();
+		_params = node.parser.params();
+		_paramsString = node.parser.paramsString();
+		_children = children(node);
+		_invocations = node.invocations;
+		_successes = node.successes;
+		_failures = node.failures;
+		_resets = node.resets;
+		_consumed = node.consumed;
+		_selfNanos = node.selfNanos;
+		_totalNanos = node.totalNanos;
+	}
+	private static List<ProfileNode> children(ProfilingListener.Node node) {
+		final List<ProfileNode> list = new ArrayList<>(node.children.size());
+		for (final ProfilingListener.Node c : node.children) list.add(new ProfileNode(c));
+		return Collections.unmodifiableList(list);
+	}
+	
+	/**
+	 * パーサーの名前です。
+	 * @return 名前
+	 * @see ParserSupport#name()
+	 */
+	public String name() {
+		return _name;
+	}
+	/**
+	 * パーサーのパラメータのマップです。
+	 * @return マップ
+	 * @see ParserSupport#params()
+	 */
+	public Map<String, Object> params() {
+		return _params;
+	}
+	/**
+	 * 子のノードのリストです。
+	 * @return リスト
+	 */
+	public List<ProfileNode> children() {
+		return _children;
+	}
+	/**
+	 * 呼び出し回数です。
+	 * @return 回数
+	 */
+	public long invocations() {
+		return _invocations;
+	}
+	/**
+	 * パースに成功した回数です。
+	 * @return 回数
+	 */
+	public long successes() {
+		return _successes;
+	}
+	/**
+	 * パースに失敗した回数です。
+	 * @return 回数
+	 */
+	public long failures() {
+		return _failures;
+	}
+	/**
+	 * このパーサーが行ったリセット（文字位置の後退）の回数です。
+	 * @return 回数
+	 */
+	public long resets() {
+		return _resets;
+	}
+	/**
+	 * パースに成功した呼び出しで消費した文字数の合計です。
+	 * @return 文字数
+	 */
+	public long consumed() {
+		return _consumed;
+	}
+	/**
+	 * 子のパーサーの呼び出しを除いた所要時間の合計です。
+	 * @return ナノ秒
+	 */
+	public long selfNanos() {
+		return _selfNanos;
+	}
+	/**
+	 * 子のパーサーの呼び出しを含む所要時間の合計です。
+	 * <p>再帰的な呼び出しの所要時間は最も外側の呼び出しの分だけが加算されます。</p>
+	 * @return ナノ秒
+	 */
+	public long totalNanos() {
+		return _totalNanos;
+	}
+	@Override
+	public String toString() {
+		final StringBuilder buff = new StringBuilder();
+		append(buff, 0);
+		return buff.toString();
+	}
+	private void append(StringBuilder buff, int depth) {
+		for (int i = 0; i < depth * 2; i ++) buff.append(' ');
+		buff.append(_name);
+		if (!_paramsString.isEmpty()) buff.append(' ').append(_paramsString);
+		buff.append(String.format(" (invocations: %s, successes: %s, failures: %s, resets: %s, "
+				+ "consumed: %s, self: %.3fms, total: %.3fms)", _invocations, _successes, _failures,
+				_resets, _consumed, _selfNanos / 1e6, _totalNanos / 1e6));
+		for (final ProfileNode c : _children) {
+			buff.append(System.lineSeparator());
+			c.append(buff, depth + 1);
+		}
+	}
+}
@@ -0,0 +1,147 @@
+package org.unclazz.parsec;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * パーサーの呼び出しごとの統計を収集するリスナーです。
+ * <p>インスタンスは{@link ParseProfiler}によりサンプリングの対象となった{@link Context}ごとに1つ作成されます。
+ * 統計はそのコンテキストを使用するスレッドだけが更新するカウンターに記録され、
+ * 最も外側のパーサーの呼び出しが終了したときに{@link ParseProfiler}にまとめて反映されます。</p>
+ */
+final class ProfilingListener implements ParseListener {
+	private static final int INITIAL_CAPACITY = 16;
+	
+	/**
+	 * パーサーの呼び出し経路ごとの統計を保持するノードです。
+	 * <p>再帰的な呼び出しは経路上の同じパーサーのノードにまとめられるため、
+	 * ノードの木は入力の入れ子の深さによらず文法の大きさに比例します。</p>
+	 */
+	static final class Node {
+		final ParserSupport parser;
+		final Node parent;
+		final List<Node> children = new ArrayList<>();
+		// 再帰的な呼び出しにより経路上の祖先に戻るための参照（存在しない場合はnull）
+		private List<Node> _links;
+		// 呼び出し中の数（再帰的な呼び出しの所要時間を重複して加算しないために使用する）
+		private int _active;
+		long invocations;
+		long successes;
+		long failures;
+		long resets;
+		long consumed;
+		long selfNanos;
+		long totalNanos;
+		
+		Node(ParserSupport parser, Node parent) {
+			this.parser = parser;
+			this.parent = parent;
+		}
+		
+		/**
+		 * 子のパーサーのノードを返します。
+		 * @param p パーサー
+		 * @return ノード（存在しない場合は新たに作成する）
+		 */
+		Node child(ParserSupport p) {
+			for (final Node c : children) {
+				if (c.parser == p) return c;
+			}
+			if (_links != null) {
+				for (final Node l : _links) {
+					if (l.parser == p) return l;
+				}
+			}
+			for (Node a = this; a.parser != null; a = a.parent) {
+				if (a.parser == p) {
+					if (_links == null) _links = new ArrayList<>(2);
+					_links.add(a);
+					return a;
+				}
+			}
+			final Node c = new Node(p, this);
+			children.add(c);
+			return c;
+		}
+		/**
+		 * 別のノードの統計をこのノードに加算します。
+		 * @param other ノード
+		 */
+		void merge(Node other) {
+			invocations += other.invocations;
+			successes += other.successes;
+			failures += other.failures;
+			resets += other.resets;
+			consumed += other.consumed;
+			selfNanos += other.selfNanos;
+			totalNanos += other.totalNanos;
+			for (final Node c : other.children) {
+				child(c.parser).merge(c);
+			}
+		}
+		/**
+		 * 統計をゼロに戻します。ノードの木の構造は維持されます。
+		 */
+		void clear() {
+			invocations = successes = failures = resets = consumed = selfNanos = totalNanos = 0;
+			for (final Node c : children) c.clear();
+		}
+	}
+	
+	private final ParseProfiler _profiler;
+	private final Node _root = new Node(null, null);
+	private Node[] _nodes = new Node[INITIAL_CAPACITY];
+	private int[] _offsets = new int[INITIAL_CAPACITY];
+	private long[] _starts = new long[INITIAL_CAPACITY];
+	private long[] _childNanos = new long[INITIAL_CAPACITY];
+	private int _size;
+	
+	ProfilingListener(ParseProfiler profiler) {
+		_profiler = profiler;
+	}
+	
+	@Override
+	public void enter(ParserSupport parser, int offset) {
+		final Node node = (_size == 0 ? _root : _nodes[_size - 1]).child(parser);
+		node.invocations ++;
+		node._active ++;
+		if (_size == _nodes.length) grow();
+		_nodes[_size] = node;
+		_offsets[_size] = offset;
+		_childNanos[_size] = 0;
+		_starts[_size ++] = System.nanoTime();
+	}
+	@Override
+	public void exit(ParserSupport parser, int offset, ResultCoreSupport result) {
+		final long elapsed = System.nanoTime() - _starts[-- _size];
+		final Node node = _nodes[_size];
+		_nodes[_size] = null;
+		if (result.isSuccessful()) {
+			node.successes ++;
+			node.consumed += offset - _offsets[_size];
+		} else {
+			node.failures ++;
+		}
+		node.selfNanos += elapsed - _childNanos[_size];
+		if (-- node._active == 0) node.totalNanos += elapsed;
+		if (_size > 0) {
+			_childNanos[_size - 1] += elapsed;
+		} else {
+			_profiler.merge(_root);
+			_root.clear();
+		}
+	}
+	@Override
+	public void backtrack(int from, int to) {
+		// リセットを行ったのは呼び出し中の最も内側のパーサー
+		if (_size > 0) _nodes[_size - 1].resets ++;
+	}
+	private void grow() {
+		final int capacity = _nodes.length * 2;
+		_nodes = Arrays.copyOf(_nodes, capacity);
+		_offsets = Arrays.copyOf(_offsets, capacity);
+		_starts = Arrays.copyOf(_starts, capacity);
+		_childNanos = Arrays.copyOf(_childNanos, capacity);
+	}
+}
@@ -0,0 +1,100 @@
+package org.unclazz.parsec;
+
+import java.io.Closeable;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+/**
+ * 呼び出し元から逐次供給される入力をデータソースとするリーダーです。
+ * <p>供給された文字は内部のバッファに保持されます。
+ * 入力の終端が宣言される前に供給済みの範囲を超えて読み取ろうとした場合、
+ * リーダーは{@code -1}を返す代わりに{@link NeedMoreInputException}をスローします。</p>
+ * <p>{@link #retentionFloor()}より前の文字はバッファが満杯になったときに破棄され、
+ * バッファはバックトラックやキャプチャのために保持する必要のある範囲だけを保持します。</p>
+ */
+final class PushReader extends RandomAccessReader {
+	private char[] _chars;
+	// バッファの先頭の文字の添字
+	private int _base;
+	// データソースの先頭から数えた供給済みの文字数
+	private int _length;
+	private boolean _endOfInput;
+	
+	PushReader() {
+		this(new char[256], 0, false);
+	}
+	private PushReader(char[] chars, int length, boolean endOfInput) {
+		_chars = chars;
+		_length = length;
+		_endOfInput = endOfInput;
+	}
+	
+	@Override
+	protected Closeable closable() {
+		return null;
+	}
+	@Override
+	protected int charAt(int index) {
+		if (index < _base) {
+			throw new IllegalStateException("characters at the position "
+					+ "have already been released by cut.");
+		}
+		if (index < _length) return _chars[index - _base];
+		if (_endOfInput) return -1;
+		throw NeedMoreInputException.INSTANCE;
+	}
+	@Override
+	protected String substring(int start, int end) {
+		if (start < _base) {
+			throw new IllegalStateException("characters at the position "
+					+ "have already been released by cut.");
+		}
+		return new String(_chars, start - _base, end - start);
+	}
+	/**
+	 * 入力を追加します。
+	 * @param chunk 入力
+	 */
+	void append(CharBuffer chunk) {
+		final int size = chunk.remaining();
+		if (_chars.length < length() + size) release();
+		if (_chars.length < length() + size) {
+			final int capacity = Math.max(_chars.length * 2, length() + size);
+			bufferGrown(_chars.length, capacity);
+			_chars = Arrays.copyOf(_chars, capacity);
+		}
+		chunk.get(_chars, _length - _base, size);
+		_length += size;
+	}
+	/**
+	 * 以後のリセットやキャプチャのために保持しておく必要のない文字をバッファから取り除きます。
+	 */
+	private void release() {
+		final int floor = Math.min(retentionFloor(), _length);
+		if (floor <= _base) return;
+		System.arraycopy(_chars, floor - _base, _chars, 0, _length - floor);
+		_base = floor;
+	}
+	/**
+	 * 入力の終端を宣言します。
+	 */
+	void endOfInput() {
+		_endOfInput = true;
+	}
+	/**
+	 * 現在の文字位置以降の入力を保持する新しいリーダーを返します。
+	 * @return 新しいリーダー
+	 */
+	PushReader rest() {
+		final int index = index();
+		final char[] chars = Arrays.copyOfRange(_chars, index - _base, Math.max(_length, index + 256) - _base);
+		return new PushReader(chars, _length - index, _endOfInput);
+	}
+	/**
+	 * バッファに保持している入力の文字数を返します。
+	 * @return 文字数
+	 */
+	int length() {
+		return _length - _base;
+	}
+}
@@ -0,0 +1,218 @@
+package org.unclazz.parsec;
+
+import java.util.Arrays;
+
+/**
+ * 添字による任意の文字へのアクセスが可能なデータソースを読み取るリーダーの抽象クラスです。
+ * <p>データソース上の任意の位置の文字を再度読み取ることができるため、
+ * マークは文字位置を記録するだけ、リセットは記録した文字位置を復元するだけで済みます。
+ * 読み取り済みの文字をバックアップしたりデータソースの先頭に連結し直したりする必要はありません。</p>
+ * <p>派生型は次の抽象メソッドを実装する必要があります：</p>
+ * <ul>
+ * <li>{@link #charAt(int)} - データソース上の指定された添字の文字を返します。</li>
+ * <li>{@link #substring(int, int)} - データソース上の指定された範囲の文字列を返します。</li>
+ * </ul>
+ * <p>{@link #captureSlice(boolean)}が返すスライスは文字をコピーせずデータソースを直接参照します。
+ * スライスが参照する文字は{@link #unpin()}が呼び出されるまで保持の対象となります。</p>
+ * <p>派生型は{@link #retentionFloor()}を参照することで、
+ * それより前の文字をデータソースから破棄してよいかどうかを判断できます。</p>
+ */
+abstract class RandomAccessReader extends TextReader {
+	// マークの種類
+	private static final byte HARD = 0;
+	private static final byte CUTTABLE = 1;
+	private static final byte CUT = 2;
+	// 走査の途中で文字位置を更新する間隔（派生型がそれより前の文字を破棄できるようにするため）
+	private static final int SCAN_STRIDE = 1 << 12;
+	
+	private int[] _marks = new int[8];
+	private byte[] _markKinds = new byte[8];
+	private int _markCount;
+	// キャプチャしたスライスが参照している最も前の文字の添字（スライスがない場合はInteger.MAX_VALUE）
+	private int _pinned = Integer.MAX_VALUE;
+	
+	/**
+	 * データソース上の指定された添字の文字を返します。
+	 * @param index 添字
+	 * @return 文字のコードポイント（添字がデータソースの終端以降を指す場合は{@code -1}）
+	 */
+	protected abstract int charAt(int index);
+	/**
+	 * データソース上の指定された範囲の文字列を返します。
+	 * @param start 範囲の開始（この添字の文字を含む）
+	 * @param end 範囲の終了（この添字の文字を含まない）
+	 * @return 文字列
+	 */
+	protected abstract String substring(int start, int end);
+	
+	/**
+	 * 派生型が文字を保持するバッファを拡張したことを通知します。
+	 * <p>拡張後の容量が{@link ContextConfigurer#setBufferGrowthEventThreshold(int)}で設定した値以上の場合に限り、
+	 * JFRのイベントとして記録されます。</p>
+	 * @param oldCapacity 拡張前の容量（文字数）
+	 * @param newCapacity 拡張後の容量（文字数）
+	 */
+	final void bufferGrown(int oldCapacity, int newCapacity) {
+		if (newCapacity >= bufferGrowthEventThreshold()) {
+			FlightRecorderSupport.bufferGrowth(this, oldCapacity, newCapacity);
+		}
+	}
+	
+	@Override
+	protected final int readOne() {
+		return charAt(index());
+	}
+	@Override
+	public final int peek() {
+		return charAt(index());
+	}
+	/**
+	 * 以後のリセットやキャプチャのために保持しておく必要がある文字の添字の下限を返します。
+	 * <p>カットされていないマークのうち最も古いものの文字位置、
+	 * そのようなマークが存在しない場合は現在の文字位置を返します。
+	 * ただしキャプチャしたスライスが参照している文字がそれより前にある場合はその文字位置を返します。
+	 * マークは文字位置の昇順に積み上げられるため、この値は最も古いマークから順に調べることで求められます。</p>
+	 * @return 文字の添字
+	 */
+	protected final int retentionFloor() {
+		for (int i = 0; i < _markCount; i ++) {
+			if (_markKinds[i] != CUT) return Math.min(_marks[i], _pinned);
+		}
+		return Math.min(index(), _pinned);
+	}
+	
+	/**
+	 * データソース全体を参照する文字シーケンスを返します。
+	 * <p>{@link CompiledGrammar}が生成したクラスはこの文字シーケンスから直接文字を読み取ります。
+	 * 既定の実装は{@code null}を返します。データソース全体をメモリ上の文字シーケンスとして保持する派生型は
+	 * このメソッドをオーバーライドします。</p>
+	 * @return 文字シーケンス（データソース全体を参照する文字シーケンスが存在しない場合は{@code null}）
+	 */
+	CharSequence chars() {
+		return null;
+	}
+	/**
+	 * 文字位置を指定された位置まで前進させます。
+	 * <p>{@link #read()}を経由せずに読み取った範囲について改行の位置を記録します。</p>
+	 * @param end 新しい文字位置
+	 */
+	final void advance(int end) {
+		if (linesTracked()) {
+			for (int i = index(); i < end; ) {
+				final int ch = charAt(i ++);
+				if (ch == '\n' || ch == '\r' && charAt(i) != '\n') lineBreak(i);
+			}
+		}
+		index(end);
+	}
+	
+	@Override
+	final void unpin() {
+		_pinned = Integer.MAX_VALUE;
+	}
+	
+	@Override
+	public final void mark() {
+		pushMark(HARD);
+	}
+	@Override
+	final void markCuttable() {
+		pushMark(CUTTABLE);
+	}
+	@Override
+	final void markCut() {
+		pushMark(CUT);
+	}
+	@Override
+	final void cut() {
+		if (_markCount > 0 && _markKinds[_markCount - 1] == CUTTABLE) {
+			_markKinds[_markCount - 1] = CUT;
+		}
+	}
+	private void pushMark(byte kind) {
+		if (_markCount == _marks.length) {
+			_marks = Arrays.copyOf(_marks, _marks.length * 2);
+			_markKinds = Arrays.copyOf(_markKinds, _markKinds.length * 2);
+		}
+		_markKinds[_markCount] = kind;
+		_marks[_markCount ++] = index();
+	}
+	@Override
+	public final void unmark() {
+		if (_markCount > 0) _markCount --;
+	}
+	@Override
+	final int markCount() {
+		return _markCount;
+	}
+	@Override
+	final void unmarkTo(int count) {
+		if (count < _markCount) _markCount = count;
+	}
+	@Override
+	public final void reset(boolean unmark) {
+		if (_markCount > 0) {
+			final int from = index();
+			final int to = _marks[_markCount - 1];
+			index(to);
+			if (unmark) unmark();
+			final ParseListener listener = listener();
+			if (listener != null && from != to) listener.backtrack(from, to);
+		}
+	}
+	@Override
+	public final int skipWhile(CharClass clazz) {
+		final int start = index();
+		int i = start, ch;
+		while ((ch = charAt(i)) != -1 && clazz.contains(ch)) {
+			i ++;
+			if (ch == '\n' || ch == '\r' && charAt(i) != '\n') lineBreak(i);
+			if ((i & (SCAN_STRIDE - 1)) == 0) index(i);
+		}
+		index(i);
+		return i - start;
+	}
+	@Override
+	public final int readWhile(CharClass clazz, StringBuilder buff) {
+		final int start = index();
+		int i = start, ch;
+		while ((ch = charAt(i)) != -1 && clazz.contains(ch)) {
+			buff.append((char) ch);
+			i ++;
+			if (ch == '\n' || ch == '\r' && charAt(i) != '\n') lineBreak(i);
+			if ((i & (SCAN_STRIDE - 1)) == 0) index(i);
+		}
+		index(i);
+		return i - start;
+	}
+	@Override
+	public final int indexOf(char ch) {
+		final int start = index();
+		int i = start, c;
+		while ((c = charAt(i)) != -1) {
+			if (c == ch) return i - start;
+			i ++;
+		}
+		return -1;
+	}
+	@Override
+	public final String capture(boolean unmark) {
+		if (_markCount > 0) {
+			final String tmp = substring(_marks[_markCount - 1], index());
+			if (unmark) unmark();
+			return tmp;
+		}
+		return null;
+	}
+	@Override
+	public final CharSequence captureSlice(boolean unmark) {
+		if (_markCount > 0) {
+			final int start = _marks[_markCount - 1];
+			if (start < _pinned) _pinned = start;
+			final CharSlice tmp = new CharSlice(this, start, index());
+			if (unmark) unmark();
+			return tmp;
+		}
+		return null;
+	}
+}
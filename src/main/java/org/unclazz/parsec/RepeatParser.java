@@ -9,20 +9,41 @@ import java.io.IOException;
 public final class RepeatParser extends Parser {
 	private final RepeatConfig _repConf;
 	private final Parser _original;
+	// セパレーターがなく、元のパーサーが失敗しても文字を消費しないかどうか
+	private final boolean _atomic;
 	
 	RepeatParser(Parser original, int min, int max, int exactly, Parser sep) {
 		ParsecUtility.mustNotBeNull("original", original);
 		_original = original;
 		_repConf = exactly == -1 ? RepeatConfig.range(min, max, sep) : RepeatConfig.exactly(exactly, sep);
+		_atomic = false;
 				
 		param("min", min);
 		param("max", max);
 		param("exactly", exactly);
 		param("sep", sep);
 	}
+	private RepeatParser(RepeatParser base, Parser original, Parser sep, boolean atomic) {
+		_original = original;
+		_repConf = RepeatConfig.range(base._repConf.minimal, base._repConf.maximum, sep);
+		_atomic = atomic;
+		
+		param("min", base._repConf.minimal);
+		param("max", base._repConf.maximum);
+		param("sep", sep);
+	}
 
 	@Override
 	protected ResultCore doParse(Context ctx) throws IOException {
+		// 結果は常にバックトラック可能とするため、繰返しの中でのカットは外側に及ぼさない
+		// ただし元のパーサーがカットを行わない場合は不要
+		if (_atomic) return doParse_repeat(ctx);
+		ctx.fenceCut();
+		final ResultCore r = doParse_repeat(ctx);
+		ctx.unfenceCut(false);
+		return r;
+	}
+	private ResultCore doParse_repeat(Context ctx) throws IOException {
 		// 以下、RepeatReduceValParser#doParse(Context)を元にしたロジック
 		
 		final TextReader src = ctx.source();
@@ -34,31 +55,33 @@ public final class RepeatParser extends Parser {
 			}
 			
             // min ＜ ループ回数 ならリセットのための準備
-			final boolean marked = _repConf.breakable && _repConf.minimal < i;
+			final boolean breakable = _repConf.breakable && _repConf.minimal < i;
+			// ただし失敗しても文字位置が変わらない場合はリセットの必要がないためマークしない
+			final boolean marked = breakable && !_atomic;
             if (marked) src.mark();
 			
             // ループが2回目 かつ セパレーターのパーサーが指定されている場合
             if (1 < i && _repConf.separator != null) {
                 // セパレーターのトークンのパース
-                final Result sepResult = _repConf.separator.parse(ctx);
+                final ResultCore sepResult = _repConf.separator.parseCore(ctx);
                 if (!sepResult.isSuccessful()) {
                     if (marked) {
                         // min ＜ ループ回数 なら失敗とせずリセットしてループを抜ける
                         src.reset(true);
                         break;
                     }
-                    return failure(sepResult.message());
+                    return failure(sepResult);
                 }
             }
 
-            final Result mainResult = _original.parse(ctx);
+            final ResultCore mainResult = _original.parseCore(ctx);
             if (!mainResult.isSuccessful()) {
-                if (marked) {
+                if (breakable) {
                     // min ＜ ループ回数 なら失敗とせずリセットしてループを抜ける
-                    src.reset(true);
+                    if (marked) src.reset(true);
                     break;
                 }
-                return failure(mainResult.message());
+                return failure(mainResult);
             }
 
             // min ＜ ループ回数 ならリセットのための準備を解除
@@ -69,4 +92,142 @@ public final class RepeatParser extends Parser {
 		
 		// 以上、RepeatReduceValParser#doParse(Context)を元にしたロジック
 	}
-}
\ No newline at end of file
+	@Override
+	ParseFrame frame(Context ctx) {
+		return new Frame();
+	}
+	// doParse(Context)のループをセパレーターと元のパーサーの呼び出しの前後で分割したもの
+	private final class Frame extends ParseFrame {
+		// ループ回数
+		private int _i;
+		private boolean _breakable;
+		private boolean _marked;
+		// セパレーターのパーサーを呼び出した後であればtrue
+		private boolean _onSeparator;
+		@Override
+		ParserSupport resume(Context ctx, ResultCoreSupport child) throws IOException {
+			final TextReader src = ctx.source();
+			if (child != null && _onSeparator) {
+				final ResultCore sepResult = core(child);
+				if (!sepResult.isSuccessful()) {
+					if (_marked) {
+						src.reset(true);
+						return done(ctx, success());
+					}
+					return done(ctx, failure(sepResult));
+				}
+				_onSeparator = false;
+				return _original;
+			}
+			if (child != null) {
+				final ResultCore mainResult = core(child);
+				if (!mainResult.isSuccessful()) {
+					if (_breakable) {
+						if (_marked) src.reset(true);
+						return done(ctx, success());
+					}
+					return done(ctx, failure(mainResult));
+				}
+			}
+			
+			// 次のループを開始する
+			// ※読み取りはフレームの状態を変更する前に行う
+			final boolean noRemaining = _i < _repConf.minimal && src.noRemaining();
+			if (child == null) {
+				if (!_atomic) ctx.fenceCut();
+			} else if (_marked) {
+				src.unmark();
+			}
+			if (_i == _repConf.maximum) return done(ctx, success());
+			_i ++;
+			if (noRemaining) return done(ctx, failure("EOF has been reached."));
+			_breakable = _repConf.breakable && _repConf.minimal < _i;
+			_marked = _breakable && !_atomic;
+			if (_marked) src.mark();
+			if (1 < _i && _repConf.separator != null) {
+				_onSeparator = true;
+				return _repConf.separator;
+			}
+			return _original;
+		}
+		private ParserSupport done(Context ctx, ResultCore result) {
+			if (!_atomic) ctx.unfenceCut(false);
+			return done(result);
+		}
+	}
+	@Override
+	FirstSet first() {
+		final FirstSet first = _original.first();
+		return _repConf.minimal == 0 ? first.orEmpty() : first;
+	}
+	@Override
+	Parser rewrite(Optimizer optimizer) {
+		final Parser original = optimizer.optimize(_original);
+		final Parser sep = _repConf.separator == null ? null : optimizer.optimize(_repConf.separator);
+		// 文字クラスの0回以上の繰返しは文字クラスの読み飛ばしに置き換える
+		final CharClass clazz = original.singleCharClass();
+		if (clazz != null && sep == null && _repConf.minimal == 0 && _repConf.maximum == Integer.MAX_VALUE) {
+			return new CharsWhileInParser(clazz, 0);
+		}
+		final boolean atomic = sep == null && original.atomic();
+		if (original == _original && sep == _repConf.separator && atomic == _atomic) return this;
+		return new RepeatParser(this, original, sep, atomic);
+	}
+	@Override
+	boolean compilable(GrammarCompiler compiler) {
+		return compiler.compilable(_original)
+				&& (_repConf.separator == null || compiler.compilable(_repConf.separator));
+	}
+	@Override
+	void emit(GrammarCompiler compiler, String start, String end) {
+		final String pos = compiler.local();
+		final String count = compiler.local();
+		// 繰返しを打ち切った場合の結果　min ＜ ループ回数 なら直前の繰返しの終了位置で成功とする
+		final String broken = !_repConf.breakable ? "-1" : _repConf.minimal == 0 ? pos
+				: String.format("%s >= %s ? %s : -1", count, _repConf.minimal, pos);
+		
+		compiler.line("int %s = %s;", pos, start);
+		compiler.line("int %s = 0;", count);
+		compiler.open("while (true)");
+		if (_repConf.maximum != Integer.MAX_VALUE) {
+			compiler.open("if (%s == %s)", count, _repConf.maximum);
+			compiler.line("%s = %s;", end, pos);
+			compiler.line("break;");
+			compiler.close();
+		}
+		if (_repConf.minimal > 0) {
+			compiler.open("if (%s < %s && %s == -1)", count, _repConf.minimal, compiler.charAt(pos));
+			compiler.fail(this, end, pos, "0");
+			compiler.line("break;");
+			compiler.close();
+		}
+		final String next = compiler.local();
+		compiler.line("int %s = %s;", next, pos);
+		if (_repConf.separator != null) {
+			final String sep = compiler.local();
+			compiler.open("if (%s > 0)", count);
+			compiler.line("int %s;", sep);
+			compiler.emit(_repConf.separator, pos, sep);
+			compiler.open("if (%s == -1)", sep);
+			compiler.line("%s = %s;", end, broken);
+			compiler.line("break;");
+			compiler.close();
+			compiler.line("%s = %s;", next, sep);
+			compiler.close();
+		}
+		final String main = compiler.local();
+		compiler.line("int %s;", main);
+		compiler.emit(_original, next, main);
+		compiler.open("if (%s == -1)", main);
+		compiler.line("%s = %s;", end, broken);
+		compiler.line("break;");
+		compiler.close();
+		compiler.line("%s = %s;", pos, main);
+		compiler.line("%s ++;", count);
+		compiler.close();
+	}
+	@Override
+	ResultCore compiledFailure(Context ctx, int actual, int aux) {
+		return failure("EOF has been reached.");
+	}
+}
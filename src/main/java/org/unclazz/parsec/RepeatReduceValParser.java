@@ -29,6 +29,13 @@ class RepeatReduceValParser<T,U,V> extends ValParser<V> {
 
 	@Override
 	protected ValResultCore<V> doParse(Context ctx) throws IOException {
+		// 結果は常にバックトラック可能とするため、繰返しの中でのカットは外側に及ぼさない
+		ctx.fenceCut();
+		final ValResultCore<V> r = doParse_repeat(ctx);
+		ctx.unfenceCut(false);
+		return r;
+	}
+	private ValResultCore<V> doParse_repeat(Context ctx) throws IOException {
 		final TextReader src = ctx.source();
 		U acc = _redConf.seedFactory.get();
 		
@@ -45,25 +52,25 @@ class RepeatReduceValParser<T,U,V> extends ValParser<V> {
             // ループが2回目 かつ セパレーターのパーサーが指定されている場合
             if (1 < i && _repConf.separator != null) {
                 // セパレーターのトークンのパース
-                final Result sepResult = _repConf.separator.parse(ctx);
+                final ResultCore sepResult = _repConf.separator.parseCore(ctx);
                 if (!sepResult.isSuccessful()) {
                     if (marked) {
                         // min ＜ ループ回数 なら失敗とせずリセットしてループを抜ける
                         src.reset(true);
                         break;
                     }
-                    return failure(sepResult.message());
+                    return failure(sepResult);
                 }
             }
 
-            final ValResult<T> mainResult = _original.parse(ctx);
+            final ValResultCore<T> mainResult = _original.parseCore(ctx);
             if (!mainResult.isSuccessful()) {
                 if (marked) {
                     // min ＜ ループ回数 なら失敗とせずリセットしてループを抜ける
                     src.reset(true);
                     break;
                 }
-                return failure(mainResult.message());
+                return failure(mainResult);
             }
 
             // ループ回数のシードの有無を確認
@@ -75,6 +82,75 @@ class RepeatReduceValParser<T,U,V> extends ValParser<V> {
 		
 		return success(_redConf.resultSelector.apply(acc));
 	}
+	@Override
+	ParseFrame frame(Context ctx) {
+		return new Frame();
+	}
+	// doParse(Context)のループをセパレーターと元のパーサーの呼び出しの前後で分割したもの
+	private final class Frame extends ParseFrame {
+		private U _acc;
+		// ループ回数
+		private int _i;
+		private boolean _marked;
+		// セパレーターのパーサーを呼び出した後であればtrue
+		private boolean _onSeparator;
+		@Override
+		ParserSupport resume(Context ctx, ResultCoreSupport child) throws IOException {
+			final TextReader src = ctx.source();
+			if (child != null && _onSeparator) {
+				final ResultCore sepResult = core(child);
+				if (!sepResult.isSuccessful()) {
+					if (_marked) {
+						src.reset(true);
+						return done(ctx, success(_redConf.resultSelector.apply(_acc)));
+					}
+					return done(ctx, failure(sepResult));
+				}
+				_onSeparator = false;
+				return _original;
+			}
+			final ValResultCore<T> mainResult = child == null ? null : valCore(child);
+			if (mainResult != null && !mainResult.isSuccessful()) {
+				if (_marked) {
+					src.reset(true);
+					return done(ctx, success(_redConf.resultSelector.apply(_acc)));
+				}
+				return done(ctx, failure(mainResult));
+			}
+			
+			// 次のループを開始する
+			// ※読み取りはフレームの状態を変更する前に行う
+			final boolean noRemaining = _i < _repConf.minimal && src.noRemaining();
+			if (mainResult == null) {
+				ctx.fenceCut();
+				_acc = _redConf.seedFactory.get();
+			} else {
+				_acc = _redConf.accumulator.apply(_acc, mainResult.value());
+				if (_marked) src.unmark();
+			}
+			if (_i == _repConf.maximum) {
+				return done(ctx, success(_redConf.resultSelector.apply(_acc)));
+			}
+			_i ++;
+			if (noRemaining) return done(ctx, failure("EOF has been reached."));
+			_marked = _repConf.breakable && _repConf.minimal < _i;
+			if (_marked) src.mark();
+			if (1 < _i && _repConf.separator != null) {
+				_onSeparator = true;
+				return _repConf.separator;
+			}
+			return _original;
+		}
+		private ParserSupport done(Context ctx, ValResultCore<V> result) {
+			ctx.unfenceCut(false);
+			return done(result);
+		}
+	}
+	@Override
+	FirstSet first() {
+		final FirstSet first = _original.first();
+		return _repConf.minimal == 0 ? first.orEmpty() : first;
+	}
 	RepeatReduceValParser<T,Optional<T>,Optional<T>> reReduce(BiFunction<T, T, T> accumulator){
 		final BiFunction<Optional<T>, T, Optional<T>> accumulator2 =
 				(a, b) -> a.isPresent() ? Optional.of(accumulator.apply(a.get(), b)) : Optional.of(b);
@@ -30,7 +30,21 @@ public final class RepeatValParser<T> extends ValParser<List<T>> {
 
 	@Override
 	protected ValResultCore<List<T>> doParse(Context ctx) throws IOException {
-		return _inner.parse(ctx);
+		return _inner.parseCore(ctx);
+	}
+	@Override
+	ParseFrame frame(Context ctx) {
+		return new Frame();
+	}
+	private final class Frame extends ParseFrame {
+		@Override
+		ParserSupport resume(Context ctx, ResultCoreSupport child) {
+			return child == null ? _inner : done(child);
+		}
+	}
+	@Override
+	FirstSet first() {
+		return _inner.first();
 	}
 	
 	/**
@@ -1,116 +1,123 @@
 package org.unclazz.parsec;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.Reader;
-import java.util.Stack;
+import java.io.UncheckedIOException;
 
 /**
  * リセット機能を持つリーダーです。
+ * <p>任意の{@link Reader}をデータソースとし、読み取った文字を一定の文字数（{@value #SEGMENT_SIZE}文字）ごとの
+ * セグメントに格納しておきます。リセットの際には文字位置を記録したマークの位置に戻すだけで済みます。</p>
+ * <p>セグメントはリングバッファとして管理され、どのマークからも到達できなくなったセグメントは
+ * 新しいセグメントが必要になった時点で解放（再利用）されます。
+ * {@link #cut()}によりカットされたマークはセグメントを保持する理由になりません。
+ * このためマークがすべて解除されているか、残っているマークがすべてカットされていれば、
+ * 入力の長さにかかわらずバッファのサイズは一定に保たれます。</p>
  */
-class ResetReader extends PrefixReader {
-	
-	private boolean _marked;
-	private final CharStack _backup = new CharStack(100);
-	private final Stack<CharPosition> _marks = new Stack<>();
-	
+final class ResetReader extends RandomAccessReader {
+	static final int SEGMENT_SIZE = 1 << 12;
+	private static final int SEGMENT_SHIFT = 12;
+
+	private final Reader _reader;
+	// セグメントのリングバッファ（長さは常に2の累乗）
+	private char[][] _segments = new char[4][];
+	// 保持している最も古いセグメントのリングバッファ上の位置
+	private int _head;
+	// 保持しているセグメントの数
+	private int _segmentCount;
+	// 保持している最も古いセグメントのID（データソース先頭からの通番）
+	private int _baseSegment;
+	// データソースから読み取った文字数
+	private int _filled;
+	private boolean _eof;
+	// 解放されたセグメントのうち再利用を待っているもの
+	private char[] _spare;
+
 	ResetReader(Reader reader) {
-		super(reader);
+		ParsecUtility.mustNotBeNull("reader", reader);
+		_reader = reader;
+	}
+
+	@Override
+	protected Closeable closable() {
+		return _reader;
 	}
-	
 	@Override
-	public final boolean markSupported() {
-		return true;
+	protected int charAt(int index) {
+		if (_filled <= index && !fill(index)) return -1;
+		final int segmentId = (index >>> SEGMENT_SHIFT) - _baseSegment;
+		if (segmentId < 0) {
+			throw new IllegalStateException("characters at the position "
+					+ "have already been released by cut.");
+		}
+		return _segments[(_head + segmentId) & (_segments.length - 1)][index & (SEGMENT_SIZE - 1)];
 	}
 	@Override
-	public final void mark(int readAheadLimit) {
-		mark();
+	protected String substring(int start, int end) {
+		final StringBuilder buff = new StringBuilder(end - start);
+		for (int i = start; i < end; i ++) buff.append((char) charAt(i));
+		return buff.toString();
 	}
 	/**
-	 * 現在の文字位置にマークを設定します。
+	 * 保持しているセグメントの数を返します。
+	 * @return セグメントの数
 	 */
-	public final void mark() {
-		_marked = true;
-		_marks.push(position());
+	int segmentCount() {
+		return _segmentCount;
 	}
+
 	/**
-	 * 直近のマークを解除します。
+	 * 指定された添字の文字が得られるまでデータソースから読み取りを行います。
+	 * @param index 添字
+	 * @return 文字が得られた場合{@code true}、データソースの終端に到達した場合{@code false}
 	 */
-	public final void unmark() {
-		if (_marked) {
-			_marks.pop();
-			if (_marks.empty()) {
-				_marked = false;
-				_backup.clear();
+	private boolean fill(int index) {
+		try {
+			while (_filled <= index && !_eof) {
+				final int offset = _filled & (SEGMENT_SIZE - 1);
+				if (offset == 0) addSegment();
+				final char[] tail = _segments[(_head + _segmentCount - 1) & (_segments.length - 1)];
+				final int n = _reader.read(tail, offset, SEGMENT_SIZE - offset);
+				if (n == -1) _eof = true;
+				else _filled += n;
 			}
+			return index < _filled;
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
 		}
 	}
 	/**
-	 * 直近マークした文字位置から現在の文字位置の1つ前までの文字列をキャプチャします。
-	 * @param unmark マーク解除も同時に行う場合{@code true}
-	 * @return キャプチャした文字列
+	 * リングバッファの末尾に新しいセグメントを追加します。
+	 * <p>追加に先立ちどのマークからも到達できなくなったセグメントを解放します。
+	 * 解放してもなお空きがない場合はリングバッファを拡張します。</p>
 	 */
-	public final String capture(boolean unmark) {
-		if (_marked) {
-			final int delta = position().index() - _marks.peek().index();
-			final int skip = _backup.size() - delta;
-			final String tmp = _backup.toString(skip);
-			if (unmark) unmark();
-			return tmp;
+	private void addSegment() {
+		// 保持が必要な最も古い文字を含むセグメントより前のセグメントを解放
+		final int floorSegment = retentionFloor() >>> SEGMENT_SHIFT;
+		while (_segmentCount > 0 && _baseSegment < floorSegment) {
+			_spare = _segments[_head];
+			_segments[_head] = null;
+			_head = (_head + 1) & (_segments.length - 1);
+			_baseSegment ++;
+			_segmentCount --;
 		}
-		return null;
-	}
-	/**
-	 * 直近マークした文字位置から現在の文字位置の1つ前までの文字列をキャプチャします。
-	 * @return マーク解除も同時に行う場合{@code true}
-	 */
-	public final String capture() {
-		return capture(false);
-	}
-	@Override
-	protected final int readOne() throws IOException {
-		final int ch = super.readOne();
-		if (_marked && ch != -1) _backup.push((char) ch);
-		return ch;
-	}
-	/**
-	 * 直近マークした位置まで文字位置を戻します。
-	 */
-	@Override
-	public final void reset() {
-		reset(false);
-	}
-	/**
-	 * 直近マークした位置まで文字位置を戻します。
-	 * @param unmark マーク解除も同時に行う場合{@code true}
-	 */
-	public final void reset(boolean unmark) {
-		if (_marked) {
-			final CharPosition lastMark = _marks.peek();
-			final int delta = position().index() - lastMark.index();
-			
-            // 現在の文字位置とマークした文字位置が同値ならリセットは不要
-			if (delta == 0) {
-				if (unmark) unmark();
-				return;
-			}
-			
-            // それ以外の場合は完全もしくは部分リセットが必要
-            // バックアップの現状の情報を一時変数に移動
-			final int bkSize = _backup.size();
-			
-            // マークした文字位置との間の添字差分とバックアップされていた要素数が一致するかどうかチェック
-			if (delta == bkSize) {
-                // 一致する場合は完全リセット
-                // バックアップされていた要素すべてを使用してリセットを行う
-				reattach(lastMark, _backup.popAll());
-			} else if (delta < bkSize) {
-                // 一致しない場合は部分リセット
-                // バックアップされていた要素のうち必要な分だけを使用してリセットを行う
-				reattach(lastMark, _backup.pop(delta));
-			} else {
-				throw new IllegalStateException();
+
+		// 空きがない場合はリングバッファを拡張
+		if (_segmentCount == _segments.length) {
+			final char[][] newSegments = new char[_segments.length * 2][];
+			for (int i = 0; i < _segmentCount; i ++) {
+				newSegments[i] = _segments[(_head + i) & (_segments.length - 1)];
 			}
-			if (unmark) unmark();
+			bufferGrown(_segments.length * SEGMENT_SIZE, newSegments.length * SEGMENT_SIZE);
+			_segments = newSegments;
+			_head = 0;
 		}
+
+		// 解放したセグメントがあれば再利用する
+		final char[] segment = _spare == null ? new char[SEGMENT_SIZE] : _spare;
+		_spare = null;
+		_segments[(_head + _segmentCount) & (_segments.length - 1)] = segment;
+		_segmentCount ++;
 	}
-}
\ No newline at end of file
+}
@@ -13,9 +13,15 @@ public final class Result extends ResultCore {
 		_start = start;
 		_end = end;
 	}
+	Result(boolean successful, boolean canBacktrack, FailureMessage message, CharPosition start, CharPosition end){
+		super(successful, canBacktrack, message);
+		_start = start;
+		_end = end;
+	}
 	
 	/**
 	 * パース開始時の文字位置（パースしたシーケンスの最初の文字の文字位置）です。
+	 * <p>文字位置の追跡レベルが{@link PositionTracking#NONE}の場合は{@code null}です。</p>
 	 * @return 文字位置
 	 */
 	public CharPosition start() {
@@ -23,6 +29,7 @@ public final class Result extends ResultCore {
 	}
 	/**
 	 * パース終了時の文字位置（パースしたシーケンスの最後の文字の次の文字位置）です。
+	 * <p>文字位置の追跡レベルが{@link PositionTracking#NONE}の場合は{@code null}です。</p>
 	 * @return 文字位置
 	 */
 	public CharPosition end() {
@@ -30,7 +37,8 @@ public final class Result extends ResultCore {
 	}
 	@Override
 	public Result allowBacktrack(boolean yesNo){
-		return new Result(isSuccessful(), message(), yesNo, _start, _end);
+		if (canBacktrack() == yesNo) return this;
+		return new Result(isSuccessful(), yesNo, failureMessage(), _start, _end);
 	}
 	/**
 	 * 値を紐付け{@link ValParser}のパース結果を表すオブジェクトに変換します。
@@ -38,15 +46,17 @@ public final class Result extends ResultCore {
 	 * @return 値を持つパース結果オブジェクト
 	 * @param <T> 読み取り結果型
 	 */
+	@Override
 	public<T> ValResult<T> attachValue(T value) {
-		return new ValResult<>(isSuccessful(), value, message(), canBacktrack(), _start, _end);
+		return new ValResult<>(isSuccessful(), value, canBacktrack(), failureMessage(), _start, _end);
 	}
 	/**
 	 * 型情報だけを紐付け{@link ValParser}のパース結果を表すオブジェクトに変換します。
 	 * @return 値を持つパース結果オブジェクト
 	 * @param <T> 読み取り結果型
 	 */
+	@Override
 	public<T> ValResult<T> attachValue() {
-		return new ValResult<>(isSuccessful(), null, message(), canBacktrack(), _start, _end);
+		return new ValResult<>(isSuccessful(), null, canBacktrack(), failureMessage(), _start, _end);
 	}
 }
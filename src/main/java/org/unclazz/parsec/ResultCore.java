@@ -8,6 +8,7 @@ import java.util.function.Consumer;
  */
 public class ResultCore extends ResultCoreSupport {
 	private static final ResultCore _successfulSingleton = new ResultCore(true, null, true);
+	private static final ResultCore _successfulCutSingleton = new ResultCore(true, null, false);
 	/**
 	 * 成功を表すインスタンスを返します。
 	 * @return パース結果オブジェクト
@@ -28,6 +29,9 @@ public class ResultCore extends ResultCoreSupport {
 	ResultCore(boolean successful, String message, boolean canBacktrack){
 		super(successful, message, canBacktrack);
 	}
+	ResultCore(boolean successful, boolean canBacktrack, FailureMessage message){
+		super(successful, canBacktrack, message);
+	}
 	
 	/**
 	 * パース前後の文字位置情報を付与します。
@@ -36,7 +40,7 @@ public class ResultCore extends ResultCoreSupport {
 	 * @return パース結果オブジェクト
 	 */
 	public final Result attachPosition(CharPosition start, CharPosition end) {
-		return new Result(isSuccessful(), message(), canBacktrack(), start, end);
+		return new Result(isSuccessful(), canBacktrack(), failureMessage(), start, end);
 	}
 	/**
 	 * 直近の{@link Parser#or(Parser)}を起点とするバックトラックの可否を設定します。
@@ -44,7 +48,27 @@ public class ResultCore extends ResultCoreSupport {
 	 * @return パース結果オブジェクト
 	 */
 	public ResultCore allowBacktrack(boolean yesNo){
-		return new ResultCore(isSuccessful(), message(), yesNo);
+		// 設定に変更がない場合や成功を表す場合は新たなインスタンスを生成しない
+		if (canBacktrack() == yesNo) return this;
+		if (isSuccessful()) return yesNo ? _successfulSingleton : _successfulCutSingleton;
+		return new ResultCore(isSuccessful(), yesNo, failureMessage());
+	}
+	/**
+	 * 値を紐付け{@link ValParser}のパース結果を表すオブジェクトに変換します。
+	 * @param value 任意の値
+	 * @return 値を持つパース結果オブジェクト
+	 * @param <T> 読み取り結果型
+	 */
+	public<T> ValResultCore<T> attachValue(T value) {
+		return new ValResultCore<>(isSuccessful(), value, canBacktrack(), failureMessage());
+	}
+	/**
+	 * 型情報だけを紐付け{@link ValParser}のパース結果を表すオブジェクトに変換します。
+	 * @return 値を持つパース結果オブジェクト
+	 * @param <T> 読み取り結果型
+	 */
+	public<T> ValResultCore<T> attachValue() {
+		return new ValResultCore<>(isSuccessful(), null, canBacktrack(), failureMessage());
 	}
 	/**
 	 * このオブジェクトが成功を表すものである場合アクションを実行します。
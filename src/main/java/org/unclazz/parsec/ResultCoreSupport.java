@@ -1,11 +1,18 @@
 package org.unclazz.parsec;
 
-abstract class ResultCoreSupport{
+/**
+ * {@link ResultCore}および{@link ValResultCore}の基底クラスです。
+ * <p>このクラスは{@link ParseListener}がパース結果を参照するために公開されています。</p>
+ */
+public abstract class ResultCoreSupport{
 	private final boolean _successful;
-	private final String _message;
+	private final FailureMessage _message;
 	private final boolean _canBacktrack;
 	
-	protected ResultCoreSupport(boolean successful, String message, boolean canBacktrack) {
+	ResultCoreSupport(boolean successful, String message, boolean canBacktrack) {
+		this(successful, canBacktrack, FailureMessage.of(message));
+	}
+	ResultCoreSupport(boolean successful, boolean canBacktrack, FailureMessage message) {
 		_successful = successful;
 		_message = message;
 		_canBacktrack = canBacktrack;
@@ -15,6 +22,10 @@ abstract class ResultCoreSupport{
 		return _successful;
 	}
 	public String message() {
+		// メッセージは参照されたときに初めて整形される
+		return _message == null ? null : _message.toString();
+	}
+	final FailureMessage failureMessage() {
 		return _message;
 	}
 	public boolean canBacktrack() {
@@ -12,10 +12,50 @@ final class SkipToParser extends Parser {
 	protected ResultCore doParse(Context ctx) throws IOException {
 		final TextReader src = ctx.source();
 		while (src.hasRemaining()) {
-			final Result res = _token.parse(ctx);
-			if (res.isSuccessful()) return res;
+			final int tokenStart = src.index();
+			// 失敗したトークンの中でのカットは外側に及ぼさない
+			ctx.fenceCut();
+			final ResultCore res = _token.parseCore(ctx);
+			ctx.unfenceCut(res.isSuccessful() && !res.canBacktrack());
+			if (res.isSuccessful()) {
+				// パース結果の開始位置は読み飛ばした文字の直後、つまりトークンの開始位置とする
+				if (ctx.positionTracking() == PositionTracking.NONE) return res;
+				return res.attachPosition(src.position(tokenStart), src.position());
+			}
 			src.read();
 		}
 		return failure("expected token not found.");
 	}
+	@Override
+	ParseFrame frame(Context ctx) {
+		return new Frame();
+	}
+	// doParse(Context)のループをトークンのパーサーの呼び出しの前後で分割したもの
+	private final class Frame extends ParseFrame {
+		private int _tokenStart;
+		@Override
+		ParserSupport resume(Context ctx, ResultCoreSupport child) throws IOException {
+			final TextReader src = ctx.source();
+			final boolean hasRemaining;
+			if (child != null) {
+				final ResultCore res = core(child);
+				if (res.isSuccessful()) {
+					ctx.unfenceCut(!res.canBacktrack());
+					// パース結果の開始位置は読み飛ばした文字の直後、つまりトークンの開始位置とする
+					if (ctx.positionTracking() == PositionTracking.NONE) return done(res);
+					return done(res.attachPosition(src.position(_tokenStart), src.position()));
+				}
+				// 読み取りはコンテキストの状態を変更する前に行う
+				src.read();
+				hasRemaining = src.hasRemaining();
+				ctx.unfenceCut(false);
+			} else {
+				hasRemaining = src.hasRemaining();
+			}
+			if (!hasRemaining) return done(failure("expected token not found."));
+			_tokenStart = src.index();
+			ctx.fenceCut();
+			return _token;
+		}
+	}
 }
@@ -3,6 +3,7 @@ package org.unclazz.parsec;
 import java.io.IOException;
 
 final class SpaceParser extends Parser {
+	private static final CharClass _space = CharClass.between((char) 0, ' ');
 	private final int _min;
 	SpaceParser(int min) {
 		ParsecUtility.mustBeGreaterThanOrEqual("min", min, 0);
@@ -11,12 +12,50 @@ final class SpaceParser extends Parser {
 	@Override
 	protected ResultCore doParse(Context ctx) throws IOException {
 		final TextReader src = ctx.source();
-		int ch = -1, count = 0;
-		while (0 <= (ch = src.peek()) && ch <= 32) {
-			src.read();
-			count ++;
-		}
-		return _min <= count ? success() : failure("%s space(s) found "
+		final int count = src.skipWhile(_space);
+		return _min <= count ? success() : lengthFailure(count);
+	}
+	private ResultCore lengthFailure(int count) {
+		return failure("%s space(s) found "
 				+ "but more space(s) needed (min=%s).", count, _min);
+	}
+	@Override
+	FirstSet first() {
+		return FirstSet.of(_space, _min == 0);
 	}	
+	@Override
+	boolean infallible() {
+		return _min == 0;
+	}
+	@Override
+	boolean atomic() {
+		return _min <= 1;
+	}
+	@Override
+	boolean compilable(GrammarCompiler compiler) {
+		return true;
+	}
+	@Override
+	void emit(GrammarCompiler compiler, String start, String end) {
+		final String i = compiler.local();
+		final String ch = compiler.local();
+		compiler.line("int %s = %s;", i, start);
+		compiler.line("int %s;", ch);
+		compiler.line("while ((%s = %s) != -1 && %s) %s ++;", ch, compiler.charAt(i),
+				compiler.condition(_space, ch), i);
+		if (_min == 0) {
+			compiler.line("%s = %s;", end, i);
+			return;
+		}
+		compiler.open("if (%s - %s >= %s)", i, start, _min);
+		compiler.line("%s = %s;", end, i);
+		compiler.close();
+		compiler.open("else");
+		compiler.fail(this, end, i, i + " - " + start);
+		compiler.close();
+	}
+	@Override
+	ResultCore compiledFailure(Context ctx, int actual, int aux) {
+		return lengthFailure(aux);
+	}
 }
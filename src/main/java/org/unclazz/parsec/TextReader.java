@@ -4,17 +4,28 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
-import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
 import java.nio.charset.Charset;
+import java.nio.file.Path;
 import java.util.function.Consumer;
 
 /**
  * {@link Parser}や{@link ValParser}の入力データソースとなるリーダーです。
+ * <p>インスタンスは{@link #from(String)}をはじめとするファクトリーメソッドから得られます。
+ * 文字列や文字配列など、すでにメモリ上に存在するデータソースからは
+ * ランダムアクセスによりマーク・リセットを行う実装が返されます。
+ * それ以外のデータソースからは読み取った文字をセグメント単位でバッファリングしつつマーク・リセットを行う実装が返されます。
+ * 後者のバッファはマークされた位置より後の文字だけを保持し、
+ * 選択肢のパーサーがカット（{@link Parser#cut()}）により確定した位置より前の文字は解放されます。</p>
+ * <p>リーダーはスレッドセーフではありません。またファイルやストリームをデータソースとするリーダーは
+ * 利用後に{@link #close()}を呼び出してリソースを解放する必要があります。</p>
  */
-public final class TextReader extends ResetReader {
+public abstract class TextReader extends AbstractReader {
 	/**
 	 * 別のリーダーをラップした新しいインスタンスを返します。
 	 * @param reader 別のリーダー
@@ -23,7 +34,7 @@ public final class TextReader extends ResetReader {
 	public static TextReader from(Reader reader) {
 		ParsecUtility.mustNotBeNull("reader", reader);
 		if (reader instanceof TextReader) return (TextReader) reader;
-		return new TextReader(reader);
+		return new ResetReader(reader);
 	}
 	/**
 	 * 文字列からリーダーを生成して返します。
@@ -32,7 +43,71 @@ public final class TextReader extends ResetReader {
 	 */
 	public static TextReader from(String text) {
 		ParsecUtility.mustNotBeNull("text", text);
-		return from(new StringReader(text));
+		return new CharSequenceReader(text);
+	}
+	/**
+	 * 文字シーケンスからリーダーを生成して返します。
+	 * <p>リーダーは文字シーケンスをコピーせずそのまま参照します。
+	 * このためリーダーを利用している間に文字シーケンスの内容を変更してはいけません。</p>
+	 * @param text 文字シーケンス
+	 * @return 新しいリーダー
+	 */
+	public static TextReader from(CharSequence text) {
+		ParsecUtility.mustNotBeNull("text", text);
+		if (text instanceof CharBuffer) return from((CharBuffer) text);
+		return new CharSequenceReader(text);
+	}
+	/**
+	 * 文字バッファからリーダーを生成して返します。
+	 * <p>リーダーはバッファの現在位置から上限までの内容をコピーせずそのまま参照します。
+	 * このためリーダーを利用している間にバッファの内容を変更してはいけません。
+	 * バッファの位置や上限の変更はリーダーに影響しません。</p>
+	 * @param buffer 文字バッファ
+	 * @return 新しいリーダー
+	 */
+	public static TextReader from(CharBuffer buffer) {
+		ParsecUtility.mustNotBeNull("buffer", buffer);
+		return new CharSequenceReader(buffer.slice());
+	}
+	/**
+	 * 文字配列からリーダーを生成して返します。
+	 * <p>リーダーは文字配列をコピーせずそのまま参照します。
+	 * このためリーダーを利用している間に文字配列の内容を変更してはいけません。</p>
+	 * @param chars 文字配列
+	 * @return 新しいリーダー
+	 */
+	public static TextReader from(char[] chars) {
+		ParsecUtility.mustNotBeNull("chars", chars);
+		return new CharSequenceReader(CharBuffer.wrap(chars));
+	}
+	/**
+	 * エンコードされたバイト配列からリーダーを生成して返します。
+	 * <p>リーダーはバイト配列をコピーせずそのまま参照し、読み取りの進行にあわせて一定の文字数ごとにデコードします。
+	 * キャラクターセットがUTF-8などASCII互換のものである場合、ASCII文字のみからなる範囲はデコードされず
+	 * バイト配列から直接読み取られます。
+	 * リーダーを利用している間にバイト配列の内容を変更してはいけません。</p>
+	 * <p>状態を持つエンコーディング（ISO-2022-JPなど）のバイト配列には利用できません。</p>
+	 * @param bytes バイト配列
+	 * @param charset キャラクターセット
+	 * @return 新しいリーダー
+	 */
+	public static TextReader from(byte[] bytes, Charset charset) {
+		ParsecUtility.mustNotBeNull("bytes", bytes);
+		ParsecUtility.mustNotBeNull("charset", charset);
+		return new ByteBufferReader(ByteBuffer.wrap(bytes), charset);
+	}
+	/**
+	 * エンコードされたバイトバッファからリーダーを生成して返します。
+	 * <p>リーダーはバッファの現在位置から上限までの内容を{@link #from(byte[], Charset)}と同様に読み取ります。
+	 * バッファの位置や上限の変更はリーダーに影響しません。</p>
+	 * @param buffer バイトバッファ
+	 * @param charset キャラクターセット
+	 * @return 新しいリーダー
+	 */
+	public static TextReader from(ByteBuffer buffer, Charset charset) {
+		ParsecUtility.mustNotBeNull("buffer", buffer);
+		ParsecUtility.mustNotBeNull("charset", charset);
+		return new ByteBufferReader(buffer, charset);
 	}
 	/**
 	 * ファイルからリーダーを生成して返します。
@@ -46,6 +121,26 @@ public final class TextReader extends ResetReader {
 		ParsecUtility.mustNotBeNull("charset", charset);
 		return from(new FileInputStream(file), charset);
 	}
+	/**
+	 * ファイルをメモリマップしてリーダーを生成して返します。
+	 * <p>ファイルのコンテンツは読み取りの進行にあわせて一定の文字数ごとにデコードされ、
+	 * ヒープ上にはその直近のいくつかのみが保持されます。
+	 * このためファイルのサイズにかかわらず一定のメモリ使用量でパースを行うことができます。
+	 * また{@link #from(File, Charset)}と異なりリセットのために読み取り済みの文字をバックアップすることもありません。
+	 * キャラクターセットがUTF-8などASCII互換のものである場合、ASCII文字のみからなる範囲はデコードされず
+	 * マップされたバイト列から直接読み取られます。</p>
+	 * <p>状態を持つエンコーディング（ISO-2022-JPなど）のファイルには利用できません。
+	 * そのようなファイルには{@link #from(File, Charset)}を利用してください。</p>
+	 * @param path ファイルのパス
+	 * @param charset キャラクターセット
+	 * @return 新しいリーダー
+	 * @throws IOException ファイルのオープンに失敗した場合
+	 */
+	public static TextReader from(Path path, Charset charset) throws IOException {
+		ParsecUtility.mustNotBeNull("path", path);
+		ParsecUtility.mustNotBeNull("charset", charset);
+		return new MappedFileReader(path, charset);
+	}
 	/**
 	 * 入力ストリームからリーダーを生成して返します。
 	 * @param stream ストリーム
@@ -57,11 +152,128 @@ public final class TextReader extends ResetReader {
 		ParsecUtility.mustNotBeNull("charset", charset);
 		return from(new BufferedReader(new InputStreamReader(stream, charset)));
 	}
-	
-	private TextReader(Reader reader) {
-		super(reader);
+
+	TextReader() {}
+
+	/**
+	 * 現在の文字位置にマークを設定します。
+	 */
+	public abstract void mark();
+	/**
+	 * 現在の文字位置に{@link #cut()}の対象となるマークを設定します。
+	 * <p>{@link Parser#or(Parser)}などの選択肢のパーサーがバックトラックの起点として設定するマークです。</p>
+	 */
+	abstract void markCuttable();
+	/**
+	 * カット済みのマークを設定します。
+	 * <p>このマークは{@link #cut()}の対象とならないため、
+	 * それ以降に行われるカットがより外側のマークに及ばないようにするための境界として機能します。
+	 * カット済みのマークは読み取り済みの文字を保持する理由にはなりません。</p>
+	 */
+	abstract void markCut();
+	/**
+	 * 直近のマークが{@link #markCuttable()}で設定されたものであれば、
+	 * そのマークへのリセットがもはや行われないことを宣言します。
+	 * <p>カットされたマークはそれ以降もマークとして残り{@link #unmark()}の対象となりますが、
+	 * データソースをストリームとするリーダーはそのマークより前に読み取った文字を破棄できるようになります。
+	 * 直近のマークが{@link #mark()}で設定されたものである場合は何も行いません。</p>
+	 */
+	abstract void cut();
+	/**
+	 * 以後のリセットやキャプチャのために保持しておく必要がある文字の添字の下限を返します。
+	 * <p>この位置より前の文字位置にバックトラックで戻ることはありません。</p>
+	 * @return 文字の添字
+	 */
+	abstract int retentionFloor();
+	/**
+	 * 直近のマークを解除します。
+	 */
+	public abstract void unmark();
+	/**
+	 * 設定されているマークの数を返します。
+	 * @return マークの数
+	 */
+	abstract int markCount();
+	/**
+	 * マークの数が指定された数になるまで直近のマークから順に解除します。
+	 * <p>例外によりパースが中断された場合に、中断されたパーサーが設定したマークを取り除くために使用されます。</p>
+	 * @param count マークの数
+	 */
+	abstract void unmarkTo(int count);
+	/**
+	 * 直近マークした位置まで文字位置を戻します。
+	 * @param unmark マーク解除も同時に行う場合{@code true}
+	 */
+	public abstract void reset(boolean unmark);
+	/**
+	 * 直近マークした文字位置から現在の文字位置の1つ前までの文字列をキャプチャします。
+	 * <p>マークが設定されていない場合は{@code null}を返します。</p>
+	 * @param unmark マーク解除も同時に行う場合{@code true}
+	 * @return キャプチャした文字列
+	 */
+	public abstract String capture(boolean unmark);
+	/**
+	 * 直近マークした文字位置から現在の文字位置の1つ前までの文字シーケンスをキャプチャします。
+	 * <p>{@link #capture(boolean)}と異なり文字はコピーされず、戻り値はデータソースを直接参照するスライスとなります。
+	 * スライスが参照する文字は{@link #unpin()}が呼び出されるまで（{@link Parser}や{@link ValParser}を通じて利用する場合は
+	 * パースが終了するまで）破棄されません。
+	 * その後もデータソースの読み取りを続ける場合、スライスの内容を参照する前に
+	 * {@link CharSequence#toString()}で文字列に変換しておく必要があります。</p>
+	 * <p>マークが設定されていない場合は{@code null}を返します。</p>
+	 * @param unmark マーク解除も同時に行う場合{@code true}
+	 * @return キャプチャした文字シーケンス
+	 */
+	public abstract CharSequence captureSlice(boolean unmark);
+	/**
+	 * {@link #captureSlice(boolean)}でキャプチャしたスライスが参照する文字の保持を解除します。
+	 * <p>データソースをストリームとするリーダーはこれ以降スライスが参照していた文字を破棄できるようになります。</p>
+	 */
+	abstract void unpin();
+	/**
+	 * 現在の文字位置から文字クラスに含まれる文字が続く限り読み飛ばします。
+	 * <p>{@link #peek()}と{@link #read()}を繰り返すのと同じ結果になりますが、
+	 * データソースを直接走査するためより効率的です。</p>
+	 * @param clazz 文字クラス
+	 * @return 読み飛ばした文字数
+	 */
+	public abstract int skipWhile(CharClass clazz);
+	/**
+	 * 現在の文字位置から文字クラスに含まれる文字が続く限り読み取り、バッファに追加します。
+	 * @param clazz 文字クラス
+	 * @param buff 読み取った文字を追加するバッファ
+	 * @return 読み取った文字数
+	 */
+	public abstract int readWhile(CharClass clazz, StringBuilder buff);
+	/**
+	 * 現在の文字位置以降で指定された文字が最初に現れる位置を返します。
+	 * <p>文字位置は前進しません。</p>
+	 * @param ch 文字
+	 * @return 現在の文字位置からの相対位置（文字が見つからない場合は{@code -1}）
+	 */
+	public abstract int indexOf(char ch);
+
+	@Override
+	public final boolean markSupported() {
+		return true;
+	}
+	@Override
+	public final void mark(int readAheadLimit) {
+		mark();
+	}
+	/**
+	 * 直近マークした位置まで文字位置を戻します。
+	 */
+	@Override
+	public final void reset() {
+		reset(false);
+	}
+	/**
+	 * 直近マークした文字位置から現在の文字位置の1つ前までの文字列をキャプチャします。
+	 * @return キャプチャした文字列
+	 */
+	public final String capture() {
+		return capture(false);
 	}
-	
 	/**
 	 * コンテキストを初期化して返します。
 	 * @return 新しいコンテキスト
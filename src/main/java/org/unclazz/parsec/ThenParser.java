@@ -16,15 +16,73 @@ final class ThenParser extends Parser {
 	@Override
 	protected ResultCore doParse(Context ctx) throws IOException {
         // 左側のパーサーでパース
-		final Result lres = _left.parse(ctx);
+		final ResultCore lres = _left.parseCore(ctx);
         // 結果NGの場合、ただちにその結果を呼び出し元に帰す
 		if (!lres.isSuccessful()) return lres;
 		
         // 右側のパーサーでパース
-		final Result rres = _right.parse(ctx);
+		final ResultCore rres = _right.parseCore(ctx);
         // バックトラック設定を合成
 		final boolean canBacktrack = lres.canBacktrack() && rres.canBacktrack();
         // 右側の結果を、バックトラック設定のみカスタマイズし、呼び出し元に返す
 		return rres.allowBacktrack(canBacktrack);
 	}
-}
\ No newline at end of file
+	@Override
+	ParseFrame frame(Context ctx) {
+		return new Frame();
+	}
+	// doParse(Context)を左右のパーサーの呼び出しの前後で分割したもの
+	private final class Frame extends ParseFrame {
+		private ResultCore _lres;
+		@Override
+		ParserSupport resume(Context ctx, ResultCoreSupport child) {
+			if (child == null) return _left;
+			if (_lres == null) {
+				_lres = core(child);
+				return _lres.isSuccessful() ? _right : done(_lres);
+			}
+			final ResultCore rres = core(child);
+			return done(rres.allowBacktrack(_lres.canBacktrack() && rres.canBacktrack()));
+		}
+	}
+	@Override
+	FirstSet first() {
+		return _left.first().then(_right);
+	}
+	@Override
+	Parser rewrite(Optimizer optimizer) {
+		final Parser left = optimizer.optimize(_left);
+		final Parser right = optimizer.optimize(_right);
+		final String rightLiteral = right.literal();
+		if (rightLiteral != null) {
+			// 文字やキーワードの連接はキーワードに融合する
+			final String leftLiteral = left.literal();
+			if (leftLiteral != null) return new KeywordParser(leftLiteral + rightLiteral);
+			// 左側の連接の末尾がキーワードである場合も融合する
+			if (left instanceof ThenParser) {
+				final ThenParser leftThen = (ThenParser) left;
+				final String leftRightLiteral = leftThen._right.literal();
+				if (leftRightLiteral != null) {
+					return new ThenParser(leftThen._left, new KeywordParser(leftRightLiteral + rightLiteral));
+				}
+			}
+		}
+		return left == _left && right == _right ? this : new ThenParser(left, right);
+	}
+	@Override
+	boolean compilable(GrammarCompiler compiler) {
+		return compiler.compilable(_left) && compiler.compilable(_right);
+	}
+	@Override
+	void emit(GrammarCompiler compiler, String start, String end) {
+		final String middle = compiler.local();
+		compiler.line("int %s;", middle);
+		compiler.emit(_left, start, middle);
+		compiler.open("if (%s == -1)", middle);
+		compiler.line("%s = -1;", end);
+		compiler.close();
+		compiler.open("else");
+		compiler.emit(_right, middle, end);
+		compiler.close();
+	}
+}
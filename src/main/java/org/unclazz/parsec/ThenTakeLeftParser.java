@@ -14,16 +14,46 @@ final class ThenTakeLeftParser<T> extends ValParser<T> {
 	@Override
 	protected ValResultCore<T> doParse(Context ctx) throws IOException {
         // 左側のパーサーでパース
-		final ValResult<T> lres = _left.parse(ctx);
+		final ValResultCore<T> lres = _left.parseCore(ctx);
         // 結果NGの場合、ただちにその結果を呼び出し元に帰す
 		if (!lres.isSuccessful()) return lres;
 		
         // 右側のパーサーでパース
-		final Result rres = _right.parse(ctx);
+		final ResultCore rres = _right.parseCore(ctx);
         // バックトラック設定を合成
 		final boolean canBacktrack = lres.canBacktrack() && rres.canBacktrack();
 
-		return (rres.isSuccessful() ? success(lres.value()) : failure(rres.message()))
+		return (rres.isSuccessful() ? success(lres.value()) : failure(rres))
 				.allowBacktrack(canBacktrack);
 	}
-}
\ No newline at end of file
+	@Override
+	ParseFrame frame(Context ctx) {
+		return new Frame();
+	}
+	// doParse(Context)を左右のパーサーの呼び出しの前後で分割したもの
+	private final class Frame extends ParseFrame {
+		private ValResultCore<T> _lres;
+		@Override
+		ParserSupport resume(Context ctx, ResultCoreSupport child) {
+			if (child == null) return _left;
+			if (_lres == null) {
+				_lres = valCore(child);
+				return _lres.isSuccessful() ? _right : done(_lres);
+			}
+			final ResultCore rres = core(child);
+			final boolean canBacktrack = _lres.canBacktrack() && rres.canBacktrack();
+			return done((rres.isSuccessful() ? success(_lres.value()) : failure(rres))
+					.allowBacktrack(canBacktrack));
+		}
+	}
+	@Override
+	FirstSet first() {
+		return _left.first().then(_right);
+	}
+	@Override
+	ValParser<T> rewrite(Optimizer optimizer) {
+		final ValParser<T> left = optimizer.optimize(_left);
+		final Parser right = optimizer.optimize(_right);
+		return left == _left && right == _right ? this : new ThenTakeLeftParser<>(left, right);
+	}
+}
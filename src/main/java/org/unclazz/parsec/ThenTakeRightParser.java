@@ -14,15 +14,50 @@ final class ThenTakeRightParser<T> extends ValParser<T> {
 	@Override
 	protected ValResultCore<T> doParse(Context ctx) throws IOException {
         // 左側のパーサーでパース
-		final Result lres = _left.parse(ctx);
+		// 左側の失敗はバックトラック可能とするため、左側の中でのカットは成功した場合に限り外側に及ぼす
+		ctx.fenceCut();
+		final ResultCore lres = _left.parseCore(ctx);
+		ctx.unfenceCut(lres.isSuccessful() && !lres.canBacktrack());
         // 結果NGの場合、ただちにその結果を呼び出し元に帰す
-		if (!lres.isSuccessful()) return failure(lres.message());
+		if (!lres.isSuccessful()) return failure(lres);
 		
         // 右側のパーサーでパース
-		final ValResult<T> rres = _right.parse(ctx);
+		final ValResultCore<T> rres = _right.parseCore(ctx);
         // バックトラック設定を合成
 		final boolean canBacktrack = lres.canBacktrack() && rres.canBacktrack();
 
 		return rres.allowBacktrack(canBacktrack);
 	}
-}
\ No newline at end of file
+	@Override
+	ParseFrame frame(Context ctx) {
+		return new Frame();
+	}
+	// doParse(Context)を左右のパーサーの呼び出しの前後で分割したもの
+	private final class Frame extends ParseFrame {
+		private ResultCore _lres;
+		@Override
+		ParserSupport resume(Context ctx, ResultCoreSupport child) {
+			if (child == null) {
+				ctx.fenceCut();
+				return _left;
+			}
+			if (_lres == null) {
+				_lres = core(child);
+				ctx.unfenceCut(_lres.isSuccessful() && !_lres.canBacktrack());
+				return _lres.isSuccessful() ? _right : done(failure(_lres));
+			}
+			final ValResultCore<T> rres = valCore(child);
+			return done(rres.allowBacktrack(_lres.canBacktrack() && rres.canBacktrack()));
+		}
+	}
+	@Override
+	FirstSet first() {
+		return _left.first().then(_right);
+	}
+	@Override
+	ValParser<T> rewrite(Optimizer optimizer) {
+		final Parser left = optimizer.optimize(_left);
+		final ValParser<T> right = optimizer.optimize(_right);
+		return left == _left && right == _right ? this : new ThenTakeRightParser<>(left, right);
+	}
+}
@@ -0,0 +1,193 @@
+package org.unclazz.parsec;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * パーサーのグラフをヒープ上のスタックで実行するオブジェクトです。
+ * <p>組み込みのパーサーは子のパーサーを{@code parseCore(Context)}で呼び出すため、
+ * {@link Parsers#lazy(org.unclazz.parsec.util.ParserFactory)}などで再帰的に定義された文法では
+ * 入力の入れ子の深さに比例してJavaのスタックが消費され、深い入れ子は{@link StackOverflowError}を引き起こします。
+ * このオブジェクトはパーサーが{@link ParserSupport#frame(Context)}で返すフレームを配列のスタックに積み、
+ * 子のパーサーの呼び出しと復帰をループの中でのフレームの切り替えとして行います。
+ * 入れ子の深さはスタックの上限（{@link ContextConfigurer#setMaxStackDepth(int)}）だけによって制限されます。</p>
+ * <p>フレームを返さないパーサー（利用者が定義したパーサーや子を持たないパーサー）は
+ * 従来どおりJavaのスタックの上でパースされます。
+ * そのようなパーサーが子のパーサーを{@code parseCore(Context)}で呼び出した場合、
+ * 子のパーサーのパースは同じスタックの上で入れ子に実行されます。</p>
+ * <p>インスタンスは{@link Context}ごとに1つ作成され、スレッドセーフではありません。</p>
+ */
+final class Trampoline {
+	private static final int INITIAL_CAPACITY = 32;
+
+	private final Context _ctx;
+	private final int _maxDepth;
+	private ParseFrame[] _frames = new ParseFrame[INITIAL_CAPACITY];
+	private ParserSupport[] _parsers = new ParserSupport[INITIAL_CAPACITY];
+	private int[] _starts = new int[INITIAL_CAPACITY];
+	// フレームを積んだ時点でのデータソースのマークの数
+	private int[] _markCounts = new int[INITIAL_CAPACITY];
+	private int _size;
+	// 入力の不足により中断したパースを再開する際に呼び出しを開始するパーサー（最上位のフレームを再開する場合はnull）
+	private ParserSupport _pendingParser;
+	// 入力の不足により中断したパースを再開する際に最上位のフレームに渡す子のパーサーのパース結果
+	private ResultCoreSupport _pendingChild;
+
+	Trampoline(Context ctx, int maxDepth) {
+		_ctx = ctx;
+		_maxDepth = maxDepth;
+	}
+
+	/**
+	 * パースを行います。
+	 * <p>例外がスローされた場合、スタックは呼び出し時の深さまで戻されます。
+	 * このとき取り除かれるフレームのパーサーごとに{@link Context#abortParse(ParserSupport, int)}を呼び出し、
+	 * パーサーが設定したマーク、呼び出しの深さ、リスナーへの通知の状態をパーサーの呼び出し前に戻します。</p>
+	 * @param parser パーサー
+	 * @return パース結果オブジェクト
+	 * @throws IOException データソースから例外がスローされた場合
+	 * @throws ParseStackOverflowException スタックの深さが上限に達した場合
+	 * @param <R> パース結果の型
+	 */
+	@SuppressWarnings("unchecked")
+	<R extends ResultCoreSupport> R run(ParserSupport parser) throws IOException {
+		final int base = _size;
+		try {
+			ResultCoreSupport last = enter(parser);
+			while (_size > base) {
+				final ParserSupport child = _frames[_size - 1].resume(_ctx, last);
+				last = child == null ? exit() : enter(child);
+			}
+			return (R) last;
+		} finally {
+			while (_size > base) abort();
+		}
+	}
+	/**
+	 * 入力の不足による中断と再開が可能なパースを開始します。
+	 * <p>データソースが{@link NeedMoreInputException}をスローした場合、スタックを巻き戻さずに{@code null}を返します。
+	 * 入力が追加された後に{@link #resume()}を呼び出すと中断した箇所からパースを再開します。
+	 * それ以外の例外がスローされた場合、スタックはすべて巻き戻されます。</p>
+	 * @param parser パーサー
+	 * @return パース結果オブジェクト（入力の不足により中断した場合は{@code null}）
+	 * @throws IOException データソースから例外がスローされた場合
+	 * @param <R> パース結果の型
+	 */
+	<R extends ResultCoreSupport> R start(ParserSupport parser) throws IOException {
+		_pendingParser = parser;
+		_pendingChild = null;
+		return resume();
+	}
+	/**
+	 * 入力の不足により中断したパースを再開します。
+	 * <p>完了したパーサーの呼び出しが繰り返されることはありません。
+	 * 中断したのがパーサーの呼び出しの途中であった場合、その呼び出しは開始時の文字位置からやり直されます。
+	 * フレームを持たないパーサーの内側で中断した場合も、やり直されるのはそのパーサーの呼び出しだけです。
+	 * 中断したのがフレームの{@link ParseFrame#resume(Context, ResultCoreSupport)}の途中であった場合、
+	 * 文字位置を呼び出し前に戻した上で同じ引数により再び呼び出します。</p>
+	 * @return パース結果オブジェクト（入力の不足により中断した場合は{@code null}）
+	 * @throws IOException データソースから例外がスローされた場合
+	 * @param <R> パース結果の型
+	 */
+	@SuppressWarnings("unchecked")
+	<R extends ResultCoreSupport> R resume() throws IOException {
+		final TextReader src = _ctx.source();
+		ParserSupport next = _pendingParser;
+		ResultCoreSupport last = _pendingChild;
+		try {
+			while (true) {
+				final int index = src.index();
+				try {
+					if (next != null) {
+						last = enter(next);
+						next = null;
+					} else if (_size == 0) {
+						_pendingChild = null;
+						return (R) last;
+					} else {
+						next = _frames[_size - 1].resume(_ctx, last);
+						if (next == null) last = exit();
+					}
+				} catch (final NeedMoreInputException e) {
+					src.index(index);
+					_pendingParser = next;
+					_pendingChild = last;
+					return null;
+				}
+			}
+		} catch (final IOException | RuntimeException | Error e) {
+			_pendingParser = null;
+			_pendingChild = null;
+			while (_size > 0) abort();
+			throw e;
+		}
+	}
+	/**
+	 * スタックの深さを返します。
+	 * @return 深さ
+	 */
+	int depth() {
+		return _size;
+	}
+	/**
+	 * パーサーの呼び出しを開始します。
+	 * @param parser パーサー
+	 * @return パース結果オブジェクト（フレームをスタックに積んだ場合は{@code null}）
+	 * @throws IOException データソースから例外がスローされた場合
+	 */
+	private ResultCoreSupport enter(ParserSupport parser) throws IOException {
+		final ParseFrame frame = parser.frame(_ctx);
+		if (frame == null) return parser.parseDirectly(_ctx);
+
+		final int start = _ctx.source().index();
+		if (_ctx.memoization()) {
+			final ResultCoreSupport memo = _ctx.recall(parser, start);
+			if (memo != null) return memo;
+		}
+		if (_size == _maxDepth) throw new ParseStackOverflowException(_maxDepth);
+		_ctx.preParse(parser);
+		if (_size == _frames.length) grow();
+		_frames[_size] = frame;
+		_parsers[_size] = parser;
+		_starts[_size] = start;
+		_markCounts[_size] = _ctx.source().markCount();
+		_size ++;
+		return null;
+	}
+	/**
+	 * スタックの最上位のフレームのパースを終了します。
+	 * @return パース結果オブジェクト
+	 */
+	private ResultCoreSupport exit() {
+		final int top = _size - 1;
+		final ResultCoreSupport result = _frames[top].result();
+		final ParserSupport parser = _parsers[top];
+		final int start = _starts[top];
+		pop();
+		_ctx.postParse(parser, result);
+		if (_ctx.memoization()) _ctx.memorize(parser, start, result);
+		return result;
+	}
+	/**
+	 * 例外によりスタックの最上位のフレームのパースを中断します。
+	 */
+	private void abort() {
+		final ParserSupport parser = _parsers[_size - 1];
+		final int markCount = _markCounts[_size - 1];
+		pop();
+		_ctx.abortParse(parser, markCount);
+	}
+	private void pop() {
+		_size --;
+		// 終了したフレームとパーサーへの参照を残さない
+		_frames[_size] = null;
+		_parsers[_size] = null;
+	}
+	private void grow() {
+		final int capacity = (int) Math.min((long) _frames.length * 2, _maxDepth);
+		_frames = Arrays.copyOf(_frames, capacity);
+		_parsers = Arrays.copyOf(_parsers, capacity);
+		_starts = Arrays.copyOf(_starts, capacity);
+		_markCounts = Arrays.copyOf(_markCounts, capacity);
+	}
+}
@@ -18,16 +18,56 @@ final class Tuple2Parser<T1, T2> extends ValParser<Tuple2<T1, T2>> {
 
 	@Override
 	protected ValResultCore<Tuple2<T1, T2>> doParse(Context ctx) throws IOException {
-		final ValResult<T1> leftResult = _left.parse(ctx);
-		if (!leftResult.isSuccessful()) return failure(leftResult.message());
+		// 左側の失敗はバックトラック可能とするため、左側の中でのカットは成功した場合に限り外側に及ぼす
+		ctx.fenceCut();
+		final ValResultCore<T1> leftResult = _left.parseCore(ctx);
+		ctx.unfenceCut(leftResult.isSuccessful() && !leftResult.canBacktrack());
+		if (!leftResult.isSuccessful()) return failure(leftResult);
 		
-		final ValResult<T2> rightResult = _right.parse(ctx);
+		final ValResultCore<T2> rightResult = _right.parseCore(ctx);
 		final boolean canBacktrack = leftResult.canBacktrack() && rightResult.canBacktrack();
 		
 		if (rightResult.isSuccessful()) {
 			return success(Tuple.of(leftResult.value(), rightResult.value()))
 					.allowBacktrack(canBacktrack);
 		}
-		return failure(rightResult.message()).allowBacktrack(canBacktrack);
+		return failure(rightResult).allowBacktrack(canBacktrack);
 	}
-}
\ No newline at end of file
+	@Override
+	ParseFrame frame(Context ctx) {
+		return new Frame();
+	}
+	// doParse(Context)を左右のパーサーの呼び出しの前後で分割したもの
+	private final class Frame extends ParseFrame {
+		private ValResultCore<T1> _leftResult;
+		@Override
+		ParserSupport resume(Context ctx, ResultCoreSupport child) {
+			if (child == null) {
+				ctx.fenceCut();
+				return _left;
+			}
+			if (_leftResult == null) {
+				_leftResult = valCore(child);
+				ctx.unfenceCut(_leftResult.isSuccessful() && !_leftResult.canBacktrack());
+				return _leftResult.isSuccessful() ? _right : done(failure(_leftResult));
+			}
+			final ValResultCore<T2> rightResult = valCore(child);
+			final boolean canBacktrack = _leftResult.canBacktrack() && rightResult.canBacktrack();
+			if (rightResult.isSuccessful()) {
+				return done(success(Tuple.of(_leftResult.value(), rightResult.value()))
+						.allowBacktrack(canBacktrack));
+			}
+			return done(failure(rightResult).allowBacktrack(canBacktrack));
+		}
+	}
+	@Override
+	FirstSet first() {
+		return _left.first().then(_right);
+	}
+	@Override
+	ValParser<Tuple2<T1, T2>> rewrite(Optimizer optimizer) {
+		final ValParser<T1> left = optimizer.optimize(_left);
+		final ValParser<T2> right = optimizer.optimize(_right);
+		return left == _left && right == _right ? this : new Tuple2Parser<>(left, right);
+	}
+}
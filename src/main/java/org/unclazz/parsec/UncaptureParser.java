@@ -10,6 +10,31 @@ final class UncaptureParser<T> extends Parser{
 	}
 	@Override
 	protected ResultCore doParse(Context ctx) throws IOException {
-		return _original.parse(ctx).detachValue();
+		return _original.parseCore(ctx).detachValue();
 	}
-}
\ No newline at end of file
+	@Override
+	ParseFrame frame(Context ctx) {
+		return new Frame();
+	}
+	// doParse(Context)を元のパーサーの呼び出しの前後で分割したもの
+	private final class Frame extends ParseFrame {
+		@Override
+		ParserSupport resume(Context ctx, ResultCoreSupport child) {
+			if (child == null) return _original;
+			return done(valCore(child).detachValue());
+		}
+	}
+	@Override
+	FirstSet first() {
+		return _original.first();
+	}
+	@Override
+	Parser rewrite(Optimizer optimizer) {
+		final ValParser<T> original = optimizer.optimize(_original);
+		return original == _original ? this : new UncaptureParser<>(original);
+	}
+	@Override
+	boolean atomic() {
+		return _original.atomic();
+	}
+}
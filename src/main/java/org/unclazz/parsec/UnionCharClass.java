@@ -25,6 +25,22 @@ final class UnionCharClass extends CharClass{
 		}
 		return false;
 	}
+	@Override
+	boolean inlinable() {
+		for (final CharClass c : _items) {
+			if (!c.inlinable()) return false;
+		}
+		return true;
+	}
+	@Override
+	String condition(GrammarCompiler compiler, String ch) {
+		final StringBuilder buff = new StringBuilder("(");
+		for (int i = 0; i < _items.length; i ++) {
+			if (i > 0) buff.append(" || ");
+			buff.append(_items[i].condition(compiler, ch));
+		}
+		return buff.append(')').toString();
+	}
 	private CharClass[] makeArray(CharClass left, CharClass right) {
 		// 左辺が自身と同じクラスかどうかチェック
 		if (left instanceof UnionCharClass) {
@@ -1,6 +1,7 @@
 package org.unclazz.parsec;
 
 import java.io.IOException;
+import java.nio.charset.Charset;
 import java.util.Optional;
 import java.util.function.Function;
 
@@ -75,14 +76,98 @@ public abstract class ValParser<T> extends ParserSupport {
 	 */
 	public ValResult<T> parse(Context ctx) throws IOException{
 		final TextReader src = ctx.source();
-		final CharPosition startedOn = src.position();
-		ctx.preParse(name(), paramsString());
-		final ValResultCore<T> core = doParse(ctx);
-		ctx.postParse(core);
-		if (core instanceof ValResult) return (ValResult<T>) core;
-		final CharPosition endedOn = src.position();
-		return core.attachPosition(startedOn, endedOn);
+		final boolean tracking = ctx.positionTracking() != PositionTracking.NONE;
+		final CharPosition startedOn = tracking ? src.position() : null;
+		final ValResultCore<T> core = parseCore(ctx);
+		// パーサーが文字位置情報を付与した結果を返した場合はそれをそのまま返す
+		return core instanceof ValResult ? (ValResult<T>) core
+				: core.attachPosition(startedOn, tracking ? src.position() : null);
 	}
+	/**
+	 * パースを行い文字位置情報を持たないパース結果オブジェクトを返します。
+	 * <p>{@link #parse(Context)}と異なりパース前後の文字位置を求めず、{@link ValResult}も生成しません。
+	 * 組み込みのパーサーは子のパーサーのパースにこのメソッドを利用します。
+	 * {@link ValResult}は最も外側の{@link #parse(Context)}でのみ生成されます。</p>
+	 * <p>コンテキストで明示的なスタックが有効な場合、パースは{@link Trampoline}によりヒープ上のスタックで行われます。</p>
+	 * @param ctx コンテキスト
+	 * @return パース結果オブジェクト
+	 * @throws IOException データソースから例外がスローされた場合
+	 */
+	final ValResultCore<T> parseCore(Context ctx) throws IOException{
+		final Trampoline trampoline = ctx.trampoline();
+		return trampoline == null ? parseDirectly(ctx) : trampoline.run(this);
+	}
+	@Override
+	final ValResultCore<T> parseDirectly(Context ctx) throws IOException{
+		final TextReader src = ctx.source();
+		final boolean memoization = ctx.memoization();
+		final int startIndex = src.index();
+		if (memoization) {
+			final ValResultCore<T> memo = ctx.recall(this, startIndex);
+			if (memo != null) return memo;
+		}
+		final int markCount = src.markCount();
+		ctx.preParse(this);
+		final ValResultCore<T> core;
+		try {
+			core = doParse(ctx);
+		} catch (final IOException | RuntimeException ex) {
+			// 例外によりパースが中断された場合もコンテキストの状態を呼び出し前に戻す
+			ctx.abortParse(this, markCount);
+			throw ex;
+		}
+		ctx.postParse(this, core);
+		if (memoization) ctx.memorize(this, startIndex, core);
+		return core;
+	}
+	/**
+	 * 入力を逐次受け取りながらパースを行うオブジェクトを返します。
+	 * <p>返されるオブジェクトには{@link IncrementalParser#feed(java.nio.CharBuffer)}で文字の入力を供給します。</p>
+	 * @return 新しいオブジェクト
+	 */
+	public IncrementalParser<T> incremental() {
+		return new IncrementalParser<>(this, null);
+	}
+	/**
+	 * 入力を逐次受け取りながらパースを行うオブジェクトを返します。
+	 * <p>返されるオブジェクトには{@link IncrementalParser#feed(java.nio.ByteBuffer)}でエンコードされた入力を供給することもできます。</p>
+	 * @param charset 入力のキャラクターセット
+	 * @return 新しいオブジェクト
+	 */
+	public IncrementalParser<T> incremental(Charset charset) {
+		ParsecUtility.mustNotBeNull("charset", charset);
+		return new IncrementalParser<>(this, charset);
+	}
+	/**
+	 * パーサーのグラフをより低コストな等価のグラフに書き換えたパーサーを返します。
+	 * <p>書き換えの内容と制約については{@link Parser#optimize()}を参照してください。</p>
+	 * @return パーサー（書き換える必要がない場合はレシーバー自身）
+	 */
+	public ValParser<T> optimize(){
+		final ValParser<T> optimized = new Optimizer().optimize(this);
+		return optimized == this ? this : new OptimizedValParser<>(this, optimized);
+	}
+	/**
+	 * {@link #optimize()}のためにパーサーを書き換えます。
+	 * <p>既定の実装はレシーバー自身を返します。</p>
+	 * @param optimizer オプティマイザー
+	 * @return 書き換えられたパーサー
+	 */
+	ValParser<T> rewrite(Optimizer optimizer) {
+		return this;
+	}
+	/**
+	 * パーサーのグラフに含まれる部分グラフを専用のクラスにコンパイルしたパーサーを返します。
+	 * <p>値をキャプチャするパーサーはコンパイルされず、その内側のパーサーのうちコンパイル可能な部分グラフがコンパイルされます。
+	 * コンパイルの内容と制約については{@link Parser#compile()}を参照してください。</p>
+	 * @return パーサー（コンパイルも書き換えも必要がない場合はレシーバー自身）
+	 */
+	public ValParser<T> compile(){
+		final ValParser<T> optimized = new Optimizer().optimize(this);
+		final ValParser<T> compiled = GrammarCompiler.compile(optimized);
+		return compiled == this ? this : new OptimizedValParser<>(this, compiled);
+	}
+	
 	/**
 	 * パース成功を表すオブジェクトを返します。
 	 * @param capture キャプチャした値
@@ -101,12 +186,23 @@ public abstract class ValParser<T> extends ParserSupport {
 	}
 	/**
 	 * パース失敗を表すオブジェクトを返します。
+	 * <p>メッセージはパース結果オブジェクトの{@link ResultCoreSupport#message()}が呼び出されたときに初めて整形されます。
+	 * フォーマット引数はそれまで保持されるため、後から内容が変更されるオブジェクトを渡してはなりません。</p>
 	 * @param format 失敗の理由を示すメッセージのフォーマット
 	 * @param args フォーマット引数
 	 * @return パース結果オブジェクト
 	 */
 	protected ValResultCore<T> failure(String format, Object...args){
-		return failure(String.format(format, args));
+		return new ValResultCore<>(false, null, true, FailureMessage.of(format, args));
+	}
+	/**
+	 * パース失敗を表すオブジェクトを返します。
+	 * <p>失敗の理由を示すメッセージは引数のパース結果オブジェクトのものを引き継ぎます。</p>
+	 * @param cause 子パーサーのパース結果オブジェクト
+	 * @return パース結果オブジェクト
+	 */
+	ValResultCore<T> failure(ResultCoreSupport cause){
+		return new ValResultCore<>(false, null, true, cause.failureMessage());
 	}
 	
 	/**
@@ -116,6 +212,17 @@ public abstract class ValParser<T> extends ParserSupport {
 	public Parser unval() {
 		return new UncaptureParser<>(this);
 	}
+	/**
+	 * パース結果をメモ化するパーサーを返します。
+	 * <p>返されるパーサーは開始位置ごとのパース結果を{@link Context}に記録し、
+	 * バックトラックの後に同じ位置から再びパースを行う場合は記録された結果を再利用します。
+	 * 記録された結果はカットによりバックトラックで戻ることのなくなった時点で破棄されます。
+	 * 文法全体をメモ化する場合は{@link ContextConfigurer#setMemoization(boolean)}を利用します。</p>
+	 * @return パーサー
+	 */
+	public ValParser<T> memo(){
+		return new MemoValParser<>(this);
+	}
 	/**
 	 * このパーサーのパースが成功すると直近の{@link #or(ValParser)}を起点とするバックトラックが無効になります。
 	 * @return パーサー
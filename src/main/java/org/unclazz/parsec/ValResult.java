@@ -16,9 +16,15 @@ public final class ValResult<T> extends ValResultCore<T> {
 		_start = start;
 		_end = end;
 	}
+	ValResult(boolean successful, T value, boolean canBacktrack, FailureMessage message, CharPosition start, CharPosition end){
+		super(successful, value, canBacktrack, message);
+		_start = start;
+		_end = end;
+	}
 	
 	/**
 	 * パース開始時の文字位置（パースしたシーケンスの最初の文字の文字位置）です。
+	 * <p>文字位置の追跡レベルが{@link PositionTracking#NONE}の場合は{@code null}です。</p>
 	 * @return 文字位置
 	 */
 	public CharPosition start() {
@@ -26,6 +32,7 @@ public final class ValResult<T> extends ValResultCore<T> {
 	}
 	/**
 	 * パース終了時の文字位置（パースしたシーケンスの最後の文字の次の文字位置）です。
+	 * <p>文字位置の追跡レベルが{@link PositionTracking#NONE}の場合は{@code null}です。</p>
 	 * @return 文字位置
 	 */
 	public CharPosition end() {
@@ -34,17 +41,19 @@ public final class ValResult<T> extends ValResultCore<T> {
 	@Override
 	public<R> ValResult<R> map(Function<T, R> func) {
 		if (isSuccessful()) return new ValResult<R>(isSuccessful(), func.apply(value()), null, canBacktrack(), _start, _end);
-		else  return new ValResult<R>(isSuccessful(), null, message(), canBacktrack(), _start, _end);
+		else  return new ValResult<R>(isSuccessful(), null, canBacktrack(), failureMessage(), _start, _end);
 	}
 	@Override
 	public ValResult<T> allowBacktrack(boolean yesNo){
-		return new ValResult<>(isSuccessful(), value(), message(), yesNo, _start, _end);
+		if (canBacktrack() == yesNo) return this;
+		return new ValResult<>(isSuccessful(), value(), yesNo, failureMessage(), _start, _end);
 	}
 	/**
 	 * 値との紐付けを解除して{@link Parser}のパース結果を表すオブジェクトに変換します。
 	 * @return 値を持たないパース結果オブジェクト
 	 */
+	@Override
 	public Result detachValue(){
-		return new Result(isSuccessful(), message(), canBacktrack(), _start, _end);
+		return new Result(isSuccessful(), canBacktrack(), failureMessage(), _start, _end);
 	}
 }
@@ -35,6 +35,10 @@ public class ValResultCore<T> extends ResultCoreSupport {
 		super(successful, message, canBacktrack);
 		_value = value;
 	}
+	ValResultCore(boolean successful, T value, boolean canBacktrack, FailureMessage message){
+		super(successful, canBacktrack, message);
+		_value = value;
+	}
 	
 	/**
 	 * パーサによりキャプチャされた値です。
@@ -51,7 +55,7 @@ public class ValResultCore<T> extends ResultCoreSupport {
 	 */
 	public<R> ValResultCore<R> map(Function<T, R> func) {
 		return new ValResultCore<R>(isSuccessful(), 
-				isSuccessful() ? func.apply(_value) : null, null, canBacktrack());
+				isSuccessful() ? func.apply(_value) : null, canBacktrack(), failureMessage());
 	}
 	/**
 	 * パース前後の文字位置情報を付与します。
@@ -60,7 +64,15 @@ public class ValResultCore<T> extends ResultCoreSupport {
 	 * @return パース結果オブジェクト
 	 */
 	public final ValResult<T> attachPosition(CharPosition start, CharPosition end) {
-		return new ValResult<>(isSuccessful(), _value, message(), canBacktrack(), start, end);
+		return new ValResult<>(isSuccessful(), _value, canBacktrack(), failureMessage(), start, end);
+	}
+	/**
+	 * 値との紐付けを解除して{@link Parser}のパース結果を表すオブジェクトに変換します。
+	 * @return 値を持たないパース結果オブジェクト
+	 */
+	public ResultCore detachValue(){
+		if (isSuccessful()) return ResultCore.ofSuccess().allowBacktrack(canBacktrack());
+		return new ResultCore(false, canBacktrack(), failureMessage());
 	}
 	/**
 	 * 直近の{@link ValParser#or(ValParser)}を起点とするバックトラックの可否を設定します。
@@ -68,7 +80,8 @@ public class ValResultCore<T> extends ResultCoreSupport {
 	 * @return パース結果オブジェクト
 	 */
 	public ValResultCore<T> allowBacktrack(boolean yesNo){
-		return new ValResultCore<>(isSuccessful(), _value, message(), yesNo);
+		if (canBacktrack() == yesNo) return this;
+		return new ValResultCore<>(isSuccessful(), _value, yesNo, failureMessage());
 	}
 	/**
 	 * このオブジェクトが成功を表すものである場合アクションを実行します。
@@ -0,0 +1,66 @@
+package org.unclazz.parsec.util;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 複数のスレッドから安全に利用できるオブジェクトのキャッシュです。
+ * <p>{@link ObjectCache}と同様にエントリー数の上限を持ちます。
+ * 新しいエントリーの登録により上限を超えた場合、ほかのエントリーのいずれか1つを削除します。
+ * 登録済みのエントリーの参照はロックを取得せずに行われます。</p>
+ * @param <T> 値の型
+ */
+public final class ConcurrentObjectCache<T> {
+	private final int _maxSize;
+	private final ConcurrentHashMap<String, T> _map = new ConcurrentHashMap<>();
+
+	public ConcurrentObjectCache(int maxSize) {
+		if (maxSize < 1) throw new IllegalArgumentException("\"maxSize\" must be greater than 0.");
+		_maxSize = maxSize;
+	}
+
+	/**
+	 * キーに対応する値を返します。
+	 * @param key キー
+	 * @return 値（エントリーが存在しない場合は{@code null}）
+	 */
+	public T get(String key) {
+		return _map.get(key);
+	}
+	/**
+	 * キーに対応する値を返します。
+	 * <p>エントリーが存在しない場合は関数により値を生成して登録します。
+	 * 複数のスレッドが同時に同じキーの値を要求した場合も、登録されるのは1つの値だけであり
+	 * すべてのスレッドが同じ値を受け取ります。</p>
+	 * @param key キー
+	 * @param factory 値を生成する関数
+	 * @return 値
+	 */
+	public T computeIfAbsent(String key, Function<String, T> factory) {
+		final T readyMade = _map.get(key);
+		if (readyMade != null) return readyMade;
+
+		final T value = _map.computeIfAbsent(key, factory);
+		// 上限を超えた場合は登録したもの以外の任意のエントリーを1つ削除する
+		// （複数のスレッドが同時に削除した場合は一時的に上限を下回ることがある）
+		if (_map.size() > _maxSize) {
+			final Iterator<String> keys = _map.keySet().iterator();
+			while (keys.hasNext()) {
+				final String k = keys.next();
+				if (!k.equals(key)) {
+					_map.remove(k);
+					break;
+				}
+			}
+		}
+		return value;
+	}
+	/**
+	 * エントリー数を返します。
+	 * @return エントリー数
+	 */
+	public int size() {
+		return _map.size();
+	}
+}
@@ -0,0 +1,29 @@
+package org.unclazz.parsec;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * リセットによる文字位置の後退を表すJFRのイベントです。
+ * <p>後退した文字数が{@link ContextConfigurer#setBacktrackEventThreshold(int)}で設定した値以上の場合に記録されます。</p>
+ */
+@Name("org.unclazz.parsec.Backtrack")
+@Label("Parser Backtrack")
+@Category("unclazz-parsec")
+@Description("Rewind of the reader position by a parser")
+@StackTrace(false)
+final class BacktrackEvent extends Event {
+	@Label("Parser")
+	String parser;
+	@Label("From Offset")
+	int fromOffset;
+	@Label("To Offset")
+	int toOffset;
+	@Label("Rewound")
+	@Description("Number of characters rewound")
+	int rewound;
+}
@@ -0,0 +1,42 @@
+package org.unclazz.parsec;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * リーダーが文字を保持するバッファの拡張を表すJFRのイベントです。
+ * <p>バッファの拡張はマークやピンにより解放できない文字が増えたことを示します。</p>
+ */
+@Name("org.unclazz.parsec.BufferGrowth")
+@Label("Reader Buffer Growth")
+@Category("unclazz-parsec")
+@Description("Growth of the buffer retaining characters for backtracking")
+final class BufferGrowthEvent extends Event {
+	/**
+	 * イベントを記録します。
+	 * <p>このメソッドは{@link FlightRecorderSupport}からリフレクションを通じて呼び出されます。</p>
+	 * @param reader リーダー
+	 * @param oldCapacity 拡張前の容量（文字数）
+	 * @param newCapacity 拡張後の容量（文字数）
+	 */
+	static void emit(TextReader reader, int oldCapacity, int newCapacity) {
+		final BufferGrowthEvent e = new BufferGrowthEvent();
+		if (!e.shouldCommit()) return;
+		e.reader = reader.getClass().getSimpleName();
+		e.oldCapacity = oldCapacity;
+		e.newCapacity = newCapacity;
+		e.commit();
+	}
+	
+	@Label("Reader")
+	String reader;
+	@Label("Old Capacity")
+	@Description("Capacity in characters before the growth")
+	int oldCapacity;
+	@Label("New Capacity")
+	@Description("Capacity in characters after the growth")
+	int newCapacity;
+}
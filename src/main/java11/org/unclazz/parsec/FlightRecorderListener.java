@@ -0,0 +1,66 @@
+package org.unclazz.parsec;
+
+import java.util.Arrays;
+
+/**
+ * パースのセッションとバックトラックをJFRのイベントとして記録するリスナーです。
+ * <p>セッションは最も外側のパーサーの呼び出しの開始から終了までです。
+ * バックトラックのイベントには後退を行ったパーサー（呼び出し中の最も内側のパーサー）の名前が記録されます。
+ * このクラスはJava 11以降の実行環境でだけ読み込まれ、{@link FlightRecorderSupport}からリフレクションを通じて生成されます。</p>
+ */
+final class FlightRecorderListener implements ParseListener {
+	private static final int INITIAL_CAPACITY = 16;
+	
+	private final Context _ctx;
+	private final int _backtrackThreshold;
+	private ParserSupport[] _parsers = new ParserSupport[INITIAL_CAPACITY];
+	private int _size;
+	private ParseSessionEvent _session;
+	private int _sessionStart;
+	
+	FlightRecorderListener(Context ctx, int backtrackThreshold) {
+		_ctx = ctx;
+		_backtrackThreshold = backtrackThreshold;
+	}
+	
+	@Override
+	public void enter(ParserSupport parser, int offset) {
+		if (_size == 0) {
+			final ParseSessionEvent e = new ParseSessionEvent();
+			if (e.isEnabled()) {
+				e.begin();
+				_session = e;
+				_sessionStart = offset;
+			}
+		}
+		if (_size == _parsers.length) _parsers = Arrays.copyOf(_parsers, _size * 2);
+		_parsers[_size ++] = parser;
+	}
+	@Override
+	public void exit(ParserSupport parser, int offset, ResultCoreSupport result) {
+		_parsers[-- _size] = null;
+		if (_size > 0 || _session == null) return;
+		final ParseSessionEvent e = _session;
+		_session = null;
+		e.end();
+		if (!e.shouldCommit()) return;
+		e.parser = parser.name();
+		e.startOffset = _sessionStart;
+		e.endOffset = offset;
+		e.length = offset - _sessionStart;
+		e.successful = result.isSuccessful();
+		e.farthestFailureOffset = _ctx.farthestFailureIndex();
+		e.commit();
+	}
+	@Override
+	public void backtrack(int from, int to) {
+		if (from - to < _backtrackThreshold) return;
+		final BacktrackEvent e = new BacktrackEvent();
+		if (!e.shouldCommit()) return;
+		e.parser = _size == 0 ? null : _parsers[_size - 1].name();
+		e.fromOffset = from;
+		e.toOffset = to;
+		e.rewound = from - to;
+		e.commit();
+	}
+}
@@ -0,0 +1,31 @@
+package org.unclazz.parsec;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 最も外側のパーサーの呼び出し1回分を表すJFRのイベントです。
+ */
+@Name("org.unclazz.parsec.ParseSession")
+@Label("Parse Session")
+@Category("unclazz-parsec")
+@Description("Invocation of the outermost parser")
+final class ParseSessionEvent extends Event {
+	@Label("Parser")
+	String parser;
+	@Label("Start Offset")
+	int startOffset;
+	@Label("End Offset")
+	int endOffset;
+	@Label("Length")
+	@Description("Number of characters consumed")
+	int length;
+	@Label("Successful")
+	boolean successful;
+	@Label("Farthest Failure Offset")
+	@Description("Offset of the farthest failure, or -1 if no parser has failed")
+	int farthestFailureOffset;
+}
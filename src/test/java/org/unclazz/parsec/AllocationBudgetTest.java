@@ -0,0 +1,92 @@
+package org.unclazz.parsec;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.*;
+
+import java.lang.management.ManagementFactory;
+
+import static org.hamcrest.CoreMatchers.*;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class AllocationBudgetTest {
+	private static final int WARMUP = 200;
+	private static final int ITERATIONS = 50;
+	private static final int LENGTH = 1 << 16;
+
+	private static com.sun.management.ThreadMXBean _bean;
+
+	@BeforeClass
+	public static void setUpClass() {
+		final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+		_bean = (com.sun.management.ThreadMXBean) bean;
+		assumeTrue(_bean.isThreadAllocatedMemorySupported());
+		_bean.setThreadAllocatedMemoryEnabled(true);
+	}
+
+	private static String repeat(String unit, int length) {
+		final StringBuilder buff = new StringBuilder(length + unit.length());
+		while (buff.length() < length) buff.append(unit);
+		return buff.toString();
+	}
+	/**
+	 * パース1回で入力1文字あたりに割り当てられたバイト数を測定します。
+	 * <p>ウォームアップの後、同じ入力を繰り返しパースしてその間に現在のスレッドで割り当てられたバイト数を
+	 * パースした文字数の合計で割ります。パースごとの固定のコスト（リーダーやコンテキストの作成）は
+	 * 入力を十分に長くすることで無視できる大きさにします。</p>
+	 * @param p パーサー
+	 * @param input 入力
+	 * @return バイト数
+	 */
+	private static double bytesPerChar(ParserSupport p, String input) {
+		for (int i = 0; i < WARMUP; i ++) parse(p, input);
+		final long tid = Thread.currentThread().getId();
+		final long before = _bean.getThreadAllocatedBytes(tid);
+		for (int i = 0; i < ITERATIONS; i ++) parse(p, input);
+		final long after = _bean.getThreadAllocatedBytes(tid);
+		return (double) (after - before) / ((long) ITERATIONS * input.length());
+	}
+	private static void parse(ParserSupport p, String input) {
+		final ResultCoreSupport r = p instanceof Parser
+				? ((Parser) p).parse(input) : ((ValParser<?>) p).parse(input);
+		assertThat(r.isSuccessful(), is(true));
+	}
+	private static void assertBudget(String name, ParserSupport p, String input, double budget) {
+		final double actual = bytesPerChar(p, input);
+		assertTrue(String.format("%s allocated %.3f bytes/char (budget: %.3f)", name, actual, budget),
+				actual <= budget);
+	}
+
+	@Test
+	public void testCharsWhileIn() {
+		assertBudget("charsWhileIn", Parsers.charsWhileIn(CharClass.alphabetic()).then(Parsers.eof()),
+				repeat("abcxyz", LENGTH), 0.1);
+	}
+
+	@Test
+	public void testKeyword() {
+		final String word = repeat("keyword", LENGTH);
+		assertBudget("keyword", Parsers.keyword(word).then(Parsers.eof()), word, 0.1);
+	}
+
+	@Test
+	public void testOr() {
+		assertBudget("or", Parsers.keyword("ab").or(Parsers.keyword("ac")).rep().then(Parsers.eof()),
+				repeat("acab", LENGTH), 0.1);
+	}
+
+	@Test
+	public void testRepeat() {
+		assertBudget("rep", Parsers.exact('a').then(Parsers.exact('b')).rep().then(Parsers.eof()),
+				repeat("ab", LENGTH), 0.1);
+	}
+
+	@Test
+	public void testCapture() {
+		// 読み取った文字列の分の割り当て（1文字あたり1〜2バイト）だけが許容される
+		assertBudget("capture", Parsers.charsWhileIn(CharClass.alphabetic()).val().then(Parsers.eof()),
+				repeat("abcxyz", LENGTH), 4.0);
+	}
+}
@@ -0,0 +1,82 @@
+package org.unclazz.parsec;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+import org.junit.Test;
+
+public class ByteBufferReaderTest {
+	private static final Charset utf8 = Charset.forName("utf-8");
+
+	private ByteBufferReader create(String text, Charset charset) {
+		return new ByteBufferReader(ByteBuffer.wrap(text.getBytes(charset)), charset);
+	}
+	private String repeat(String unit, int length) {
+		final StringBuilder buff = new StringBuilder(length);
+		while (buff.length() < length) buff.append(unit);
+		return buff.substring(0, length);
+	}
+
+	@Test
+	public void testReadToEnd_empty() throws IOException {
+		final ByteBufferReader r = create("", utf8);
+		assertTrue(r.noRemaining());
+		assertThat(r.readToEnd(), is(nullValue()));
+	}
+
+	@Test
+	public void testReadToEnd_ascii() throws IOException {
+		// ASCII文字のみからなるウィンドウはデコードされずに読み取られる
+		final String text = repeat("{\"a\": 1}\r\n", ByteSourceReader.WINDOW_SIZE * 3 + 7);
+		final ByteBufferReader r = create(text, utf8);
+		assertThat(r.readToEnd(), is(text));
+		assertThat(r.position().line(), is(text.length() / 10 + 1));
+	}
+
+	@Test
+	public void testReadToEnd_mixed() throws IOException {
+		// ASCII文字のみのウィンドウとマルチバイト文字を含むウィンドウが混在する
+		final String ascii = repeat("abc", ByteSourceReader.WINDOW_SIZE * 2);
+		final String text = ascii + repeat("あ𩸽", 3 * (ByteSourceReader.WINDOW_SIZE / 2 + 1)) + ascii;
+		final ByteBufferReader r = create(text, utf8);
+		assertThat(r.readToEnd(), is(text));
+		assertTrue(r.noRemaining());
+	}
+
+	@Test
+	public void testReadToEnd_notAsciiCompatible() throws IOException {
+		final Charset utf16 = Charset.forName("utf-16le");
+		final String text = repeat("abcあ", ByteSourceReader.WINDOW_SIZE + 3);
+		final ByteBufferReader r = create(text, utf16);
+		assertThat(r.readToEnd(), is(text));
+	}
+
+	@Test
+	public void testReset_acrossWindows() throws IOException {
+		final String text = repeat("x", ByteSourceReader.WINDOW_SIZE - 1) + "あ" + repeat("y", ByteSourceReader.WINDOW_SIZE * 5);
+		final ByteBufferReader r = create(text, utf8);
+		r.mark();
+		for (int i = 0; i < ByteSourceReader.WINDOW_SIZE * 5; i ++) r.read();
+		assertThat(r.capture(), is(text.substring(0, ByteSourceReader.WINDOW_SIZE * 5)));
+		r.reset(true);
+		assertThat(r.readToEnd(), is(text));
+	}
+
+	@Test
+	public void testTextReaderFromByteBuffer() throws IOException {
+		final ByteBuffer buff = ByteBuffer.wrap("__abc あ".getBytes(utf8));
+		buff.position(2);
+		final TextReader tr = TextReader.from(buff, utf8);
+		buff.position(0);
+
+		final ValResult<String> r = Parsers.charsWhileIn(CharClass.alphabetic(), 1).val()
+				.then(Parsers.space()).then(Parsers.exact('あ')).parse(tr);
+		assertTrue(r.isSuccessful());
+		assertThat(r.value(), is("abc"));
+		assertThat(r.end().index(), is(5));
+	}
+}
@@ -0,0 +1,70 @@
+package org.unclazz.parsec;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.hamcrest.CoreMatchers.*;
+
+import org.junit.Test;
+
+public class CaptureSliceParserTest {
+
+	@Test
+	public void testParseTextReader() throws IOException {
+		final ValParser<CharSequence> p_a_rep = Parsers.exact('a').rep().valSlice();
+		
+		// Act
+		final ValResult<CharSequence> r_a_rep_bbbbb = p_a_rep.parse("bbbbb");
+		final ValResult<CharSequence> r_a_rep_aabbb = p_a_rep.parse("aabbb");
+		
+		// Assert
+		assertThat(r_a_rep_bbbbb.isSuccessful(), is(true));
+		assertThat(r_a_rep_bbbbb.value().length(), is(0));
+		assertThat(r_a_rep_aabbb.isSuccessful(), is(true));
+		assertThat(r_a_rep_aabbb.value().toString(), is("aa"));
+		assertThat(r_a_rep_aabbb.value().charAt(1), is('a'));
+		assertThat(r_a_rep_aabbb.value().subSequence(1, 2).toString(), is("a"));
+		assertThat(r_a_rep_aabbb.end().index(), is(2));
+	}
+	
+	@Test
+	public void testParseTextReader_hashCodeAndEquals() throws IOException {
+		final ValParser<CharSequence> p = Parsers.charsWhileIn(CharClass.alphabetic(), 1).valSlice();
+		final CharSequence s0 = p.parse("hello world").value();
+		final CharSequence s1 = p.parse("hello").value();
+		
+		assertThat(s0.hashCode(), is("hello".hashCode()));
+		assertThat(s0, is(s1));
+		assertThat(s0, not(p.parse("world").value()));
+	}
+	
+	@Test
+	public void testParseTextReader_map() throws IOException {
+		final ValParser<Integer> p = Parsers.charsWhileIn(CharClass.numeric(), 1).valSlice().map(Mappers::digits);
+		assertThat(p.parse("1234").value(), is(1234));
+	}
+	
+	@Test
+	public void testParseTextReader_pinnedUntilParseEnds() throws IOException {
+		// カットされた選択肢の内側でキャプチャしたスライスが参照する文字も
+		// 後続のパーサーが読み取りを続ける間、パースが終了するまでは保持される
+		final int size = ResetReader.SEGMENT_SIZE * 3;
+		final StringBuilder text = new StringBuilder("x");
+		for (int i = 0; i < size; i ++) text.append('a');
+		for (int i = 0; i < size; i ++) text.append('b');
+		final ValParser<CharSequence> p = Parsers.exact('x').cut()
+				.then(Parsers.exact('a').rep().valSlice())
+				.then(Parsers.exact('b').rep())
+				.or(Parsers.exact('y').valSlice());
+		final ResetReader r = new ResetReader(new StringReader(text.toString()));
+		
+		final ValResult<CharSequence> res = p.parse(r);
+		
+		assertThat(res.value().length(), is(size));
+		assertThat(res.value().charAt(0), is('a'));
+		assertThat(res.value().charAt(size - 1), is('a'));
+		assertThat(r.segmentCount(), is(7));
+	}
+}
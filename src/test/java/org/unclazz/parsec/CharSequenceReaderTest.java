@@ -0,0 +1,275 @@
+package org.unclazz.parsec;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+public class CharSequenceReaderTest {
+
+	private CharSequenceReader create(String text) {
+		return new CharSequenceReader(text);
+	}
+	
+	@Test
+	public final void testMark() throws IOException {
+		final CharSequenceReader r = create("01234");
+		
+		// 1度目のマーク
+		r.mark();
+		assertThat(r.read(), is('0' - 0));
+		assertThat(r.read(), is('1' - 0));
+		
+		// リセットすると1度目のマークに戻る
+		r.reset();
+		assertThat(r.read(), is('0' - 0));
+		assertThat(r.read(), is('1' - 0));
+		
+		// 何度リセットしても1度目のマークに戻る
+		r.reset();
+		assertThat(r.read(), is('0' - 0));
+
+		// 2度目のマーク
+		r.mark();
+		assertThat(r.read(), is('1' - 0));
+		assertThat(r.read(), is('2' - 0));
+		
+		// リセットすると2度目のマークに戻る
+		r.reset();
+		assertThat(r.read(), is('1' - 0));
+		
+		// マークを解除してもリセットはかからない
+		r.unmark();
+		assertThat(r.read(), is('2' - 0));
+		
+		// 2度目のマークを解除したのでリセットで1度目のマークに戻る
+		r.reset();
+		assertThat(r.read(), is('0' - 0));
+		assertThat(r.read(), is('1' - 0));
+	}
+
+	@Test
+	public final void testUnmark() throws IOException {
+		final CharSequenceReader r = create("01234");
+		
+		// 空振りのマーク解除オペ（何も起きない）
+		r.unmark();
+		
+		// 1度目のマーク
+		r.mark();
+		assertThat(r.read(), is('0' - 0));
+		assertThat(r.read(), is('1' - 0));
+		
+		// マークを解除してもリセットはかからない
+		r.unmark();
+		assertThat(r.read(), is('2' - 0));
+		
+		// マークを解除したのでリセットは空振りする
+		r.reset();
+		assertThat(r.read(), is('3' - 0));
+		assertThat(r.read(), is('4' - 0));
+	}
+
+	@Test
+	public final void testCaptureBoolean() throws IOException {
+		final CharSequenceReader r = create("01234");
+		
+		assertThat(r.capture(true), is(nullValue()));
+		
+		// 1度目のマーク
+		r.mark();
+		assertThat(r.read(), is('0' - 0));
+		assertThat(r.read(), is('1' - 0));
+		assertThat(r.capture(true), is("01"));
+		
+		// マークは解除されておりリセットは空振りする
+		r.reset();
+		assertThat(r.read(), is('2' - 0));
+	}
+
+	@Test
+	public final void testCapture() throws IOException {
+		final CharSequenceReader r = create("01234");
+		
+		assertThat(r.capture(), is(nullValue()));
+		
+		// 1度目のマーク
+		r.mark();
+		assertThat(r.capture(), is(""));
+		assertThat(r.read(), is('0' - 0));
+		assertThat(r.capture(), is("0"));
+		assertThat(r.read(), is('1' - 0));
+		assertThat(r.capture(), is("01"));
+		
+		// リセットすると1度目のマークに戻る
+		r.reset();
+		assertThat(r.capture(), is(""));
+		assertThat(r.read(), is('0' - 0));
+		assertThat(r.read(), is('1' - 0));
+		assertThat(r.capture(), is("01"));
+		
+		// 何度リセットしても1度目のマークに戻る
+		r.reset();
+		assertThat(r.read(), is('0' - 0));
+		assertThat(r.capture(), is("0"));
+
+		// 2度目のマーク
+		r.mark();
+		assertThat(r.read(), is('1' - 0));
+		assertThat(r.read(), is('2' - 0));
+		assertThat(r.capture(), is("12"));
+		
+		// リセットすると2度目のマークに戻る
+		r.reset();
+		assertThat(r.read(), is('1' - 0));
+		
+		// マークを解除してもリセットはかからない、しかしキャプチャ結果には影響する
+		r.unmark();
+		assertThat(r.read(), is('2' - 0));
+		assertThat(r.capture(), is("012"));
+	}
+
+	@Test
+	public final void testReset() throws IOException {
+		final CharSequenceReader r = create("01234");
+		
+		// 空振りのリセットオペ（何も起きない）
+		r.reset();
+		
+		// 1度目のマーク
+		r.mark();
+		assertThat(r.read(), is('0' - 0));
+		assertThat(r.read(), is('1' - 0));
+		
+		// リセットすると1度目のマークに戻る
+		r.reset();
+		assertThat(r.read(), is('0' - 0));
+		assertThat(r.read(), is('1' - 0));
+		
+		// 何度リセットしても1度目のマークに戻る
+		r.reset();
+		r.reset();
+		r.reset();
+		assertThat(r.read(), is('0' - 0));
+
+		// 2度目のマーク
+		r.mark();
+		assertThat(r.read(), is('1' - 0));
+		assertThat(r.read(), is('2' - 0));
+		
+		// リセットすると2度目のマークに戻る
+		r.reset();
+		assertThat(r.read(), is('1' - 0));
+		
+		// マークを解除してもリセットはかからない
+		r.unmark();
+		assertThat(r.read(), is('2' - 0));
+		
+		// 2度目のマークを解除したのでリセットで1度目のマークに戻る
+		r.reset();
+		assertThat(r.read(), is('0' - 0));
+		assertThat(r.read(), is('1' - 0));
+	}
+
+	@Test
+	public final void testResetBoolean() throws IOException {
+		final CharSequenceReader r = create("01234");
+		
+		// 空振りのリセットオペ（何も起きない）
+		r.reset(true);
+		
+		// 1度目のマーク
+		r.mark();
+		assertThat(r.read(), is('0' - 0));
+		assertThat(r.read(), is('1' - 0));
+		
+		// リセットすると1度目のマークに戻る
+		r.reset(true);
+		assertThat(r.read(), is('0' - 0));
+		assertThat(r.read(), is('1' - 0));
+		
+		// すでにマークは解除されているのでリセットは空振り
+		r.reset();
+		assertThat(r.read(), is('2' - 0));
+		assertThat(r.read(), is('3' - 0));
+	}
+
+	@Test
+	public final void testResetPosition() throws IOException {
+		final CharSequenceReader r = create("0\n1\r\n2");
+		
+		r.read();
+		r.mark();
+		r.read();
+		r.read();
+		assertThat(r.position().line(), is(2));
+		assertThat(r.position().column(), is(2));
+		
+		// リセットすると行・列・インデックスもマークした時点のものに戻る
+		r.reset(true);
+		assertThat(r.position().line(), is(1));
+		assertThat(r.position().column(), is(2));
+		assertThat(r.position().index(), is(1));
+		assertThat(r.readToEnd(), is("\n1\r\n2"));
+		assertThat(r.position().line(), is(3));
+		assertThat(r.position().index(), is(6));
+	}
+
+	@Test
+	public final void testNestedMark() throws IOException {
+		final CharSequenceReader r = create("0123456789");
+		
+		// マークのスタックの初期容量を超えてもマークとリセットは正しく機能する
+		for (int i = 0; i < 10; i ++) {
+			r.mark();
+			r.read();
+		}
+		for (int i = 9; i >= 0; i --) {
+			r.reset(true);
+			assertThat(r.peek(), is('0' + i));
+		}
+		assertThat(r.capture(), is(nullValue()));
+	}
+
+	@Test
+	public final void testSkipWhile() throws IOException {
+		final CharSequenceReader r = create("  \r\n \r x");
+		
+		assertThat(r.skipWhile(CharClass.spaceAndControl()), is(7));
+		assertThat(r.position().index(), is(7));
+		assertThat(r.position().line(), is(3));
+		assertThat(r.position().column(), is(2));
+		assertThat(r.skipWhile(CharClass.spaceAndControl()), is(0));
+		assertThat(r.read(), is('x' - 0));
+		assertThat(r.skipWhile(CharClass.spaceAndControl()), is(0));
+	}
+
+	@Test
+	public final void testReadWhile() throws IOException {
+		final CharSequenceReader r = create("abc123");
+		final StringBuilder buff = new StringBuilder();
+		
+		assertThat(r.readWhile(CharClass.alphabetic(), buff), is(3));
+		assertThat(buff.toString(), is("abc"));
+		assertThat(r.readWhile(CharClass.alphabetic(), buff), is(0));
+		assertThat(r.readWhile(CharClass.numeric(), buff), is(3));
+		assertThat(buff.toString(), is("abc123"));
+		assertTrue(r.noRemaining());
+	}
+
+	@Test
+	public final void testIndexOf() throws IOException {
+		final CharSequenceReader r = create("abcabc");
+		
+		assertThat(r.indexOf('a'), is(0));
+		assertThat(r.indexOf('c'), is(2));
+		assertThat(r.indexOf('x'), is(-1));
+		r.read();
+		assertThat(r.indexOf('a'), is(2));
+		
+		// 文字位置は前進しない
+		assertThat(r.position().index(), is(1));
+	}
+}
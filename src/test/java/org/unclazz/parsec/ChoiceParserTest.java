@@ -0,0 +1,122 @@
+package org.unclazz.parsec;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class ChoiceParserTest {
+
+	@Test
+	public void testParseString() {
+		final Parser p = Parsers.choice(Parsers.keyword("01"), Parsers.keyword("02"), Parsers.keyword("1"));
+		
+		assertThat(p.parse("01_").isSuccessful(), is(true));
+		assertThat(p.parse("02_").end().index(), is(2));
+		assertThat(p.parse("1_").end().index(), is(1));
+		
+		final Result r = p.parse("03_");
+		assertThat(r.isSuccessful(), is(false));
+		assertThat(r.canBacktrack(), is(true));
+		// 失敗した場合は最後の選択肢の結果が返される
+		assertThat(r.message(), is(Parsers.keyword("1").parse("03_").message()));
+	}
+	
+	@Test
+	public void testParseString_cut() {
+		final Parser p_0cut1 = Parsers.exact('0').cut().then(Parsers.exact('1'));
+		final Parser p_02 = Parsers.keyword("02");
+		final Parser p = Parsers.choice(p_0cut1, p_02);
+		
+		final Result r = p.parse("02_");
+		
+		// 選択肢の中でカットされた場合は後続の選択肢を試行しない
+		assertThat(r.isSuccessful(), is(false));
+		assertThat(r.canBacktrack(), is(true));
+		assertThat(r.end().index(), is(1));
+		// 最後の選択肢のカットは外側に及ばない
+		final Parser q = Parsers.choice(p_02, p_0cut1).or(Parsers.keyword("0x"));
+		assertThat(q.parse("0x").isSuccessful(), is(true));
+	}
+	
+	@Test
+	public void testParseString_sameAsOr() {
+		final Parser a = Parsers.exact('a').then(Parsers.exact('b').opt());
+		final Parser b = Parsers.exact('a').cut().then(Parsers.exact('c'));
+		final Parser c = Parsers.charIn("ad").rep(2);
+		final Parser choice = Parsers.choice(a, b, c);
+		final Parser or = a.or(b.or(c));
+		
+		for (final String s : new String[] { "ab", "ac", "ad", "dd", "x", "", "a" }) {
+			final Result r0 = choice.parse(s);
+			final Result r1 = or.parse(s);
+			assertThat(s, r0.isSuccessful(), is(r1.isSuccessful()));
+			assertThat(s, r0.canBacktrack(), is(r1.canBacktrack()));
+			assertThat(s, r0.end().index(), is(r1.end().index()));
+			assertThat(s, r0.message(), is(r1.message()));
+		}
+	}
+	
+	@Test
+	public void testParseString_dispatch() throws IOException {
+		// 次の文字から始まりえない選択肢は試行されない
+		final Parser p = Parsers.choice(Parsers.keyword("true"), Parsers.keyword("false"),
+				Parsers.keyword("null"), Parsers.keyword("あ"), Parsers.charIn(CharClass.numeric()));
+		final List<String> log = new ArrayList<>();
+		final Context ctx = TextReader.from("あ").toContext().configure(c -> c.setLogAppender(log::add));
+		
+		final Result r = p.parse(ctx);
+		
+		assertThat(r.isSuccessful(), is(true));
+		assertThat(log.stream().filter(a -> a.contains("+ Keyword")).count(), is(1L));
+	}
+	
+	@Test
+	public void testParseString_flatten() {
+		final Parser p = Parsers.choice(Parsers.exact('a'), Parsers.exact('b').or(Parsers.exact('c').or(Parsers.exact('d'))));
+		
+		assertThat(((ChoiceParser) p).params().get("alternatives") instanceof Parser[], is(true));
+		assertThat(((Parser[]) ((ChoiceParser) p).params().get("alternatives")).length, is(4));
+		assertThat(p.parse("d").isSuccessful(), is(true));
+		
+		// 最後以外の選択肢は平坦化しない
+		final Parser q = Parsers.choice(Parsers.exact('a').or(Parsers.exact('b')), Parsers.exact('c'));
+		assertThat(((Parser[]) ((ChoiceParser) q).params().get("alternatives")).length, is(2));
+	}
+	
+	@Test
+	public void testParseString_cutInNestedOr() {
+		final Parser x = Parsers.exact('x');
+		final Parser y = Parsers.exact('a').cut().then(Parsers.exact('b'));
+		
+		// 入れ子のorの中でのカットによる失敗は、orと同様に後続の選択肢の試行を妨げない
+		final Parser or = x.or(y).or(Parsers.keyword("ac"));
+		final Parser choice = Parsers.choice(x.or(y), Parsers.keyword("ac"));
+		assertThat(or.parse("ac").isSuccessful(), is(true));
+		assertThat(choice.parse("ac").isSuccessful(), is(true));
+		assertThat(choice.parse("ac").end().index(), is(2));
+		
+		// 最後の選択肢の中でのカットは平坦化しても同じ結果となる
+		final Parser choice2 = Parsers.choice(Parsers.keyword("ac"), x.or(y));
+		assertThat(choice2.parse("ax").isSuccessful(), is(Parsers.keyword("ac").or(x.or(y)).parse("ax").isSuccessful()));
+	}
+	
+	@Test
+	public void testParseString_predictionWithNullableCut() {
+		// 文字を読み取らずに到達しうるカットを含む選択肢は、orと同様に次の文字にかかわらず試行される
+		final Parser a = Parsers.space().cut().then(Parsers.exact('a'));
+		final Parser choice = Parsers.choice(a, Parsers.exact('b'));
+		final Parser or = a.or(Parsers.exact('b'));
+		
+		final Result choice_r = choice.parse("b");
+		
+		assertThat(choice_r.isSuccessful(), is(false));
+		assertThat(choice_r.end().index(), is(0));
+		assertThat(choice_r.isSuccessful(), is(or.parse("b").isSuccessful()));
+		assertThat(choice.parse("a").isSuccessful(), is(true));
+	}
+}
@@ -0,0 +1,55 @@
+package org.unclazz.parsec;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+
+import org.junit.Test;
+
+public class ChoiceValParserTest {
+
+	@Test
+	public void testParseString() {
+		final ValParser<Integer> p = Parsers.choice(
+				Parsers.keyword("one").means(1),
+				Parsers.keyword("two").means(2),
+				Parsers.keyword("three").means(3),
+				Parsers.charsWhileIn(CharClass.numeric(), 1).map(Mappers::digits));
+		
+		assertThat(p.parse("one").value(), is(1));
+		assertThat(p.parse("two").value(), is(2));
+		assertThat(p.parse("three").value(), is(3));
+		assertThat(p.parse("42").value(), is(42));
+		assertThat(p.parse("four").isSuccessful(), is(false));
+		assertThat(p.parse("four").canBacktrack(), is(true));
+	}
+	
+	@Test
+	public void testParseString_sameAsOr() {
+		final ValParser<String> a = Parsers.exact('a').then(Parsers.exact('b').opt()).val();
+		final ValParser<String> b = Parsers.exact('a').cut().then(Parsers.exact('c')).val();
+		final ValParser<String> c = Parsers.charIn("ad").rep(2).val();
+		final ValParser<String> choice = Parsers.choice(a, b, c);
+		final ValParser<String> or = a.or(b.or(c));
+		
+		for (final String s : new String[] { "ab", "ac", "ad", "dd", "x", "", "a" }) {
+			final ValResult<String> r0 = choice.parse(s);
+			final ValResult<String> r1 = or.parse(s);
+			assertThat(s, r0.isSuccessful(), is(r1.isSuccessful()));
+			assertThat(s, r0.canBacktrack(), is(r1.canBacktrack()));
+			assertThat(s, r0.end().index(), is(r1.end().index()));
+			assertThat(s, r0.message(), is(r1.message()));
+			if (r0.isSuccessful()) assertThat(s, r0.value(), is(r1.value()));
+		}
+	}
+	
+	@Test
+	public void testParseString_cutInNestedOr() {
+		final ValParser<String> x = Parsers.exact('x').val();
+		final ValParser<String> y = Parsers.exact('a').cut().then(Parsers.exact('b')).val();
+		final ValParser<String> ac = Parsers.keyword("ac").val();
+		
+		// 入れ子のorの中でのカットによる失敗は、orと同様に後続の選択肢の試行を妨げない
+		assertThat(x.or(y).or(ac).parse("ac").value(), is("ac"));
+		assertThat(Parsers.choice(x.or(y), ac).parse("ac").value(), is("ac"));
+	}
+}
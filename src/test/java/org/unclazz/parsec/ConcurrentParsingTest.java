@@ -0,0 +1,183 @@
+package org.unclazz.parsec;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.*;
+
+import org.junit.Test;
+import org.unclazz.parsec.util.ParserFactory;
+import org.unclazz.parsec.util.ValParserFactory;
+
+public class ConcurrentParsingTest {
+	private static final int THREADS = 64;
+	private static final int ROUNDS = 50;
+
+	/**
+	 * すべてのスレッドの準備ができてから一斉に処理を開始し、各スレッドの結果を返します。
+	 * <p>文法の遅延初期化が行われる最初のパースをできるだけ競合させるため、開始はラッチで揃えます。</p>
+	 * @param task 処理
+	 * @return 各スレッドの結果
+	 * @throws Exception 処理から例外がスローされた場合
+	 */
+	private static <T> List<T> runConcurrently(Callable<T> task) throws Exception {
+		final ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		try {
+			final CountDownLatch ready = new CountDownLatch(THREADS);
+			final CountDownLatch start = new CountDownLatch(1);
+			final List<Future<T>> futures = new ArrayList<>();
+			for (int i = 0; i < THREADS; i ++) {
+				futures.add(pool.submit(() -> {
+					ready.countDown();
+					start.await();
+					return task.call();
+				}));
+			}
+			ready.await();
+			start.countDown();
+			final List<T> results = new ArrayList<>();
+			for (final Future<T> f : futures) results.add(f.get(60, TimeUnit.SECONDS));
+			return results;
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+	/**
+	 * 入れ子のリストを読み取る再帰的な文法を返します。
+	 * <p>呼び出しのたびに新しい遅延初期化パーサーが生成されるよう、ファクトリーは匿名クラスで指定します
+	 * （ラムダ式の場合は同じ呼び出し箇所から生成されたパーサーがキャッシュにより共有されるため）。</p>
+	 * @return 文法
+	 */
+	private static Parser listGrammar() {
+		final Parser[] list = new Parser[1];
+		final Parser atom = Parsers.choice(
+				Parsers.charsWhileIn(CharClass.numeric(), 1),
+				Parsers.charsWhileIn(CharClass.alphabetic(), 1),
+				Parsers.keyword("αβ"),
+				Parsers.exact('γ'),
+				Parsers.exact('(').then(Parsers.lazy(new ParserFactory() {
+					@Override
+					public Parser create() {
+						return list[0];
+					}
+				})).then(Parsers.exact(')')));
+		list[0] = atom.or(Parsers.exact('!').then(atom)).rep(Parsers.exact(','));
+		return list[0].then(Parsers.eof());
+	}
+	/**
+	 * 括弧と加算からなる式の値を計算する再帰的な文法を返します。
+	 * @return 文法
+	 */
+	private static ValParser<Integer> sumGrammar() {
+		final List<ValParser<Integer>> sum = new ArrayList<>();
+		final ValParser<Integer> factor = Parsers.charsWhileIn(CharClass.numeric(), 1).map(Integer::parseInt)
+				.or(Parsers.exact('(').then(Parsers.lazy(new ValParserFactory<Integer>() {
+					@Override
+					public ValParser<Integer> create() {
+						return sum.get(0);
+					}
+				})).then(Parsers.exact(')')));
+		sum.add(factor.rep(Parsers.exact('+')).map(a -> {
+			int tmp = 0;
+			for (final int i : a) tmp += i;
+			return tmp;
+		}));
+		return sum.get(0).then(Parsers.eof());
+	}
+	private static String listInput(int seed) {
+		final StringBuilder buff = new StringBuilder().append(seed);
+		for (int i = 0; i < seed % 7; i ++) {
+			buff.append(",(ab,αβ,(").append(i).append(",!γ),x)");
+		}
+		// 一部の入力は末尾が誤っているためパースに失敗する
+		return seed % 5 == 0 ? buff.append(",(δ)").toString() : buff.toString();
+	}
+	private static String sumInput(int seed) {
+		final StringBuilder buff = new StringBuilder().append(seed);
+		for (int i = 0; i < seed % 9; i ++) {
+			buff.append("+(").append(i).append("+(1+2))");
+		}
+		return buff.toString();
+	}
+	private static String describe(Result r) {
+		return r.isSuccessful() ? "success@" + r.end().index() : r.message() + "@" + r.end().index();
+	}
+
+	@Test
+	public void testParse_sharedGrammar() throws Exception {
+		// 単一のスレッドで別のインスタンスの文法を使って得た結果を期待値とする
+		final Parser reference = listGrammar();
+		final List<String> expected = new ArrayList<>();
+		for (int i = 0; i < ROUNDS; i ++) expected.add(describe(reference.parse(listInput(i))));
+
+		final Parser shared = listGrammar();
+		final List<List<String>> results = runConcurrently(() -> {
+			final List<String> actual = new ArrayList<>();
+			for (int i = 0; i < ROUNDS; i ++) actual.add(describe(shared.parse(listInput(i))));
+			return actual;
+		});
+
+		for (final List<String> actual : results) {
+			assertThat(actual, is(expected));
+		}
+		assertThat(expected.get(5).startsWith("success"), is(false));
+		assertThat(expected.get(6).startsWith("success"), is(true));
+	}
+
+	@Test
+	public void testParse_sharedValGrammar() throws Exception {
+		final ValParser<Integer> shared = sumGrammar();
+		final List<Boolean> results = runConcurrently(() -> {
+			for (int i = 0; i < ROUNDS; i ++) {
+				final ValResult<Integer> r = shared.parse(sumInput(i));
+				if (!r.isSuccessful() || r.value() != i + (i % 9) * ((i % 9) - 1) / 2 + (i % 9) * 3) return false;
+			}
+			return true;
+		});
+
+		assertThat(results, not(hasItem(false)));
+	}
+
+	@Test
+	public void testParse_sharedGrammarWithMemoization() throws Exception {
+		final Parser shared = listGrammar();
+		final String input = listInput(13);
+		final List<Boolean> results = runConcurrently(() -> {
+			for (int i = 0; i < ROUNDS; i ++) {
+				final Context ctx = TextReader.from(input).toContext().configure(c -> c.setMemoization(true));
+				if (!shared.parse(ctx).isSuccessful()) return false;
+			}
+			return true;
+		});
+
+		assertThat(results, not(hasItem(false)));
+	}
+
+	@Test
+	public void testLazy_instanceCache() throws Exception {
+		final List<Parser> results = runConcurrently(() -> Parsers.lazy(() -> Parsers.exact('a')));
+
+		for (final Parser p : results) {
+			assertThat(p, sameInstance(results.get(0)));
+		}
+	}
+
+	@Test
+	public void testCharClass_predefined() throws Exception {
+		final List<CharClass> results = runConcurrently(CharClass::hexDigit);
+
+		for (final CharClass c : results) {
+			assertThat(c, sameInstance(results.get(0)));
+			assertThat(c.contains('f'), is(true));
+			assertThat(c.contains('g'), is(false));
+		}
+	}
+}
@@ -0,0 +1,68 @@
+package org.unclazz.parsec;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.*;
+
+import org.junit.Test;
+
+public class FailureMessageTest {
+
+	@Test
+	public void testOf_message() {
+		assertThat(FailureMessage.of(null), is(nullValue()));
+		assertThat(FailureMessage.of("100%").toString(), is("100%"));
+	}
+
+	@Test
+	public void testToString_lazy() {
+		// 引数は最初に参照されたときに1度だけ文字列に変換される
+		final AtomicInteger count = new AtomicInteger();
+		final Object arg = new Object() {
+			@Override
+			public String toString() {
+				return "arg" + count.incrementAndGet();
+			}
+		};
+		final FailureMessage m = FailureMessage.of("%s expected.", new Object[] { arg });
+
+		assertThat(count.get(), is(0));
+		assertThat(m.toString(), is("arg1 expected."));
+		assertThat(m.toString(), is("arg1 expected."));
+		assertThat(count.get(), is(1));
+	}
+
+	@Test
+	public void testCharArg() {
+		assertThat(FailureMessage.charArg('a').toString(), is(ParsecUtility.charToString('a')));
+		assertThat(FailureMessage.charArg(-1).toString(), is(ParsecUtility.charToString(-1)));
+		assertThat(FailureMessage.charArg('\n').toString(), is(ParsecUtility.charToString('\n')));
+		assertThat(FailureMessage.charArg('あ').toString(), is(ParsecUtility.charToString('あ')));
+		assertThat(FailureMessage.charArg('a'), is(sameInstance(FailureMessage.charArg('a'))));
+	}
+
+	@Test
+	public void testMessage_parser() {
+		// 整形されたメッセージは従来どおりの内容となる
+		final Parser p = Parsers.exact('a').then(Parsers.keyword("bc"));
+
+		assertThat(p.parse("x").message(), is("'a'(97) expected but 'x'(120) found."));
+		assertThat(p.parse("abx").message(), is("'c'(99) expected but 'x'(120) found."));
+		assertThat(Parsers.eof().parse("a").message(), is("EOF expected but 'a'(97) found."));
+	}
+
+	@Test
+	public void testMessage_shared() {
+		// 子パーサーの失敗メッセージは整形されずにそのまま引き継がれる
+		final Parser p = Parsers.exact('a').then(Parsers.exact('b'));
+		final ResultCore r0 = Parsers.exact('a').failure("%s expected.", "a");
+		final ResultCore r1 = p.failure(r0);
+
+		assertThat(r1.failureMessage(), is(sameInstance(r0.failureMessage())));
+		assertThat(r1.allowBacktrack(false).failureMessage(), is(sameInstance(r0.failureMessage())));
+		assertThat(r1.attachValue(1).failureMessage(), is(sameInstance(r0.failureMessage())));
+		assertThat(r1.message(), is("a expected."));
+	}
+}
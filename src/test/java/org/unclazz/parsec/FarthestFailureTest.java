@@ -0,0 +1,80 @@
+package org.unclazz.parsec;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.hamcrest.CoreMatchers.*;
+
+import org.junit.Test;
+
+public class FarthestFailureTest {
+
+	@Test
+	public void testFarthestFailure_merged() throws IOException {
+		// 同じ位置で失敗した選択肢の期待された要素がまとめられる
+		final CharClass cd = CharClass.anyOf("cd");
+		final Parser p = Parsers.keyword("ab").or(Parsers.exact('a').then(Parsers.charIn(cd)))
+				.or(Parsers.exact('x'));
+		final Context ctx = TextReader.from("az").toContext();
+
+		final Result r = p.parse(ctx);
+		final FarthestFailure f = ctx.farthestFailure();
+
+		assertThat(r.isSuccessful(), is(false));
+		assertThat(r.message(), is("'x'(120) expected but 'a'(97) found."));
+		assertThat(f.position().index(), is(1));
+		assertThat(f.expected(), is(Arrays.asList("'b'(98)", "a member of class (" + cd + ")")));
+		assertThat(f.message(), is("'b'(98) or a member of class (" + cd + ") expected but 'z'(122) found."));
+	}
+
+	@Test
+	public void testFarthestFailure_farther() throws IOException {
+		// より遠い位置の失敗が記録されるとそれまでの記録は破棄される
+		final Parser p = Parsers.exact('a').then(Parsers.exact('b')).then(Parsers.exact('c'))
+				.or(Parsers.exact('a').then(Parsers.exact('x')));
+		final Context ctx = TextReader.from("abd").toContext();
+
+		p.parse(ctx);
+		final FarthestFailure f = ctx.farthestFailure();
+
+		assertThat(f.expected(), is(Arrays.asList("'c'(99)")));
+		assertThat(f.message(), is("'c'(99) expected but 'd'(100) found."));
+	}
+
+	@Test
+	public void testFarthestFailure_duplicated() throws IOException {
+		// 次の文字により試行が省略された選択肢もそのFIRST集合が記録され、同じ要素は1つにまとめられる
+		final Parser p = Parsers.exact('a').or(Parsers.exact('a').then(Parsers.exact('b'))).or(Parsers.eof())
+				.then(Parsers.eof());
+		final Context ctx = TextReader.from("c").toContext();
+
+		p.parse(ctx);
+		final FarthestFailure f = ctx.farthestFailure();
+
+		assertThat(f.position().index(), is(0));
+		assertThat(f.expected(), is(Arrays.asList("'a'(97)", "EOF")));
+		assertThat(f.message(), is("'a'(97) or EOF expected but 'c'(99) found."));
+	}
+
+	@Test
+	public void testFarthestFailure_noExpected() throws IOException {
+		final Parser p = Parsers.exact('a').then(Parsers.not(Parsers.exact('b')));
+		final Context ctx = TextReader.from("ab").toContext();
+
+		p.parse(ctx);
+
+		assertThat(ctx.farthestFailure().expected().isEmpty(), is(true));
+		assertThat(ctx.farthestFailure().message(), is("invalid token found."));
+	}
+
+	@Test
+	public void testFarthestFailure_none() throws IOException {
+		final Context ctx = TextReader.from("ab").toContext();
+
+		Parsers.keyword("ab").parse(ctx);
+
+		assertThat(ctx.farthestFailure(), is(nullValue()));
+	}
+}
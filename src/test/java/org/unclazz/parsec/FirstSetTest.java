@@ -0,0 +1,80 @@
+package org.unclazz.parsec;
+
+import static org.junit.Assert.*;
+
+import static org.hamcrest.CoreMatchers.*;
+
+import org.junit.Test;
+import org.unclazz.parsec.util.ParserFactory;
+
+public class FirstSetTest {
+
+	@Test
+	public void testFirst_exactAndKeyword() {
+		final FirstSet exact = Parsers.exact('a').first();
+		final FirstSet keyword = Parsers.keyword("bc").first();
+		final FirstSet keywordIn = Parsers.keywordIn("true", "false", "null").first();
+		
+		assertThat(exact.canStartWith('a'), is(true));
+		assertThat(exact.canStartWith('b'), is(false));
+		assertThat(exact.nullable(), is(false));
+		assertThat(keyword.canStartWith('b'), is(true));
+		assertThat(keyword.canStartWith('c'), is(false));
+		assertThat(keywordIn.canStartWith('t'), is(true));
+		assertThat(keywordIn.canStartWith('f'), is(true));
+		assertThat(keywordIn.canStartWith('n'), is(true));
+		assertThat(keywordIn.canStartWith('x'), is(false));
+	}
+	
+	@Test
+	public void testFirst_sequence() {
+		final FirstSet seq = Parsers.exact('a').opt().then(Parsers.charIn("bc")).then(Parsers.exact('d')).first();
+		final FirstSet nullableSeq = Parsers.exact('a').opt().then(Parsers.exact('b').rep()).first();
+		
+		assertThat(seq.canStartWith('a'), is(true));
+		assertThat(seq.canStartWith('b'), is(true));
+		assertThat(seq.canStartWith('c'), is(true));
+		assertThat(seq.canStartWith('d'), is(false));
+		assertThat(seq.nullable(), is(false));
+		assertThat(nullableSeq.nullable(), is(true));
+		assertThat(nullableSeq.canStartWith('x'), is(true));
+	}
+	
+	@Test
+	public void testFirst_or() {
+		final FirstSet or = Parsers.exact('a').or(Parsers.keyword("bc")).val().first();
+		
+		assertThat(or.canStartWith('a'), is(true));
+		assertThat(or.canStartWith('b'), is(true));
+		assertThat(or.canStartWith('c'), is(false));
+		// データソースの終端では常に成功しうるものとする
+		assertThat(or.canStartWith(-1), is(true));
+	}
+	
+	@Test
+	public void testFirst_unknown() {
+		final Parser custom = new Parser() {
+			@Override
+			protected ResultCore doParse(Context ctx) {
+				return success();
+			}
+		};
+		
+		assertThat(custom.first().unknown(), is(true));
+		assertThat(custom.then(Parsers.exact('a')).first().unknown(), is(true));
+		assertThat(Parsers.exact('a').then(custom).first().unknown(), is(false));
+		assertThat(Parsers.exact('a').or(custom).first().unknown(), is(true));
+	}
+	
+	@Test
+	public void testFirst_recursive() {
+		final Parser[] holder = new Parser[1];
+		final Parser paren = Parsers.exact('(').then(Parsers.lazy((ParserFactory) () -> holder[0]).opt()).then(Parsers.exact(')'));
+		holder[0] = paren.rep();
+		
+		final FirstSet first = holder[0].first();
+		
+		assertThat(first.canStartWith('('), is(true));
+		assertThat(first.nullable(), is(true));
+	}
+}
@@ -0,0 +1,115 @@
+package org.unclazz.parsec;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.CoreMatchers.*;
+
+import org.junit.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class FlightRecorderTest {
+	private static final Parser AS = Parsers.charIn("a").rep();
+	private static final Parser P = AS.then(Parsers.exact('x')).or(AS.then(Parsers.eof()));
+
+	private static String as(int length) {
+		final StringBuilder buff = new StringBuilder();
+		for (int i = 0; i < length; i ++) buff.append('a');
+		return buff.toString();
+	}
+	private static List<RecordedEvent> record(Context ctx, Parser p) throws IOException {
+		final Path file = Files.createTempFile("parsec", ".jfr");
+		try (final Recording r = new Recording()) {
+			r.enable("org.unclazz.parsec.ParseSession");
+			r.enable("org.unclazz.parsec.Backtrack");
+			r.enable("org.unclazz.parsec.BufferGrowth");
+			r.start();
+			p.parse(ctx);
+			r.stop();
+			r.dump(file);
+			return RecordingFile.readAllEvents(file).stream()
+					.filter(e -> e.getEventType().getName().startsWith("org.unclazz.parsec."))
+					.collect(Collectors.toList());
+		} finally {
+			Files.delete(file);
+		}
+	}
+	private static List<RecordedEvent> filter(List<RecordedEvent> events, String name) {
+		return events.stream().filter(e -> e.getEventType().getName().equals("org.unclazz.parsec." + name))
+				.collect(Collectors.toList());
+	}
+
+	@Test
+	public void testEvents() throws IOException {
+		assumeTrue(FlightRecorderSupport.available());
+		final Context ctx = TextReader.from(new StringReader(as(100000))).toContext()
+				.configure(c -> c.setFlightRecording(true));
+
+		final List<RecordedEvent> events = record(ctx, P);
+		final List<RecordedEvent> sessions = filter(events, "ParseSession");
+		final List<RecordedEvent> backtracks = filter(events, "Backtrack");
+
+		assertThat(sessions.size(), is(1));
+		assertThat(sessions.get(0).getString("parser"), is("Or"));
+		assertThat(sessions.get(0).getInt("length"), is(100000));
+		assertThat(sessions.get(0).getBoolean("successful"), is(true));
+		assertThat(sessions.get(0).getInt("farthestFailureOffset"), is(100000));
+		assertThat(backtracks.size(), is(1));
+		assertThat(backtracks.get(0).getString("parser"), is("Or"));
+		assertThat(backtracks.get(0).getInt("rewound"), is(100000));
+		assertThat(filter(events, "BufferGrowth").isEmpty(), is(false));
+	}
+
+	@Test
+	public void testEvents_threshold() throws IOException {
+		assumeTrue(FlightRecorderSupport.available());
+		final Context ctx = TextReader.from(as(100)).toContext()
+				.configure(c -> c.setFlightRecording(true).setBacktrackEventThreshold(101));
+
+		final List<RecordedEvent> events = record(ctx, P);
+
+		assertThat(filter(events, "ParseSession").size(), is(1));
+		assertThat(filter(events, "Backtrack").isEmpty(), is(true));
+	}
+
+	@Test
+	public void testEvents_bufferGrowthThreshold() throws IOException {
+		assumeTrue(FlightRecorderSupport.available());
+		final Context ctx = TextReader.from(new StringReader(as(100000))).toContext()
+				.configure(c -> c.setBufferGrowthEventThreshold(1 << 20));
+
+		final List<RecordedEvent> events = record(ctx, P);
+
+		assertThat(filter(events, "BufferGrowth").isEmpty(), is(true));
+	}
+
+	@Test
+	public void testEvents_disabled() throws IOException {
+		assumeTrue(FlightRecorderSupport.available());
+		final Context ctx = TextReader.from(as(1000)).toContext();
+
+		final List<RecordedEvent> events = record(ctx, P);
+
+		assertThat(events.isEmpty(), is(true));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSetBacktrackEventThreshold_zero() {
+		TextReader.from("").toContext().configure(c -> c.setBacktrackEventThreshold(0));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSetBufferGrowthEventThreshold_zero() {
+		TextReader.from("").toContext().configure(c -> c.setBufferGrowthEventThreshold(0));
+	}
+}
@@ -0,0 +1,186 @@
+package org.unclazz.parsec;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.hamcrest.CoreMatchers.*;
+
+import org.junit.Test;
+
+public class GrammarCompilerTest {
+	// コンパイル可能と判定されるにもかかわらずソースコードを出力しない誤ったパーサー
+	static final class BrokenParser extends Parser {
+		@Override
+		protected ResultCore doParse(Context ctx) {
+			return success();
+		}
+		@Override
+		boolean compilable(GrammarCompiler compiler) {
+			return true;
+		}
+	}
+
+	private static void assertSameResults(Parser p, String... inputs) {
+		final Parser compiled = p.compile();
+		for (final String s : inputs) {
+			final Result r0 = p.parse(s);
+			final Result r1 = compiled.parse(s);
+			assertThat(s, r1.isSuccessful(), is(r0.isSuccessful()));
+			assertThat(s, r1.canBacktrack(), is(r0.canBacktrack()));
+			assertThat(s, r1.end().index(), is(r0.end().index()));
+			assertThat(s, r1.message(), is(r0.message()));
+		}
+	}
+
+	@Test
+	public void testCompile_number() {
+		final Parser digits = Parsers.charsWhileIn(CharClass.numeric(), 1);
+		final Parser p = Parsers.charIn("+-").opt().then(digits)
+				.then(Parsers.exact('.').then(digits).opt())
+				.then(Parsers.charIn("eE").then(Parsers.charIn("+-").opt()).then(digits).opt());
+
+		assertThat(GrammarCompiler.compile(p) instanceof CompiledParser, is(true));
+		assertSameResults(p, "0", "-12", "+3.14", "1.", "1.5e10", "1E-3", "1e", "-", ".5", "");
+	}
+
+	@Test
+	public void testCompile_repeat() {
+		final Parser p = Parsers.charIn("ab").rep(2, 3, Parsers.exact(','));
+		final Parser q = Parsers.keyword("ab").rep(2).then(Parsers.eof());
+
+		assertSameResults(p, "a", "a,b", "a,b,a", "a,b,a,b", "a,b,", "a,", "a,x", "");
+		assertSameResults(q, "abab", "ababab", "aba", "ab", "");
+	}
+
+	@Test
+	public void testCompile_choice() {
+		final Parser p = Parsers.choice(Parsers.keyword("true"), Parsers.keyword("false"),
+				Parsers.keyword("null"), Parsers.keyword("nul").then(Parsers.exact('!')));
+
+		assertSameResults(p, "true", "false", "null", "nul!", "nul", "tru", "x", "");
+	}
+
+	@Test
+	public void testCompile_complement() {
+		// 補集合の文字クラスはEOFも含むため、EOFでは文字位置を前進させずに成功する
+		final Parser p = Parsers.exact('"').then(Parsers.charNotIn("\"\\").rep(0, 3)).then(Parsers.exact('"'));
+		final Parser q = Parsers.charNotIn("x").then(Parsers.eof());
+
+		assertSameResults(p, "\"\"", "\"abc\"", "\"abcd\"", "\"a\\\"", "\"ab", "");
+		assertSameResults(q, "a", "x", "");
+	}
+
+	@Test
+	public void testCompile_failureMessage() {
+		// 失敗時のメッセージは元のパーサーのものとなる
+		final Parser p = Parsers.keyword("ab").then(Parsers.charIn("cd"));
+
+		assertThat(p.compile().parse("abx").message(), is(p.parse("abx").message()));
+	}
+
+	@Test
+	public void testCompile_failurePosition() {
+		// 失敗した文字位置とメッセージは元のパーサーで改めてパースすることなく求められる
+		final Parser p = Parsers.keyword("abc").or(Parsers.keyword("abd")).then(Parsers.space(2))
+				.then(Parsers.charsWhileIn(CharClass.numeric(), 3)).then(Parsers.eof());
+
+		assertSameResults(p, "abc  123", "abx", "ab", "abd 1", "abd  12", "abd  1234x", "abc\n\n12");
+	}
+
+	@Test
+	public void testCompile_largeCharClass() {
+		// 範囲の多い文字クラスと長いキーワードもインライン展開される
+		final CharClass clazz = CharClass.anyOf("acegikmoqsuwy02468").union(CharClass.anyOf("ACEGIKMOQ"));
+		final Parser p = Parsers.keyword("abcdefghijklmnopqrstuvwxyz").or(Parsers.charIn(clazz).rep(2))
+				.then(Parsers.eof());
+
+		assertThat(GrammarCompiler.compile(p) instanceof CompiledParser, is(true));
+		assertSameResults(p, "abcdefghijklmnopqrstuvwxyz", "abcdefghijklmnopqrstuvwxy", "aC", "a", "aB", "");
+	}
+
+	@Test
+	public void testCompile_userDefinedCharClass() {
+		// 利用者が定義した文字クラスはインライン展開できないためコンパイルされない
+		final CharClass vowel = new CharClass() {
+			@Override
+			public boolean contains(int ch) {
+				return ch == 'a' || ch == 'e' || ch == 'i' || ch == 'o' || ch == 'u';
+			}
+		};
+		final Parser p = Parsers.charsWhileIn(vowel, 1).then(Parsers.exact(';'));
+
+		assertThat(GrammarCompiler.compile(p) instanceof CompiledParser, is(false));
+		assertSameResults(p, "aei;", "ax;", "");
+	}
+
+	@Test
+	public void testCompile_reader() throws IOException {
+		// データソースの全体がメモリ上の文字シーケンスでない場合はコンパイル前のパーサーが利用される
+		final Parser p = Parsers.keyword("ab").then(Parsers.charIn("cd")).compile();
+
+		assertThat(p.parse(TextReader.from(new StringReader("abc"))).isSuccessful(), is(true));
+		assertThat(p.parse(TextReader.from(new StringReader("abx"))).end().index(), is(2));
+	}
+
+	@Test
+	public void testCompile_missingEmit() {
+		try {
+			new BrokenParser().compile();
+			fail();
+		} catch (final IllegalStateException e) {
+			assertThat(e.getMessage(), containsString("Broken"));
+			assertThat(e.getMessage(), containsString("emit"));
+		}
+	}
+
+	@Test
+	public void testCompile_lineBreak() {
+		final Parser p = Parsers.charNotIn("x").rep().then(Parsers.exact('x'));
+
+		final Result r = p.compile().parse("a\nb\r\ncx");
+
+		assertThat(r.isSuccessful(), is(true));
+		assertThat(r.end().line(), is(3));
+		assertThat(r.end().column(), is(3));
+	}
+
+	@Test
+	public void testCompile_val() {
+		final ValParser<String> p = Parsers.keyword("ab").then(Parsers.charIn("cd").rep(1, 3)).val()
+				.then(Parsers.exact(';'));
+		final ValParser<String> compiled = p.compile();
+
+		assertThat(compiled.parse("abccd;").value(), is("abccd"));
+		assertThat(compiled.parse("abcdcd;").isSuccessful(), is(false));
+		assertThat(compiled.parse("ab;").isSuccessful(), is(false));
+	}
+
+	@Test
+	public void testCompile_cut() {
+		// カットを含む部分はコンパイルされず、その子だけがコンパイルされる
+		final Parser p = Parsers.keyword("ab").cut().then(Parsers.charIn("cd").rep(1, 2)).then(Parsers.exact('e'))
+				.or(Parsers.keyword("ax"));
+
+		assertSameResults(p, "abce", "abcde", "abx", "ax", "");
+	}
+
+	@Test
+	public void testCompile_autoSkip() throws IOException {
+		// 自動スキップが有効な場合はコンパイル前のパーサーが利用される
+		final Parser p = Parsers.exact('a').then(Parsers.exact('b')).compile();
+		final Context ctx = TextReader.from("a b").toContext()
+				.configure(c -> c.setSkipTarget(CharClass.anyOf(' ')));
+
+		assertThat(p.parse(ctx).isSuccessful(), is(true));
+		assertThat(p.parse("a b").isSuccessful(), is(false));
+	}
+
+	@Test
+	public void testCompile_unchanged() {
+		final Parser p = Parsers.lazy(() -> Parsers.exact('a'));
+
+		assertThat(p.compile(), is(sameInstance(p)));
+	}
+}
@@ -0,0 +1,141 @@
+package org.unclazz.parsec;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.unclazz.parsec.IncrementalParser.Status;
+
+public class IncrementalParserTest {
+	private static final Charset utf8 = Charset.forName("utf-8");
+	
+	// "KEY=VALUE;" 形式のメッセージ
+	private final ValParser<String> message = Parsers.charsWhileIn(CharClass.alphabetic(), 1).val()
+			.then(Parsers.exact('=')).cut()
+			.then(Parsers.charsWhileNotIn(";", 0).val())
+			.then(Parsers.exact(';'))
+			.map(a -> a.item1() + ":" + a.item2());
+
+	@Test
+	public void testFeedCharBuffer() {
+		final IncrementalParser<String> p = message.incremental();
+		
+		assertThat(p.feed(CharBuffer.wrap("ke")), is(Status.NEED_MORE_INPUT));
+		assertThat(p.feed(CharBuffer.wrap("y=val")), is(Status.NEED_MORE_INPUT));
+		assertThat(p.feed(CharBuffer.wrap("ue;")), is(Status.COMPLETED));
+		
+		final ValResult<String> r = p.result();
+		assertTrue(r.isSuccessful());
+		assertThat(r.value(), is("key:value"));
+		assertFalse(p.hasRemaining());
+	}
+
+	@Test
+	public void testFeedCharBuffer_pipelined() {
+		final IncrementalParser<String> p = message.incremental();
+		
+		// 1つの入力に複数のメッセージが含まれる場合
+		assertThat(p.feed(CharBuffer.wrap("a=1;b=2;c")), is(Status.COMPLETED));
+		assertThat(p.result().value(), is("a:1"));
+		assertThat(p.resume(), is(Status.COMPLETED));
+		final ValResult<String> r = p.result();
+		assertThat(r.value(), is("b:2"));
+		// 文字位置はメッセージごとにその先頭を起点とする
+		assertThat(r.start().index(), is(0));
+		assertThat(r.end().index(), is(4));
+		
+		assertTrue(p.hasRemaining());
+		assertThat(p.resume(), is(Status.NEED_MORE_INPUT));
+		assertThat(p.feed(CharBuffer.wrap("=3;")), is(Status.COMPLETED));
+		assertThat(p.result().value(), is("c:3"));
+	}
+
+	@Test
+	public void testFeedByteBuffer() {
+		final IncrementalParser<String> p = message.incremental(utf8);
+		final byte[] bytes = "key=あい;".getBytes(utf8);
+		
+		// マルチバイト文字の途中で入力を分割する
+		assertThat(p.feed(ByteBuffer.wrap(bytes, 0, 5)), is(Status.NEED_MORE_INPUT));
+		assertThat(p.feed(ByteBuffer.wrap(bytes, 5, 3)), is(Status.NEED_MORE_INPUT));
+		assertThat(p.feed(ByteBuffer.wrap(bytes, 8, bytes.length - 8)), is(Status.COMPLETED));
+		assertThat(p.result().value(), is("key:あい"));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testFeedByteBuffer_noCharset() {
+		message.incremental().feed(ByteBuffer.wrap(new byte[] { 'a' }));
+	}
+
+	@Test
+	public void testEndOfInput() {
+		final ValParser<List<String>> p0 = Parsers.charIn("ab").val().rep();
+		final IncrementalParser<List<String>> p = p0.incremental();
+		
+		// 繰返しは入力の終端が宣言されるまで完了しない
+		assertThat(p.feed(CharBuffer.wrap("ab")), is(Status.NEED_MORE_INPUT));
+		assertThat(p.feed(CharBuffer.wrap("ba")), is(Status.NEED_MORE_INPUT));
+		assertThat(p.endOfInput(), is(Status.COMPLETED));
+		assertThat(p.result().value().size(), is(4));
+	}
+
+	@Test
+	public void testEndOfInput_failure() {
+		final IncrementalParser<String> p = message.incremental();
+		
+		assertThat(p.feed(CharBuffer.wrap("key=value")), is(Status.NEED_MORE_INPUT));
+		assertThat(p.endOfInput(), is(Status.COMPLETED));
+		assertFalse(p.result().isSuccessful());
+	}
+
+	@Test
+	public void testFeed_resumeFromFrames() {
+		final AtomicInteger calls = new AtomicInteger();
+		final ValParser<List<String>> p0 = message.map(a -> {
+			calls.incrementAndGet();
+			return a;
+		}).rep();
+		final IncrementalParser<List<String>> p = p0.incremental();
+		final StringBuilder input = new StringBuilder();
+		for (int i = 0; i < 500; i ++) input.append("key=value").append(i).append(';');
+		
+		// 1文字ずつ入力を供給しても完了したパーサーの呼び出しは繰り返されない
+		for (int i = 0; i < input.length(); i ++) {
+			assertThat(p.feed(CharBuffer.wrap(input, i, i + 1)), is(Status.NEED_MORE_INPUT));
+		}
+		assertThat(p.endOfInput(), is(Status.COMPLETED));
+		
+		final ValResult<List<String>> r = p.result();
+		assertTrue(r.isSuccessful());
+		assertThat(r.value().size(), is(500));
+		assertThat(r.value().get(499), is("key:value499"));
+		assertThat(calls.get(), is(500));
+	}
+
+	@Test
+	public void testFeed_releaseInput() {
+		final IncrementalParser<List<String>> p = message.rep().incremental();
+		final String chunk = "key=value;key=value;key=value;key=value;key=value;";
+		
+		// 繰返しの完了した部分の入力はバッファから取り除かれる
+		for (int i = 0; i < 10000; i ++) {
+			assertThat(p.feed(CharBuffer.wrap(chunk)), is(Status.NEED_MORE_INPUT));
+			assertTrue(p.bufferedLength() < 1024);
+		}
+		assertThat(p.endOfInput(), is(Status.COMPLETED));
+		assertThat(p.result().value().size(), is(50000));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testResult_notCompleted() {
+		final IncrementalParser<String> p = message.incremental();
+		p.feed(CharBuffer.wrap("key"));
+		p.result();
+	}
+}
@@ -40,6 +40,19 @@ public class KeywordInParserTest {
 		assertThat(r_abbx.message(), is("'b'(98) expected but 'z'(122) found."));
 	}
 	@Test
+	public void testParseTextReader_eof() {
+		final Parser p = Parsers.keywordIn("aaab", "aabb", "ccbb");
+
+		final Result r_empty = p.parse("");
+		final Result r_aab = p.parse("aab");
+
+		assertThat(r_empty.isSuccessful(), is(false));
+		assertThat(r_empty.message(), is("'a'(97) expected but EOF found."));
+		assertThat(r_aab.isSuccessful(), is(false));
+		assertThat(r_aab.message(), is("'b'(98) expected but EOF found."));
+		assertThat(r_aab.end().index(), is(3));
+	}
+	@Test
 	public void testCostructor_abend() {
 		try {
 			final String[] a = null;
@@ -0,0 +1,47 @@
+package org.unclazz.parsec;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+
+import org.junit.Test;
+
+public class LineIndexTest {
+
+	@Test
+	public void testLine() {
+		final LineIndex li = new LineIndex();
+		assertThat(li.line(0), is(1));
+		assertThat(li.line(100), is(1));
+		
+		li.add(3);
+		li.add(5);
+		assertThat(li.line(2), is(1));
+		assertThat(li.line(3), is(2));
+		assertThat(li.line(4), is(2));
+		assertThat(li.line(5), is(3));
+		assertThat(li.line(100), is(3));
+	}
+
+	@Test
+	public void testLineStart() {
+		final LineIndex li = new LineIndex();
+		li.add(3);
+		li.add(5);
+		assertThat(li.lineStart(1), is(0));
+		assertThat(li.lineStart(2), is(3));
+		assertThat(li.lineStart(3), is(5));
+	}
+
+	@Test
+	public void testAdd() {
+		final LineIndex li = new LineIndex();
+		for (int i = 1; i <= 100; i ++) li.add(i * 2);
+		
+		// 記録済みの位置以前の位置は無視される
+		li.add(50);
+		li.add(200);
+		assertThat(li.line(199), is(100));
+		assertThat(li.line(200), is(101));
+		assertThat(li.lineStart(101), is(200));
+	}
+}
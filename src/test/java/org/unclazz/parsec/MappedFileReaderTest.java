@@ -0,0 +1,89 @@
+package org.unclazz.parsec;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Test;
+
+public class MappedFileReaderTest {
+	private static final Charset utf8 = Charset.forName("utf-8");
+
+	private MappedFileReader create(String text) throws IOException {
+		final Path path = Files.createTempFile("MappedFileReaderTest", ".txt");
+		path.toFile().deleteOnExit();
+		Files.write(path, text.getBytes(utf8));
+		return new MappedFileReader(path, utf8);
+	}
+	private String repeat(String unit, int length) {
+		final StringBuilder buff = new StringBuilder(length);
+		while (buff.length() < length) buff.append(unit);
+		return buff.substring(0, length);
+	}
+
+	@Test
+	public void testReadToEnd_empty() throws IOException {
+		try (final MappedFileReader r = create("")) {
+			assertTrue(r.noRemaining());
+			assertThat(r.read(), is(-1));
+			assertThat(r.readToEnd(), is(nullValue()));
+		}
+	}
+
+	@Test
+	public void testReadToEnd_multiWindows() throws IOException {
+		// マルチバイト文字を含めウィンドウの境界をまたぐ長さのテキストを用意
+		final String text = repeat("abcあいう𩸽\r\n", MappedFileReader.WINDOW_SIZE * 5 + 123);
+		try (final MappedFileReader r = create(text)) {
+			assertThat(r.readToEnd(), is(text));
+			assertThat(r.position().index(), is(text.length()));
+			assertTrue(r.noRemaining());
+		}
+	}
+
+	@Test
+	public void testReadToEnd_exactWindowSize() throws IOException {
+		final String text = repeat("x", MappedFileReader.WINDOW_SIZE * 2);
+		try (final MappedFileReader r = create(text)) {
+			assertThat(r.readToEnd(), is(text));
+			assertThat(r.read(), is(-1));
+		}
+	}
+
+	@Test
+	public void testReset_evictedWindow() throws IOException {
+		// キャッシュから追い出されたウィンドウまでリセットする
+		final String text = repeat("0123456789あ", MappedFileReader.WINDOW_SIZE * 6);
+		try (final MappedFileReader r = create(text)) {
+			r.read();
+			r.mark();
+			for (int i = 0; i < MappedFileReader.WINDOW_SIZE * 5; i ++) r.read();
+			assertThat(r.capture().length(), is(MappedFileReader.WINDOW_SIZE * 5));
+			r.reset(true);
+
+			assertThat(r.position().index(), is(1));
+			assertThat(r.read(), is('1' - 0));
+			assertThat(r.readToEnd(), is(text.substring(2)));
+		}
+	}
+
+	@Test
+	public void testTextReaderFromPath() throws IOException {
+		final Path path = Files.createTempFile("MappedFileReaderTest", ".txt");
+		path.toFile().deleteOnExit();
+		Files.write(path, "  abc ABC\r\nz ".getBytes(utf8));
+
+		try (final TextReader tr = TextReader.from(path, utf8)) {
+			final ValResult<String> r = Parsers.space()
+					.then(Parsers.charsWhileIn(CharClass.alphabetic(), 1).val())
+					.then(Parsers.charsWhileNotIn("z")).then(Parsers.exact('z')).parse(tr);
+			assertTrue(r.isSuccessful());
+			assertThat(r.value(), is("abc"));
+			assertThat(r.end().line(), is(2));
+		}
+	}
+}
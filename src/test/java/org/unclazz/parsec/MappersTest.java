@@ -28,5 +28,32 @@ public class MappersTest {
 	public void testFloatingPoint() {
 		assertThat(Mappers.floatingPoint("-12.34"), is(-12.34));
 	}
+	
+	@Test
+	public void testDigits_charSequence() {
+		assertThat(Mappers.digits(new StringBuilder("1234")), is(1234));
+		assertThat(Mappers.digits(new StringBuilder("-1234")), is(-1234));
+		assertThat(Mappers.digits(new StringBuilder("+1234")), is(1234));
+		assertThat(Mappers.digits(new StringBuilder("2147483647")), is(Integer.MAX_VALUE));
+		assertThat(Mappers.digits(new StringBuilder("-2147483648")), is(Integer.MIN_VALUE));
+		assertThat(Mappers.octalDigits(new StringBuilder("17")), is(15));
+		assertThat(Mappers.hexDigits(new StringBuilder("fF")), is(255));
+	}
+	
+	@Test
+	public void testDigits_charSequenceInvalid() {
+		for (final String s : new String[] { "", "-", "12a", "2147483648", "-2147483649" }) {
+			try {
+				Mappers.digits(new StringBuilder(s));
+				fail(s);
+			} catch (final NumberFormatException e) {
+				assertThat(e.getMessage(), is("For input string: \"" + s + "\""));
+			}
+		}
+	}
+	
+	@Test
+	public void testJsonString_charSequence() {
+		assertThat(Mappers.jsonString(new StringBuilder("a\\tb\\u0041")), is("a\tbA"));
+	}
 }
-
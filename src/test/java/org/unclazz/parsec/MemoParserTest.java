@@ -0,0 +1,92 @@
+package org.unclazz.parsec;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+
+import static org.hamcrest.CoreMatchers.*;
+
+import org.junit.Test;
+
+public class MemoParserTest {
+	private static final class CountingParser extends Parser {
+		private final Parser _original;
+		private int _count;
+		CountingParser(Parser original) {
+			_original = original;
+		}
+		@Override
+		protected ResultCore doParse(Context ctx) throws IOException {
+			_count ++;
+			return _original.parse(ctx);
+		}
+	}
+	
+	@Test
+	public void testParseTextReader() throws IOException {
+		final CountingParser as = new CountingParser(Parsers.exact('a').rep());
+		final Parser p_memo = as.memo();
+		final Parser p = p_memo.then(Parsers.exact('x')).or(p_memo.then(Parsers.exact('y')));
+		
+		// Act
+		final Result r = p.parse("aaay");
+		
+		// Assert
+		assertThat(r.isSuccessful(), is(true));
+		assertThat(r.end().index(), is(4));
+		assertThat(as._count, is(1));
+	}
+	
+	@Test
+	public void testParseTextReader_withoutMemo() throws IOException {
+		final CountingParser as = new CountingParser(Parsers.exact('a').rep());
+		final Parser p = as.then(Parsers.exact('x')).or(as.then(Parsers.exact('y')));
+		
+		final Result r = p.parse("aaay");
+		
+		assertThat(r.isSuccessful(), is(true));
+		assertThat(as._count, is(2));
+	}
+	
+	@Test
+	public void testParseTextReader_memoization() throws IOException {
+		final CountingParser as = new CountingParser(Parsers.exact('a').rep());
+		final Parser p = as.then(Parsers.exact('x')).or(as.then(Parsers.exact('y')));
+		final Context ctx = TextReader.from("aaay").toContext().configure(c -> c.setMemoization(true));
+		
+		final Result r = p.parse(ctx);
+		
+		assertThat(r.isSuccessful(), is(true));
+		assertThat(r.end().index(), is(4));
+		assertThat(as._count, is(1));
+	}
+	
+	@Test
+	public void testParseTextReader_evictedByCut() throws IOException {
+		// カット後はカットした位置より前を開始位置とする結果が破棄される
+		final Parser a = Parsers.exact('a').memo();
+		final Parser b = Parsers.exact('b').memo();
+		final Parser p = a.then(a).cut().then(b).or(Parsers.exact('z'));
+		final Context ctx = TextReader.from("aab").toContext();
+		
+		final Result r = p.parse(ctx);
+		
+		assertThat(r.isSuccessful(), is(true));
+		assertThat(ctx.memo().size(), is(1));
+	}
+	
+	@Test
+	public void testParseTextReader_replayCut() throws IOException {
+		// 記録された結果がカットを含む場合は再利用時にもカットが再現される
+		final CountingParser ab = new CountingParser(Parsers.exact('a').cut().then(Parsers.exact('b')));
+		final ValParser<String> ab_memo = ab.val().memo();
+		final ValParser<String> p = ab_memo.or(Parsers.keyword("x").val()).then(Parsers.exact('c'))
+				.or(ab_memo.then(Parsers.exact('d')));
+		
+		final ValResult<String> r = p.parse("abd");
+		
+		assertThat(r.isSuccessful(), is(true));
+		assertThat(r.value(), is("ab"));
+		assertThat(ab._count, is(1));
+	}
+}
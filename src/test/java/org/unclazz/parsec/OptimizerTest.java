@@ -0,0 +1,127 @@
+package org.unclazz.parsec;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+
+import static org.hamcrest.CoreMatchers.*;
+
+import org.junit.Test;
+
+public class OptimizerTest {
+	private static void assertSameResults(Parser p, String... inputs) {
+		final Parser optimized = p.optimize();
+		for (final String s : inputs) {
+			final Result r0 = p.parse(s);
+			final Result r1 = optimized.parse(s);
+			assertThat(s, r1.isSuccessful(), is(r0.isSuccessful()));
+			assertThat(s, r1.canBacktrack(), is(r0.canBacktrack()));
+			assertThat(s, r1.end().index(), is(r0.end().index()));
+		}
+	}
+	
+	@Test
+	public void testOptimize_fuseKeyword() {
+		final Parser p = Parsers.exact('a').then(Parsers.exact('b')).then(Parsers.keyword("cd"));
+		
+		final Parser optimized = new Optimizer().optimize(p);
+		
+		assertThat(optimized instanceof KeywordParser, is(true));
+		assertThat(optimized.literal(), is("abcd"));
+		assertSameResults(p, "abcd", "abce", "ab", "x", "");
+	}
+	
+	@Test
+	public void testOptimize_fuseKeywordAtTail() {
+		final Parser p = Parsers.charIn("xy").then(Parsers.exact('a')).then(Parsers.exact('b'));
+		
+		final Parser optimized = new Optimizer().optimize(p);
+		
+		assertThat(optimized instanceof ThenParser, is(true));
+		assertThat(optimized.first().canStartWith('x'), is(true));
+		assertSameResults(p, "xab", "yab", "xa", "ab", "");
+	}
+	
+	@Test
+	public void testOptimize_repeatToCharsWhileIn() {
+		final Parser p = Parsers.charIn("abc").rep();
+		
+		final Parser optimized = new Optimizer().optimize(p);
+		
+		assertThat(optimized instanceof CharsWhileInParser, is(true));
+		assertSameResults(p, "abcabcx", "x", "");
+	}
+	
+	@Test
+	public void testOptimize_orToCharClass() {
+		final Parser p = Parsers.exact('a').or(Parsers.charBetween('0', '9'));
+		final Parser q = Parsers.choice(Parsers.exact('a'), Parsers.exact('b'), Parsers.keyword("cd"), Parsers.exact('e'));
+		
+		final Parser optimizedP = new Optimizer().optimize(p);
+		final Parser optimizedQ = new Optimizer().optimize(q);
+		
+		assertThat(optimizedP instanceof CharClassParser, is(true));
+		assertThat(optimizedQ instanceof ChoiceParser, is(true));
+		assertSameResults(p, "a", "5", "x", "");
+		assertSameResults(q, "a", "b", "cd", "ce", "e", "x", "");
+	}
+	
+	@Test
+	public void testOptimize_removeOpt() {
+		final Parser p = Parsers.charsWhileIn("ab").opt();
+		final Parser q = Parsers.exact('a').opt().opt();
+		
+		assertThat(new Optimizer().optimize(p) instanceof CharsWhileInParser, is(true));
+		assertThat(new Optimizer().optimize(q) instanceof OptParser, is(true));
+		assertSameResults(p, "ab", "x", "");
+		assertSameResults(q, "a", "x", "");
+	}
+	
+	@Test
+	public void testOptimize_atomic() {
+		// 失敗しても文字を消費しないパーサーの繰返しやオプションはマークを省略しても同じ結果になる
+		final Parser p = Parsers.exact('a').then(Parsers.charIn("bc").rep(1, 2)).then(Parsers.exact('d').opt())
+				.then(Parsers.exact('e'));
+		final ValParser<String> q = Parsers.exact('a').val().opt().then(Parsers.exact('b'))
+				.map(o -> o.orElse("-"));
+		
+		assertSameResults(p, "abde", "abcde", "abce", "abcbe", "ae", "");
+		assertThat(q.optimize().parse("ab").value(), is("a"));
+		assertThat(q.optimize().parse("b").value(), is("-"));
+		assertThat(q.optimize().parse("c").isSuccessful(), is(false));
+	}
+	
+	@Test
+	public void testOptimize_cut() {
+		final Parser p = Parsers.exact('a').cut().then(Parsers.exact('b')).then(Parsers.exact('c'))
+				.or(Parsers.keyword("ax"));
+		
+		assertSameResults(p, "abc", "abd", "ax", "");
+	}
+	
+	@Test
+	public void testOptimize_unchanged() {
+		final Parser p = Parsers.space().then(Parsers.eof());
+		
+		assertThat(p.optimize(), is(sameInstance(p)));
+	}
+	
+	@Test
+	public void testOptimize_autoSkip() throws IOException {
+		// 自動スキップが有効な場合は最適化前のパーサーが利用される
+		final Parser p = Parsers.exact('a').then(Parsers.exact('b')).optimize();
+		final Context ctx = TextReader.from("a b").toContext()
+				.configure(c -> c.setSkipTarget(CharClass.anyOf(' ')));
+		
+		assertThat(p.parse(ctx).isSuccessful(), is(true));
+		assertThat(p.parse("a b").isSuccessful(), is(false));
+	}
+	
+	@Test
+	public void testOptimize_sharedInstance() {
+		final Parser ab = Parsers.exact('a').then(Parsers.exact('b'));
+		final Optimizer optimizer = new Optimizer();
+		
+		assertThat(optimizer.optimize(ab), is(sameInstance(optimizer.optimize(ab))));
+	}
+}
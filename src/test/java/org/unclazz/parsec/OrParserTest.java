@@ -3,6 +3,10 @@ package org.unclazz.parsec;
 import static org.junit.Assert.*;
 import static org.hamcrest.CoreMatchers.*;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
 import org.junit.Test;
 
 public class OrParserTest {
@@ -47,5 +51,45 @@ public class OrParserTest {
 		assertThat(p_bool.parse("false").message(), is(nullValue()));
 		assertThat(p_bool.parse("halse").message(), is("'f'(102) expected but 'h'(104) found."));
 	}
-
+	
+	@Test
+	public void testParseString_prediction() throws IOException {
+		// 次の文字が左側の先頭となりえない場合は左側のパースを省略する
+		final Parser p = Parsers.keyword("true").or(Parsers.keyword("false"));
+		final List<String> log = new ArrayList<>();
+		final Context ctx = TextReader.from("false").toContext().configure(c -> c.setLogAppender(log::add));
+		
+		final Result r = p.parse(ctx);
+		
+		assertThat(r.isSuccessful(), is(true));
+		assertThat(log.stream().anyMatch(a -> a.contains("true")), is(false));
+		assertThat(log.stream().anyMatch(a -> a.contains("false")), is(true));
+	}
+	
+	@Test
+	public void testParseString_predictionKeepsCutBoundary() {
+		// 左側を省略した場合も右側でのカットは外側の選択肢に及ばない
+		final Parser p = Parsers.exact('a').or(Parsers.exact('b').cut().then(Parsers.exact('c')))
+				.then(Parsers.exact('d')).or(Parsers.keyword("bx"));
+		
+		assertThat(p.parse("bx").isSuccessful(), is(true));
+		assertThat(p.parse("bcd").isSuccessful(), is(true));
+	}
+	
+	@Test
+	public void testParseString_predictionWithNullableCut() {
+		// 文字を読み取らずに到達しうるカットは次の文字にかかわらずバックトラックを無効にするため、左側を省略しない
+		final Parser p_space = Parsers.space().cut().then(Parsers.exact('a')).or(Parsers.exact('b'));
+		final Parser p_opt = Parsers.exact('x').opt().cut().then(Parsers.exact('a')).or(Parsers.exact('b'));
+		
+		final Result p_space_r = p_space.parse("b");
+		final Result p_opt_r = p_opt.parse("b");
+		
+		assertThat(p_space_r.isSuccessful(), is(false));
+		assertThat(p_space_r.end().index(), is(0));
+		assertThat(p_opt_r.isSuccessful(), is(false));
+		assertThat(p_opt_r.end().index(), is(0));
+		assertThat(p_space.parse("a").isSuccessful(), is(true));
+		assertThat(p_opt.parse("xa").isSuccessful(), is(true));
+	}
 }
@@ -0,0 +1,104 @@
+package org.unclazz.parsec;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.*;
+
+import org.junit.Test;
+
+public class ParseListenerTest {
+	private static final class RecordingListener implements ParseListener {
+		private final List<String> _events = new ArrayList<>();
+
+		@Override
+		public void enter(ParserSupport parser, int offset) {
+			_events.add("+" + parser.name() + "@" + offset);
+		}
+		@Override
+		public void exit(ParserSupport parser, int offset, ResultCoreSupport result) {
+			_events.add("-" + parser.name() + "@" + offset + (result.isSuccessful() ? ":ok" : ":ng")
+					+ (result.canBacktrack() ? "" : ",cut"));
+		}
+		@Override
+		public void backtrack(int from, int to) {
+			_events.add("<" + from + "->" + to);
+		}
+	}
+
+	@Test
+	public void testEnterExit() throws IOException {
+		final Parser p = Parsers.keyword("ab").then(Parsers.exact('c'));
+		final RecordingListener l = new RecordingListener();
+
+		p.parse(TextReader.from("abc").toContext().configure(c -> c.setParseListener(l)));
+
+		assertThat(l._events, is(Arrays.asList("+Then@0", "+Keyword@0", "-Keyword@2:ok",
+				"+ExactChar@2", "-ExactChar@3:ok", "-Then@3:ok")));
+	}
+
+	@Test
+	public void testBacktrack() throws IOException {
+		final Parser p = Parsers.exact('a').then(Parsers.exact('x')).or(Parsers.keyword("ab"));
+		final RecordingListener l = new RecordingListener();
+
+		final Result r = p.parse(TextReader.from("ab").toContext().configure(c -> c.setParseListener(l)));
+
+		assertThat(r.isSuccessful(), is(true));
+		assertThat(l._events.contains("<1->0"), is(true));
+		assertThat(l._events.get(l._events.size() - 1), is("-Or@2:ok"));
+	}
+
+	@Test
+	public void testCut() throws IOException {
+		final Parser p = Parsers.keyword("a").cut().then(Parsers.exact('b'));
+		final RecordingListener l = new RecordingListener();
+
+		p.parse(TextReader.from("ac").toContext().configure(c -> c.setParseListener(l)));
+
+		assertThat(l._events.get(l._events.size() - 1), is("-Then@1:ng,cut"));
+	}
+
+	@Test
+	public void testWithLogAppender() throws IOException {
+		// ログ出力とリスナーは同じパースで並行して通知を受ける
+		final Parser p = Parsers.keyword("ab").or(Parsers.keyword("ac"));
+		final RecordingListener l = new RecordingListener();
+		final List<String> log0 = new ArrayList<>();
+		final List<String> log1 = new ArrayList<>();
+
+		p.parse(TextReader.from("ac").toContext().configure(c -> c.setLogAppender(log0::add)));
+		p.parse(TextReader.from("ac").toContext()
+				.configure(c -> c.setLogAppender(log1::add).setParseListener(l)));
+
+		assertThat(log1, is(log0));
+		assertThat(l._events.get(0), is("+Or@0"));
+	}
+
+	@Test
+	public void testConfigure_keepsListener() throws IOException {
+		final RecordingListener l = new RecordingListener();
+		final Context ctx = TextReader.from("a").toContext().configure(c -> c.setParseListener(l))
+				.configure(c -> c.setMemoization(true));
+
+		Parsers.exact('a').parse(ctx);
+
+		assertThat(l._events, is(Arrays.asList("+ExactChar@0", "-ExactChar@1:ok")));
+	}
+
+	@Test
+	public void testCompiled() throws IOException {
+		// コンパイルされたパーサーもリスナーには子のパーサーの呼び出しを通知する
+		final Parser p = Parsers.charIn("ab").rep(1, 3).then(Parsers.exact('c')).compile();
+		final RecordingListener l = new RecordingListener();
+
+		p.parse(TextReader.from("abc").toContext().configure(c -> c.setParseListener(l)));
+
+		assertThat(l._events.size() > 2, is(true));
+		assertThat(l._events.get(l._events.size() - 1).endsWith("@3:ok"), is(true));
+	}
+}
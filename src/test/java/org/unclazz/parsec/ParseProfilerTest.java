@@ -0,0 +1,108 @@
+package org.unclazz.parsec;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+
+import static org.hamcrest.CoreMatchers.*;
+
+import org.junit.Test;
+
+public class ParseProfilerTest {
+	private static final Parser NESTED = Parsers.exact('[')
+			.then(Parsers.lazy(() -> ParseProfilerTest.NESTED).opt())
+			.then(Parsers.exact(']'));
+
+	private static Context profiled(String text, ParseProfiler profiler) {
+		return TextReader.from(text).toContext().configure(c -> c.setProfiler(profiler));
+	}
+
+	@Test
+	public void testReport() throws IOException {
+		final Parser p = Parsers.exact('a').then(Parsers.exact('x')).or(Parsers.keyword("ab"));
+		final ParseProfiler profiler = ParseProfiler.create();
+
+		p.parse(profiled("ab", profiler));
+		p.parse(profiled("ab", profiler));
+		final ProfileNode root = profiler.report();
+		final ProfileNode or = root.children().get(0);
+		final ProfileNode then = or.children().get(0);
+		final ProfileNode keyword = or.children().get(1);
+
+		assertThat(root.invocations(), is(2L));
+		assertThat(root.children().size(), is(1));
+		assertThat(or.name(), is("Or"));
+		assertThat(or.invocations(), is(2L));
+		assertThat(or.successes(), is(2L));
+		assertThat(or.resets(), is(2L));
+		assertThat(or.consumed(), is(4L));
+		assertThat(then.name(), is("Then"));
+		assertThat(then.failures(), is(2L));
+		assertThat(then.children().size(), is(2));
+		assertThat(keyword.name(), is("Keyword"));
+		assertThat(keyword.params().get("keyword"), is("ab"));
+		assertThat(keyword.consumed(), is(4L));
+		assertThat(or.totalNanos() >= then.totalNanos() + keyword.totalNanos(), is(true));
+		assertThat(or.selfNanos() <= or.totalNanos(), is(true));
+	}
+
+	@Test
+	public void testReport_recursion() throws IOException {
+		// 再帰的な呼び出しは経路上の同じパーサーのノードにまとめられる
+		final ParseProfiler profiler = ParseProfiler.create();
+
+		NESTED.parse(profiled("[[[]]]", profiler));
+		final ProfileNode outer = profiler.report().children().get(0);
+		final ProfileNode inner = outer.children().get(0);
+
+		assertThat(outer.invocations(), is(1L));
+		assertThat(outer.consumed(), is(6L));
+		assertThat(inner.invocations(), is(4L));
+		assertThat(inner.successes(), is(3L));
+		assertThat(inner.failures(), is(1L));
+		assertThat(inner.totalNanos() <= outer.totalNanos(), is(true));
+		assertThat(profiler.report().toString().split(System.lineSeparator()).length, is(8));
+	}
+
+	@Test
+	public void testReport_explicitStack() throws IOException {
+		final ParseProfiler p0 = ParseProfiler.create();
+		final ParseProfiler p1 = ParseProfiler.create();
+
+		NESTED.parse(profiled("[[]]", p0));
+		NESTED.parse(profiled("[[]]", p1).configure(c -> c.setExplicitStack(true)));
+		final String r0 = p0.report().toString().replaceAll("self: [^)]*", "");
+		final String r1 = p1.report().toString().replaceAll("self: [^)]*", "");
+
+		assertThat(r1, is(r0));
+	}
+
+	@Test
+	public void testClear() throws IOException {
+		final ParseProfiler profiler = ParseProfiler.create();
+
+		Parsers.exact('a').parse(profiled("a", profiler));
+		profiler.clear();
+
+		assertThat(profiler.report().invocations(), is(0L));
+		assertThat(profiler.report().children().isEmpty(), is(true));
+	}
+
+	@Test
+	public void testSampled() throws IOException {
+		final ParseProfiler profiler = ParseProfiler.sampled(0.5);
+		for (int i = 0; i < 1000; i ++) {
+			Parsers.exact('a').parse(profiled("a", profiler));
+		}
+
+		final long sessions = profiler.report().invocations();
+
+		assertThat(profiler.samplingRate(), is(0.5));
+		assertThat(sessions > 300 && sessions < 700, is(true));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSampled_zero() {
+		ParseProfiler.sampled(0);
+	}
+}
@@ -3,6 +3,7 @@ package org.unclazz.parsec;
 import static org.junit.Assert.*;
 
 import java.io.IOException;
+import java.io.StringReader;
 
 import static org.hamcrest.CoreMatchers.*;
 
@@ -156,4 +157,37 @@ public class RepeatParserTest {
 		assertThat(r_a_rep2_vs_aaaacc.end().index(), is(4));
 	}
 
+	@Test
+	public void testParseTextReader_cut() throws IOException {
+		// Arrange
+		final Parser p_a_cut_rep = Parsers.exact('a').cut().rep(2);
+		final Parser p_a_cut_rep_or = p_a_cut_rep.or(Parsers.keyword("aX"));
+		
+		// Act
+		final Result r_a_cut_rep = p_a_cut_rep.parse("aX");
+		final Result r_a_cut_rep_or = p_a_cut_rep_or.parse("aX");
+		
+		// Assert
+		// 繰返しの途中で行われたカットは繰返しの結果には反映されない
+		assertThat(r_a_cut_rep.isSuccessful(), is(false));
+		assertThat(r_a_cut_rep.canBacktrack(), is(true));
+		assertThat(r_a_cut_rep_or.isSuccessful(), is(true));
+		assertThat(r_a_cut_rep_or.end().index(), is(2));
+	}
+	
+	@Test
+	public void testParseTextReader_cutInsideOr() throws IOException {
+		// Arrange
+		final Parser p = Parsers.exact('a').cut().rep(2).or(Parsers.keyword("aX"));
+		
+		// Act
+		final Result r = p.parse(TextReader.from(new StringReader("aX")));
+		final Result r_stack = p.parse(TextReader.from(new StringReader("aX"))
+				.toContext().configure(c -> c.setExplicitStack(true)));
+		
+		// Assert
+		// ストリームから読み取る場合も繰返しの中のカットがorのマークに及ばない
+		assertThat(r.isSuccessful(), is(true));
+		assertThat(r_stack.isSuccessful(), is(true));
+	}
 }
@@ -197,4 +197,123 @@ public class ResetReaderTest {
 		assertThat(r.read(), is('3' - 0));
 	}
 
+	@Test
+	public final void testSegments_unmarked() throws IOException {
+		final ResetReader r = create(repeat("0123456789", ResetReader.SEGMENT_SIZE * 100));
+		
+		// マークがなければ読み取りの進行にあわせてセグメントが解放される
+		for (int i = 0; i < ResetReader.SEGMENT_SIZE * 100; i ++) r.read();
+		assertThat(r.segmentCount(), is(1));
+		assertThat(r.read(), is(-1));
+	}
+
+	@Test
+	public final void testSegments_marked() throws IOException {
+		final String text = repeat("0123456789", ResetReader.SEGMENT_SIZE * 10);
+		final ResetReader r = create(text);
+		
+		// マークがあればそれ以降のセグメントは保持される
+		r.read();
+		r.mark();
+		for (int i = 1; i < ResetReader.SEGMENT_SIZE * 5; i ++) r.read();
+		assertThat(r.segmentCount(), is(5));
+		assertThat(r.capture().length(), is(ResetReader.SEGMENT_SIZE * 5 - 1));
+		
+		// リセットすればマークした位置から読み直せる
+		r.reset(true);
+		assertThat(r.read(), is('1' - 0));
+		assertThat(r.readToEnd(), is(text.substring(2)));
+		
+		// マークを解除したのでセグメントは解放される
+		assertThat(r.segmentCount(), is(1));
+	}
+
+	@Test
+	public final void testCut() throws IOException {
+		final ResetReader r = create(repeat("0123456789", ResetReader.SEGMENT_SIZE * 10));
+		
+		// カットされたマークはセグメントを保持する理由にならない
+		r.markCuttable();
+		r.cut();
+		for (int i = 0; i < ResetReader.SEGMENT_SIZE * 5; i ++) r.read();
+		assertThat(r.segmentCount(), is(1));
+		
+		// カットされたマークへのリセットはできない
+		r.reset(false);
+		try {
+			r.read();
+			fail();
+		} catch (final IllegalStateException e) {
+			// OK
+		}
+	}
+
+	@Test
+	public final void testCut_hardMark() throws IOException {
+		final ResetReader r = create(repeat("0123456789", ResetReader.SEGMENT_SIZE * 10));
+		
+		// 通常のマークはカットの対象にならない
+		r.markCuttable();
+		r.mark();
+		r.cut();
+		for (int i = 0; i < ResetReader.SEGMENT_SIZE * 5; i ++) r.read();
+		assertThat(r.segmentCount(), is(5));
+		
+		// 直近のマークを解除すればカットの対象になる
+		r.unmark();
+		r.cut();
+		for (int i = 0; i < ResetReader.SEGMENT_SIZE; i ++) r.read();
+		assertThat(r.segmentCount(), is(1));
+	}
+
+	@Test
+	public final void testParse_cut() throws IOException {
+		// 選択肢の中でカットが成功すれば、以降の読み取りはバッファを増やさない
+		final int count = ResetReader.SEGMENT_SIZE * 50;
+		final ResetReader r = create("{" + repeat("x", count) + "}");
+		final ValParser<Integer> p = Parsers.exact('{').cut()
+				.then(Parsers.exact('x').val().rep().count())
+				.then(Parsers.exact('}'))
+				.or(Parsers.exact('[').map(a -> -1));
+		
+		final ValResult<Integer> res = p.parse(r);
+		assertTrue(res.isSuccessful());
+		assertThat(res.value(), is(count));
+		assertThat(r.segmentCount(), is(1));
+	}
+	
+	@Test
+	public final void testSkipWhile_segments() throws IOException {
+		final int count = ResetReader.SEGMENT_SIZE * 50;
+		final ResetReader r = create(repeat(" ", count) + "x");
+		
+		// 走査の途中でも読み飛ばした文字のセグメントは解放される
+		assertThat(r.skipWhile(CharClass.exact(' ')), is(count));
+		assertThat(r.segmentCount(), is(1));
+		
+		final ResetReader r2 = create(repeat(" ", count) + "x");
+		final StringBuilder buff = new StringBuilder();
+		assertThat(r2.readWhile(CharClass.exact(' '), buff), is(count));
+		assertThat(r2.segmentCount(), is(1));
+		assertThat(r2.read(), is('x' - 0));
+	}
+	
+	@Test
+	public final void testIndexOf() throws IOException {
+		final int count = ResetReader.SEGMENT_SIZE * 3;
+		final ResetReader r = create(repeat("x", count) + "yz");
+		
+		// セグメントをまたいで検索しても文字位置は前進しない
+		assertThat(r.indexOf('y'), is(count));
+		assertThat(r.indexOf('z'), is(count + 1));
+		assertThat(r.indexOf('_'), is(-1));
+		assertThat(r.skipWhile(CharClass.exact('x')), is(count));
+		assertThat(r.read(), is('y' - 0));
+	}
+	
+	private static String repeat(String unit, int length) {
+		final StringBuilder buff = new StringBuilder(length);
+		while (buff.length() < length) buff.append(unit);
+		return buff.substring(0, length);
+	}
 }
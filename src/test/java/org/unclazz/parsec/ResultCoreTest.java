@@ -135,4 +135,16 @@ public class ResultCoreTest {
 		assertFalse(ResultCore.ofFailure("x").allowBacktrack(false).canBacktrack());
 	}
 
+	@Test
+	public void testAllowBacktrack_sharedInstance() {
+		// 成功を表すパース結果はバックトラック設定を変更しても新たに生成されない
+		final ResultCore cut = ResultCore.ofSuccess().allowBacktrack(false);
+		final ResultCore failure = ResultCore.ofFailure("x");
+		
+		assertThat(ResultCore.ofSuccess().allowBacktrack(true), is(sameInstance(ResultCore.ofSuccess())));
+		assertThat(ResultCore.ofSuccess().allowBacktrack(false), is(sameInstance(cut)));
+		assertThat(cut.allowBacktrack(true), is(sameInstance(ResultCore.ofSuccess())));
+		assertThat(failure.allowBacktrack(true), is(sameInstance(failure)));
+	}
+
 }
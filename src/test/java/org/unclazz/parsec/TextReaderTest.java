@@ -3,6 +3,9 @@ package org.unclazz.parsec;
 import static org.junit.Assert.*;
 import static org.hamcrest.CoreMatchers.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.CharBuffer;
 import java.nio.charset.Charset;
 import java.util.List;
 
@@ -60,4 +63,76 @@ public class TextReaderTest {
 			fail(e.getMessage());
 		}
 	}
+
+	@Test
+	public void testFromCharArray() throws IOException {
+		final char[] chars = "abc".toCharArray();
+		final TextReader tr = TextReader.from(chars);
+		
+		tr.mark();
+		assertThat(tr.readToEnd(), is("abc"));
+		tr.reset(true);
+		assertThat(tr.read(), is('a' - 0));
+	}
+
+	@Test
+	public void testFromCharBuffer() throws IOException {
+		final CharBuffer buff = CharBuffer.wrap("__abc");
+		buff.position(2);
+		final TextReader tr = TextReader.from(buff);
+		
+		// バッファの位置を変更してもリーダーには影響しない
+		buff.position(0);
+		assertThat(tr.readToEnd(), is("abc"));
+		assertThat(tr.position().index(), is(3));
+	}
+
+	@Test
+	public void testFromCharSequence() throws IOException {
+		final TextReader tr = TextReader.from(new StringBuilder("abc"));
+		
+		tr.read();
+		tr.mark();
+		assertThat(tr.readToEnd(), is("bc"));
+		assertThat(tr.capture(true), is("bc"));
+	}
+
+	@Test
+	public void testClose() throws IOException {
+		final boolean[] closed = new boolean[1];
+		final ByteArrayInputStream in = new ByteArrayInputStream("abc".getBytes()) {
+			@Override
+			public void close() throws IOException {
+				closed[0] = true;
+			}
+		};
+		
+		// クローズするとデータソースのストリームもクローズされる
+		try (final TextReader tr = TextReader.from(in, Charset.forName("utf-8"))) {
+			assertThat(tr.readToEnd(), is("abc"));
+		}
+		assertTrue(closed[0]);
+	}
+
+	@Test
+	public void testToContext_positionTracking() throws IOException {
+		final Parser p = Parsers.keyword("ab\r\n").then(Parsers.keyword("cd"));
+		
+		final Result full = p.parse(TextReader.from("ab\r\ncd").toContext());
+		assertThat(full.end().line(), is(2));
+		assertThat(full.end().column(), is(3));
+		assertThat(full.end().index(), is(6));
+		
+		final Result index = p.parse(TextReader.from("ab\r\ncd")
+				.toContext(c -> c.setPositionTracking(PositionTracking.INDEX)));
+		assertThat(index.end().line(), is(-1));
+		assertThat(index.end().column(), is(-1));
+		assertThat(index.end().index(), is(6));
+		
+		final Result none = p.parse(TextReader.from("ab\r\ncd")
+				.toContext(c -> c.setPositionTracking(PositionTracking.NONE)));
+		assertTrue(none.isSuccessful());
+		assertThat(none.start(), is(nullValue()));
+		assertThat(none.end(), is(nullValue()));
+	}
 }
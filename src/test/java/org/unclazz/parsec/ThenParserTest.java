@@ -43,5 +43,14 @@ public class ThenParserTest {
 		assertThat(p_0_cut_1_r_0X2.canBacktrack(), is(false));
 		assertThat(p_0_cut_1_r_0X2.end().index(), is(1));
 	}
+	
+	@Test
+	public void testParseString_position() {
+		// パース結果の文字位置は右側のパーサーではなく連接全体のものとなる
+		final Result r = Parsers.keyword("ab").then(Parsers.keyword("cd")).parse("abcd");
+		
+		assertThat(r.start().index(), is(0));
+		assertThat(r.end().index(), is(4));
+	}
 
 }
@@ -0,0 +1,206 @@
+package org.unclazz.parsec;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.*;
+
+import org.junit.Test;
+
+public class TrampolineTest {
+	private static final Parser NESTED = Parsers.exact('[')
+			.then(Parsers.lazy(() -> TrampolineTest.NESTED).opt())
+			.then(Parsers.exact(']'));
+	private static final ValParser<Integer> DEPTH = Parsers.exact('[')
+			.then(Parsers.lazy(() -> TrampolineTest.DEPTH).opt().map(o -> o.orElse(0) + 1))
+			.then(Parsers.exact(']'));
+
+	private static String nested(int depth) {
+		final StringBuilder buff = new StringBuilder();
+		for (int i = 0; i < depth; i ++) buff.append('[');
+		for (int i = 0; i < depth; i ++) buff.append(']');
+		return buff.toString();
+	}
+	private static Context explicit(String text) {
+		return TextReader.from(text).toContext().configure(c -> c.setExplicitStack(true));
+	}
+	private static void assertSameResults(ValParser<?> p, String... inputs) throws IOException {
+		for (final String s : inputs) {
+			final ValResult<?> r0 = p.parse(TextReader.from(s).toContext());
+			final ValResult<?> r1 = p.parse(explicit(s));
+			assertThat(s, r1.isSuccessful(), is(r0.isSuccessful()));
+			assertThat(s, r1.canBacktrack(), is(r0.canBacktrack()));
+			assertThat(s, r1.start().index(), is(r0.start().index()));
+			assertThat(s, r1.end().index(), is(r0.end().index()));
+			assertThat(s, r1.message(), is(r0.message()));
+			// 値の型によってはequalsが定義されていないため文字列表現で比較する
+			if (r0.isSuccessful()) assertThat(s, String.valueOf(r1.value()), is(String.valueOf(r0.value())));
+		}
+	}
+
+	@Test
+	public void testParse_deeplyNested() throws IOException {
+		final String text = nested(100000);
+
+		final Result r = NESTED.parse(explicit(text));
+		final ValResult<Integer> vr = DEPTH.parse(explicit(text));
+
+		assertThat(r.isSuccessful(), is(true));
+		assertThat(r.end().index(), is(200000));
+		assertThat(vr.value(), is(100000));
+	}
+
+	@Test
+	public void testParse_sameResults() throws IOException {
+		final Parser digits = Parsers.charsWhileIn(CharClass.numeric(), 1);
+		final ValParser<String> number = Parsers.charIn("+-").opt().then(digits)
+				.then(Parsers.exact('.').then(digits).opt()).val();
+		final ValParser<String> word = Parsers.keyword("let").cut().then(Parsers.space())
+				.then(Parsers.charIn(CharClass.alphabetic()).rep(1, 10).val());
+		final ValParser<List<String>> list = Parsers.exact('(')
+				.then(Parsers.choice(number, word, Parsers.keyword("nil").means(() -> "nil"))
+						.rep(Parsers.exact(',')))
+				.then(Parsers.exact(')'));
+		final ValParser<String> lookahead = Parsers.lookahead(Parsers.exact('(')).then(list)
+				.map(a -> String.join("/", a))
+				.or(Parsers.not(Parsers.exact('x')).then(Parsers.charNotIn("x").rep(0, 2).valSlice()
+						.map(CharSequence::toString)));
+
+		assertSameResults(list, "()", "(1,2.5,nil)", "(let a,-3)", "(let 1)", "(1,", "(nil,x)", "");
+		assertSameResults(lookahead, "(1,2)", "(1,", "ab", "abc", "x", "");
+		assertSameResults(number.flatMap(a -> Parsers.exact(';').means(() -> a + ";")), "12;", "12", ";");
+		assertSameResults(Parsers.skipTo(Parsers.keyword("end").val()), "abcend", "abc");
+	}
+
+	@Test
+	public void testParse_sameLog() throws IOException {
+		final Parser p = Parsers.keyword("ab").cut().then(Parsers.charIn("cd").rep(1, 2))
+				.or(Parsers.keyword("ax")).then(Parsers.eof());
+		final List<String> log0 = new ArrayList<>();
+		final List<String> log1 = new ArrayList<>();
+
+		p.parse(TextReader.from("abcx").toContext().configure(c -> c.setLogAppender(log0::add)));
+		p.parse(TextReader.from("abcx").toContext().configure(c -> c.setLogAppender(log1::add).setExplicitStack(true)));
+
+		assertThat(log1, is(log0));
+	}
+
+	@Test
+	public void testParse_memoization() throws IOException {
+		final ValParser<String> a = Parsers.exact('a').rep().val();
+		final ValParser<String> p = a.then(Parsers.exact('x')).or(a.then(Parsers.exact('y')));
+		final Context ctx = explicit("aaay").configure(c -> c.setMemoization(true));
+
+		final ValResult<String> r = p.parse(ctx);
+
+		assertThat(r.value(), is("aaa"));
+		assertThat(ctx.memo().size() > 0, is(true));
+	}
+
+	@Test
+	public void testParse_userDefined() throws IOException {
+		// doParse(Context)をオーバーライドしたパーサーの内側のパースも同じスタックで行われる
+		final Parser inner = new Parser() {
+			@Override
+			protected ResultCore doParse(Context ctx) throws IOException {
+				return NESTED.parse(ctx);
+			}
+		};
+
+		final Result r = inner.then(Parsers.eof()).parse(explicit(nested(1000)));
+
+		assertThat(r.isSuccessful(), is(true));
+	}
+
+	@Test
+	public void testParse_maxStackDepth() throws IOException {
+		final Context ctx = explicit(nested(1000)).configure(c -> c.setMaxStackDepth(100));
+
+		try {
+			NESTED.parse(ctx);
+			fail();
+		} catch (final ParseStackOverflowException e) {
+			assertThat(e.maxDepth(), is(100));
+		}
+		assertThat(ctx.trampoline().depth(), is(0));
+	}
+
+	@Test
+	public void testParse_maxStackDepth_contextRestored() throws IOException {
+		final int[] counts = new int[2];
+		final List<String> log = new ArrayList<>();
+		final Context ctx = explicit(nested(1000)).configure(c -> c
+				.setMaxStackDepth(100)
+				.setLogAppender(log::add)
+				.setParseListener(new ParseListener() {
+					@Override
+					public void enter(ParserSupport parser, int offset) {
+						counts[0] ++;
+					}
+					@Override
+					public void exit(ParserSupport parser, int offset, ResultCoreSupport result) {
+						counts[1] ++;
+					}
+				}));
+
+		try {
+			NESTED.parse(ctx);
+			fail();
+		} catch (final ParseStackOverflowException e) {
+			// OK
+		}
+
+		// 中断されたパーサーの呼び出しの深さ、マーク、リスナーへの通知はすべて元に戻される
+		assertThat(ctx.depth(), is(0));
+		assertThat(ctx.source().markCount(), is(0));
+		assertThat(counts[0] > 0, is(true));
+		assertThat(counts[1], is(counts[0]));
+		assertThat(ctx.stack().isEmpty(), is(true));
+	}
+
+	@Test
+	public void testParse_exceptionInFrameless() throws IOException {
+		final int[] counts = new int[2];
+		final Context ctx = explicit("((((x").configure(c -> c.setParseListener(new ParseListener() {
+			@Override
+			public void enter(ParserSupport parser, int offset) {
+				counts[0] ++;
+			}
+			@Override
+			public void exit(ParserSupport parser, int offset, ResultCoreSupport result) {
+				counts[1] ++;
+			}
+		}));
+		// マークを残したまま例外をスローする利用者定義のパーサー
+		final Parser broken = new Parser() {
+			@Override
+			protected ResultCore doParse(Context ctx) throws IOException {
+				ctx.source().mark();
+				throw new IllegalStateException();
+			}
+		};
+		final Parser[] nested = new Parser[1];
+		final Parser p = Parsers.exact('(').then(Parsers.lazy(() -> nested[0])).or(broken);
+		nested[0] = p;
+
+		try {
+			p.parse(ctx);
+			fail();
+		} catch (final IllegalStateException e) {
+			// OK
+		}
+
+		// フレームを持たないパーサーの中でスローされた例外でも状態は元に戻される
+		assertThat(ctx.depth(), is(0));
+		assertThat(ctx.source().markCount(), is(0));
+		assertThat(counts[1], is(counts[0]));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSetMaxStackDepth_zero() {
+		TextReader.from("").toContext().configure(c -> c.setMaxStackDepth(0));
+	}
+}
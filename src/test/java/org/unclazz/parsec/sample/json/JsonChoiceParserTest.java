@@ -0,0 +1,57 @@
+package org.unclazz.parsec.sample.json;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+import org.junit.Test;
+import org.unclazz.parsec.TextReader;
+import org.unclazz.parsec.ValResult;
+
+public class JsonChoiceParserTest {
+	private final JsonParser _orParser = new JsonParser();
+	private final JsonChoiceParser _choiceParser = new JsonChoiceParser();
+
+	@Test
+	public void testParseString() {
+		final String[] inputs = {
+			"false", " 123 ", "[]", "[1,2,3]", "  null   ", "   -123.456 ",
+			"  \"foo \\\"bar\\\" baz\" ",
+			"   [null,true,1.0,\"a\",[[]],{\"a\": {}}] ",
+			"{\"a\": [1, {\"b\": \"c\"}], \"d\": null}",
+		};
+		for (final String input : inputs) {
+			final ValResult<Json> expected = _orParser.parse(input);
+			final ValResult<Json> actual = _choiceParser.parse(input);
+			assertThat(input, actual.isSuccessful(), is(true));
+			assertThat(input, actual.value().toString(), is(expected.value().toString()));
+			assertThat(input, actual.end().index(), is(expected.end().index()));
+		}
+	}
+
+	@Test
+	public void testParseString_invalid() {
+		final String[] inputs = { "", "[1,", "{\"a\" 1}", "[1 2]", "nul" };
+		for (final String input : inputs) {
+			final ValResult<Json> expected = _orParser.parse(input);
+			final ValResult<Json> actual = _choiceParser.parse(input);
+			assertThat(input, expected.isSuccessful(), is(false));
+			assertThat(input, actual.isSuccessful(), is(false));
+			assertThat(input, actual.message(), is(expected.message()));
+			assertThat(input, actual.end().index(), is(expected.end().index()));
+		}
+	}
+
+	@Test
+	public void testParseTextReader() throws IOException {
+		try (final InputStream validJson = getClass().getResourceAsStream("../sample0_valid.json")) {
+			final ValResult<Json> r = _choiceParser.parse(TextReader.from(validJson, Charset.forName("utf-8")));
+			assertThat(r.isSuccessful(), is(true));
+			assertThat(r.value().objectPropery("foo").numberValue(), is(123.0));
+			assertThat(r.value().objectPropery("baz").objectPropery("baz/foo").stringValue(), is("123"));
+		}
+	}
+}
@@ -0,0 +1,43 @@
+package org.unclazz.parsec.util;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.*;
+
+import org.junit.Test;
+
+public class ConcurrentObjectCacheTest {
+
+	@Test
+	public void testComputeIfAbsent() {
+		final ConcurrentObjectCache<Object> cache = new ConcurrentObjectCache<>(10);
+		final AtomicInteger count = new AtomicInteger();
+
+		final Object first = cache.computeIfAbsent("a", k -> new Object[] { count.incrementAndGet() });
+		final Object second = cache.computeIfAbsent("a", k -> new Object[] { count.incrementAndGet() });
+
+		assertThat(second, sameInstance(first));
+		assertThat(cache.get("a"), sameInstance(first));
+		assertThat(count.get(), is(1));
+	}
+
+	@Test
+	public void testComputeIfAbsent_maxSize() {
+		final ConcurrentObjectCache<String> cache = new ConcurrentObjectCache<>(3);
+
+		for (int i = 0; i < 10; i ++) {
+			final String key = "key" + i;
+			assertThat(cache.computeIfAbsent(key, k -> k.toUpperCase()), is("KEY" + i));
+			// 登録したばかりのエントリーは削除されない
+			assertThat(cache.get(key), is("KEY" + i));
+		}
+		assertThat(cache.size(), is(3));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testConstructor_zero() {
+		new ConcurrentObjectCache<String>(0);
+	}
+}